@@ -71,9 +71,11 @@ import io.opentracing.log.Fields;
 import io.opentracing.tag.Tags;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.proton.ProtonConnection;
 import io.vertx.proton.ProtonDelivery;
@@ -103,6 +105,12 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
      */
     private static final int MEMORY_PER_CONNECTION = 20_000; // 20KB: expected avg. memory consumption per connection
 
+    /**
+     * The number of messages that a device may send on a link before the adapter has finished
+     * processing them.
+     */
+    private static final int DEVICE_LINK_CREDIT = 30;
+
     /**
      * The AMQP server instance that maps to a secure port.
      */
@@ -172,7 +180,7 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
                             .start(),
                         connectionLimitManager,
                         (tenantConfig, spanContext) -> checkConnectionLimit(tenantConfig, spanContext),
-                        new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), tracer),
+                        new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), getMeterRegistry(), tracer),
                         new X509AuthProvider(getCredentialsClientFactory(), getConfig(), tracer),
                         (saslResponseContext, span) -> applyTenantTraceSamplingPriority(saslResponseContext, span));
             }
@@ -523,28 +531,34 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
             receiver.setTarget(receiver.getRemoteTarget());
             receiver.setSource(receiver.getRemoteSource());
             receiver.setQoS(receiver.getRemoteQoS());
-            receiver.setPrefetch(30);
+            // credit is replenished once a message has been processed so that
+            // a lack of credit on the downstream links is propagated to the device
+            receiver.setPrefetch(0);
             // manage disposition handling manually
             receiver.setAutoAccept(false);
             HonoProtonHelper.setCloseHandler(receiver, remoteDetach -> onLinkDetach(receiver));
             HonoProtonHelper.setDetachHandler(receiver, remoteDetach -> onLinkDetach(receiver));
+            final Context linkContext = Vertx.currentContext();
             receiver.handler((delivery, message) -> {
                 try {
                     final AmqpContext ctx = AmqpContext.fromMessage(delivery, message, authenticatedDevice);
                     ctx.setTimer(metrics.startTimer());
                     if (authenticatedDevice == null) {
                         deriveAndSetTenantTraceSamplingPriority(ctx)
-                                .setHandler(ar -> onMessageReceived(ctx));
+                                .compose(ok -> onMessageReceived(ctx))
+                                .setHandler(processed -> replenishCredit(receiver, linkContext));
                     } else {
                         ctx.setTraceSamplingPriority(traceSamplingPriority);
-                        onMessageReceived(ctx);
+                        onMessageReceived(ctx).setHandler(processed -> replenishCredit(receiver, linkContext));
                     }
                 } catch (final Exception ex) {
                     log.warn("error handling message", ex);
                     ProtonHelper.released(delivery, true);
+                    replenishCredit(receiver, linkContext);
                 }
             });
             receiver.open();
+            receiver.flow(DEVICE_LINK_CREDIT);
             if (authenticatedDevice == null) {
                 log.debug("established link for receiving messages from device [container: {}]",
                         conn.getRemoteContainer());
@@ -557,6 +571,25 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
         span.finish();
     }
 
+    /**
+     * Issues a single credit to a device for the next message to be sent on a link.
+     * <p>
+     * The credit is issued on the vert.x context that the link has been opened on.
+     *
+     * @param receiver The link to issue the credit on.
+     * @param linkContext The context that the link has been opened on or {@code null}
+     *                    if the link has not been opened on a vert.x context.
+     */
+    private void replenishCredit(final ProtonReceiver receiver, final Context linkContext) {
+        if (linkContext == null || linkContext == Vertx.currentContext()) {
+            if (receiver.isOpen()) {
+                receiver.flow(1);
+            }
+        } else {
+            linkContext.runOnContext(go -> replenishCredit(receiver, linkContext));
+        }
+    }
+
     /**
      * Derives the tenant from the given context and sets the trace sampling priority configured for that tenant on
      * the given context.
@@ -91,6 +91,7 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
         extends AbstractProtocolAdapterBase<T> {
 
     private static final String KEY_TIMER_ID = "timerId";
+    private static final int DTLS_HEALTH_STATUS_INTERVAL_SECS = 60;
 
     /**
      * A logger shared with subclasses.
@@ -305,13 +306,15 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
     private Future<CoapServer> bindSecureEndpoint(final CoapServer startingServer, final NetworkConfig config) {
 
         final ApplicationLevelInfoSupplier deviceResolver = Optional.ofNullable(honoDeviceResolver)
-                .orElse(new DefaultDeviceResolver(context, tracer, getTypeName(), getConfig(), getCredentialsClientFactory()));
+                .orElseGet(() -> new DefaultDeviceResolver(context, tracer, getTypeName(), getConfig(),
+                        getCredentialsClientFactory(), getMetrics()));
         final PskStore store = Optional.ofNullable(pskStore)
                 .orElseGet(() -> {
                     if (deviceResolver instanceof PskStore) {
                         return (PskStore) deviceResolver;
                     } else {
-                        return new DefaultDeviceResolver(context, tracer, getTypeName(), getConfig(), getCredentialsClientFactory());
+                        return new DefaultDeviceResolver(context, tracer, getTypeName(), getConfig(),
+                                getCredentialsClientFactory(), getMetrics());
                     }
                 });
 
@@ -323,6 +326,9 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
                 new InetSocketAddress(getConfig().getBindAddress(), getConfig().getPort(getPortDefaultValue())));
         dtlsConfig.setApplicationLevelInfoSupplier(deviceResolver);
         dtlsConfig.setPskStore(store);
+        dtlsConfig.setHealthHandler(new MetricsReportingDtlsHealth(getMetrics()));
+        // the health handler is only used if a status interval is set
+        dtlsConfig.setHealthStatusInterval(DTLS_HEALTH_STATUS_INTERVAL_SECS);
         if (getConfig().getMaxConnections() > 0) {
             dtlsConfig.setMaxConnections(getConfig().getMaxConnections());
         }
@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2018, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -16,6 +16,9 @@ package org.eclipse.hono.adapter.coap;
 import org.eclipse.hono.service.metric.Metrics;
 import org.eclipse.hono.service.metric.NoopBasedMetrics;
 
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer.Sample;
+
 /**
  * Metrics for the COAP based adapters.
  */
@@ -28,6 +31,54 @@ public interface CoapAdapterMetrics extends Metrics {
 
         private Noop() {
         }
+
+        @Override
+        public void reportPskLookup(final PskLookupOutcome outcome, final Sample lookupSample) {
+        }
+
+        @Override
+        public void reportDtlsHandshakeStarted() {
+        }
+
+        @Override
+        public void reportDtlsHandshakeCompleted(final boolean succeeded) {
+        }
+    }
+
+    /**
+     * The outcome of looking up the pre-shared key for a DTLS handshake.
+     */
+    enum PskLookupOutcome {
+
+        /**
+         * The key has been found in the adapter's cache.
+         */
+        CACHED("cached"),
+        /**
+         * The key has been retrieved from the Credentials service.
+         */
+        RESOLVED("resolved"),
+        /**
+         * No key could be found for the handshake identity.
+         */
+        FAILED("failed");
+
+        static final String TAG_NAME = "status";
+
+        private final Tag tag;
+
+        PskLookupOutcome(final String tagValue) {
+            this.tag = Tag.of(TAG_NAME, tagValue);
+        }
+
+        /**
+         * Gets a <em>Micrometer</em> tag for the outcome.
+         *
+         * @return The tag.
+         */
+        public Tag asTag() {
+            return tag;
+        }
     }
 
     /**
@@ -35,5 +86,24 @@ public interface CoapAdapterMetrics extends Metrics {
      */
     CoapAdapterMetrics NOOP = new Noop();
 
-    // nothing for now
+    /**
+     * Reports the outcome of looking up the pre-shared key for a DTLS handshake.
+     *
+     * @param outcome The outcome of the lookup.
+     * @param lookupSample The sample that has been started when the lookup has been started.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    void reportPskLookup(PskLookupOutcome outcome, Sample lookupSample);
+
+    /**
+     * Reports a DTLS handshake that has been started.
+     */
+    void reportDtlsHandshakeStarted();
+
+    /**
+     * Reports a DTLS handshake that has been completed.
+     *
+     * @param succeeded {@code true} if the handshake has succeeded.
+     */
+    void reportDtlsHandshakeCompleted(boolean succeeded);
 }
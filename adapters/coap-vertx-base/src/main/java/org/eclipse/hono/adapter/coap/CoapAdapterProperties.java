@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2018, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,6 +13,7 @@
 
 package org.eclipse.hono.adapter.coap;
 
+import java.time.Duration;
 import java.util.Objects;
 
 import org.eclipse.hono.config.ProtocolAdapterProperties;
@@ -26,6 +27,15 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
      * The default regular expression to split the identity into authority and tenant.
      */
     public static final String DEFAULT_ID_SPLIT_REGEX = "@";
+    /**
+     * The default duration for which the pre-shared key of a device is cached.
+     * Caching is disabled by default.
+     */
+    public static final Duration DEFAULT_PSK_CACHE_TIMEOUT = Duration.ZERO;
+    /**
+     * The default maximum number of pre-shared keys to cache.
+     */
+    public static final int DEFAULT_PSK_CACHE_MAX_SIZE = 10_000;
 
     private String idSplitRegex = DEFAULT_ID_SPLIT_REGEX;
     private String networkConfig = null;
@@ -33,6 +43,8 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
     private String insecureNetworkConfig = null;
     private int connectorThreads = 1;
     private int coapThreads = 2;
+    private Duration pskCacheTimeout = DEFAULT_PSK_CACHE_TIMEOUT;
+    private int pskCacheMaxSize = DEFAULT_PSK_CACHE_MAX_SIZE;
 
     /**
      * Gets the regular expression used for splitting up
@@ -201,4 +213,79 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
         this.coapThreads = threads;
     }
 
+    /**
+     * Gets the duration for which the pre-shared key resolved for a device's
+     * DTLS handshake identity is cached.
+     * <p>
+     * Subsequent handshakes using the same identity are completed without
+     * retrieving the key from the Credentials service during this period.
+     * Cached keys are not invalidated when the device's credentials are changed
+     * or removed, i.e. a device may still complete a handshake using its former
+     * key until the cache entry has expired.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_PSK_CACHE_TIMEOUT}.
+     * A value of zero disables caching.
+     *
+     * @return The duration.
+     */
+    public final Duration getPskCacheTimeout() {
+        return pskCacheTimeout;
+    }
+
+    /**
+     * Sets the duration for which the pre-shared key resolved for a device's
+     * DTLS handshake identity is cached.
+     * <p>
+     * Subsequent handshakes using the same identity are completed without
+     * retrieving the key from the Credentials service during this period.
+     * Cached keys are not invalidated when the device's credentials are changed
+     * or removed, i.e. a device may still complete a handshake using its former
+     * key until the cache entry has expired.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_PSK_CACHE_TIMEOUT}.
+     * A value of zero disables caching.
+     *
+     * @param timeout The duration.
+     * @throws NullPointerException if timeout is {@code null}.
+     * @throws IllegalArgumentException if the timeout is negative.
+     */
+    public final void setPskCacheTimeout(final Duration timeout) {
+        Objects.requireNonNull(timeout);
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.pskCacheTimeout = timeout;
+    }
+
+    /**
+     * Gets the maximum number of pre-shared keys to cache.
+     * <p>
+     * The limit applies to the keys of all tenants, i.e. the devices of a single
+     * tenant may occupy all of the cache's entries.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_PSK_CACHE_MAX_SIZE}.
+     *
+     * @return The number of keys.
+     */
+    public final int getPskCacheMaxSize() {
+        return pskCacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of pre-shared keys to cache.
+     * <p>
+     * The limit applies to the keys of all tenants, i.e. the devices of a single
+     * tenant may occupy all of the cache's entries.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_PSK_CACHE_MAX_SIZE}.
+     *
+     * @param maxSize The number of keys.
+     * @throws IllegalArgumentException if the size is &lt; 1.
+     */
+    public final void setPskCacheMaxSize(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be at least 1");
+        }
+        this.pskCacheMaxSize = maxSize;
+    }
 }
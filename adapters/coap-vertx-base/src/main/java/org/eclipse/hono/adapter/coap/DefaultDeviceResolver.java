@@ -33,6 +33,7 @@ import org.eclipse.californium.scandium.dtls.PskPublicInformation;
 import org.eclipse.californium.scandium.dtls.pskstore.PskStore;
 import org.eclipse.californium.scandium.util.SecretUtil;
 import org.eclipse.californium.scandium.util.ServerNames;
+import org.eclipse.hono.adapter.coap.CoapAdapterMetrics.PskLookupOutcome;
 import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.CredentialsClientFactory;
@@ -43,6 +44,10 @@ import org.eclipse.hono.util.MessageHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Timer.Sample;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
@@ -54,7 +59,15 @@ import io.vertx.core.json.JsonObject;
 
 /**
  * A Hono Credentials service based implementation of Scandium's authentication related interfaces.
- *
+ * <p>
+ * Scandium looks up pre-shared keys synchronously on one of its handshake threads, which is blocked
+ * until the Credentials service has returned the key. If configured by means of
+ * {@link CoapAdapterProperties#getPskCacheTimeout()}, the keys resolved for handshake identities are
+ * cached for the given period of time. Note that the cache only avoids blocking the handshake thread
+ * for handshakes using an identity that has been resolved before. A handshake using an identity that is
+ * not (or no longer) contained in the cache still blocks the thread for the round trip to the
+ * Credentials service. Caching is disabled by default because cached keys are not invalidated when
+ * the credentials of a device are changed or removed.
  */
 public class DefaultDeviceResolver implements ApplicationLevelInfoSupplier, PskStore {
 
@@ -68,6 +81,11 @@ public class DefaultDeviceResolver implements ApplicationLevelInfoSupplier, PskS
     private final String adapterName;
     private final CoapAdapterProperties config;
     private final CredentialsClientFactory credentialsClientFactory;
+    private final CoapAdapterMetrics metrics;
+    /**
+     * The keys resolved for handshake identities or {@code null} if caching is disabled.
+     */
+    private final Cache<String, ResolvedKey> resolvedKeys;
 
     /**
      * Creates a new resolver.
@@ -86,11 +104,42 @@ public class DefaultDeviceResolver implements ApplicationLevelInfoSupplier, PskS
             final CoapAdapterProperties config,
             final CredentialsClientFactory credentialsClientFactory) {
 
+        this(vertxContext, tracer, adapterName, config, credentialsClientFactory, CoapAdapterMetrics.NOOP);
+    }
+
+    /**
+     * Creates a new resolver.
+     * 
+     * @param vertxContext The vert.x context to run on.
+     * @param tracer The OpenTracing tracer.
+     * @param adapterName The name of the protocol adapter.
+     * @param config The configuration properties.
+     * @param credentialsClientFactory The factory to use for creating clients to the Credentials service.
+     * @param metrics The metrics to report the outcome of looking up pre-shared keys to.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public DefaultDeviceResolver(
+            final Context vertxContext,
+            final Tracer tracer,
+            final String adapterName,
+            final CoapAdapterProperties config,
+            final CredentialsClientFactory credentialsClientFactory,
+            final CoapAdapterMetrics metrics) {
+
         this.context = Objects.requireNonNull(vertxContext);
         this.tracer = Objects.requireNonNull(tracer);
         this.adapterName = Objects.requireNonNull(adapterName);
         this.config = Objects.requireNonNull(config);
         this.credentialsClientFactory = Objects.requireNonNull(credentialsClientFactory);
+        this.metrics = Objects.requireNonNull(metrics);
+        if (config.getPskCacheTimeout().isZero()) {
+            this.resolvedKeys = null;
+        } else {
+            this.resolvedKeys = Caffeine.newBuilder()
+                    .maximumSize(config.getPskCacheMaxSize())
+                    .expireAfterWrite(config.getPskCacheTimeout())
+                    .build();
+        }
     }
 
     /**
@@ -135,6 +184,14 @@ public class DefaultDeviceResolver implements ApplicationLevelInfoSupplier, PskS
             final PreSharedKeyDeviceIdentity deviceIdentity = getHandshakeIdentity(span, clientIdentity.getName());
             span.setTag(MessageHelper.APP_PROPERTY_TENANT_ID, deviceIdentity.getTenantId())
                 .setTag(MessageHelper.APP_PROPERTY_DEVICE_ID, deviceIdentity.getAuthId());
+            final ResolvedKey resolvedKey = getCachedKey(((PreSharedKeyIdentity) clientIdentity).getIdentity());
+            if (resolvedKey != null) {
+                span.log("using device identifier resolved during handshake");
+                result.put("hono-device", new Device(deviceIdentity.getTenantId(), resolvedKey.deviceId));
+                span.setTag(MessageHelper.APP_PROPERTY_DEVICE_ID, resolvedKey.deviceId);
+                span.finish();
+                return AdditionalInfo.from(result);
+            }
             final CompletableFuture<CredentialsObject> credentialsResult = new CompletableFuture<>();
             context.runOnContext(go -> {
                 credentialsClientFactory
@@ -167,17 +224,28 @@ public class DefaultDeviceResolver implements ApplicationLevelInfoSupplier, PskS
 
     @Override
     public SecretKey getKey(final PskPublicInformation identity) {
+        final Sample lookupSample = metrics.startTimer();
         final Span span = newSpan("PSK-getSecretKey");
 
         final PreSharedKeyDeviceIdentity handshakeIdentity = getHandshakeIdentity(span, identity.getPublicInfoAsString());
         if (handshakeIdentity == null) {
+            metrics.reportPskLookup(PskLookupOutcome.FAILED, lookupSample);
             span.finish();
             return null;
         }
         span.setTag(MessageHelper.APP_PROPERTY_TENANT_ID, handshakeIdentity.getTenantId())
             .setTag(MessageHelper.APP_PROPERTY_DEVICE_ID, handshakeIdentity.getAuthId());
 
-        final CompletableFuture<SecretKey> secret = new CompletableFuture<>();
+        final ResolvedKey cachedKey = getCachedKey(identity.getPublicInfoAsString());
+        if (cachedKey != null) {
+            span.log("using cached secret key");
+            metrics.reportPskLookup(PskLookupOutcome.CACHED, lookupSample);
+            span.finish();
+            // Scandium destroys the key after the handshake, so hand out a copy only
+            return SecretUtil.create(cachedKey.key);
+        }
+
+        final CompletableFuture<ResolvedKey> secret = new CompletableFuture<>();
         context.runOnContext((v) -> {
             LOG.debug("getting PSK secret for identity [{}]", handshakeIdentity.getAuthId());
             getSharedKeyForDevice(handshakeIdentity, span.context())
@@ -192,33 +260,46 @@ public class DefaultDeviceResolver implements ApplicationLevelInfoSupplier, PskS
         SecretKey key;
         try {
             // credentials client will wait limited time only
-            key = secret.join();
+            // note that this blocks the handshake thread on a cache miss
+            final ResolvedKey resolvedKey = secret.join();
+            if (resolvedKeys != null) {
+                resolvedKeys.put(identity.getPublicInfoAsString(), resolvedKey);
+            }
+            key = SecretUtil.create(resolvedKey.key);
+            metrics.reportPskLookup(PskLookupOutcome.RESOLVED, lookupSample);
             span.log("secret key available.");
         } catch (final CompletionException e) {
             LOG.debug("error retrieving credentials for PSK identity [{}]", handshakeIdentity.getAuthId());
             key = null;
+            metrics.reportPskLookup(PskLookupOutcome.FAILED, lookupSample);
             span.log("no secret key available!");
         }
         span.finish();
         return key;
     }
 
+    private ResolvedKey getCachedKey(final String identity) {
+        if (resolvedKeys == null || identity == null) {
+            return null;
+        }
+        return resolvedKeys.getIfPresent(identity);
+    }
+
     /**
      * Gets the pre-shared key for an identity used by a device in a PSK based DTLS
      * handshake.
-     * <p>
-     * On success, add hono device to cache.
      * 
      * @param handshakeIdentity The identity used by the device.
-     * @return A future completed with the key or failed with a {@link ServiceInvocationException}.
+     * @return A future completed with the key and the identifier of the device it belongs to
+     *         or failed with a {@link ServiceInvocationException}.
      */
-    private Future<SecretKey> getSharedKeyForDevice(final PreSharedKeyDeviceIdentity handshakeIdentity, final SpanContext context) {
+    private Future<ResolvedKey> getSharedKeyForDevice(final PreSharedKeyDeviceIdentity handshakeIdentity, final SpanContext context) {
 
         return credentialsClientFactory
                 .getOrCreateCredentialsClient(handshakeIdentity.getTenantId())
                 .compose(client -> client.get(handshakeIdentity.getType(), handshakeIdentity.getAuthId(), new JsonObject(), context))
                 .compose((credentials) -> Optional.ofNullable(getCandidateKey(credentials))
-                        .map(secret -> Future.succeededFuture(secret))
+                        .map(secret -> Future.succeededFuture(new ResolvedKey(credentials.getDeviceId(), secret)))
                         .orElseGet(() -> Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_UNAUTHORIZED,
                                 "no shared key registered for identity"))));
     }
@@ -250,4 +331,18 @@ public class DefaultDeviceResolver implements ApplicationLevelInfoSupplier, PskS
         final String splitRegex = config.isSingleTenant() ? null : config.getIdSplitRegex();
         return PreSharedKeyDeviceIdentity.create(span, identity, splitRegex);
     }
+
+    /**
+     * A pre-shared key along with the identifier of the device that it has been registered for.
+     */
+    private static final class ResolvedKey {
+
+        private final String deviceId;
+        private final SecretKey key;
+
+        private ResolvedKey(final String deviceId, final SecretKey key) {
+            this.deviceId = deviceId;
+            this.key = key;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.hono.adapter.coap;
+
+import java.util.Objects;
+
+import org.eclipse.californium.scandium.DtlsHealth;
+
+/**
+ * A Scandium health handler which reports the DTLS handshakes performed by
+ * a connector to the adapter's metrics.
+ * <p>
+ * The periodic status dumps and the record level events are ignored.
+ */
+final class MetricsReportingDtlsHealth implements DtlsHealth {
+
+    private final CoapAdapterMetrics metrics;
+
+    /**
+     * Creates a new health handler.
+     *
+     * @param metrics The metrics to report to.
+     * @throws NullPointerException if metrics is {@code null}.
+     */
+    MetricsReportingDtlsHealth(final CoapAdapterMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    @Override
+    public void dump(final String tag, final int maxConnections, final int remainingCapacity, final int pendingWithoutVerify) {
+        // nothing to do
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void startHandshake() {
+        metrics.reportDtlsHandshakeStarted();
+    }
+
+    @Override
+    public void endHandshake(final boolean success) {
+        metrics.reportDtlsHandshakeCompleted(success);
+    }
+
+    @Override
+    public void receivingRecord(final boolean dropped) {
+        // nothing to do
+    }
+
+    @Override
+    public void sendingRecord(final boolean dropped) {
+        // nothing to do
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2018, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,11 +13,20 @@
 
 package org.eclipse.hono.adapter.coap;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.Timer.Sample;
 import io.vertx.core.Vertx;
 
 /**
@@ -26,6 +35,26 @@ import io.vertx.core.Vertx;
 @Component
 public class MicrometerBasedCoapAdapterMetrics extends MicrometerBasedMetrics implements CoapAdapterMetrics {
 
+    /**
+     * The name of the meter for the time it takes to look up the pre-shared key for a DTLS handshake.
+     */
+    public static final String METER_PSK_LOOKUP = "hono.coap.psk.lookup";
+    /**
+     * The name of the meter for completed DTLS handshakes.
+     */
+    public static final String METER_DTLS_HANDSHAKES = "hono.coap.dtls.handshakes";
+    /**
+     * The name of the meter for DTLS handshakes that are in progress.
+     */
+    public static final String METER_DTLS_HANDSHAKES_PENDING = "hono.coap.dtls.handshakes.pending";
+
+    private static final String TAG_STATUS = "status";
+
+    private final Map<PskLookupOutcome, Timer> pskLookupTimers = new EnumMap<>(PskLookupOutcome.class);
+    private final AtomicInteger pendingHandshakes;
+    private final Counter succeededHandshakes;
+    private final Counter failedHandshakes;
+
     /**
      * Create a new metrics instance for COAP adapters.
      * 
@@ -37,5 +66,35 @@ public class MicrometerBasedCoapAdapterMetrics extends MicrometerBasedMetrics im
     @Autowired
     public MicrometerBasedCoapAdapterMetrics(final MeterRegistry registry, final Vertx vertx) {
         super(registry, vertx);
+        for (final PskLookupOutcome outcome : PskLookupOutcome.values()) {
+            pskLookupTimers.put(outcome, Timer.builder(METER_PSK_LOOKUP)
+                    .tags(Tags.of(outcome.asTag()))
+                    .register(registry));
+        }
+        this.pendingHandshakes = registry.gauge(METER_DTLS_HANDSHAKES_PENDING, new AtomicInteger());
+        this.succeededHandshakes = registry.counter(METER_DTLS_HANDSHAKES, TAG_STATUS, "succeeded");
+        this.failedHandshakes = registry.counter(METER_DTLS_HANDSHAKES, TAG_STATUS, "failed");
+    }
+
+    @Override
+    public void reportPskLookup(final PskLookupOutcome outcome, final Sample lookupSample) {
+        Objects.requireNonNull(outcome);
+        Objects.requireNonNull(lookupSample);
+        lookupSample.stop(pskLookupTimers.get(outcome));
+    }
+
+    @Override
+    public void reportDtlsHandshakeStarted() {
+        pendingHandshakes.incrementAndGet();
+    }
+
+    @Override
+    public void reportDtlsHandshakeCompleted(final boolean succeeded) {
+        pendingHandshakes.updateAndGet(count -> count > 0 ? count - 1 : 0);
+        if (succeeded) {
+            succeededHandshakes.increment();
+        } else {
+            failedHandshakes.increment();
+        }
     }
 }
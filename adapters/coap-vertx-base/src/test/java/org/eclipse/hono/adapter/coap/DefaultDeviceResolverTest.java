@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.hono.adapter.coap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import javax.crypto.SecretKey;
+
+import org.eclipse.californium.elements.auth.AdditionalInfo;
+import org.eclipse.californium.elements.auth.PreSharedKeyIdentity;
+import org.eclipse.californium.scandium.dtls.PskPublicInformation;
+import org.eclipse.californium.scandium.util.SecretUtil;
+import org.eclipse.hono.adapter.coap.CoapAdapterMetrics.PskLookupOutcome;
+import org.eclipse.hono.auth.Device;
+import org.eclipse.hono.client.CredentialsClient;
+import org.eclipse.hono.client.CredentialsClientFactory;
+import org.eclipse.hono.util.CredentialsConstants;
+import org.eclipse.hono.util.CredentialsObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentracing.SpanContext;
+import io.opentracing.noop.NoopTracerFactory;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Tests verifying behavior of {@link DefaultDeviceResolver}.
+ *
+ */
+public class DefaultDeviceResolverTest {
+
+    private static final byte[] KEY = "secret".getBytes(StandardCharsets.UTF_8);
+    private static final PskPublicInformation IDENTITY = new PskPublicInformation("sensor1@tenant");
+
+    private Context context;
+    private CredentialsClient credentialsClient;
+    private CredentialsClientFactory credentialsClientFactory;
+    private CoapAdapterMetrics metrics;
+    private CoapAdapterProperties config;
+
+    /**
+     * Sets up the fixture.
+     */
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void setUp() {
+
+        context = mock(Context.class);
+        doAnswer(invocation -> {
+            final Handler<Void> handler = invocation.getArgument(0);
+            handler.handle(null);
+            return null;
+        }).when(context).runOnContext(any(Handler.class));
+
+        final CredentialsObject credentials = new CredentialsObject("device", "sensor1", CredentialsConstants.SECRETS_TYPE_PRESHARED_KEY)
+                .addSecret(new JsonObject().put(CredentialsConstants.FIELD_SECRETS_KEY, KEY));
+        credentialsClient = mock(CredentialsClient.class);
+        when(credentialsClient.get(anyString(), anyString(), any(JsonObject.class), any(SpanContext.class)))
+            .thenReturn(Future.succeededFuture(credentials));
+        credentialsClientFactory = mock(CredentialsClientFactory.class);
+        when(credentialsClientFactory.getOrCreateCredentialsClient(anyString()))
+            .thenReturn(Future.succeededFuture(credentialsClient));
+        metrics = mock(CoapAdapterMetrics.class);
+        config = new CoapAdapterProperties();
+    }
+
+    private DefaultDeviceResolver newResolver() {
+        return new DefaultDeviceResolver(context, NoopTracerFactory.create(), "coap", config, credentialsClientFactory, metrics);
+    }
+
+    /**
+     * Verifies that the key resolved for a handshake identity is cached and that
+     * the device identifier resolved during the handshake is used for determining
+     * the authenticated device.
+     */
+    @Test
+    public void testGetKeyUsesCachedKey() {
+
+        config.setPskCacheTimeout(Duration.ofSeconds(60));
+        final DefaultDeviceResolver resolver = newResolver();
+
+        final SecretKey firstKey = resolver.getKey(IDENTITY);
+        assertThat(firstKey.getEncoded()).isEqualTo(KEY);
+        // Scandium destroys the key after the handshake
+        SecretUtil.destroy(firstKey);
+
+        final SecretKey secondKey = resolver.getKey(IDENTITY);
+        assertThat(secondKey.getEncoded()).isEqualTo(KEY);
+        final AdditionalInfo info = resolver.getInfo(new PreSharedKeyIdentity(IDENTITY.getPublicInfoAsString()));
+        final Device device = info.get("hono-device", Device.class);
+        assertThat(device.getTenantId()).isEqualTo("tenant");
+        assertThat(device.getDeviceId()).isEqualTo("device");
+
+        verify(credentialsClient, times(1)).get(eq(CredentialsConstants.SECRETS_TYPE_PRESHARED_KEY), eq("sensor1"),
+                any(JsonObject.class), any(SpanContext.class));
+        verify(metrics).reportPskLookup(eq(PskLookupOutcome.RESOLVED), any());
+        verify(metrics).reportPskLookup(eq(PskLookupOutcome.CACHED), any());
+    }
+
+    /**
+     * Verifies that the key is retrieved from the Credentials service for each handshake
+     * if caching is disabled, which is the default.
+     */
+    @Test
+    public void testGetKeyDoesNotCacheKeyIfDisabled() {
+
+        assertThat(config.getPskCacheTimeout()).isEqualTo(Duration.ZERO);
+        final DefaultDeviceResolver resolver = newResolver();
+
+        assertThat(resolver.getKey(IDENTITY).getEncoded()).isEqualTo(KEY);
+        assertThat(resolver.getKey(IDENTITY).getEncoded()).isEqualTo(KEY);
+
+        verify(credentialsClient, times(2)).get(eq(CredentialsConstants.SECRETS_TYPE_PRESHARED_KEY), eq("sensor1"),
+                any(JsonObject.class), any(SpanContext.class));
+        verify(metrics, times(2)).reportPskLookup(eq(PskLookupOutcome.RESOLVED), any());
+    }
+}
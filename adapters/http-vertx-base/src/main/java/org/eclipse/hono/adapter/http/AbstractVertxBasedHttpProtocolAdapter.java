@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.qpid.proton.amqp.transport.ErrorCondition;
@@ -61,14 +62,16 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpConnection;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.ext.web.handler.BodyHandler;
 
 /**
  * Base class for a Vert.x based Hono protocol adapter that uses the HTTP protocol.
@@ -80,11 +83,20 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
 
     /**
      * Default file uploads directory used by Vert.x Web.
+     *
+     * @deprecated The adapter reads request bodies into memory and does not support file uploads.
      */
+    @Deprecated
     protected static final String DEFAULT_UPLOADS_DIRECTORY = "/tmp";
 
     private static final String KEY_TIMER_ID = "timerId";
 
+    /**
+     * The number of requests received on the open connections, keyed by connection.
+     * Only accessed on the adapter's vert.x context.
+     */
+    private final Map<HttpConnection, ConnectionStats> connections = new HashMap<>();
+
     private HttpServer server;
     private HttpServer insecureServer;
     private HttpAdapterMetrics metrics = HttpAdapterMetrics.NOOP;
@@ -284,7 +296,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * <li>a handler and failure handler that creates tracing data for all server requests,</li>
      * <li>a handler to log when the connection is closed prematurely,</li>
      * <li>a default failure handler,</li>
-     * <li>a handler limiting the body size of requests to the maximum payload size set in the <em>config</em>
+     * <li>a handler reading the request body into memory, limiting its size to the maximum payload size set in the <em>config</em>
      * properties,</li>
      * <li>(optional) a handler that applies the trace sampling priority configured for the tenant/auth-id of a
      * request.</li>
@@ -317,11 +329,9 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         // 4. default handler for failed routes
         matchAllRoute.failureHandler(new DefaultFailureHandler());
 
-        // 5. BodyHandler with request size limit
+        // 5. handler reading the request body with request size limit
         log.info("limiting size of inbound request body to {} bytes", getConfig().getMaxPayloadSize());
-        final BodyHandler bodyHandler = BodyHandler.create(DEFAULT_UPLOADS_DIRECTORY)
-                .setBodyLimit(getConfig().getMaxPayloadSize());
-        matchAllRoute.handler(bodyHandler);
+        matchAllRoute.handler(new PayloadBodyHandler(getConfig().getMaxPayloadSize()));
 
         // 6. handler to set the trace sampling priority
         Optional.ofNullable(getTenantTraceSamplingHandler())
@@ -360,6 +370,8 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * <p>
      * This method returns default options with the host and port being set to the corresponding values
      * from the <em>config</em> properties and using a maximum chunk size of 4096 bytes.
+     * The idle timeout and the HTTP/2 settings are set according to the <em>config</em> properties as well.
+     * HTTP/2 is offered to devices by means of ALPN if enabled in the <em>config</em> properties.
      *
      * @return The http server options.
      */
@@ -370,6 +382,10 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             .setMaxChunkSize(4096);
         addTlsKeyCertOptions(options);
         addTlsTrustOptions(options);
+        addConnectionOptions(options);
+        if (getConfig().isHttp2Enabled()) {
+            options.setUseAlpn(true).setAlpnVersions(List.of(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1));
+        }
         return options;
     }
 
@@ -380,6 +396,8 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * <p>
      * This method returns default options with the host and port being set to the corresponding values
      * from the <em>config</em> properties and using a maximum chunk size of 4096 bytes.
+     * The idle timeout and the HTTP/2 settings (used for <em>h2c</em> connections) are set according
+     * to the <em>config</em> properties as well.
      *
      * @return The http server options.
      */
@@ -387,9 +405,17 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
 
         final HttpServerOptions options = new HttpServerOptions();
         options.setHost(getConfig().getInsecurePortBindAddress()).setPort(getConfig().getInsecurePort(getInsecurePortDefaultValue())).setMaxChunkSize(4096);
+        addConnectionOptions(options);
         return options;
     }
 
+    private void addConnectionOptions(final HttpServerOptions options) {
+
+        options.setIdleTimeout(getConfig().getIdleTimeout()).setIdleTimeoutUnit(TimeUnit.SECONDS);
+        options.getInitialSettings().setMaxConcurrentStreams(getConfig().getHttp2MaxConcurrentStreams());
+        options.setHttp2ConnectionWindowSize(getConfig().getHttp2ConnectionWindowSize());
+    }
+
     /**
      * Invoked before the message is sent to the downstream peer.
      * <p>
@@ -428,7 +454,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             if (server == null) {
                 server = vertx.createHttpServer(getHttpServerOptions());
             }
-            server.requestHandler(router).listen(done -> {
+            server.requestHandler(createRequestHandler(router)).listen(done -> {
                 if (done.succeeded()) {
                     log.info("secure http server listening on {}:{}", bindAddress, server.actualPort());
                     result.complete(done.result());
@@ -451,7 +477,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             if (insecureServer == null) {
                 insecureServer = vertx.createHttpServer(getInsecureHttpServerOptions());
             }
-            insecureServer.requestHandler(router).listen(done -> {
+            insecureServer.requestHandler(createRequestHandler(router)).listen(done -> {
                 if (done.succeeded()) {
                     log.info("insecure http server listening on {}:{}", bindAddress, insecureServer.actualPort());
                     result.complete(done.result());
@@ -466,6 +492,33 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         }
     }
 
+    private Handler<HttpServerRequest> createRequestHandler(final Router router) {
+        return request -> {
+            trackConnection(request);
+            router.handle(request);
+        };
+    }
+
+    private void trackConnection(final HttpServerRequest request) {
+
+        final HttpConnection connection = request.connection();
+        if (connection == null) {
+            return;
+        }
+        final ConnectionStats stats = connections.get(connection);
+        if (stats != null) {
+            stats.requests++;
+        } else {
+            final ConnectionStats newStats = new ConnectionStats(request.version());
+            connections.put(connection, newStats);
+            metrics.reportConnectionOpened(newStats.version);
+            connection.closeHandler(v -> {
+                connections.remove(connection);
+                metrics.reportConnectionClosed(newStats.version, newStats.requests);
+            });
+        }
+    }
+
     @Override
     public final void doStop(final Promise<Void> stopPromise) {
 
@@ -544,7 +597,8 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * @param ctx The context to retrieve cookies and the HTTP response from.
      * @param tenant The tenant of the device that has produced the data.
      * @param deviceId The id of the device that has produced the data.
-     * @param payload The message payload to send.
+     * @param payload The message payload to send. The payload is conveyed downstream without
+     *                being copied, i.e. the buffer must not be modified after invoking this method.
      * @param contentType The content type of the message payload.
      * @throws NullPointerException if any of response, tenant or device ID is {@code null}.
      */
@@ -593,7 +647,8 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * @param ctx The context to retrieve cookies and the HTTP response from.
      * @param tenant The tenant of the device that has produced the data.
      * @param deviceId The id of the device that has produced the data.
-     * @param payload The message payload to send.
+     * @param payload The message payload to send. The payload is conveyed downstream without
+     *                being copied, i.e. the buffer must not be modified after invoking this method.
      * @param contentType The content type of the message payload.
      * @throws NullPointerException if any of response, tenant or device ID is {@code null}.
      */
@@ -692,15 +747,17 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             final Integer ttd = Optional.ofNullable(commandConsumerTracker.result())
                     .map(c -> ttdTracker.result())
                     .orElse(null);
+            // the payload is added to the message without copying it
             final Message downstreamMessage = newMessage(
                     ResourceIdentifier.from(endpoint.getCanonicalName(), tenant, deviceId),
                     ctx.request().uri(),
                     contentType,
-                    payload,
+                    null,
                     tenantTracker.result(),
                     tokenTracker.result(),
                     ttd,
                     EndpointType.EVENT.equals(endpoint) ? HttpUtils.getTimeToLive(ctx) : null);
+            MessageHelper.wrapPayload(downstreamMessage, contentType, payload);
             customizeDownstreamMessage(downstreamMessage, ctx);
 
             setTtdRequestConnectionCloseHandler(ctx, commandConsumerTracker.result(), tenant, deviceId, currentSpan);
@@ -1250,4 +1307,17 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             }
         }
     }
+
+    /**
+     * The HTTP version used on a connection and the number of requests received on it.
+     */
+    private static final class ConnectionStats {
+
+        private final HttpVersion version;
+        private long requests = 1;
+
+        private ConnectionStats(final HttpVersion version) {
+            this.version = version;
+        }
+    }
 }
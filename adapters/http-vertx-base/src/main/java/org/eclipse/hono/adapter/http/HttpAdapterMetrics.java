@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -16,6 +16,8 @@ package org.eclipse.hono.adapter.http;
 import org.eclipse.hono.service.metric.Metrics;
 import org.eclipse.hono.service.metric.NoopBasedMetrics;
 
+import io.vertx.core.http.HttpVersion;
+
 /**
  * Metrics for the HTTP based adapters.
  */
@@ -28,6 +30,14 @@ public interface HttpAdapterMetrics extends Metrics {
 
         private Noop() {
         }
+
+        @Override
+        public void reportConnectionOpened(final HttpVersion version) {
+        }
+
+        @Override
+        public void reportConnectionClosed(final HttpVersion version, final long requests) {
+        }
     }
 
     /**
@@ -35,5 +45,20 @@ public interface HttpAdapterMetrics extends Metrics {
      */
     HttpAdapterMetrics NOOP = new Noop();
 
-    // empty for now
+    /**
+     * Reports a connection on which a device has sent its first request.
+     *
+     * @param version The HTTP protocol version used on the connection.
+     * @throws NullPointerException if version is {@code null}.
+     */
+    void reportConnectionOpened(HttpVersion version);
+
+    /**
+     * Reports a connection that has been closed.
+     *
+     * @param version The HTTP protocol version used on the connection.
+     * @param requests The number of requests that have been received on the connection.
+     * @throws NullPointerException if version is {@code null}.
+     */
+    void reportConnectionClosed(HttpVersion version, long requests);
 }
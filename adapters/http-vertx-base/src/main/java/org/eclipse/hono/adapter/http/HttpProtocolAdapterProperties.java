@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -28,7 +28,16 @@ public class HttpProtocolAdapterProperties extends ProtocolAdapterProperties {
      * The default name of the realm that devices need to authenticate to.
      */
     public static final String DEFAULT_REALM = "Hono";
+    /**
+     * The default maximum number of concurrent streams per HTTP/2 connection.
+     */
+    public static final long DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS = 100;
+
     private String realm = DEFAULT_REALM;
+    private boolean http2Enabled = false;
+    private long http2MaxConcurrentStreams = DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS;
+    private int http2ConnectionWindowSize = -1;
+    private int idleTimeout = 0;
 
     /**
      * Gets the name of the realm that unauthenticated devices are prompted to provide credentials for.
@@ -59,4 +68,137 @@ public class HttpProtocolAdapterProperties extends ProtocolAdapterProperties {
         this.realm = Objects.requireNonNull(realm);
     }
 
+    /**
+     * Checks if devices may use HTTP/2 on the secure port.
+     * <p>
+     * If enabled, the adapter offers the <em>h2</em> protocol during the TLS handshake
+     * using ALPN. Devices not supporting HTTP/2 can still use HTTP/1.1.
+     * <p>
+     * Note that HTTP/2 over a plain socket (<em>h2c</em>) is always supported on the insecure port.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @return {@code true} if HTTP/2 is enabled.
+     */
+    public final boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    /**
+     * Sets whether devices may use HTTP/2 on the secure port.
+     * <p>
+     * If enabled, the adapter offers the <em>h2</em> protocol during the TLS handshake
+     * using ALPN. Devices not supporting HTTP/2 can still use HTTP/1.1.
+     * <p>
+     * Note that HTTP/2 over a plain socket (<em>h2c</em>) is always supported on the insecure port.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @param enabled {@code true} if HTTP/2 should be enabled.
+     */
+    public final void setHttp2Enabled(final boolean enabled) {
+        this.http2Enabled = enabled;
+    }
+
+    /**
+     * Gets the maximum number of requests that a device may send concurrently
+     * on a single HTTP/2 connection.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS}.
+     *
+     * @return The number of streams.
+     */
+    public final long getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    /**
+     * Sets the maximum number of requests that a device may send concurrently
+     * on a single HTTP/2 connection.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS}.
+     *
+     * @param maxStreams The number of streams.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public final void setHttp2MaxConcurrentStreams(final long maxStreams) {
+        if (maxStreams < 1) {
+            throw new IllegalArgumentException("max concurrent streams must be at least 1");
+        }
+        this.http2MaxConcurrentStreams = maxStreams;
+    }
+
+    /**
+     * Gets the size of the connection level flow control window of HTTP/2 connections.
+     * <p>
+     * The window determines the number of bytes that a device may send on all streams
+     * of a connection before it needs to wait for the adapter to acknowledge
+     * the data having been processed.
+     * <p>
+     * The default value of this property is -1, which means that the window size defined
+     * by the HTTP/2 specification (65535 bytes) is used.
+     *
+     * @return The number of bytes.
+     */
+    public final int getHttp2ConnectionWindowSize() {
+        return http2ConnectionWindowSize;
+    }
+
+    /**
+     * Sets the size of the connection level flow control window of HTTP/2 connections.
+     * <p>
+     * The window determines the number of bytes that a device may send on all streams
+     * of a connection before it needs to wait for the adapter to acknowledge
+     * the data having been processed.
+     * <p>
+     * The default value of this property is -1, which means that the window size defined
+     * by the HTTP/2 specification (65535 bytes) is used.
+     *
+     * @param windowSize The number of bytes or -1 to use the default window size.
+     * @throws IllegalArgumentException if the size is neither -1 nor &gt; 0.
+     */
+    public final void setHttp2ConnectionWindowSize(final int windowSize) {
+        if (windowSize != -1 && windowSize < 1) {
+            throw new IllegalArgumentException("window size must be -1 or greater than 0");
+        }
+        this.http2ConnectionWindowSize = windowSize;
+    }
+
+    /**
+     * Gets the number of seconds after which an idle connection is closed by the adapter.
+     * <p>
+     * Connections (both HTTP/1.1 keep-alive and HTTP/2) are kept open after a request
+     * has been processed so that they can be reused for subsequent requests.
+     * A connection on which no data has been sent or received for the given period
+     * of time is closed.
+     * <p>
+     * The default value of this property is 0, which means that idle connections
+     * are not closed by the adapter.
+     *
+     * @return The number of seconds.
+     */
+    public final int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the number of seconds after which an idle connection is closed by the adapter.
+     * <p>
+     * Connections (both HTTP/1.1 keep-alive and HTTP/2) are kept open after a request
+     * has been processed so that they can be reused for subsequent requests.
+     * A connection on which no data has been sent or received for the given period
+     * of time is closed.
+     * <p>
+     * The default value of this property is 0, which means that idle connections
+     * are not closed by the adapter.
+     *
+     * @param seconds The number of seconds.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public final void setIdleTimeout(final int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("idle timeout must not be negative");
+        }
+        this.idleTimeout = seconds;
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2018, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,12 +13,20 @@
 
 package org.eclipse.hono.adapter.http;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpVersion;
 
 /**
  * Metrics for the HTTP based adapters.
@@ -26,6 +34,20 @@ import io.vertx.core.Vertx;
 @Component
 public class MicrometerBasedHttpAdapterMetrics extends MicrometerBasedMetrics implements HttpAdapterMetrics {
 
+    /**
+     * The name of the meter for the current number of connections.
+     */
+    public static final String METER_HTTP_CONNECTIONS = "hono.http.connections";
+    /**
+     * The name of the meter for the number of requests received on a connection.
+     */
+    public static final String METER_HTTP_CONNECTION_REQUESTS = "hono.http.connection.requests";
+
+    private static final String TAG_PROTOCOL = "protocol";
+
+    private final Map<HttpVersion, AtomicInteger> connections = new EnumMap<>(HttpVersion.class);
+    private final Map<HttpVersion, DistributionSummary> requestsPerConnection = new EnumMap<>(HttpVersion.class);
+
     /**
      * Create a new metrics instance for HTTP adapters.
      * 
@@ -37,5 +59,36 @@ public class MicrometerBasedHttpAdapterMetrics extends MicrometerBasedMetrics im
     @Autowired
     public MicrometerBasedHttpAdapterMetrics(final MeterRegistry registry, final Vertx vertx) {
         super(registry, vertx);
+        for (final HttpVersion version : HttpVersion.values()) {
+            final Tags tags = Tags.of(TAG_PROTOCOL, getProtocolTagValue(version));
+            connections.put(version, registry.gauge(METER_HTTP_CONNECTIONS, tags, new AtomicInteger()));
+            requestsPerConnection.put(version, DistributionSummary.builder(METER_HTTP_CONNECTION_REQUESTS)
+                    .tags(tags)
+                    .register(registry));
+        }
+    }
+
+    private static String getProtocolTagValue(final HttpVersion version) {
+        switch (version) {
+        case HTTP_1_0:
+            return "http/1.0";
+        case HTTP_1_1:
+            return "http/1.1";
+        default:
+            return "h2";
+        }
+    }
+
+    @Override
+    public void reportConnectionOpened(final HttpVersion version) {
+        Objects.requireNonNull(version);
+        connections.get(version).incrementAndGet();
+    }
+
+    @Override
+    public void reportConnectionClosed(final HttpVersion version, final long requests) {
+        Objects.requireNonNull(version);
+        connections.get(version).updateAndGet(count -> count > 0 ? count - 1 : 0);
+        requestsPerConnection.get(version).record(requests);
     }
 }
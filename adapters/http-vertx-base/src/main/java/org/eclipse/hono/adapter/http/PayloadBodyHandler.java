@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.http;
+
+import java.net.HttpURLConnection;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A handler that reads the body of an HTTP request into a single buffer.
+ * <p>
+ * In contrast to vert.x Web's {@code BodyHandler}, this handler does not support form attributes
+ * nor file uploads, which are not used by devices uploading messages. It therefore never touches
+ * the file system. The buffer that the body is read into is allocated with the size
+ * indicated in the request's <em>content-length</em> header (if present) so that it does not
+ * need to be resized while the body is being read.
+ * <p>
+ * Requests having a body that exceeds the configured limit are failed with status code 413.
+ * Such requests are rejected before any data is read if the <em>content-length</em> header
+ * already exceeds the limit.
+ */
+final class PayloadBodyHandler implements Handler<RoutingContext> {
+
+    /**
+     * The initial size of the buffer used for a request without <em>content-length</em> header.
+     */
+    static final int DEFAULT_INITIAL_BUFFER_SIZE = 1024;
+
+    private static final String KEY_BODY_HANDLED = PayloadBodyHandler.class.getName() + ".handled";
+
+    private final int bodyLimit;
+
+    /**
+     * Creates a new handler.
+     *
+     * @param bodyLimit The maximum number of bytes that a request body may contain
+     *                  or -1 if the size of the body should not be limited.
+     */
+    PayloadBodyHandler(final int bodyLimit) {
+        this.bodyLimit = bodyLimit;
+    }
+
+    @Override
+    public void handle(final RoutingContext ctx) {
+
+        final HttpServerRequest request = ctx.request();
+        if (request.headers().contains(HttpHeaders.UPGRADE, HttpHeaders.WEBSOCKET, true)
+                || Boolean.TRUE.equals(ctx.get(KEY_BODY_HANDLED))) {
+            // nothing to read or body has already been read before re-routing the request
+            ctx.next();
+            return;
+        }
+
+        final long contentLength = getContentLength(request);
+        if (bodyLimit >= 0 && contentLength > bodyLimit) {
+            ctx.fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        // the content length is known to not exceed the (int) body limit here
+        final int initialSize = contentLength >= 0 && bodyLimit >= 0 ? (int) contentLength : DEFAULT_INITIAL_BUFFER_SIZE;
+        final Buffer body = Buffer.buffer(initialSize);
+        final BodyReader reader = new BodyReader(ctx, body);
+        request.handler(reader::append);
+        request.exceptionHandler(reader::fail);
+        request.endHandler(v -> reader.end());
+        ctx.put(KEY_BODY_HANDLED, Boolean.TRUE);
+    }
+
+    private static long getContentLength(final HttpServerRequest request) {
+        final String value = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Collects the chunks of a request body.
+     */
+    private final class BodyReader {
+
+        private final RoutingContext ctx;
+        private final Buffer body;
+        private boolean failed;
+
+        private BodyReader(final RoutingContext ctx, final Buffer body) {
+            this.ctx = ctx;
+            this.body = body;
+        }
+
+        private void append(final Buffer chunk) {
+            if (failed) {
+                return;
+            }
+            if (bodyLimit >= 0 && body.length() + chunk.length() > bodyLimit) {
+                failed = true;
+                ctx.fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+            } else {
+                body.appendBuffer(chunk);
+            }
+        }
+
+        private void fail(final Throwable error) {
+            if (!failed) {
+                failed = true;
+                ctx.fail(error);
+            }
+        }
+
+        private void end() {
+            if (!failed) {
+                ctx.setBody(body);
+                ctx.next();
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -77,8 +78,10 @@ import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.MIMEHeader;
 import io.vertx.ext.web.ParsedHeaderValues;
@@ -256,6 +259,32 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
         // THEN the onStartupSuccess method has not been invoked
     }
 
+    /**
+     * Verifies that the options for the HTTP servers reflect the HTTP/2 and
+     * idle timeout configuration properties.
+     */
+    @Test
+    public void testServerOptionsReflectConnectionConfig() {
+
+        config.setHttp2Enabled(true);
+        config.setHttp2MaxConcurrentStreams(1000);
+        config.setHttp2ConnectionWindowSize(1024 * 1024);
+        config.setIdleTimeout(90);
+        final AbstractVertxBasedHttpProtocolAdapter<HttpProtocolAdapterProperties> adapter = getAdapter(
+                getHttpServer(false), null);
+
+        final HttpServerOptions secureOptions = adapter.getHttpServerOptions();
+        assertThat(secureOptions.isUseAlpn()).isTrue();
+        assertThat(secureOptions.getAlpnVersions()).containsExactly(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1);
+        final HttpServerOptions insecureOptions = adapter.getInsecureHttpServerOptions();
+        for (final HttpServerOptions options : List.of(secureOptions, insecureOptions)) {
+            assertThat(options.getInitialSettings().getMaxConcurrentStreams()).isEqualTo(1000L);
+            assertThat(options.getHttp2ConnectionWindowSize()).isEqualTo(1024 * 1024);
+            assertThat(options.getIdleTimeout()).isEqualTo(90);
+            assertThat(options.getIdleTimeoutUnit()).isEqualTo(TimeUnit.SECONDS);
+        }
+    }
+
     /**
      * Verifies that the adapter fails the upload of a message with a 403
      * result if the device belongs to a tenant for which the adapter is
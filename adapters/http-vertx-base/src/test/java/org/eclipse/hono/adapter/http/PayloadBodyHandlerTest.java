@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Tests verifying behavior of {@link PayloadBodyHandler}.
+ *
+ */
+public class PayloadBodyHandlerTest {
+
+    private HttpServerRequest request;
+    private RoutingContext ctx;
+    private MultiMap headers;
+
+    /**
+     * Sets up the fixture.
+     */
+    @BeforeEach
+    public void setUp() {
+
+        headers = MultiMap.caseInsensitiveMultiMap();
+        request = mock(HttpServerRequest.class);
+        when(request.headers()).thenReturn(headers);
+        when(request.getHeader(any(CharSequence.class))).thenAnswer(invocation -> headers.get((CharSequence) invocation.getArgument(0)));
+        when(request.getHeader(anyString())).thenAnswer(invocation -> headers.get((String) invocation.getArgument(0)));
+        ctx = mock(RoutingContext.class);
+        when(ctx.request()).thenReturn(request);
+    }
+
+    /**
+     * Verifies that a request is rejected before its body is read if the
+     * content-length header exceeds the limit.
+     */
+    @Test
+    public void testHandlerRejectsRequestExceedingLimitUpFront() {
+
+        headers.set(HttpHeaders.CONTENT_LENGTH, "101");
+
+        new PayloadBodyHandler(100).handle(ctx);
+
+        verify(ctx).fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+        verify(request, never()).handler(any());
+        verify(ctx, never()).next();
+    }
+
+    /**
+     * Verifies that a request is failed once the body read exceeds the limit
+     * if the request does not contain a content-length header.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testHandlerFailsRequestExceedingLimitWhileReading() {
+
+        new PayloadBodyHandler(10).handle(ctx);
+
+        final ArgumentCaptor<Handler<Buffer>> chunkHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).handler(chunkHandler.capture());
+        final ArgumentCaptor<Handler<Void>> endHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).endHandler(endHandler.capture());
+
+        chunkHandler.getValue().handle(Buffer.buffer("0123456789"));
+        chunkHandler.getValue().handle(Buffer.buffer("A"));
+        endHandler.getValue().handle(null);
+
+        verify(ctx).fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+        verify(ctx, never()).setBody(any(Buffer.class));
+        verify(ctx, never()).next();
+    }
+
+    /**
+     * Verifies that the body of a request is set on the routing context
+     * once it has been read completely.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testHandlerSetsBodyOnRoutingContext() {
+
+        headers.set(HttpHeaders.CONTENT_LENGTH, "10");
+
+        new PayloadBodyHandler(10).handle(ctx);
+
+        final ArgumentCaptor<Handler<Buffer>> chunkHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).handler(chunkHandler.capture());
+        final ArgumentCaptor<Handler<Void>> endHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).endHandler(endHandler.capture());
+
+        chunkHandler.getValue().handle(Buffer.buffer("01234"));
+        chunkHandler.getValue().handle(Buffer.buffer("56789"));
+        endHandler.getValue().handle(null);
+
+        final ArgumentCaptor<Buffer> body = ArgumentCaptor.forClass(Buffer.class);
+        verify(ctx).setBody(body.capture());
+        assertThat(body.getValue().toString()).isEqualTo("0123456789");
+        // the buffer has been allocated with the size indicated in the header
+        assertThat(body.getValue().getByteBuf().capacity()).isEqualTo(10);
+        verify(ctx).next();
+    }
+}
@@ -130,7 +130,7 @@ public final class VertxBasedHttpProtocolAdapter extends AbstractVertxBasedHttpP
                             new X509AuthProvider(getCredentialsClientFactory(), getConfig(), tracer))));
             authHandler.append(new HonoBasicAuthHandler(
                     Optional.ofNullable(usernamePasswordAuthProvider).orElse(
-                            new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), tracer)),
+                            new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), getMeterRegistry(), tracer)),
                     getConfig().getRealm(), tracer));
             addTelemetryApiRoutes(router, authHandler);
             addEventApiRoutes(router, authHandler);
@@ -13,8 +13,10 @@
 
 package org.eclipse.hono.adapter.http.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -50,6 +52,7 @@ import org.eclipse.hono.service.auth.device.UsernamePasswordCredentials;
 import org.eclipse.hono.service.http.HttpUtils;
 import org.eclipse.hono.util.CommandConstants;
 import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.TenantObject;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -70,6 +73,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.User;
 import io.vertx.ext.web.client.HttpResponse;
@@ -452,6 +456,38 @@ public class VertxBasedHttpProtocolAdapterTest {
                 }));
     }
 
+    /**
+     * Verifies that a device can upload telemetry data using HTTP/2 over a plain
+     * socket (h2c) and that the request body is sent downstream.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testPostTelemetrySucceedsUsingH2c(final VertxTestContext ctx) {
+
+        mockSuccessfulAuthentication("DEFAULT_TENANT", "device_1");
+        final WebClient h2cClient = WebClient.create(vertx, new WebClientOptions()
+                .setDefaultHost(HOST)
+                .setDefaultPort(httpAdapter.getInsecurePort())
+                .setProtocolVersion(HttpVersion.HTTP_2)
+                .setHttp2ClearTextUpgrade(false));
+
+        h2cClient.post("/telemetry")
+                .putHeader(HttpHeaders.CONTENT_TYPE.toString(), HttpUtils.CONTENT_TYPE_JSON)
+                .basicAuthentication("testuser@DEFAULT_TENANT", "password123")
+                .expect(ResponsePredicate.status(HttpURLConnection.HTTP_ACCEPTED))
+                .sendJsonObject(new JsonObject().put("temp", 5), ctx.succeeding(r -> {
+                    ctx.verify(() -> {
+                        assertThat(r.version()).isEqualTo(HttpVersion.HTTP_2);
+                        verify(telemetrySender).send(
+                                argThat(msg -> new JsonObject().put("temp", 5).equals(MessageHelper.getJsonPayload(msg))),
+                                any(SpanContext.class));
+                    });
+                    h2cClient.close();
+                    ctx.completeNow();
+                }));
+    }
+
     /**
      * Verifies that a POST request to the event URI results in a message that is sent downstream.
      *
@@ -184,7 +184,7 @@ public final class LoraProtocolAdapter extends AbstractVertxBasedHttpProtocolAda
                         new X509AuthProvider(getCredentialsClientFactory(), getConfig(), tracer))));
         authHandler.append(new HonoBasicAuthHandler(
                 Optional.ofNullable(usernamePasswordAuthProvider).orElse(
-                        new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), tracer)),
+                        new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), getMeterRegistry(), tracer)),
                 getConfig().getRealm(), tracer));
 
         router.route().handler(authHandler);
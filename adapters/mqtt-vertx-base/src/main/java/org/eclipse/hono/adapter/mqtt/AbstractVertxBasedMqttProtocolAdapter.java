@@ -35,6 +35,7 @@ import org.eclipse.hono.client.CommandContext;
 import org.eclipse.hono.client.CommandResponse;
 import org.eclipse.hono.client.DownstreamSender;
 import org.eclipse.hono.client.MessageConsumer;
+import org.eclipse.hono.client.ServerErrorException;
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.service.AbstractProtocolAdapterBase;
 import org.eclipse.hono.service.auth.DeviceUser;
@@ -70,9 +71,11 @@ import io.opentracing.log.Fields;
 import io.opentracing.tag.Tags;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mqtt.MqttConnectionException;
@@ -105,8 +108,19 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
     private static final int IANA_MQTT_PORT = 1883;
     private static final int IANA_SECURE_MQTT_PORT = 8883;
     private static final String KEY_TOPIC_FILTER = "filter";
+    private static final String KEY_DISCARDED_BY_BACKPRESSURE = "discarded-by-backpressure";
+    /**
+     * The maximum number of milliseconds that backpressure is applied to the devices of a tenant
+     * without the downstream sender's credit having been replenished.
+     */
+    private static final long MAX_BACKPRESSURE_PERIOD_MILLIS = 1000;
 
     private MqttAdapterMetrics metrics = MqttAdapterMetrics.NOOP;
+    /**
+     * The tenants whose devices are subject to backpressure, mapped to the promise that
+     * is completed once the downstream telemetry sender has been granted credit again.
+     */
+    private final Map<String, Promise<Void>> backpressuredTenants = new HashMap<>();
 
     private MqttServer server;
     private MqttServer insecureServer;
@@ -197,6 +211,7 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                         new UsernamePasswordAuthProvider(
                                 getCredentialsClientFactory(),
                                 getConfig(),
+                                getMeterRegistry(),
                                 tracer), tracer));
     }
 
@@ -818,7 +833,10 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                             onMessageUndeliverable(context);
                         }
                         TracingHelper.logError(span, processing.cause());
-                        if (context.deviceEndpoint().isConnected()) {
+                        if (context.get(KEY_DISCARDED_BY_BACKPRESSURE, Boolean.FALSE)) {
+                            // the device is not to blame for the lack of downstream credit
+                            span.log("discarded QoS 0 message due to backpressure");
+                        } else if (context.deviceEndpoint().isConnected()) {
                             span.log("closing connection to device");
                             context.deviceEndpoint().close();
                         }
@@ -911,10 +929,12 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
         }
 
         final MetricsTags.QoS qos = MetricsTags.QoS.from(ctx.message().qosLevel().value());
-        final Future<TenantObject> tenantTracker = getTenantConfiguration(tenant, ctx.getTracingContext());
+        final Future<TenantObject> tenantTracker = applyBackpressure(ctx, tenant, qos)
+                .compose(ok -> getTenantConfiguration(tenant, ctx.getTracingContext()));
 
         return tenantTracker
-                .compose(tenantObject -> uploadMessage(ctx, tenantObject, deviceId, payload, getTelemetrySender(tenant),
+                .compose(tenantObject -> uploadMessage(ctx, tenantObject, deviceId, payload,
+                        getTelemetrySender(tenant).map(sender -> checkCredit(tenant, sender)),
                         ctx.endpoint()))
                 .compose(success -> {
                     metrics.reportTelemetry(
@@ -939,6 +959,82 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                 });
     }
 
+    /**
+     * Applies backpressure to a telemetry message if the downstream telemetry sender
+     * for the device's tenant has run out of credit.
+     * <p>
+     * A message published using QoS 1 is held back until the sender has been granted
+     * credit again. Because the PUBACK for the message is deferred as well, the device
+     * will stop publishing once its window of unacknowledged messages is exhausted.
+     * A message published using QoS 0 is discarded right away without any further
+     * processing.
+     *
+     * @param ctx The context in which the MQTT message has been published.
+     * @param tenant The tenant of the device that has published the message.
+     * @param qos The quality of service that the message has been published with.
+     * @return A future indicating the outcome of the operation.
+     *         <p>
+     *         The future will be completed once the message may be processed.
+     *         Otherwise the future will be failed with a {@link ServerErrorException}.
+     */
+    private Future<Void> applyBackpressure(final MqttContext ctx, final String tenant, final MetricsTags.QoS qos) {
+
+        final Promise<Void> creditAvailable = backpressuredTenants.get(tenant);
+        if (creditAvailable == null) {
+            return Future.succeededFuture();
+        }
+        metrics.reportBackpressuredMessage(tenant, qos);
+        if (ctx.isAtLeastOnce()) {
+            return creditAvailable.future();
+        } else {
+            ctx.put(KEY_DISCARDED_BY_BACKPRESSURE, Boolean.TRUE);
+            return Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE,
+                    "no downstream credit available"));
+        }
+    }
+
+    /**
+     * Starts to apply backpressure to the devices of a tenant if the downstream
+     * telemetry sender has run out of credit.
+     * <p>
+     * Backpressure is released once the sender has been granted credit again but
+     * no later than {@link #MAX_BACKPRESSURE_PERIOD_MILLIS} after it has been started.
+     *
+     * @param tenant The tenant that the sender has been created for.
+     * @param sender The sender.
+     * @return The sender.
+     */
+    private DownstreamSender checkCredit(final String tenant, final DownstreamSender sender) {
+
+        if (sender.getCredit() <= 0 && !backpressuredTenants.containsKey(tenant)) {
+            log.debug("downstream telemetry sender has no credit, applying backpressure to devices of tenant [{}]",
+                    tenant);
+            final Promise<Void> creditAvailable = Promise.promise();
+            backpressuredTenants.put(tenant, creditAvailable);
+            metrics.incrementBackpressuredAdapters(tenant);
+            // the handler is invoked on the sender's context
+            final Context currentContext = Vertx.currentContext();
+            sender.addCreditReplenishedHandler(replenished -> {
+                if (currentContext == null) {
+                    releaseBackpressure(tenant, creditAvailable);
+                } else {
+                    currentContext.runOnContext(go -> releaseBackpressure(tenant, creditAvailable));
+                }
+            });
+            vertx.setTimer(MAX_BACKPRESSURE_PERIOD_MILLIS, tid -> releaseBackpressure(tenant, creditAvailable));
+        }
+        return sender;
+    }
+
+    private void releaseBackpressure(final String tenant, final Promise<Void> creditAvailable) {
+
+        if (backpressuredTenants.remove(tenant, creditAvailable)) {
+            log.debug("releasing backpressure applied to devices of tenant [{}]", tenant);
+            metrics.decrementBackpressuredAdapters(tenant);
+            creditAvailable.complete();
+        }
+    }
+
     /**
      * Forwards an event to the AMQP Messaging Network.
      * 
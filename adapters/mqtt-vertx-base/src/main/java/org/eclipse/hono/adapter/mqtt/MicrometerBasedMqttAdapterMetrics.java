@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2018, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,11 +13,18 @@
 
 package org.eclipse.hono.adapter.mqtt;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.hono.service.metric.MetricsTags;
 import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.vertx.core.Vertx;
 
 /**
@@ -26,6 +33,18 @@ import io.vertx.core.Vertx;
 @Component
 public class MicrometerBasedMqttAdapterMetrics extends MicrometerBasedMetrics implements MqttAdapterMetrics {
 
+    /**
+     * The name of the meter for tracking the number of adapter instances applying backpressure
+     * to the devices of a tenant.
+     */
+    public static final String METER_BACKPRESSURE_ACTIVE = "hono.backpressure.active";
+    /**
+     * The name of the meter for counting messages published by devices while backpressure is applied.
+     */
+    public static final String METER_BACKPRESSURE_MESSAGES = "hono.backpressure.messages";
+
+    private final Map<String, AtomicLong> backpressuredAdapters = new ConcurrentHashMap<>();
+
     /**
      * Create a new metrics instance for MQTT adapters.
      * 
@@ -38,4 +57,26 @@ public class MicrometerBasedMqttAdapterMetrics extends MicrometerBasedMetrics im
     public MicrometerBasedMqttAdapterMetrics(final MeterRegistry registry, final Vertx vertx) {
         super(registry, vertx);
     }
+
+    @Override
+    public void incrementBackpressuredAdapters(final String tenantId) {
+        Objects.requireNonNull(tenantId);
+        gaugeForTenant(METER_BACKPRESSURE_ACTIVE, backpressuredAdapters, tenantId, AtomicLong::new)
+                .incrementAndGet();
+    }
+
+    @Override
+    public void decrementBackpressuredAdapters(final String tenantId) {
+        Objects.requireNonNull(tenantId);
+        gaugeForTenant(METER_BACKPRESSURE_ACTIVE, backpressuredAdapters, tenantId, AtomicLong::new)
+                .decrementAndGet();
+    }
+
+    @Override
+    public void reportBackpressuredMessage(final String tenantId, final MetricsTags.QoS qos) {
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(qos);
+        registry.counter(METER_BACKPRESSURE_MESSAGES, Tags.of(MetricsTags.getTenantTag(tenantId)).and(qos.asTag()))
+                .increment();
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -14,6 +14,7 @@
 package org.eclipse.hono.adapter.mqtt;
 
 import org.eclipse.hono.service.metric.Metrics;
+import org.eclipse.hono.service.metric.MetricsTags;
 import org.eclipse.hono.service.metric.NoopBasedMetrics;
 
 /**
@@ -28,6 +29,18 @@ public interface MqttAdapterMetrics extends Metrics {
 
         private Noop() {
         }
+
+        @Override
+        public void incrementBackpressuredAdapters(final String tenantId) {
+        }
+
+        @Override
+        public void decrementBackpressuredAdapters(final String tenantId) {
+        }
+
+        @Override
+        public void reportBackpressuredMessage(final String tenantId, final MetricsTags.QoS qos) {
+        }
     }
 
     /**
@@ -35,5 +48,34 @@ public interface MqttAdapterMetrics extends Metrics {
      */
     MqttAdapterMetrics NOOP = new Noop();
 
-    // empty for now
+    /**
+     * Reports that an adapter instance has started to apply backpressure to
+     * the devices of a tenant because the downstream sender has run out of credit.
+     *
+     * @param tenantId The tenant that the devices belong to.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    void incrementBackpressuredAdapters(String tenantId);
+
+    /**
+     * Reports that an adapter instance has stopped applying backpressure to
+     * the devices of a tenant.
+     *
+     * @param tenantId The tenant that the devices belong to.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    void decrementBackpressuredAdapters(String tenantId);
+
+    /**
+     * Reports a message that has been published by a device while backpressure
+     * has been applied to the devices of its tenant.
+     * <p>
+     * Messages published using QoS 1 are held back until credit becomes available
+     * whereas messages published using QoS 0 are discarded.
+     *
+     * @param tenantId The tenant that the device belongs to.
+     * @param qos The quality of service that the message has been published with.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    void reportBackpressuredMessage(String tenantId, MetricsTags.QoS qos);
 }
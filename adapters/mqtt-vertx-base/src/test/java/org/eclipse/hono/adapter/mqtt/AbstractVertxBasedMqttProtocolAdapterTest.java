@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.OptionalInt;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 
 import org.apache.qpid.proton.message.Message;
@@ -169,10 +170,12 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
         when(downstreamSenderFactory.isConnected())
                 .thenReturn(Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE)));
         when(downstreamSenderFactory.connect()).thenReturn(Future.succeededFuture(mock(HonoConnection.class)));
+        final DownstreamSender eventSender = mockSender();
         when(downstreamSenderFactory.getOrCreateEventSender(anyString()))
-                .thenReturn(Future.succeededFuture(mock(DownstreamSender.class)));
+                .thenReturn(Future.succeededFuture(eventSender));
+        final DownstreamSender telemetrySender = mockSender();
         when(downstreamSenderFactory.getOrCreateTelemetrySender(anyString()))
-                .thenReturn(Future.succeededFuture(mock(DownstreamSender.class)));
+                .thenReturn(Future.succeededFuture(telemetrySender));
 
         registrationClientFactory = mock(RegistrationClientFactory.class);
         when(registrationClientFactory.isConnected()).thenReturn(
@@ -221,6 +224,21 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
         return result;
     }
 
+    private static DownstreamSender mockSender() {
+        final DownstreamSender sender = mock(DownstreamSender.class);
+        when(sender.getCredit()).thenReturn(100);
+        return sender;
+    }
+
+    private static MqttPublishMessage newMessage(final MqttQoS qosLevel, final int messageId, final String topic) {
+        final MqttPublishMessage message = mock(MqttPublishMessage.class);
+        when(message.qosLevel()).thenReturn(qosLevel);
+        when(message.messageId()).thenReturn(messageId);
+        when(message.topicName()).thenReturn(topic);
+        when(message.payload()).thenReturn(Buffer.buffer("some payload"));
+        return message;
+    }
+
     @SuppressWarnings("unchecked")
     private static MqttEndpoint mockEndpoint() {
         final MqttEndpoint endpoint = mock(MqttEndpoint.class);
@@ -739,6 +757,62 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
                 }));
     }
 
+    /**
+     * Verifies that the adapter applies backpressure to the devices of a tenant while
+     * the downstream telemetry sender has no credit.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testUploadTelemetryMessageAppliesBackpressureWhileSenderHasNoCredit() {
+
+        // GIVEN an adapter with a downstream telemetry sender that is about to run out of credit
+        final Promise<ProtonDelivery> outcome = Promise.promise();
+        outcome.complete(mock(ProtonDelivery.class));
+        final DownstreamSender sender = givenAQoS1TelemetrySender(outcome);
+        when(sender.getCredit()).thenReturn(0);
+        final AtomicReference<Handler<Void>> creditReplenishedHandler = new AtomicReference<>();
+        doAnswer(invocation -> {
+            creditReplenishedHandler.set(invocation.getArgument(0));
+            return null;
+        }).when(sender).addCreditReplenishedHandler(any(Handler.class));
+        final AbstractVertxBasedMqttProtocolAdapter<MqttProtocolAdapterProperties> adapter = getAdapter(getMqttServer(false));
+        final MqttEndpoint endpoint = mockEndpoint();
+        when(endpoint.isConnected()).thenReturn(Boolean.TRUE);
+        final String topic = "telemetry/my-tenant/4712";
+
+        // WHEN a device publishes a QoS 1 message that uses up the sender's last credit
+        final MqttContext firstMessage = newMqttContext(newMessage(MqttQoS.AT_LEAST_ONCE, 1, topic), endpoint);
+        assertThat(adapter.uploadTelemetryMessage(firstMessage, "my-tenant", "4712", firstMessage.message().payload())
+                .succeeded()).isTrue();
+        verify(endpoint).publishAcknowledge(1);
+        verify(metrics).incrementBackpressuredAdapters("my-tenant");
+
+        // THEN a subsequent QoS 1 message is held back
+        final MqttContext secondMessage = newMqttContext(newMessage(MqttQoS.AT_LEAST_ONCE, 2, topic), endpoint);
+        final Future<Void> secondResult = adapter.uploadTelemetryMessage(
+                secondMessage, "my-tenant", "4712", secondMessage.message().payload());
+        assertThat(secondResult.isComplete()).isFalse();
+        verify(sender, times(1)).sendAndWaitForOutcome(any(Message.class), any());
+        verify(endpoint, never()).publishAcknowledge(2);
+        verify(metrics).reportBackpressuredMessage("my-tenant", MetricsTags.QoS.AT_LEAST_ONCE);
+
+        // and a QoS 0 message is discarded without closing the connection to the device
+        adapter.handlePublishedMessage(newMqttContext(newMessage(MqttQoS.AT_MOST_ONCE, 3, topic), endpoint));
+        verify(sender, never()).send(any(Message.class), any());
+        verify(metrics).reportBackpressuredMessage("my-tenant", MetricsTags.QoS.AT_MOST_ONCE);
+        verify(endpoint, never()).close();
+
+        // WHEN the sender is granted credit again
+        when(sender.getCredit()).thenReturn(10);
+        creditReplenishedHandler.get().handle(null);
+
+        // THEN the held back message is forwarded
+        assertThat(secondResult.succeeded()).isTrue();
+        verify(sender, times(2)).sendAndWaitForOutcome(any(Message.class), any());
+        verify(endpoint).publishAcknowledge(2);
+        verify(metrics).decrementBackpressuredAdapters("my-tenant");
+    }
+
     private void testUploadQoS1MessageSendsPubAckOnSuccess(
             final Promise<ProtonDelivery> outcome,
             final EndpointType type,
@@ -1193,7 +1267,7 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
 
         when(resourceLimitChecks.isMessageLimitReached(any(TenantObject.class), anyLong(), any(SpanContext.class)))
                 .thenReturn(Future.succeededFuture(Boolean.TRUE));
-        final DownstreamSender sender = mock(DownstreamSender.class);
+        final DownstreamSender sender = mockSender();
         when(downstreamSenderFactory.getOrCreateTelemetrySender(anyString()))
                 .thenReturn(Future.succeededFuture(sender));
 
@@ -1241,7 +1315,7 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
 
         when(resourceLimitChecks.isMessageLimitReached(any(TenantObject.class), anyLong(), any(SpanContext.class)))
                 .thenReturn(Future.succeededFuture(Boolean.TRUE));
-        final DownstreamSender sender = mock(DownstreamSender.class);
+        final DownstreamSender sender = mockSender();
         when(downstreamSenderFactory.getOrCreateEventSender(anyString()))
                 .thenReturn(Future.succeededFuture(sender));
 
@@ -1333,7 +1407,7 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
                 getMqttServer(false));
         forceClientMocksToConnected();
 
-        final DownstreamSender sender = mock(DownstreamSender.class);
+        final DownstreamSender sender = mockSender();
         when(downstreamSenderFactory.getOrCreateEventSender(anyString()))
                 .thenReturn(Future.succeededFuture(sender));
 
@@ -1373,7 +1447,7 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
         final AbstractVertxBasedMqttProtocolAdapter<MqttProtocolAdapterProperties> adapter = getAdapter(
                 getMqttServer(false));
         forceClientMocksToConnected();
-        final DownstreamSender sender = mock(DownstreamSender.class);
+        final DownstreamSender sender = mockSender();
         when(downstreamSenderFactory.getOrCreateEventSender(anyString()))
                 .thenReturn(Future.succeededFuture(sender));
 
@@ -1486,7 +1560,7 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
 
     private DownstreamSender givenAnEventSenderForOutcome(final Promise<ProtonDelivery> outcome) {
 
-        final DownstreamSender sender = mock(DownstreamSender.class);
+        final DownstreamSender sender = mockSender();
         when(sender.getEndpoint()).thenReturn(EventConstants.EVENT_ENDPOINT);
         when(sender.send(any(Message.class), (SpanContext) any())).thenThrow(new UnsupportedOperationException());
         when(sender.sendAndWaitForOutcome(any(Message.class), (SpanContext) any())).thenReturn(outcome.future());
@@ -1497,7 +1571,7 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
 
     private DownstreamSender givenAQoS0TelemetrySender() {
 
-        final DownstreamSender sender = mock(DownstreamSender.class);
+        final DownstreamSender sender = mockSender();
         when(sender.getEndpoint()).thenReturn(TelemetryConstants.TELEMETRY_ENDPOINT);
         when(sender.send(any(Message.class), (SpanContext) any()))
                 .thenReturn(Future.succeededFuture(mock(ProtonDelivery.class)));
@@ -1511,7 +1585,7 @@ public class AbstractVertxBasedMqttProtocolAdapterTest {
 
     private DownstreamSender givenAQoS1TelemetrySender(final Promise<ProtonDelivery> outcome) {
 
-        final DownstreamSender sender = mock(DownstreamSender.class);
+        final DownstreamSender sender = mockSender();
         when(sender.getEndpoint()).thenReturn(TelemetryConstants.TELEMETRY_ENDPOINT);
         when(sender.send(any(Message.class), (SpanContext) any())).thenThrow(new UnsupportedOperationException());
         when(sender.sendAndWaitForOutcome(any(Message.class), (SpanContext) any())).thenReturn(outcome.future());
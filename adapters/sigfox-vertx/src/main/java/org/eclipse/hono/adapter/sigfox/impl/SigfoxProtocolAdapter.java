@@ -124,7 +124,7 @@ public final class SigfoxProtocolAdapter
 
         authHandler.append(new HonoBasicAuthHandler(
                 Optional.ofNullable(this.usernamePasswordAuthProvider).orElse(
-                        new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), this.tracer)),
+                        new UsernamePasswordAuthProvider(getCredentialsClientFactory(), getConfig(), getMeterRegistry(), this.tracer)),
                 getConfig().getRealm(), this.tracer));
 
         router.route().handler(authHandler);
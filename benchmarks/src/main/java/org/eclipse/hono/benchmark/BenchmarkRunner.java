@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs Hono's micro benchmarks.
+ * <p>
+ * All command line arguments are passed on to JMH, i.e. the standard JMH options
+ * can be used for selecting the benchmarks to run and for overriding the
+ * number of iterations, forks etc.
+ * <p>
+ * In addition to the given options, the runner always enables JMH's GC profiler
+ * so that the number of bytes allocated per operation is reported along with
+ * the throughput figures. Unless specified otherwise, the results are written
+ * to file <em>hono-benchmarks.json</em> in JMH's JSON format so that they can
+ * be compared between releases.
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "hono-benchmarks.json";
+
+    private BenchmarkRunner() {
+        // prevent instantiation
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args The JMH command line options.
+     * @throws CommandLineOptionException if the command line options cannot be parsed.
+     * @throws RunnerException if running the benchmarks fails.
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLineOptions);
+        builder.addProfiler(GCProfiler.class);
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        final Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmark;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.util.Adapter;
+import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.CredentialsConstants;
+import org.eclipse.hono.util.CredentialsObject;
+import org.eclipse.hono.util.ResourceLimits;
+import org.eclipse.hono.util.TenantObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Benchmarks for accessing the JSON backed {@link TenantObject} and {@link CredentialsObject}
+ * value objects.
+ * <p>
+ * The decoding benchmarks use the same mechanism as the Tenant and Credentials API clients
+ * for creating the objects from a response message's payload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonValueObjectBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private TenantObject tenant;
+    private byte[] tenantJson;
+    private CredentialsObject credentials;
+    private byte[] credentialsJson;
+
+    /**
+     * Creates the tenant and credentials objects used by the benchmarks.
+     */
+    @Setup
+    public void setup() {
+
+        tenant = TenantObject.from("DEFAULT_TENANT", true)
+                .addAdapter(new Adapter(Constants.PROTOCOL_ADAPTER_TYPE_HTTP).setEnabled(true))
+                .addAdapter(new Adapter(Constants.PROTOCOL_ADAPTER_TYPE_MQTT).setEnabled(true))
+                .addAdapter(new Adapter(Constants.PROTOCOL_ADAPTER_TYPE_AMQP).setEnabled(false))
+                .setResourceLimits(new ResourceLimits().setMaxConnections(10000).setMaxTtl(60))
+                .setDefaults(new JsonObject().put("importance", "high"))
+                .setMinimumMessageSize(4096);
+        tenantJson = JsonObject.mapFrom(tenant).toBuffer().getBytes();
+
+        final Instant now = Instant.now();
+        credentials = new CredentialsObject("4711", "sensor1", CredentialsConstants.SECRETS_TYPE_HASHED_PASSWORD);
+        credentials.addSecret(CredentialsObject.hashedPasswordSecretForPasswordHash(
+                "AQIDBAUGBwg=", CredentialsConstants.HASH_FUNCTION_SHA256,
+                now.minus(10, ChronoUnit.DAYS), now.plus(10, ChronoUnit.DAYS), "c2FsdA=="));
+        credentials.addSecret(CredentialsObject.hashedPasswordSecretForPasswordHash(
+                "CQoLDA0ODxA=", CredentialsConstants.HASH_FUNCTION_SHA256,
+                now.minus(20, ChronoUnit.DAYS), now.minus(10, ChronoUnit.DAYS), "c2FsdA=="));
+        credentialsJson = JsonObject.mapFrom(credentials).toBuffer().getBytes();
+    }
+
+    /**
+     * Measures decoding of a tenant object from its JSON representation.
+     *
+     * @return The tenant.
+     * @throws IOException if the JSON cannot be decoded.
+     */
+    @Benchmark
+    public TenantObject decodeTenant() throws IOException {
+        return OBJECT_MAPPER.readValue(tenantJson, TenantObject.class);
+    }
+
+    /**
+     * Measures the adapter and limits checks done by protocol adapters for every message.
+     *
+     * @return {@code true} if the adapter is enabled.
+     */
+    @Benchmark
+    public boolean checkTenantAdapterAndLimits() {
+        return tenant.isAdapterEnabled(Constants.PROTOCOL_ADAPTER_TYPE_MQTT)
+                && tenant.getResourceLimits().getMaxConnections() > 0
+                && tenant.getMinimumMessageSize() > 0;
+    }
+
+    /**
+     * Measures the retrieval of a tenant's default properties.
+     *
+     * @return The default properties.
+     */
+    @Benchmark
+    public JsonObject getTenantDefaults() {
+        return tenant.getDefaults();
+    }
+
+    /**
+     * Measures the retrieval of a tenant's maximum time until disconnect.
+     *
+     * @return The number of seconds.
+     */
+    @Benchmark
+    public int getTenantMaxTimeUntilDisconnect() {
+        return tenant.getMaxTimeUntilDisconnect(Constants.PROTOCOL_ADAPTER_TYPE_HTTP);
+    }
+
+    /**
+     * Measures decoding of a credentials object from its JSON representation.
+     *
+     * @return The credentials.
+     * @throws IOException if the JSON cannot be decoded.
+     */
+    @Benchmark
+    public CredentialsObject decodeCredentials() throws IOException {
+        return OBJECT_MAPPER.readValue(credentialsJson, CredentialsObject.class);
+    }
+
+    /**
+     * Measures the filtering of the currently valid secrets.
+     *
+     * @return The valid secrets.
+     */
+    @Benchmark
+    public List<JsonObject> getCandidateSecrets() {
+        return credentials.getCandidateSecrets();
+    }
+
+    /**
+     * Measures the retrieval of the basic credentials properties.
+     *
+     * @return {@code true} if the credentials are enabled.
+     */
+    @Benchmark
+    public boolean getCredentialsProperties() {
+        return credentials.isEnabled()
+                && credentials.getAuthId() != null
+                && credentials.getDeviceId() != null
+                && credentials.getType() != null;
+    }
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.config.ProtocolAdapterProperties;
+import org.eclipse.hono.service.AbstractProtocolAdapterBase;
+import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.EventConstants;
+import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.RegistrationConstants;
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.eclipse.hono.util.ResourceLimits;
+import org.eclipse.hono.util.TelemetryConstants;
+import org.eclipse.hono.util.TenantObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.proton.ProtonHelper;
+
+/**
+ * Benchmarks for the creation of downstream messages by protocol adapters.
+ * <p>
+ * Covers {@link AbstractProtocolAdapterBase#newMessage(ResourceIdentifier, String, String, Buffer, TenantObject,
+ * JsonObject, Integer, Duration)} and the corresponding {@code addProperties} method as well as the
+ * {@link MessageHelper} property accessors that are invoked for every message being forwarded downstream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtocolAdapterMessageBenchmark {
+
+    private static final String TENANT_ID = "DEFAULT_TENANT";
+    private static final String DEVICE_ID = "4711";
+
+    private BenchmarkProtocolAdapter adapter;
+    private ResourceIdentifier telemetryTarget;
+    private ResourceIdentifier eventTarget;
+    private TenantObject tenant;
+    private JsonObject registrationInfo;
+    private Buffer payload;
+    private Message downstreamMessage;
+
+    /**
+     * Creates the adapter and the tenant and device information used by the benchmarks.
+     */
+    @Setup
+    public void setup() {
+
+        final ProtocolAdapterProperties config = new ProtocolAdapterProperties();
+        config.setDefaultsEnabled(true);
+        config.setJmsVendorPropsEnabled(false);
+        adapter = new BenchmarkProtocolAdapter();
+        adapter.setConfig(config);
+
+        telemetryTarget = ResourceIdentifier.from(TelemetryConstants.TELEMETRY_ENDPOINT, TENANT_ID, DEVICE_ID);
+        eventTarget = ResourceIdentifier.from(EventConstants.EVENT_ENDPOINT, TENANT_ID, DEVICE_ID);
+        tenant = TenantObject.from(TENANT_ID, true)
+                .setResourceLimits(new ResourceLimits().setMaxTtl(60))
+                .setDefaults(new JsonObject().put("importance", "high").put(MessageHelper.SYS_HEADER_PROPERTY_TTL, 30));
+        registrationInfo = new JsonObject()
+                .put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID, DEVICE_ID)
+                .put(RegistrationConstants.FIELD_PAYLOAD_DEFAULTS, new JsonObject()
+                        .put(MessageHelper.SYS_PROPERTY_CONTENT_TYPE, "application/vnd.acme+json"));
+        payload = Buffer.buffer("{\"temp\": 23.5, \"humidity\": 47}");
+
+        downstreamMessage = adapter.createMessage(telemetryTarget, "telemetry/DEFAULT_TENANT/4711",
+                null, payload, tenant, registrationInfo, null, null);
+    }
+
+    /**
+     * Measures creation of a telemetry message including tenant and device level defaults.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message newTelemetryMessage() {
+        return adapter.createMessage(telemetryTarget, "telemetry", "application/json", payload, tenant,
+                registrationInfo, null, null);
+    }
+
+    /**
+     * Measures creation of an event message which requires the TTL to be capped at the tenant's max TTL.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message newEventMessage() {
+        return adapter.createMessage(eventTarget, "event", "application/json", payload, tenant,
+                registrationInfo, 60, Duration.ofSeconds(120));
+    }
+
+    /**
+     * Measures adding the Hono specific properties to an already existing message.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message addProperties() {
+        final Message msg = ProtonHelper.message();
+        MessageHelper.setPayload(msg, "application/json", payload);
+        return adapter.addMessageProperties(msg, telemetryTarget, "telemetry", tenant, registrationInfo, null, null);
+    }
+
+    /**
+     * Measures the retrieval of the tenant and device identifiers from a message.
+     *
+     * @return The number of characters of the identifiers (to prevent dead code elimination).
+     */
+    @Benchmark
+    public int getTenantAndDeviceId() {
+        return MessageHelper.getTenantId(downstreamMessage).length() + MessageHelper.getDeviceId(downstreamMessage).length();
+    }
+
+    /**
+     * Measures the retrieval of the (annotated) tenant and device identifiers from a message.
+     *
+     * @return The number of characters of the identifiers (to prevent dead code elimination).
+     */
+    @Benchmark
+    public int getTenantAndDeviceIdAnnotation() {
+        return MessageHelper.getTenantIdAnnotation(downstreamMessage).length()
+                + MessageHelper.getDeviceIdAnnotation(downstreamMessage).length();
+    }
+
+    /**
+     * Measures the retrieval of a message's payload.
+     *
+     * @return The payload.
+     */
+    @Benchmark
+    public Buffer getPayload() {
+        return MessageHelper.getPayload(downstreamMessage);
+    }
+
+    /**
+     * A minimal protocol adapter that exposes the message creation methods.
+     */
+    static final class BenchmarkProtocolAdapter extends AbstractProtocolAdapterBase<ProtocolAdapterProperties> {
+
+        @Override
+        protected String getTypeName() {
+            return Constants.PROTOCOL_ADAPTER_TYPE_MQTT;
+        }
+
+        @Override
+        public int getPortDefaultValue() {
+            return 0;
+        }
+
+        @Override
+        public int getInsecurePortDefaultValue() {
+            return 0;
+        }
+
+        @Override
+        protected int getActualPort() {
+            return Constants.PORT_UNCONFIGURED;
+        }
+
+        @Override
+        protected int getActualInsecurePort() {
+            return Constants.PORT_UNCONFIGURED;
+        }
+
+        Message createMessage(
+                final ResourceIdentifier target,
+                final String publishAddress,
+                final String contentType,
+                final Buffer payload,
+                final TenantObject tenant,
+                final JsonObject registrationInfo,
+                final Integer timeUntilDisconnect,
+                final Duration timeToLive) {
+            return newMessage(target, publishAddress, contentType, payload, tenant, registrationInfo,
+                    timeUntilDisconnect, timeToLive);
+        }
+
+        Message addMessageProperties(
+                final Message msg,
+                final ResourceIdentifier target,
+                final String publishAddress,
+                final TenantObject tenant,
+                final JsonObject registrationInfo,
+                final Integer timeUntilDisconnect,
+                final Duration timeToLive) {
+            return addProperties(msg, target, publishAddress, tenant, registrationInfo, timeUntilDisconnect,
+                    timeToLive);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.eclipse.hono.util.TelemetryConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for creating {@link ResourceIdentifier}s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceIdentifierBenchmark {
+
+    /**
+     * The address to parse.
+     */
+    @Param({ "telemetry/DEFAULT_TENANT/4711", "telemetry/DEFAULT_TENANT", "command///res/4711/my-req-id" })
+    public String address;
+
+    private ResourceIdentifier resource;
+
+    /**
+     * Creates the resource identifier used by the benchmarks.
+     */
+    @Setup
+    public void setup() {
+        resource = ResourceIdentifier.fromString(address);
+    }
+
+    /**
+     * Measures parsing of an address.
+     *
+     * @return The resource identifier.
+     */
+    @Benchmark
+    public ResourceIdentifier fromString() {
+        return ResourceIdentifier.fromString(address);
+    }
+
+    /**
+     * Measures the creation of a resource identifier from its segments.
+     *
+     * @return The resource identifier.
+     */
+    @Benchmark
+    public ResourceIdentifier fromSegments() {
+        return ResourceIdentifier.from(TelemetryConstants.TELEMETRY_ENDPOINT, "DEFAULT_TENANT", "4711");
+    }
+
+    /**
+     * Measures the retrieval of a resource identifier's base path and string representation.
+     *
+     * @return The number of characters (to prevent dead code elimination).
+     */
+    @Benchmark
+    public int getBasePathAndString() {
+        return resource.getBasePath().length() + resource.toString().length();
+    }
+}
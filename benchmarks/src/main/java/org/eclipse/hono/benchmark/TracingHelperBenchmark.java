@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.tracing.TracingHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jaegertracing.internal.JaegerTracer;
+import io.jaegertracing.internal.reporters.NoopReporter;
+import io.jaegertracing.internal.samplers.ConstSampler;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.noop.NoopTracerFactory;
+import io.opentracing.tag.Tags;
+import io.vertx.proton.ProtonHelper;
+
+/**
+ * Benchmarks for creating spans using {@link TracingHelper}.
+ * <p>
+ * The benchmarks are run using the no-op tracer (which is used if no tracer has been
+ * configured) and a Jaeger tracer which samples all traces but does not report
+ * the finished spans.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TracingHelperBenchmark {
+
+    /**
+     * The type of tracer to use.
+     */
+    @Param({ "noop", "jaeger" })
+    public String tracerType;
+
+    private Tracer tracer;
+    private SpanContext parentContext;
+    private Message messageWithContext;
+
+    /**
+     * Creates the tracer and the parent span context.
+     */
+    @Setup
+    public void setup() {
+
+        if ("jaeger".equals(tracerType)) {
+            tracer = new JaegerTracer.Builder("hono-benchmark")
+                    .withReporter(new NoopReporter())
+                    .withSampler(new ConstSampler(true))
+                    .build();
+        } else {
+            tracer = NoopTracerFactory.create();
+        }
+        final Span parent = tracer.buildSpan("parent").start();
+        parentContext = parent.context();
+        parent.finish();
+        messageWithContext = ProtonHelper.message();
+        TracingHelper.injectSpanContext(tracer, parentContext, messageWithContext);
+    }
+
+    /**
+     * Closes the tracer.
+     */
+    @TearDown
+    public void tearDown() {
+        tracer.close();
+    }
+
+    /**
+     * Measures the creation of a child span as done for every message received from a device.
+     *
+     * @return The span.
+     */
+    @Benchmark
+    public Span buildChildSpan() {
+        final Span span = TracingHelper.buildChildSpan(tracer, parentContext, "upload telemetry", "benchmark")
+                .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
+                .withTag(TracingHelper.TAG_TENANT_ID.getKey(), "DEFAULT_TENANT")
+                .withTag(TracingHelper.TAG_DEVICE_ID.getKey(), "4711")
+                .start();
+        span.finish();
+        return span;
+    }
+
+    /**
+     * Measures injecting a span context into a (new) AMQP message.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message injectSpanContext() {
+        final Message msg = ProtonHelper.message();
+        TracingHelper.injectSpanContext(tracer, parentContext, msg);
+        return msg;
+    }
+
+    /**
+     * Measures extracting a span context from an AMQP message.
+     *
+     * @return The span context.
+     */
+    @Benchmark
+    public SpanContext extractSpanContext() {
+        return TracingHelper.extractSpanContext(tracer, messageWithContext);
+    }
+}
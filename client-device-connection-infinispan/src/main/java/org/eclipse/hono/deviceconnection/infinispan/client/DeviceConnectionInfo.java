@@ -84,6 +84,23 @@ public interface DeviceConnectionInfo {
      */
     Future<Void> setCommandHandlingAdapterInstance(String tenantId, String deviceId, String adapterInstanceId, SpanContext context);
 
+    /**
+     * Sets the protocol adapter instance that handles commands for each of the given devices or gateways.
+     *
+     * @param tenantId The tenant id.
+     * @param deviceIds The device ids.
+     * @param adapterInstanceId The protocol adapter instance id.
+     * @param context The currently active OpenTracing span context or {@code null} if no span is currently active.
+     *            Implementing classes should use this as the parent for any span they create for tracing
+     *            the execution of this operation.
+     * @return A future indicating the outcome of the operation.
+     *         <p>
+     *         The future will be succeeded if the device connection information has been updated.
+     *         Otherwise the future will be failed with a {@link org.eclipse.hono.client.ServiceInvocationException}.
+     * @throws NullPointerException if any of the parameters except context is {@code null}.
+     */
+    Future<Void> setCommandHandlingAdapterInstanceForDevices(String tenantId, Set<String> deviceIds, String adapterInstanceId, SpanContext context);
+
     /**
      * Removes the mapping information that associates the given device with the given protocol adapter instance
      * that handles commands for the given device. The mapping entry is only deleted if its value
@@ -122,6 +122,12 @@ public final class HotrodBasedDeviceConnectionClient implements DeviceConnection
         return cache.setCommandHandlingAdapterInstance(tenantId, deviceId, adapterInstanceId, context);
     }
 
+    @Override
+    public Future<Void> setCommandHandlingAdapterInstanceForDevices(final List<String> deviceIds, final String adapterInstanceId,
+            final SpanContext context) {
+        return cache.setCommandHandlingAdapterInstanceForDevices(tenantId, new HashSet<>(deviceIds), adapterInstanceId, context);
+    }
+
     @Override
     public Future<Void> removeCommandHandlingAdapterInstance(final String deviceId, final String adapterInstanceId,
             final SpanContext context) {
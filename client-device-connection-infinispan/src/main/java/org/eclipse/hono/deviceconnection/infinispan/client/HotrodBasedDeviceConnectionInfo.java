@@ -159,6 +159,31 @@ public final class HotrodBasedDeviceConnectionInfo implements DeviceConnectionIn
                 });
     }
 
+    @Override
+    public Future<Void> setCommandHandlingAdapterInstanceForDevices(final String tenantId, final Set<String> deviceIds,
+            final String adapterInstanceId, final SpanContext context) {
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceIds);
+        Objects.requireNonNull(adapterInstanceId);
+
+        if (deviceIds.isEmpty()) {
+            return Future.succeededFuture();
+        }
+        final Map<String, String> entries = deviceIds.stream()
+                .collect(Collectors.toMap(deviceId -> getAdapterInstanceEntryKey(tenantId, deviceId), deviceId -> adapterInstanceId));
+        return cache.putAll(entries)
+                .map(ok -> {
+                    LOG.debug("set command handling adapter instance for {} devices [tenant: {}, adapter-instance: {}]",
+                            deviceIds.size(), tenantId, adapterInstanceId);
+                    return (Void) null;
+                })
+                .recover(t -> {
+                    LOG.debug("failed to set command handling adapter instance for {} devices [tenant: {}, adapter-instance: {}]",
+                            deviceIds.size(), tenantId, adapterInstanceId, t);
+                    return Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_INTERNAL_ERROR, t));
+                });
+    }
+
     @Override
     public Future<Void> removeCommandHandlingAdapterInstance(final String tenantId, final String deviceId,
             final String adapterInstanceId, final SpanContext context) {
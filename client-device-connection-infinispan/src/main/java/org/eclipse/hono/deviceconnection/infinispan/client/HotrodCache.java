@@ -17,23 +17,52 @@ package org.eclipse.hono.deviceconnection.infinispan.client;
 import java.net.HttpURLConnection;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.eclipse.hono.client.ConnectionLifecycle;
 import org.eclipse.hono.client.DisconnectListener;
 import org.eclipse.hono.client.ReconnectListener;
 import org.eclipse.hono.client.ServerErrorException;
-import org.eclipse.hono.util.Futures;
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.RemoteCacheContainer;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryCreated;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryExpired;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryModified;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryRemoved;
+import org.infinispan.client.hotrod.annotation.ClientCacheFailover;
+import org.infinispan.client.hotrod.annotation.ClientListener;
+import org.infinispan.client.hotrod.event.ClientCacheEntryCreatedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryExpiredEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryModifiedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryRemovedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheFailoverEvent;
 import org.infinispan.commons.api.BasicCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
@@ -42,12 +71,39 @@ import io.vertx.core.json.JsonObject;
 
 /**
  * A remote cache that connects to a data grid using the Hotrod protocol.
+ * <p>
+ * The cache can optionally be configured to keep the values retrieved from the data grid
+ * in a local <em>near cache</em> of bounded size, so that repeated look-ups of the same keys
+ * do not require a network round trip. Entries in the near cache expire after a configurable
+ * period of time. They are also invalidated when the corresponding entries in the data grid are
+ * changed, based on events that the data grid sends to a Hotrod client listener registered by this
+ * cache. The near cache is cleared when the connection to the data grid is (re-)established or
+ * when the client fails over to another server of the data grid, because events might have been
+ * missed in these cases.
+ * <p>
+ * All operations on the data grid are executed using the Hotrod client's asynchronous API.
+ * The futures returned by the operations are completed on the vert.x context that the
+ * operation has been invoked on, if any. The duration of the operations is reported by means of the
+ * <em>hono.deviceConnection.cache.operation.duration</em> timer, tagged with the name of the cache,
+ * the operation and its outcome. The number of operations waiting for a response from the data grid
+ * is reported by means of the <em>hono.deviceConnection.cache.operations.pending</em> gauge.
+ * The meters are registered with the meter registry passed in to the constructor. No metrics are
+ * reported if the cache has been created without a meter registry.
  *
  * @param <K> The type of keys used by the cache.
  * @param <V> The type of values stored in the cache.
  */
 public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLifecycle<HotrodCache<K, V>> {
 
+    /**
+     * The name of the timer reporting the duration of operations on the data grid.
+     */
+    public static final String METER_OPERATION_DURATION = "hono.deviceConnection.cache.operation.duration";
+    /**
+     * The name of the gauge reporting the number of pending operations on the data grid.
+     */
+    public static final String METER_OPERATIONS_PENDING = "hono.deviceConnection.cache.operations.pending";
+
     private static final Logger LOG = LoggerFactory.getLogger(HotrodCache.class);
 
     private final AtomicBoolean connecting = new AtomicBoolean(false);
@@ -57,9 +113,29 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
     private final K connectionCheckKey;
     private final V connectionCheckValue;
 
+    /**
+     * The values retrieved from the data grid or {@code null} if near caching is disabled.
+     * An empty optional represents a key that is not mapped in the data grid.
+     */
+    private final Cache<K, Optional<V>> nearCache;
+    private final NearCacheInvalidator nearCacheInvalidator = new NearCacheInvalidator();
+    /**
+     * The retrievals of values from the data grid that are in progress, keyed by the keys
+     * being retrieved. An invalidation of a near cache entry removes the pending retrieval
+     * of the key, thus preventing a value that has been retrieved from the data grid from
+     * being put to the near cache if the key has been invalidated in the meantime.
+     */
+    private final ConcurrentMap<K, Object> pendingRetrievals = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pendingOperations = new AtomicInteger();
+    private final Map<String, Timer> operationTimers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
     private org.infinispan.client.hotrod.RemoteCache<K, V> cache;
 
     /**
+     * Creates a cache without a near cache.
+     *
      * @param vertx The vert.x instance to run on.
      * @param cacheManager The connection to the remote cache.
      * @param name The name of the (remote) cache.
@@ -74,11 +150,84 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
             final String name,
             final K connectionCheckKey,
             final V connectionCheckValue) {
+        this(vertx, cacheManager, name, connectionCheckKey, connectionCheckValue, 0, Duration.ZERO);
+    }
+
+    /**
+     * Creates a cache with an optional near cache.
+     *
+     * @param vertx The vert.x instance to run on.
+     * @param cacheManager The connection to the remote cache.
+     * @param name The name of the (remote) cache.
+     * @param connectionCheckKey The key to use for checking the connection
+     *                           to the data grid.
+     * @param connectionCheckValue The value to use for checking the connection
+     *                           to the data grid.
+     * @param nearCacheMaxSize The maximum number of entries to keep in the near cache.
+     *                         If &lt;= 0, no near cache is used.
+     * @param nearCacheTimeToLive The period of time after which entries in the near cache expire.
+     *                            If zero or negative, no near cache is used.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    public HotrodCache(
+            final Vertx vertx,
+            final RemoteCacheContainer cacheManager,
+            final String name,
+            final K connectionCheckKey,
+            final V connectionCheckValue,
+            final long nearCacheMaxSize,
+            final Duration nearCacheTimeToLive) {
+        // a composite registry without any registries added discards all meters
+        this(vertx, cacheManager, name, connectionCheckKey, connectionCheckValue, nearCacheMaxSize,
+                nearCacheTimeToLive, new CompositeMeterRegistry());
+    }
+
+    /**
+     * Creates a cache with an optional near cache that reports metrics.
+     *
+     * @param vertx The vert.x instance to run on.
+     * @param cacheManager The connection to the remote cache.
+     * @param name The name of the (remote) cache.
+     * @param connectionCheckKey The key to use for checking the connection
+     *                           to the data grid.
+     * @param connectionCheckValue The value to use for checking the connection
+     *                           to the data grid.
+     * @param nearCacheMaxSize The maximum number of entries to keep in the near cache.
+     *                         If &lt;= 0, no near cache is used.
+     * @param nearCacheTimeToLive The period of time after which entries in the near cache expire.
+     *                            If zero or negative, no near cache is used.
+     * @param meterRegistry The registry to report the cache's metrics to.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    public HotrodCache(
+            final Vertx vertx,
+            final RemoteCacheContainer cacheManager,
+            final String name,
+            final K connectionCheckKey,
+            final V connectionCheckValue,
+            final long nearCacheMaxSize,
+            final Duration nearCacheTimeToLive,
+            final MeterRegistry meterRegistry) {
         this.vertx = Objects.requireNonNull(vertx);
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
         this.cacheManager = Objects.requireNonNull(cacheManager);
         this.cacheName = Objects.requireNonNull(name);
         this.connectionCheckKey = Objects.requireNonNull(connectionCheckKey);
         this.connectionCheckValue = Objects.requireNonNull(connectionCheckValue);
+        Objects.requireNonNull(nearCacheTimeToLive);
+        if (nearCacheMaxSize > 0 && !nearCacheTimeToLive.isNegative() && !nearCacheTimeToLive.isZero()) {
+            LOG.info("using near cache [max size: {}, time to live: {}s]", nearCacheMaxSize,
+                    nearCacheTimeToLive.toSeconds());
+            this.nearCache = Caffeine.newBuilder()
+                    .maximumSize(nearCacheMaxSize)
+                    .expireAfterWrite(nearCacheTimeToLive)
+                    .build();
+        } else {
+            this.nearCache = null;
+        }
+        Gauge.builder(METER_OPERATIONS_PENDING, pendingOperations, AtomicInteger::get)
+            .tag("cache", cacheName)
+            .register(meterRegistry);
     }
 
     public BasicCache<K, V> getCache() {
@@ -169,10 +318,32 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
 
         } else {
 
-            return Futures.create(() -> {
+            invalidateNearCacheEntry(key);
+            return execute("put", () -> {
                 return cache
                     .withFlags(Flag.FORCE_RETURN_VALUE)
-                    .putAsync(key, value);
+                    .putAsync(key, value)
+                    .whenComplete((previousValue, error) -> invalidateNearCacheEntry(key));
+            });
+
+        }
+
+    }
+
+    @Override
+    public Future<Void> putAll(final Map<? extends K, ? extends V> entries) {
+
+        if (cache == null) {
+
+            return noConnectionFailure();
+
+        } else {
+
+            entries.keySet().forEach(this::invalidateNearCacheEntry);
+            return execute("putAll", () -> {
+                return cache
+                    .putAllAsync(entries)
+                    .whenComplete((ok, error) -> entries.keySet().forEach(this::invalidateNearCacheEntry));
             });
 
         }
@@ -188,10 +359,12 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
 
         } else {
 
-            return Futures.create(() -> {
+            invalidateNearCacheEntry(key);
+            return execute("removeWithVersion", () -> {
                 return cache
                     .withFlags(Flag.FORCE_RETURN_VALUE)
-                    .removeWithVersionAsync(key, version);
+                    .removeWithVersionAsync(key, version)
+                    .whenComplete((removed, error) -> invalidateNearCacheEntry(key));
             });
 
         }
@@ -215,10 +388,16 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
 
         } else {
 
-            return Futures.create(() -> {
-                return cache
-                    .getAsync(key);
-            });
+            if (nearCache != null) {
+                final Optional<V> cachedValue = nearCache.getIfPresent(key);
+                if (cachedValue != null) {
+                    return Future.succeededFuture(cachedValue.orElse(null));
+                }
+            }
+            return execute("get", () -> retrieve(
+                    Set.of(key),
+                    () -> cache.getAsync(key),
+                    value -> Collections.singletonMap(key, value)));
 
         }
 
@@ -241,7 +420,7 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
 
         } else {
 
-            return Futures.create(() -> {
+            return execute("getWithVersion", () -> {
                 return cache
                     .getWithMetadataAsync(key)
                     .thenApply(value -> {
@@ -264,15 +443,153 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
 
             return noConnectionFailure();
 
-        } else {
+        } else if (nearCache == null) {
 
-            return Futures.create(() -> {
+            return execute("getAll", () -> {
                 return cache
                     .getAllAsync(keys);
             });
 
+        } else {
+
+            final Map<K, V> result = new HashMap<>();
+            final Set<K> keysToRetrieve = new HashSet<>();
+            for (final K key : keys) {
+                final Optional<V> cachedValue = nearCache.getIfPresent(key);
+                if (cachedValue == null) {
+                    keysToRetrieve.add(key);
+                } else {
+                    cachedValue.ifPresent(value -> result.put(key, value));
+                }
+            }
+            if (keysToRetrieve.isEmpty()) {
+                return Future.succeededFuture(result);
+            }
+            return execute("getAll", () -> retrieve(
+                    keysToRetrieve,
+                    () -> cache.getAllAsync(keysToRetrieve),
+                    Function.identity())
+                .thenApply(values -> {
+                    result.putAll(values);
+                    return result;
+                }));
+        }
+
+    }
+
+    /**
+     * Executes an asynchronous operation on the data grid.
+     *
+     * @param <T> The type of the operation's result.
+     * @param operation The name of the operation.
+     * @param operationSupplier The supplier invoking the operation.
+     * @return A future indicating the outcome of the operation. If this method is invoked
+     *         on a vert.x context, the future will be completed on that context.
+     */
+    private <T> Future<T> execute(final String operation, final Supplier<CompletionStage<T>> operationSupplier) {
+
+        final Context currentContext = Vertx.currentContext();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        final Promise<T> result = Promise.promise();
+
+        final CompletionStage<T> stage;
+        try {
+            stage = operationSupplier.get();
+        } catch (final Exception e) {
+            sample.stop(getOperationTimer(operation, false));
+            return Future.failedFuture(e);
+        }
+
+        pendingOperations.incrementAndGet();
+        stage.whenComplete((value, error) -> {
+            pendingOperations.decrementAndGet();
+            sample.stop(getOperationTimer(operation, error == null));
+            if (currentContext == null) {
+                complete(result, value, error);
+            } else {
+                currentContext.runOnContext(go -> complete(result, value, error));
+            }
+        });
+        return result.future();
+    }
+
+    private static <T> void complete(final Promise<T> result, final T value, final Throwable error) {
+        if (error == null) {
+            result.complete(value);
+        } else if (error instanceof CompletionException && error.getCause() != null) {
+            result.fail(error.getCause());
+        } else {
+            result.fail(error);
+        }
+    }
+
+    private Timer getOperationTimer(final String operation, final boolean succeeded) {
+        final String outcome = succeeded ? "succeeded" : "failed";
+        return operationTimers.computeIfAbsent(operation + outcome, key -> Timer.builder(METER_OPERATION_DURATION)
+                .tag("cache", cacheName)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Retrieves values from the data grid and puts them to the near cache.
+     * <p>
+     * A retrieved value is only put to the near cache if the corresponding near cache
+     * entry has not been invalidated while the value was being retrieved.
+     *
+     * @param <T> The type of the retrieval's outcome.
+     * @param keys The keys to retrieve the values for.
+     * @param retrieval The supplier invoking the retrieval.
+     * @param valuesExtractor The function to use for extracting the retrieved values by key
+     *                        from the outcome of the retrieval.
+     * @return The outcome of the retrieval.
+     */
+    private <T> CompletionStage<T> retrieve(
+            final Set<K> keys,
+            final Supplier<CompletionStage<T>> retrieval,
+            final Function<T, Map<K, V>> valuesExtractor) {
+
+        if (nearCache == null) {
+            return retrieval.get();
+        }
+
+        final Object pendingRetrieval = new Object();
+        keys.forEach(key -> pendingRetrievals.put(key, pendingRetrieval));
+        try {
+            return retrieval.get().whenComplete((outcome, error) -> {
+                final Map<K, V> values = error == null ? valuesExtractor.apply(outcome) : null;
+                keys.forEach(key -> pendingRetrievals.computeIfPresent(key, (k, retrievalInProgress) -> {
+                    if (retrievalInProgress != pendingRetrieval) {
+                        // another retrieval of the key has been started in the meantime
+                        return retrievalInProgress;
+                    }
+                    if (values != null) {
+                        nearCache.put(k, Optional.ofNullable(values.get(k)));
+                    }
+                    return null;
+                }));
+            });
+        } catch (final RuntimeException e) {
+            keys.forEach(key -> pendingRetrievals.remove(key, pendingRetrieval));
+            throw e;
+        }
+    }
+
+    private void invalidateNearCacheEntry(final K key) {
+        if (nearCache != null) {
+            // the pending retrieval needs to be removed before the entry is invalidated
+            // in order to prevent the retrieval from putting a stale value to the near cache
+            pendingRetrievals.remove(key);
+            nearCache.invalidate(key);
         }
+    }
 
+    private void invalidateNearCache() {
+        if (nearCache != null) {
+            pendingRetrievals.clear();
+            nearCache.invalidateAll();
+        }
     }
 
     private Future<Void> connectToGrid() {
@@ -294,6 +611,12 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
                         r.fail(new IllegalStateException("remote cache [" + cacheName + "] does not exist"));
                     } else {
                         cache.start();
+                        if (nearCache != null) {
+                            invalidateNearCache();
+                            if (!cache.getListeners().contains(nearCacheInvalidator)) {
+                                cache.addClientListener(nearCacheInvalidator);
+                            }
+                        }
                         r.complete(cache);
                     }
                 } catch (final Throwable t) {
@@ -358,4 +681,37 @@ public final class HotrodCache<K, V> implements RemoteCache<K, V>, ConnectionLif
                 HttpURLConnection.HTTP_UNAVAILABLE, "no connection to data grid"));
     }
 
+    /**
+     * A Hotrod client listener that invalidates near cache entries
+     * when the corresponding entries in the data grid change.
+     */
+    @ClientListener
+    private final class NearCacheInvalidator {
+
+        @ClientCacheEntryCreated
+        public void onCreated(final ClientCacheEntryCreatedEvent<K> event) {
+            invalidateNearCacheEntry(event.getKey());
+        }
+
+        @ClientCacheEntryModified
+        public void onModified(final ClientCacheEntryModifiedEvent<K> event) {
+            invalidateNearCacheEntry(event.getKey());
+        }
+
+        @ClientCacheEntryRemoved
+        public void onRemoved(final ClientCacheEntryRemovedEvent<K> event) {
+            invalidateNearCacheEntry(event.getKey());
+        }
+
+        @ClientCacheEntryExpired
+        public void onExpired(final ClientCacheEntryExpiredEvent<K> event) {
+            invalidateNearCacheEntry(event.getKey());
+        }
+
+        @ClientCacheFailover
+        public void onFailover(final ClientCacheFailoverEvent event) {
+            LOG.debug("client failed over to other server, clearing near cache");
+            invalidateNearCache();
+        }
+    }
 }
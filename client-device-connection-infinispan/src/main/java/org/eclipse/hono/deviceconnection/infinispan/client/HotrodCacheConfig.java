@@ -13,6 +13,7 @@
 
 package org.eclipse.hono.deviceconnection.infinispan.client;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.eclipse.hono.client.BasicDeviceConnectionClientFactory;
@@ -24,6 +25,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.opentracing.Tracer;
 import io.opentracing.noop.NoopTracerFactory;
 import io.vertx.core.Vertx;
@@ -65,17 +68,23 @@ public class HotrodCacheConfig {
      * connection information.
      *
      * @param vertx The vert.x instance to run on.
+     * @param meterRegistry The registry to report the cache's metrics to.
+     *                      If empty, no metrics are reported.
      * @return The cache.
      */
     @Bean
     @ConditionalOnProperty(prefix = "hono.device-connection", name = "server-list")
-    public HotrodCache<String, String> remoteCache(final Vertx vertx) {
+    public HotrodCache<String, String> remoteCache(final Vertx vertx, final Optional<MeterRegistry> meterRegistry) {
+        final InfinispanRemoteConfigurationProperties properties = remoteCacheProperties();
         return new HotrodCache<>(
                 vertx,
                 remoteCacheManager(),
                 DeviceConnectionConstants.CACHE_NAME,
                 "KEY_CHECK_CONNECTION",
-                "VALUE_CHECK_CONNECTION");
+                "VALUE_CHECK_CONNECTION",
+                properties.getNearCacheMaxSize(),
+                Duration.ofSeconds(properties.getNearCacheTimeToLive()),
+                meterRegistry.orElseGet(CompositeMeterRegistry::new));
     }
 
     /**
@@ -28,8 +28,16 @@ import org.slf4j.LoggerFactory;
  */
 public class InfinispanRemoteConfigurationProperties extends ConfigurationProperties {
 
+    /**
+     * The default number of seconds after which entries in the near cache expire.
+     */
+    public static final int DEFAULT_NEAR_CACHE_TIME_TO_LIVE = 30;
+
     private static final Logger LOG = LoggerFactory.getLogger(InfinispanRemoteConfigurationProperties.class);
 
+    private long nearCacheMaxSize = 0;
+    private int nearCacheTimeToLive = DEFAULT_NEAR_CACHE_TIME_TO_LIVE;
+
     /**
      * Gets a builder for this configuration.
      * 
@@ -75,4 +83,62 @@ public class InfinispanRemoteConfigurationProperties extends ConfigurationProper
            getProperties().setProperty(key, v);
        });
     }
+
+    /**
+     * Gets the maximum number of entries to keep in the local near cache
+     * in front of the remote cache.
+     * <p>
+     * Note that this near cache is maintained by Hono and is independent of the
+     * near cache that can be configured for the Hotrod client by means of the
+     * <em>nearCacheMode</em> and <em>nearCacheMaxEntries</em> properties.
+     * <p>
+     * The default value of this property is 0, which means that no near cache is used.
+     *
+     * @return The maximum number of entries.
+     */
+    public final long getNearCacheMaxSize() {
+        return nearCacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of entries to keep in the local near cache
+     * in front of the remote cache.
+     * <p>
+     * The default value of this property is 0, which means that no near cache is used.
+     *
+     * @param maxSize The maximum number of entries.
+     * @throws IllegalArgumentException if size is &lt; 0.
+     */
+    public final void setNearCacheMaxSize(final long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("max size must be >= 0");
+        }
+        this.nearCacheMaxSize = maxSize;
+    }
+
+    /**
+     * Gets the period of time after which entries in the local near cache expire.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_NEAR_CACHE_TIME_TO_LIVE}.
+     *
+     * @return The period of time in seconds.
+     */
+    public final int getNearCacheTimeToLive() {
+        return nearCacheTimeToLive;
+    }
+
+    /**
+     * Sets the period of time after which entries in the local near cache expire.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_NEAR_CACHE_TIME_TO_LIVE}.
+     *
+     * @param timeToLive The period of time in seconds.
+     * @throws IllegalArgumentException if the period is &lt; 1.
+     */
+    public final void setNearCacheTimeToLive(final int timeToLive) {
+        if (timeToLive < 1) {
+            throw new IllegalArgumentException("time to live must be > 0");
+        }
+        this.nearCacheTimeToLive = timeToLive;
+    }
 }
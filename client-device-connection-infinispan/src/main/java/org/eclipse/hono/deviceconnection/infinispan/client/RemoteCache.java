@@ -21,6 +21,10 @@ import io.vertx.core.json.JsonObject;
 
 /**
  * A simple {@code Map} like interface to a remote data grid.
+ * <p>
+ * Implementations are expected to not block the calling thread while waiting for the
+ * data grid's response. The futures returned by the methods are completed on the vert.x
+ * context that the method has been invoked on, if any.
  *
  * @param <K> The type of keys used for looking up data.
  * @param <V> The type of values stored in grid.
@@ -46,6 +50,17 @@ public interface RemoteCache<K, V> {
      */
     Future<V> put(K key, V value);
 
+    /**
+     * Puts values to the cache.
+     * <p>
+     * Any previous values for the keys will be replaced with the new ones.
+     *
+     * @param entries The key/value pairs to put.
+     * @return A succeeded future if the values have been stored in the cache.
+     *         A failed future if the values could not be stored in the cache.
+     */
+    Future<Void> putAll(Map<? extends K, ? extends V> entries);
+
     /**
      * Removes the cache entry for a key only if the currently mapped entry has the given version.
      *
@@ -191,6 +191,24 @@ class HotrodBasedDeviceConnectionInfoTest {
                 .setHandler(ctx.succeeding(result -> ctx.completeNow()));
     }
 
+    /**
+     * Verifies that the <em>setCommandHandlingAdapterInstanceForDevices</em> operation sets the
+     * adapter instance for all given devices.
+     *
+     * @param ctx The vert.x context.
+     */
+    @Test
+    public void testSetCommandHandlingAdapterInstanceForDevicesSucceeds(final VertxTestContext ctx) {
+        final String adapterInstance = "adapterInstance";
+        final Set<String> deviceIds = Set.of("device1", "device2");
+        info.setCommandHandlingAdapterInstanceForDevices(Constants.DEFAULT_TENANT, deviceIds, adapterInstance, spanContext)
+        .compose(v -> info.getCommandHandlingAdapterInstances(Constants.DEFAULT_TENANT, "device1", Set.of("device2"), spanContext))
+        .setHandler(ctx.succeeding(result -> ctx.verify(() -> {
+            assertGetInstancesResultMapping(result, "device1", adapterInstance);
+            ctx.completeNow();
+        })));
+    }
+
 
     /**
      * Verifies that the <em>removeCommandHandlingAdapterInstance</em> operation succeeds if there was an entry to be deleted.
@@ -640,6 +658,12 @@ class HotrodBasedDeviceConnectionInfoTest {
             return Future.succeededFuture(oldValue != null ? oldValue.getValue() : null);
         }
 
+        @Override
+        public Future<Void> putAll(final Map<? extends String, ? extends String> entries) {
+            entries.forEach(this::put);
+            return Future.succeededFuture();
+        }
+
         @Override
         public Future<Boolean> removeWithVersion(final String key, final long version) {
             final Versioned<String> versioned = map.get(key);
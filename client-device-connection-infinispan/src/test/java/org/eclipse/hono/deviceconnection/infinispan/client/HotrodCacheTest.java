@@ -22,9 +22,11 @@ import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -40,6 +42,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
@@ -163,6 +169,25 @@ class HotrodCacheTest {
             }));
     }
 
+    /**
+     * Verifies that a request to put multiple values to the cache
+     * results in the values being written to the data grid in a single operation.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testPutAllSucceeds(final VertxTestContext ctx) {
+        final BasicCache<Object, Object> grid = givenAConnectedCache();
+        when(grid.putAllAsync(any(Map.class))).thenReturn(CompletableFuture.completedFuture(null));
+        final Map<String, String> entries = Map.of("key1", "value1", "key2", "value2");
+        cache.connect()
+            .compose(c -> c.putAll(entries))
+            .setHandler(ctx.succeeding(v -> {
+                ctx.verify(() -> verify(grid).putAllAsync(entries));
+                ctx.completeNow();
+            }));
+    }
+
     /**
      * Verifies that a request to remove a cache entry with a version
      * results in the value being removed in the data grid.
@@ -299,6 +324,228 @@ class HotrodCacheTest {
                 }));
     }
 
+    /**
+     * Verifies that values retrieved from the data grid are served from the near cache,
+     * if configured, when being requested again.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testGetUsesNearCache(final VertxTestContext ctx) {
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        when(grid.getAsync("key")).thenReturn(CompletableFuture.completedFuture("value"));
+        when(grid.getAsync("unknown")).thenReturn(CompletableFuture.completedFuture(null));
+        cache = newCacheWithNearCache();
+        cache.connect()
+            .compose(c -> c.get("key"))
+            .compose(v -> cache.get("key"))
+            .compose(v -> {
+                ctx.verify(() -> assertThat(v).isEqualTo("value"));
+                return cache.get("unknown");
+            })
+            .compose(v -> cache.get("unknown"))
+            .setHandler(ctx.succeeding(v -> {
+                ctx.verify(() -> {
+                    assertThat(v).isNull();
+                    verify(grid).getAsync("key");
+                    verify(grid).getAsync("unknown");
+                    verify(grid).addClientListener(any());
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that only the values that are not contained in the near cache are
+     * retrieved from the data grid.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testGetAllRetrievesMissingValuesOnly(final VertxTestContext ctx) {
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        when(grid.getAsync("key")).thenReturn(CompletableFuture.completedFuture("value"));
+        when(grid.getAllAsync(Set.of("otherKey"))).thenReturn(CompletableFuture.completedFuture(Map.of("otherKey", "otherValue")));
+        cache = newCacheWithNearCache();
+        cache.connect()
+            .compose(c -> c.get("key"))
+            .compose(v -> cache.getAll(Set.of("key", "otherKey")))
+            .setHandler(ctx.succeeding(v -> {
+                ctx.verify(() -> {
+                    assertThat(v).containsOnly(Map.entry("key", "value"), Map.entry("otherKey", "otherValue"));
+                    verify(grid).getAllAsync(Set.of("otherKey"));
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that putting a value to the cache invalidates the corresponding
+     * entry in the near cache.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testPutInvalidatesNearCacheEntry(final VertxTestContext ctx) {
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        when(grid.getAsync("key")).thenReturn(
+                CompletableFuture.completedFuture("value"),
+                CompletableFuture.completedFuture("newValue"));
+        when(grid.putAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture("value"));
+        cache = newCacheWithNearCache();
+        cache.connect()
+            .compose(c -> c.get("key"))
+            .compose(v -> cache.put("key", "newValue"))
+            .compose(v -> cache.get("key"))
+            .setHandler(ctx.succeeding(v -> {
+                ctx.verify(() -> {
+                    assertThat(v).isEqualTo("newValue");
+                    verify(grid, times(2)).getAsync("key");
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that a value retrieved from the data grid is not put to the near cache
+     * if the corresponding entry has been invalidated while the value was being retrieved.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testGetDoesNotCacheValueOfKeyInvalidatedDuringRetrieval(final VertxTestContext ctx) {
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        final CompletableFuture<Object> pendingRetrieval = new CompletableFuture<>();
+        when(grid.getAsync("key")).thenReturn(pendingRetrieval, CompletableFuture.completedFuture("newValue"));
+        when(grid.putAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture("value"));
+        cache = newCacheWithNearCache();
+        cache.connect()
+            .compose(c -> {
+                final Future<String> retrieval = c.get("key");
+                return c.put("key", "newValue")
+                        .compose(ok -> {
+                            pendingRetrieval.complete("value");
+                            return retrieval;
+                        });
+            })
+            .compose(v -> cache.get("key"))
+            .setHandler(ctx.succeeding(v -> {
+                ctx.verify(() -> {
+                    assertThat(v).isEqualTo("newValue");
+                    verify(grid, times(2)).getAsync("key");
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that a value retrieved from the data grid is put to the near cache
+     * even if another entry has been invalidated while the value was being retrieved.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testGetCachesValueIfOtherKeyIsInvalidatedDuringRetrieval(final VertxTestContext ctx) {
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        final CompletableFuture<Object> pendingRetrieval = new CompletableFuture<>();
+        when(grid.getAsync("key")).thenReturn(pendingRetrieval);
+        when(grid.putAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        cache = newCacheWithNearCache();
+        cache.connect()
+            .compose(c -> {
+                final Future<String> retrieval = c.get("key");
+                return c.put("otherKey", "otherValue")
+                        .compose(ok -> {
+                            pendingRetrieval.complete("value");
+                            return retrieval;
+                        });
+            })
+            .compose(v -> cache.get("key"))
+            .setHandler(ctx.succeeding(v -> {
+                ctx.verify(() -> {
+                    assertThat(v).isEqualTo("value");
+                    verify(grid).getAsync("key");
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that the future returned by an operation is completed on the vert.x context
+     * that the operation has been invoked on, even if the data grid completes the
+     * operation on another thread.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testGetCompletesOnCallingContext(final VertxTestContext ctx) {
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        when(grid.getAsync(anyString())).thenReturn(CompletableFuture.supplyAsync(() -> "value"));
+        final Vertx realVertx = Vertx.vertx();
+        final Context context = realVertx.getOrCreateContext();
+        cache.connect().setHandler(ctx.succeeding(c -> {
+            context.runOnContext(go -> {
+                c.get("key").setHandler(ctx.succeeding(v -> {
+                    ctx.verify(() -> {
+                        assertThat(v).isEqualTo("value");
+                        assertThat(Vertx.currentContext()).isEqualTo(context);
+                    });
+                    realVertx.close();
+                    ctx.completeNow();
+                }));
+            });
+        }));
+    }
+
+    /**
+     * Verifies that a failed operation is reported with the root cause of the failure
+     * instead of a {@code CompletionException}.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testPutFailsWithRootCause(final VertxTestContext ctx) {
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        when(grid.putAsync(anyString(), anyString())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException()));
+        // the near cache adds a completion stage to the operation
+        newCacheWithNearCache().connect()
+            .compose(c -> c.put("key", "value"))
+            .setHandler(ctx.failing(t -> {
+                ctx.verify(() -> assertThat(t).isInstanceOf(IllegalStateException.class));
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that the duration of operations is reported to the meter registry
+     * that the cache has been created with.
+     *
+     * @param ctx The vert.x text context.
+     */
+    @Test
+    void testOperationDurationIsReportedToMeterRegistry(final VertxTestContext ctx) {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final org.infinispan.client.hotrod.RemoteCache<Object, Object> grid = givenAConnectedCache();
+        when(grid.getAsync(anyString())).thenReturn(CompletableFuture.completedFuture("value"));
+        new HotrodCache<>(vertx, remoteCacheManager, "cache", "testKey", "testValue", 0, Duration.ZERO, meterRegistry)
+            .connect()
+            .compose(c -> c.get("key"))
+            .setHandler(ctx.succeeding(v -> {
+                ctx.verify(() -> {
+                    assertThat(meterRegistry.find(HotrodCache.METER_OPERATIONS_PENDING).gauge()).isNotNull();
+                    assertThat(meterRegistry.find(HotrodCache.METER_OPERATION_DURATION)
+                            .tag("operation", "get")
+                            .timer()
+                            .count()).isEqualTo(1);
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    private HotrodCache<String, String> newCacheWithNearCache() {
+        return new HotrodCache<>(vertx, remoteCacheManager, "cache", "testKey", "testValue", 100, Duration.ofSeconds(10));
+    }
+
     private org.infinispan.client.hotrod.RemoteCache<Object, Object> givenAConnectedCache() {
         final Configuration configuration = mock(Configuration.class);
         @SuppressWarnings("unchecked")
@@ -13,6 +13,9 @@
 
 package org.eclipse.hono.client;
 
+import java.time.Duration;
+
+import org.eclipse.hono.cache.CacheProvider;
 import org.eclipse.hono.client.impl.CommandTargetMapperImpl;
 import org.eclipse.hono.util.DeviceConnectionConstants;
 
@@ -56,6 +59,21 @@ public interface CommandTargetMapper {
         return new CommandTargetMapperImpl(tracer);
     }
 
+    /**
+     * Creates a new {@link CommandTargetMapper} using the default implementation
+     * which caches the determined targets.
+     *
+     * @param tracer The tracer instance.
+     * @param cacheProvider The provider of the cache to put the targets to.
+     * @param cacheTimeout The duration for which a target is cached.
+     * @return The CommandTargetMapper instance.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     */
+    static CommandTargetMapper create(final Tracer tracer, final CacheProvider cacheProvider, final Duration cacheTimeout) {
+        return new CommandTargetMapperImpl(tracer, cacheProvider, cacheTimeout);
+    }
+
     /**
      * Initializes the CommandTargetMapper with the given components.
      *
@@ -107,4 +125,19 @@ public interface CommandTargetMapper {
      */
     Future<JsonObject> getTargetGatewayAndAdapterInstance(String tenantId, String deviceId, SpanContext context);
 
+    /**
+     * Invalidates any cached information about the target of commands directed at the given device.
+     * <p>
+     * This method is to be invoked whenever a command consumer for the device (or gateway) is
+     * created or closed on the local protocol adapter instance.
+     * <p>
+     * This default implementation does nothing.
+     *
+     * @param tenantId The tenant identifier.
+     * @param deviceId The identifier of the device or gateway.
+     */
+    default void invalidateTarget(final String tenantId, final String deviceId) {
+        // nothing to invalidate
+    }
+
 }
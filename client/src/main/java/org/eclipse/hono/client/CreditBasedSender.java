@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -57,4 +57,24 @@ public interface CreditBasedSender {
      *             already waiting for credit.
      */
     void sendQueueDrainHandler(Handler<Void> handler);
+
+    /**
+     * Adds a handler to be notified once this sender has been replenished with credit.
+     * <p>
+     * Each handler registered using this method will be invoked <em>exactly once</em> when this
+     * sender is replenished with more credit from the peer. In contrast to
+     * {@link #sendQueueDrainHandler(Handler)}, any number of handlers may be registered.
+     * This allows multiple parties sharing this sender to be notified, e.g. in order to
+     * stop applying backpressure to the sources of the messages to send.
+     * <p>
+     * This default implementation simply invokes {@link #sendQueueDrainHandler(Handler)}.
+     *
+     * @param handler The handler to invoke when this sender has been replenished with credit.
+     * @throws NullPointerException if handler is {@code null}.
+     * @throws IllegalStateException if this sender does not support registering multiple handlers
+     *             and there already is a handler registered.
+     */
+    default void addCreditReplenishedHandler(final Handler<Void> handler) {
+        sendQueueDrainHandler(handler);
+    }
 }
@@ -80,6 +80,22 @@ public interface DeviceConnectionClient extends RequestResponseClient {
      */
     Future<Void> setCommandHandlingAdapterInstance(String deviceId, String adapterInstanceId, SpanContext context);
 
+    /**
+     * Sets the protocol adapter instance that handles commands for each of the given devices.
+     * <p>
+     * This operation is equivalent to invoking {@link #setCommandHandlingAdapterInstance(String, String, SpanContext)}
+     * for each of the devices but requires only a single request to the service.
+     *
+     * @param deviceIds The device ids.
+     * @param adapterInstanceId The protocol adapter instance id.
+     * @param context The currently active OpenTracing span context or {@code null} if no span is currently active.
+     *            An implementation should use this as the parent for any span it creates for tracing
+     *            the execution of this operation.
+     * @return A future indicating whether the operation succeeded or not.
+     * @throws NullPointerException if device ids or adapter instance id is {@code null}.
+     */
+    Future<Void> setCommandHandlingAdapterInstanceForDevices(List<String> deviceIds, String adapterInstanceId, SpanContext context);
+
     /**
      * Removes the mapping information that associates the given device with the given protocol adapter instance
      * that handles commands for the given device. The mapping entry is only deleted if its value
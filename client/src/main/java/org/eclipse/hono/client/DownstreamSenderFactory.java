@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2019, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -15,8 +15,11 @@
 package org.eclipse.hono.client;
 
 import org.eclipse.hono.client.impl.DownstreamSenderFactoryImpl;
+import org.eclipse.hono.client.impl.PooledDownstreamSenderFactory;
+import org.eclipse.hono.config.ClientConfigProperties;
 
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 
 /**
  * A factory for creating clients for Hono's south bound Telemetry and Event APIs.
@@ -35,6 +38,21 @@ public interface DownstreamSenderFactory extends ConnectionLifecycle<HonoConnect
         return new DownstreamSenderFactoryImpl(connection);
     }
 
+    /**
+     * Creates a new factory which distributes the senders it creates over a pool of connections.
+     * <p>
+     * The number of connections is determined by the configuration's <em>connectionPoolSize</em>
+     * property. The senders for a particular tenant are always created on the same connection.
+     *
+     * @param vertx The vert.x instance to use.
+     * @param config The configuration properties to use for the connections.
+     * @return The factory.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    static DownstreamSenderFactory createPooled(final Vertx vertx, final ClientConfigProperties config) {
+        return new PooledDownstreamSenderFactory(vertx, config);
+    }
+
     /**
      * Gets a client for sending data to Hono's south bound <em>Telemetry</em> API.
      * <p>
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,7 +13,14 @@
 
 package org.eclipse.hono.client;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 import io.opentracing.SpanContext;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
@@ -102,6 +109,61 @@ public interface RegistrationClient extends RequestResponseClient {
         return assertRegistration(deviceId, gatewayId);
     }
 
+    /**
+     * Asserts that a set of devices are registered and <em>enabled</em> and that
+     * a gateway is authorized to act on behalf of these devices.
+     * <p>
+     * This allows a gateway to get the assertions for all of the devices that it is
+     * connected to in a single round trip instead of one request per device.
+     * Implementations that cache assertions should put each of the individual
+     * assertions to the cache so that subsequent invocations of
+     * {@link #assertRegistration(String, String, SpanContext)} for any of the devices
+     * can be served from the cache.
+     * <p>
+     * This default implementation simply invokes {@link #assertRegistration(String, String, SpanContext)}
+     * for each of the devices.
+     *
+     * @param deviceIds The IDs of the devices to get the assertions for.
+     * @param gatewayId The gateway that wants to act on behalf of the devices.
+     * @param context The currently active OpenTracing span. An implementation
+     *         should use this as the parent for any span it creates for tracing
+     *         the execution of this operation.
+     * @return A future indicating the result of the operation.
+     *         <p>
+     *         The future will succeed with a map containing the assertions of all devices
+     *         for which a response with status 200 has been received from the registration service,
+     *         indexed by device ID. The assertions contain values as defined in
+     *         <a href="https://www.eclipse.org/hono/docs/api/device-registration/#assert-device-registration">
+     *         Assert Device Registration</a>. Devices for which the registration status could not be
+     *         asserted are not contained in the map.
+     *         <p>
+     *         Otherwise, the future will fail with a {@link ServiceInvocationException} containing
+     *         the (error) status code returned by the service.
+     * @throws NullPointerException if device IDs or gateway ID are {@code null}.
+     * @see RequestResponseClient#setRequestTimeout(long)
+     */
+    default Future<Map<String, JsonObject>> assertRegistrations(
+            final List<String> deviceIds,
+            final String gatewayId,
+            final SpanContext context) {
+
+        Objects.requireNonNull(deviceIds);
+        Objects.requireNonNull(gatewayId);
+
+        final Map<String, Future<JsonObject>> assertions = new HashMap<>(deviceIds.size());
+        deviceIds.forEach(deviceId -> assertions.computeIfAbsent(
+                deviceId,
+                id -> assertRegistration(id, gatewayId, context)));
+
+        @SuppressWarnings("rawtypes")
+        final List<Future> futures = assertions.values().stream().collect(Collectors.toList());
+        return CompositeFuture.join(futures)
+                .recover(t -> Future.succeededFuture())
+                .map(ok -> assertions.entrySet().stream()
+                        .filter(entry -> entry.getValue().succeeded())
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().result())));
+    }
+
     /**
      * Gets registration information for a device.
      *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -14,12 +14,15 @@ package org.eclipse.hono.client.impl;
 
 import java.net.HttpURLConnection;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import org.apache.qpid.proton.amqp.messaging.Accepted;
@@ -88,6 +91,10 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
     protected final String linkTargetAddress;
 
     private final Map<Object, TriTuple<Handler<AsyncResult<R>>, Object, Span>> replyMap = new HashMap<>();
+    /**
+     * The handlers that have joined an outstanding request, indexed by the request's cache key.
+     */
+    private final Map<Object, List<Handler<AsyncResult<R>>>> coalescedRequests = new HashMap<>();
     private Handler<Void> drainHandler;
     private final String replyToAddress;
     private final String tenantId;
@@ -814,6 +821,12 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
      * if no response is received within <em>requestTimeoutMillis</em> milliseconds.
      * <p>
      * The given span is never finished by this method.
+     * <p>
+     * If caching is enabled and a cache key is given, concurrent requests for the same key
+     * are coalesced, i.e. if a request for the key is already outstanding, no new request message
+     * is sent but the result handler is instead notified about the outcome of the outstanding request.
+     * This prevents a burst of identical requests from hitting the peer before the first response
+     * has been put to the cache.
      * 
      * @param request The message to send.
      * @param resultHandler The handler to notify about the outcome of the request.
@@ -836,6 +849,10 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
 
         connection.executeOnContext(res -> {
 
+            if (joinOutstandingRequest(cacheKey, resultHandler, currentSpan)) {
+                return;
+            }
+
             if (sender.sendQueueFull()) {
                 LOG.debug("cannot send request to peer, no credit left for link [link target: {}]", linkTargetAddress);
                 resultHandler.handle(Future.failedFuture(new ServerErrorException(
@@ -851,7 +868,15 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                 details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
                 currentSpan.log(details);
 
-                final TriTuple<Handler<AsyncResult<R>>, Object, Span> handler = TriTuple.of(resultHandler, cacheKey, currentSpan);
+                final AtomicReference<HashedWheelTimeouts.Timeout> timeout = new AtomicReference<>();
+                final Handler<AsyncResult<R>> outstandingRequestHandler = registerOutstandingRequest(cacheKey, resultHandler);
+                final TriTuple<Handler<AsyncResult<R>>, Object, Span> handler = TriTuple.of(
+                        result -> {
+                            Optional.ofNullable(timeout.get()).ifPresent(HashedWheelTimeouts.Timeout::cancel);
+                            outstandingRequestHandler.handle(result);
+                        },
+                        cacheKey,
+                        currentSpan);
                 TracingHelper.injectSpanContext(connection.getTracer(), currentSpan.context(), request);
                 replyMap.put(correlationId, handler);
 
@@ -878,7 +903,7 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                         // if no reply-to is set, the request is assumed to be one-way (no response is expected)
                         if (request.getReplyTo() == null) {
                             replyMap.remove(correlationId);
-                            resultHandler.handle(Future.succeededFuture());
+                            handler.one().handle(Future.succeededFuture());
                         }
                     } else if (Released.class.isInstance(remoteState)) {
                         LOG.debug("service did not accept request [target address: {}, subject: {}, correlation ID: {}], remote state: {}",
@@ -902,10 +927,10 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                     }
                 });
                 if (requestTimeoutMillis > 0) {
-                    connection.getVertx().setTimer(requestTimeoutMillis, tid -> {
+                    timeout.set(HashedWheelTimeouts.schedule(connection.getVertx(), requestTimeoutMillis, expired -> {
                         cancelRequest(correlationId, Future.failedFuture(new ServerErrorException(
                                 HttpURLConnection.HTTP_UNAVAILABLE, "request timed out after " + requestTimeoutMillis + "ms")));
-                    });
+                    }));
                 }
                 if (LOG.isDebugEnabled()) {
                     final String deviceId = MessageHelper.getDeviceId(request);
@@ -927,6 +952,63 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
         });
     }
 
+    /**
+     * Adds a result handler to the handlers waiting for the outcome of an outstanding
+     * request with the same cache key.
+     *
+     * @param cacheKey The cache key of the request (may be {@code null}).
+     * @param resultHandler The handler to add.
+     * @param currentSpan The span used to trace the request execution.
+     * @return {@code true} if a request with the same cache key is outstanding and
+     *         the handler has been added to its waiting handlers.
+     */
+    private boolean joinOutstandingRequest(
+            final Object cacheKey,
+            final Handler<AsyncResult<R>> resultHandler,
+            final Span currentSpan) {
+
+        if (cacheKey == null || !isCachingEnabled()) {
+            return false;
+        }
+        final List<Handler<AsyncResult<R>>> waitingHandlers = coalescedRequests.get(cacheKey);
+        if (waitingHandlers == null) {
+            return false;
+        } else {
+            LOG.trace("joining outstanding request [target: {}, cache key: {}]", linkTargetAddress, cacheKey);
+            currentSpan.log("joining outstanding request for same cache key");
+            waitingHandlers.add(resultHandler);
+            return true;
+        }
+    }
+
+    /**
+     * Registers a request as being outstanding for its cache key.
+     * <p>
+     * Subsequent requests for the same cache key will be joined with this request
+     * until its outcome is known.
+     *
+     * @param cacheKey The cache key of the request (may be {@code null}).
+     * @param resultHandler The handler to notify about the outcome of the request.
+     * @return The handler to register for the request. The handler notifies the given result
+     *         handler and all handlers that have joined the request in the meantime.
+     */
+    private Handler<AsyncResult<R>> registerOutstandingRequest(
+            final Object cacheKey,
+            final Handler<AsyncResult<R>> resultHandler) {
+
+        if (cacheKey == null || !isCachingEnabled()) {
+            return resultHandler;
+        }
+        coalescedRequests.put(cacheKey, new ArrayList<>());
+        return result -> {
+            final List<Handler<AsyncResult<R>>> waitingHandlers = coalescedRequests.remove(cacheKey);
+            resultHandler.handle(result);
+            if (waitingHandlers != null) {
+                waitingHandlers.forEach(handler -> handler.handle(result));
+            }
+        };
+    }
+
     /**
      * Checks if this client's sender and receiver links are open.
      * 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -14,12 +14,15 @@
 package org.eclipse.hono.client.impl;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.qpid.proton.amqp.messaging.Accepted;
@@ -74,6 +77,9 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
      */
     protected final String targetAddress;
 
+    private final Queue<Handler<Void>> creditReplenishedHandlers = new ConcurrentLinkedQueue<>();
+    // accessed on the connection's context only
+    private final Queue<CreditWaiter> creditWaiters = new ArrayDeque<>();
     private Handler<Void> drainHandler;
 
     /**
@@ -101,6 +107,7 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
                     .map(caps -> Collections.unmodifiableList(Arrays.asList(caps)))
                     .orElse(Collections.emptyList());
         }
+        sender.sendQueueDrainHandler(replenishedSender -> onCreditReplenished());
     }
 
     @Override
@@ -118,15 +125,76 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
             throw new IllegalStateException("already waiting for replenishment with credit");
         } else {
             this.drainHandler = Objects.requireNonNull(handler);
-            sender.sendQueueDrainHandler(replenishedSender -> {
-                log.trace("sender has received FLOW [credits: {}, queued:{}]", replenishedSender.getCredit(), replenishedSender.getQueued());
-                final Handler<Void> currentHandler = this.drainHandler;
-                this.drainHandler = null;
-                if (currentHandler != null) {
-                    currentHandler.handle(null);
-                }
+        }
+    }
+
+    @Override
+    public final void addCreditReplenishedHandler(final Handler<Void> handler) {
+        creditReplenishedHandlers.add(Objects.requireNonNull(handler));
+    }
+
+    private void onCreditReplenished() {
+
+        log.trace("sender has received FLOW [credits: {}, queued:{}]", sender.getCredit(), sender.getQueued());
+        // messages waiting for credit go first
+        while (!creditWaiters.isEmpty() && !sender.sendQueueFull()) {
+            creditWaiters.poll().creditAvailable();
+        }
+        final Handler<Void> currentHandler = this.drainHandler;
+        this.drainHandler = null;
+        if (currentHandler != null) {
+            currentHandler.handle(null);
+        }
+        // only notify the handlers that have been registered so far
+        for (int i = creditReplenishedHandlers.size(); i > 0; i--) {
+            final Handler<Void> handler = creditReplenishedHandlers.poll();
+            if (handler == null) {
+                break;
+            }
+            handler.handle(null);
+        }
+    }
+
+    /**
+     * Waits for this sender to have credit for sending a message.
+     * <p>
+     * If this sender has no credit, the returned future is kept in a queue of at most
+     * {@link ClientConfigProperties#getSendQueueMaxSize()} entries until the peer
+     * replenishes this sender's credit or until the
+     * {@link ClientConfigProperties#getSendMessageTimeout() send message timeout} has elapsed.
+     * The futures are completed in the order in which this method has been invoked.
+     * <p>
+     * This method must be invoked on the connection's vert.x context.
+     *
+     * @return A future indicating the outcome. The future will be completed on the
+     *         connection's context once this sender has credit available or it will
+     *         be failed with a {@link ServerErrorException} if the sender has no credit
+     *         and the queue is full or the waiting has timed out.
+     */
+    protected final Future<Void> waitForCredit() {
+
+        if (!sender.sendQueueFull()) {
+            return Future.succeededFuture();
+        }
+        final ClientConfigProperties config = connection.getConfig();
+        if (config == null || creditWaiters.size() >= config.getSendQueueMaxSize()) {
+            return Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE, "no credit available"));
+        }
+        final CreditWaiter waiter = new CreditWaiter();
+        creditWaiters.add(waiter);
+        if (config.getSendMessageTimeout() > 0) {
+            waiter.timeout = HashedWheelTimeouts.schedule(connection.getVertx(), config.getSendMessageTimeout(), expired -> {
+                connection.executeOnContext(onContext -> {
+                    if (creditWaiters.remove(waiter)) {
+                        waiter.result.tryFail(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE,
+                                "no credit available after waiting for " + config.getSendMessageTimeout() + "ms"));
+                    }
+                    onContext.complete();
+                });
             });
         }
+        log.trace("waiting for credit [queued messages: {}]", creditWaiters.size());
+        return waiter.result.future();
     }
 
     @Override
@@ -148,7 +216,7 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
     }
 
     @Override
-    public final Future<ProtonDelivery> send(final Message rawMessage, final SpanContext parent) {
+    public Future<ProtonDelivery> send(final Message rawMessage, final SpanContext parent) {
 
         Objects.requireNonNull(rawMessage);
 
@@ -159,16 +227,16 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
         TracingHelper.injectSpanContext(connection.getTracer(), span.context(), rawMessage);
 
         return connection.executeOnContext(result -> {
-            if (sender.sendQueueFull()) {
-                final ServiceInvocationException e = new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE, "no credit available");
-                logMessageSendingError("error sending message [ID: {}, address: {}], no credit available",
-                        rawMessage.getMessageId(), getMessageAddress(rawMessage));
-                logError(span, e);
-                span.finish();
-                result.fail(e);
-            } else {
-                sendMessage(rawMessage, span).setHandler(result);
-            }
+            waitForCredit()
+                .recover(t -> {
+                    logMessageSendingError("error sending message [ID: {}, address: {}], no credit available",
+                            rawMessage.getMessageId(), getMessageAddress(rawMessage));
+                    logError(span, t);
+                    span.finish();
+                    return Future.failedFuture(t);
+                })
+                .compose(creditAvailable -> sendMessage(rawMessage, span))
+                .setHandler(result);
         });
     }
 
@@ -258,8 +326,8 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
         message.setMessageId(messageId);
         logMessageIdAndSenderInfo(currentSpan, messageId);
 
-        final Long timerId = connection.getConfig().getSendMessageTimeout() > 0
-                ? connection.getVertx().setTimer(connection.getConfig().getSendMessageTimeout(), id -> {
+        final HashedWheelTimeouts.Timeout timeout = connection.getConfig().getSendMessageTimeout() > 0
+                ? HashedWheelTimeouts.schedule(connection.getVertx(), connection.getConfig().getSendMessageTimeout(), expired -> {
                     if (!result.future().isComplete()) {
                         final ServerErrorException exception = new ServerErrorException(
                                 HttpURLConnection.HTTP_UNAVAILABLE,
@@ -272,8 +340,8 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
                 : null;
 
         sender.send(message, deliveryUpdated -> {
-            if (timerId != null) {
-                connection.getVertx().cancelTimer(timerId);
+            if (timeout != null) {
+                timeout.cancel();
             }
             final DeliveryState remoteState = deliveryUpdated.getRemoteState();
             if (result.future().isComplete()) {
@@ -417,4 +485,20 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
     protected void logMessageSendingError(final String format, final Object... arguments) {
         log.debug(format, arguments);
     }
+
+    /**
+     * A message waiting for this sender to be replenished with credit.
+     */
+    private static final class CreditWaiter {
+
+        private final Promise<Void> result = Promise.promise();
+        private HashedWheelTimeouts.Timeout timeout;
+
+        void creditAvailable() {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            result.tryComplete();
+        }
+    }
 }
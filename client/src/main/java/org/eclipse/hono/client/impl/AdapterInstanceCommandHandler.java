@@ -13,15 +13,19 @@
 
 package org.eclipse.hono.client.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.apache.qpid.proton.amqp.messaging.Rejected;
 import org.apache.qpid.proton.amqp.transport.ErrorCondition;
 import org.apache.qpid.proton.message.Message;
-import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.client.Command;
 import org.eclipse.hono.client.CommandContext;
 import org.eclipse.hono.tracing.TracingHelper;
@@ -40,14 +44,21 @@ import io.vertx.proton.ProtonHelper;
 
 /**
  * Handler for commands received at the protocol adapter specific address.
+ * <p>
+ * The command handlers are partitioned by tenant. Looking up the handler for a device
+ * therefore does not require building a composite key. All handlers of a tenant share
+ * the same tenant identifier instance.
+ * <p>
+ * Handlers may be added, looked up and removed from arbitrary threads.
  */
 public final class AdapterInstanceCommandHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(AdapterInstanceCommandHandler.class);
 
-    private final Map<String, CommandHandlerWrapper> commandHandlers = new HashMap<>();
+    private final Map<String, TenantCommandHandlers> commandHandlers = new ConcurrentHashMap<>();
     private final Tracer tracer;
     private final String adapterInstanceId;
+    private final CommandHandlerStatistics statistics;
 
     /**
      * Creates a new AdapterInstanceCommandHandler instance.
@@ -57,8 +68,22 @@ public final class AdapterInstanceCommandHandler {
      * @throws NullPointerException if any of the parameters is {@code null}.
      */
     public AdapterInstanceCommandHandler(final Tracer tracer, final String adapterInstanceId) {
+        this(tracer, adapterInstanceId, new CommandHandlerStatistics());
+    }
+
+    /**
+     * Creates a new AdapterInstanceCommandHandler instance.
+     *
+     * @param tracer The tracer instance.
+     * @param adapterInstanceId The id of the protocol adapter instance that this handler is running in.
+     * @param statistics The statistics to account the added and removed handlers to.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    public AdapterInstanceCommandHandler(final Tracer tracer, final String adapterInstanceId,
+            final CommandHandlerStatistics statistics) {
         this.tracer = Objects.requireNonNull(tracer);
         this.adapterInstanceId = Objects.requireNonNull(adapterInstanceId);
+        this.statistics = Objects.requireNonNull(statistics);
     }
 
     /**
@@ -138,11 +163,21 @@ public final class AdapterInstanceCommandHandler {
         Objects.requireNonNull(deviceId);
         Objects.requireNonNull(commandHandler);
 
-        final String key = getDeviceKey(tenantId, deviceId);
-        if (commandHandlers.containsKey(key)) {
-            LOG.debug("replacing existing command consumer [tenant-id: {}, device-id: {}]", tenantId, deviceId);
+        final CommandHandlerWrapper[] previousHandler = new CommandHandlerWrapper[1];
+        commandHandlers.compute(tenantId, (tenant, tenantHandlers) -> {
+            final TenantCommandHandlers handlers = tenantHandlers == null ? new TenantCommandHandlers(tenant)
+                    : tenantHandlers;
+            final CommandHandlerWrapper handler = new CommandHandlerWrapper(handlers.tenantId, deviceId, gatewayId,
+                    commandHandler);
+            previousHandler[0] = handlers.devices.put(deviceId, handler);
+            statistics.onAdded(handler);
+            return handlers;
+        });
+        if (previousHandler[0] != null) {
+            LOG.debug("replaced existing command consumer [tenant-id: {}, device-id: {}]", tenantId, deviceId);
+            statistics.onRemoved(previousHandler[0]);
         }
-        return commandHandlers.put(key, new CommandHandlerWrapper(tenantId, deviceId, gatewayId, commandHandler));
+        return previousHandler[0];
     }
 
     /**
@@ -159,16 +194,41 @@ public final class AdapterInstanceCommandHandler {
     public CommandHandlerWrapper getDeviceSpecificCommandHandler(final String tenantId, final String deviceId) {
         Objects.requireNonNull(tenantId);
         Objects.requireNonNull(deviceId);
-        return commandHandlers.get(getDeviceKey(tenantId, deviceId));
+        final TenantCommandHandlers tenantHandlers = commandHandlers.get(tenantId);
+        return tenantHandlers == null ? null : tenantHandlers.devices.get(deviceId);
     }
 
     /**
      * Gets the contained command handlers.
      *
-     * @return The command handlers.
+     * @return A snapshot of the command handlers.
      */
     public Collection<CommandHandlerWrapper> getDeviceSpecificCommandHandlers() {
-        return commandHandlers.values();
+        return commandHandlers.values().stream()
+                .flatMap(tenantHandlers -> tenantHandlers.devices.values().stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the identifiers of the tenants that command handlers are contained for.
+     *
+     * @return The (unmodifiable) tenant identifiers.
+     */
+    public Set<String> getTenantIds() {
+        return Collections.unmodifiableSet(commandHandlers.keySet());
+    }
+
+    /**
+     * Gets the identifiers of the devices of a tenant that command handlers are contained for.
+     *
+     * @param tenantId The tenant id.
+     * @return A snapshot of the device identifiers.
+     * @throws NullPointerException If tenantId is {@code null}.
+     */
+    public List<String> getDeviceIds(final String tenantId) {
+        Objects.requireNonNull(tenantId);
+        final TenantCommandHandlers tenantHandlers = commandHandlers.get(tenantId);
+        return tenantHandlers == null ? Collections.emptyList() : new ArrayList<>(tenantHandlers.devices.keySet());
     }
 
     /**
@@ -182,13 +242,47 @@ public final class AdapterInstanceCommandHandler {
     public boolean removeDeviceSpecificCommandHandler(final String tenantId, final String deviceId) {
         Objects.requireNonNull(tenantId);
         Objects.requireNonNull(deviceId);
-        final CommandHandlerWrapper removedHandler = commandHandlers.remove(getDeviceKey(tenantId, deviceId));
-        LOG.trace("Removed handler for tenant {}, device {}: {}", tenantId, deviceId, removedHandler != null);
-        return removedHandler != null;
+        final CommandHandlerWrapper[] removedHandler = new CommandHandlerWrapper[1];
+        commandHandlers.computeIfPresent(tenantId, (tenant, tenantHandlers) -> {
+            removedHandler[0] = tenantHandlers.devices.remove(deviceId);
+            return tenantHandlers.devices.isEmpty() ? null : tenantHandlers;
+        });
+        LOG.trace("Removed handler for tenant {}, device {}: {}", tenantId, deviceId, removedHandler[0] != null);
+        if (removedHandler[0] != null) {
+            statistics.onRemoved(removedHandler[0]);
+            return true;
+        }
+        return false;
     }
 
-    private String getDeviceKey(final String tenantId, final String deviceId) {
-        return Device.asAddress(tenantId, deviceId);
+    /**
+     * Removes all handlers of a tenant.
+     *
+     * @param tenantId The tenant id of the handlers to remove.
+     * @return The removed handlers.
+     * @throws NullPointerException If tenantId is {@code null}.
+     */
+    public List<CommandHandlerWrapper> removeDeviceSpecificCommandHandlers(final String tenantId) {
+        Objects.requireNonNull(tenantId);
+        final TenantCommandHandlers removedHandlers = commandHandlers.remove(tenantId);
+        if (removedHandlers == null) {
+            return Collections.emptyList();
+        }
+        final List<CommandHandlerWrapper> result = new ArrayList<>(removedHandlers.devices.values());
+        result.forEach(statistics::onRemoved);
+        return result;
     }
 
+    /**
+     * The command handlers of a tenant.
+     */
+    private static final class TenantCommandHandlers {
+
+        private final String tenantId;
+        private final Map<String, CommandHandlerWrapper> devices = new ConcurrentHashMap<>();
+
+        TenantCommandHandlers(final String tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
 }
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A credit window for a receiver which adapts to the rate at which messages are processed.
+ * <p>
+ * The window is sized so that
+ * <ul>
+ * <li>the messages that the peer may send can be processed within {@link #TARGET_PROCESSING_TIME_NANOS}
+ * based on the (moving) average time it took to process a message and</li>
+ * <li>the overall payload size of these messages does not exceed a given number of bytes based on the
+ * (moving) average payload size of the messages.</li>
+ * </ul>
+ * The window's size is always at least 1 and at most a given number of credits.
+ * <p>
+ * Instances are not thread safe. They are expected to be used on the vert.x context of the
+ * receiver only.
+ */
+final class AdaptiveCreditWindow {
+
+    /**
+     * The amount of time (nanoseconds) that it should take to process the messages
+     * that the peer may send.
+     */
+    static final long TARGET_PROCESSING_TIME_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final double WEIGHT = 0.2;
+
+    private final int maxCredits;
+    private final long maxBytes;
+    private double avgProcessingTimeNanos;
+    private double avgMessageSize;
+    private int size;
+
+    /**
+     * Creates a new window.
+     *
+     * @param maxCredits The maximum size of the window.
+     * @param maxBytes The maximum overall payload size of the messages to grant credit for.
+     * @throws IllegalArgumentException if any of the parameters is &lt; 1.
+     */
+    AdaptiveCreditWindow(final int maxCredits, final long maxBytes) {
+        if (maxCredits < 1) {
+            throw new IllegalArgumentException("max credits must be at least 1");
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("max bytes must be at least 1");
+        }
+        this.maxCredits = maxCredits;
+        this.maxBytes = maxBytes;
+        this.size = maxCredits;
+    }
+
+    /**
+     * Gets the current size of the window.
+     *
+     * @return The number of credits.
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Records the processing of a message and resizes the window accordingly.
+     *
+     * @param payloadSize The size of the message's payload in bytes.
+     * @param processingTimeNanos The time it took to process the message in nanoseconds.
+     */
+    void onMessageProcessed(final int payloadSize, final long processingTimeNanos) {
+
+        if (avgProcessingTimeNanos == 0 && avgMessageSize == 0) {
+            avgProcessingTimeNanos = processingTimeNanos;
+            avgMessageSize = payloadSize;
+        } else {
+            avgProcessingTimeNanos += WEIGHT * (processingTimeNanos - avgProcessingTimeNanos);
+            avgMessageSize += WEIGHT * (payloadSize - avgMessageSize);
+        }
+        final double byTime = avgProcessingTimeNanos > 0 ? TARGET_PROCESSING_TIME_NANOS / avgProcessingTimeNanos : maxCredits;
+        final double byBytes = avgMessageSize > 0 ? maxBytes / avgMessageSize : maxCredits;
+        size = (int) Math.max(1, Math.min(maxCredits, Math.min(byTime, byBytes)));
+    }
+
+    /**
+     * Gets the number of credits to issue to the peer.
+     * <p>
+     * Credit is replenished once the receiver's remaining credit has dropped to half
+     * of the window's size or below.
+     *
+     * @param remainingCredit The receiver's remaining credit.
+     * @return The number of credits to issue (may be 0).
+     */
+    int getCreditToFlow(final int remainingCredit) {
+        if (remainingCredit <= size / 2) {
+            return size - remainingCredit;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the command handlers registered with one or more {@link AdapterInstanceCommandHandler}s.
+ * <p>
+ * An instance may be shared by the command handlers of all command consumer factories of a protocol adapter
+ * in order to report the adapter's total. Handlers may be added and removed from arbitrary threads.
+ */
+public final class CommandHandlerStatistics {
+
+    /**
+     * The estimated number of bytes that a registered handler occupies in addition to
+     * the identifiers of the device and gateway. This covers the map entry, its table slot
+     * and the {@link CommandHandlerWrapper}.
+     */
+    static final long ESTIMATED_HANDLER_OVERHEAD_BYTES = 80;
+    /**
+     * The estimated number of bytes that a {@code String} occupies in addition to its characters.
+     */
+    static final long ESTIMATED_STRING_OVERHEAD_BYTES = 40;
+
+    private final AtomicLong handlerCount = new AtomicLong();
+    private final AtomicLong handlerBytes = new AtomicLong();
+
+    /**
+     * Gets the number of registered command handlers.
+     *
+     * @return The number of handlers.
+     */
+    public long getNumberOfCommandHandlers() {
+        return handlerCount.get();
+    }
+
+    /**
+     * Gets the estimated total amount of memory occupied by the registered command handlers.
+     * <p>
+     * The estimate does not include the memory occupied by the handler functions
+     * themselves because they are owned by the protocol adapter.
+     *
+     * @return The number of bytes.
+     */
+    public long getEstimatedMemoryUsage() {
+        return handlerBytes.get();
+    }
+
+    void onAdded(final CommandHandlerWrapper handler) {
+        handlerCount.incrementAndGet();
+        handlerBytes.addAndGet(estimateSize(handler));
+    }
+
+    void onRemoved(final CommandHandlerWrapper handler) {
+        handlerCount.decrementAndGet();
+        handlerBytes.addAndGet(-estimateSize(handler));
+    }
+
+    static long estimateSize(final CommandHandlerWrapper handler) {
+        return ESTIMATED_HANDLER_OVERHEAD_BYTES
+                + estimateSize(handler.getDeviceId())
+                + (handler.getGatewayId() == null ? 0 : estimateSize(handler.getGatewayId()));
+    }
+
+    private static long estimateSize(final String value) {
+        return ESTIMATED_STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+}
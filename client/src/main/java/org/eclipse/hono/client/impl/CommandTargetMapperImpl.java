@@ -14,12 +14,18 @@
 package org.eclipse.hono.client.impl;
 
 import java.net.HttpURLConnection;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.hono.cache.CacheProvider;
+import org.eclipse.hono.cache.ExpiringValueCache;
 import org.eclipse.hono.client.BasicDeviceConnectionClientFactory;
 import org.eclipse.hono.client.CommandTargetMapper;
 import org.eclipse.hono.client.RegistrationClientFactory;
@@ -29,6 +35,7 @@ import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.DeviceConnectionConstants;
 import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.RegistrationConstants;
+import org.eclipse.hono.util.TriTuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,12 +50,42 @@ import io.vertx.core.json.JsonObject;
 /**
  * A component for mapping an incoming command to the gateway (if applicable)
  * and protocol adapter instance that can handle it.
+ * <p>
+ * The mapper may optionally cache the targets that it has determined for devices.
+ * A cached target is used for subsequent commands for the same device until it expires
+ * or until it gets invalidated by means of {@link #invalidateTarget(String, String)}.
+ * A target that gets invalidated while it is being determined is not cached.
+ * Invalidating the target of a gateway also invalidates all cached targets of the
+ * gateway's tenant, because commands for other devices of the tenant may have been
+ * mapped to the gateway.
  */
 public class CommandTargetMapperImpl implements CommandTargetMapper {
 
+    /**
+     * The name of the cache that command targets are put to.
+     */
+    public static final String TARGET_CACHE_NAME = "command-targets";
+
     private static final Logger LOG = LoggerFactory.getLogger(CommandTargetMapperImpl.class);
 
     private final Tracer tracer;
+    private final ExpiringValueCache<Object, CachedTarget> targetCache;
+    private final Duration targetCacheTimeout;
+    /**
+     * The number of times that the cached targets of a tenant have been invalidated altogether.
+     */
+    private final Map<String, Long> tenantGenerations = new ConcurrentHashMap<>();
+    /**
+     * The gateways that cached targets of a tenant refer to.
+     */
+    private final Map<String, Set<String>> targetGateways = new ConcurrentHashMap<>();
+    /**
+     * The lookups of targets that are in progress, keyed by cache key.
+     * <p>
+     * A target is only put to the cache if its lookup has not been removed from this map
+     * by invalidating the target in the meantime.
+     */
+    private final Map<Object, Object> pendingLookups = new ConcurrentHashMap<>();
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     private RegistrationClientFactory registrationClientFactory;
     private BasicDeviceConnectionClientFactory deviceConnectionClientFactory;
@@ -61,6 +98,31 @@ public class CommandTargetMapperImpl implements CommandTargetMapper {
      */
     public CommandTargetMapperImpl(final Tracer tracer) {
         this.tracer = Objects.requireNonNull(tracer);
+        this.targetCache = null;
+        this.targetCacheTimeout = Duration.ZERO;
+    }
+
+    /**
+     * Creates a new mapper which caches the targets that it has determined.
+     *
+     * @param tracer The tracer instance.
+     * @param cacheProvider The provider of the cache to put the targets to.
+     * @param targetCacheTimeout The duration for which a target is cached.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     */
+    public CommandTargetMapperImpl(
+            final Tracer tracer,
+            final CacheProvider cacheProvider,
+            final Duration targetCacheTimeout) {
+        Objects.requireNonNull(cacheProvider);
+        Objects.requireNonNull(targetCacheTimeout);
+        if (targetCacheTimeout.isZero() || targetCacheTimeout.isNegative()) {
+            throw new IllegalArgumentException("cache timeout must be positive");
+        }
+        this.tracer = Objects.requireNonNull(tracer);
+        this.targetCache = cacheProvider.getCache(TARGET_CACHE_NAME);
+        this.targetCacheTimeout = targetCacheTimeout;
     }
 
     @Override
@@ -85,6 +147,77 @@ public class CommandTargetMapperImpl implements CommandTargetMapper {
                 .withTag(MessageHelper.APP_PROPERTY_DEVICE_ID, deviceId)
                 .start();
 
+        if (targetCache == null) {
+            return determineTarget(tenantId, deviceId, span);
+        }
+
+        final Object cacheKey = getCacheKey(tenantId, deviceId);
+        final long generation = tenantGenerations.getOrDefault(tenantId, 0L);
+        final CachedTarget cachedTarget = targetCache.get(cacheKey);
+        final boolean cacheHit = cachedTarget != null && cachedTarget.generation == generation;
+        TracingHelper.TAG_CACHE_HIT.set(span, cacheHit);
+        if (cacheHit) {
+            LOG.trace("using cached command target [tenant-id: {}, device-id: {}]", tenantId, deviceId);
+            span.finish();
+            return Future.succeededFuture(cachedTarget.target.copy());
+        }
+        final Object lookup = new Object();
+        pendingLookups.put(cacheKey, lookup);
+        return determineTarget(tenantId, deviceId, span)
+                .map(target -> {
+                    final String targetDevice = target.getString(DeviceConnectionConstants.FIELD_PAYLOAD_DEVICE_ID);
+                    if (!deviceId.equals(targetDevice)) {
+                        targetGateways.computeIfAbsent(tenantId, k -> ConcurrentHashMap.newKeySet()).add(targetDevice);
+                    }
+                    // the target is put to the cache atomically with respect to the
+                    // invalidation of the target so that a stale target is never cached
+                    pendingLookups.computeIfPresent(cacheKey, (key, currentLookup) -> {
+                        if (currentLookup != lookup) {
+                            // a more recent lookup will put its result to the cache
+                            return currentLookup;
+                        }
+                        targetCache.put(cacheKey, new CachedTarget(target.copy(), generation), targetCacheTimeout);
+                        return null;
+                    });
+                    return target;
+                })
+                .recover(t -> {
+                    pendingLookups.remove(cacheKey, lookup);
+                    return Future.failedFuture(t);
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the given device is a gateway that cached targets refer to, all cached targets
+     * of the tenant are invalidated.
+     */
+    @Override
+    public void invalidateTarget(final String tenantId, final String deviceId) {
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceId);
+
+        if (targetCache == null) {
+            return;
+        }
+        final Object cacheKey = getCacheKey(tenantId, deviceId);
+        // prevent a lookup that is in progress from caching the invalidated target
+        pendingLookups.remove(cacheKey);
+        targetCache.remove(cacheKey);
+        final Set<String> gateways = targetGateways.get(tenantId);
+        if (gateways != null && gateways.remove(deviceId)) {
+            LOG.debug("invalidating cached command targets of tenant [{}] referring to gateway [{}]", tenantId, deviceId);
+            tenantGenerations.merge(tenantId, 1L, Long::sum);
+        }
+    }
+
+    private static Object getCacheKey(final String tenantId, final String deviceId) {
+        return TriTuple.of(CommandTargetMapper.class, tenantId, deviceId);
+    }
+
+    private Future<JsonObject> determineTarget(final String tenantId, final String deviceId, final Span span) {
+
         return registrationClientFactory.getOrCreateRegistrationClient(tenantId)
                 .compose(client -> client.assertRegistration(deviceId, null, span.context()))
                 .recover(t -> {
@@ -173,4 +306,17 @@ public class CommandTargetMapperImpl implements CommandTargetMapper {
         return instancesArray.getJsonObject(0);
     }
 
+    /**
+     * A cached command target.
+     */
+    private static final class CachedTarget {
+
+        private final JsonObject target;
+        private final long generation;
+
+        private CachedTarget(final JsonObject target, final long generation) {
+            this.target = target;
+            this.generation = generation;
+        }
+    }
 }
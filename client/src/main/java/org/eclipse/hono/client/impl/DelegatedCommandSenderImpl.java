@@ -128,8 +128,8 @@ public class DelegatedCommandSenderImpl extends AbstractSender implements Delega
         final String messageId = message.getMessageId() != null ? message.getMessageId().toString() : "";
         logMessageIdAndSenderInfo(currentSpan, messageId);
 
-        final Long timerId = connection.getConfig().getSendMessageTimeout() > 0
-                ? connection.getVertx().setTimer(connection.getConfig().getSendMessageTimeout(), id -> {
+        final HashedWheelTimeouts.Timeout timeout = connection.getConfig().getSendMessageTimeout() > 0
+                ? HashedWheelTimeouts.schedule(connection.getVertx(), connection.getConfig().getSendMessageTimeout(), expired -> {
                     if (!result.future().isComplete()) {
                         final ServerErrorException exception = new ServerErrorException(
                                 HttpURLConnection.HTTP_UNAVAILABLE,
@@ -143,8 +143,8 @@ public class DelegatedCommandSenderImpl extends AbstractSender implements Delega
                 : null;
 
         sender.send(message, deliveryUpdated -> {
-            if (timerId != null) {
-                connection.getVertx().cancelTimer(timerId);
+            if (timeout != null) {
+                timeout.cancel();
             }
             final DeliveryState remoteState = deliveryUpdated.getRemoteState();
             if (result.future().isComplete()) {
@@ -286,6 +286,38 @@ public class DeviceConnectionClientImpl extends AbstractRequestResponseClient<De
         }, currentSpan);
     }
 
+    @Override
+    public Future<Void> setCommandHandlingAdapterInstanceForDevices(final List<String> deviceIds, final String adapterInstanceId,
+            final SpanContext context) {
+        Objects.requireNonNull(deviceIds);
+        Objects.requireNonNull(adapterInstanceId);
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(MessageHelper.APP_PROPERTY_ADAPTER_INSTANCE_ID, adapterInstanceId);
+        final JsonObject payload = new JsonObject();
+        payload.put(DeviceConnectionConstants.FIELD_DEVICE_IDS, new JsonArray(deviceIds));
+
+        final Span currentSpan = newChildSpan(context, "set command handling adapter instance for devices");
+        currentSpan.setTag("no_of_devices", deviceIds.size());
+        final Promise<DeviceConnectionResult> resultTracker = Promise.promise();
+        createAndSendRequest(
+                DeviceConnectionConstants.DeviceConnectionAction.SET_CMD_HANDLING_ADAPTER_INSTANCE_FOR_DEVICES.getSubject(),
+                properties,
+                payload.toBuffer(),
+                RequestResponseApiConstants.CONTENT_TYPE_APPLICATION_JSON,
+                resultTracker,
+                null,
+                currentSpan);
+        return mapResultAndFinishSpan(resultTracker.future(), result -> {
+            switch (result.getStatus()) {
+                case HttpURLConnection.HTTP_NO_CONTENT:
+                    return null;
+                default:
+                    throw StatusCodeMapper.from(result);
+            }
+        }, currentSpan);
+    }
+
     @Override
     public Future<JsonObject> getCommandHandlingAdapterInstances(final String deviceId, final List<String> viaGateways, final SpanContext context) {
         Objects.requireNonNull(deviceId);
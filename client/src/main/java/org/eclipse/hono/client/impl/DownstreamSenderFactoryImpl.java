@@ -32,6 +32,7 @@ import io.vertx.core.eventbus.Message;
 public class DownstreamSenderFactoryImpl extends AbstractHonoClientFactory implements DownstreamSenderFactory {
 
     private final CachingClientFactory<DownstreamSender> clientFactory;
+    private volatile MessageBatcher.FlushListener batchFlushListener;
 
     /**
      * @param connection The connection to use.
@@ -43,6 +44,19 @@ public class DownstreamSenderFactoryImpl extends AbstractHonoClientFactory imple
                 this::handleTenantTimeout);
     }
 
+    /**
+     * Sets the listener to notify about batches of telemetry messages being flushed
+     * by the senders created by this factory.
+     * <p>
+     * The listener is only used for senders that are created after it has been set.
+     *
+     * @param listener The listener or {@code null} if no listener should be notified.
+     * @see org.eclipse.hono.config.ClientConfigProperties#getSendBatchWindow()
+     */
+    public void setBatchFlushListener(final MessageBatcher.FlushListener listener) {
+        this.batchFlushListener = listener;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -62,7 +76,7 @@ public class DownstreamSenderFactoryImpl extends AbstractHonoClientFactory imple
                 .compose(v -> connection.executeOnContext(result -> {
                     clientFactory.getOrCreateClient(
                             TelemetrySenderImpl.getTargetAddress(tenantId, null),
-                            () -> TelemetrySenderImpl.create(connection, tenantId,
+                            () -> TelemetrySenderImpl.create(connection, tenantId, batchFlushListener,
                                     onSenderClosed -> {
                                         clientFactory.removeClient(TelemetrySenderImpl.getTargetAddress(tenantId, null));
                                     }),
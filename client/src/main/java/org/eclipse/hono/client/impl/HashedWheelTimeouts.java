@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * A facility for scheduling a large number of (mostly cancelled) timeouts on a vert.x context.
+ * <p>
+ * Instead of registering a vert.x timer for each timeout, the timeouts are kept in a
+ * <em>hashed wheel</em> of buckets, each bucket representing a tick of a fixed duration.
+ * A single periodic vert.x timer is used for advancing the wheel while there are timeouts pending.
+ * Scheduling and cancelling a timeout are therefore cheap operations which do not involve
+ * the vert.x timer queue, at the expense of timeouts expiring up to a tick later than requested.
+ * <p>
+ * There is one wheel per vert.x context. Timeouts may be added to a wheel and cancelled from
+ * any thread. The handlers of expired timeouts are invoked on the vert.x context that the
+ * wheel belongs to.
+ * <p>
+ * The overall numbers of pending, expired and cancelled timeouts (of all instances) are
+ * available by means of the static {@link #getPendingTimeouts()}, {@link #getExpiredTimeouts()}
+ * and {@link #getCancelledTimeouts()} methods.
+ */
+public final class HashedWheelTimeouts {
+
+    /**
+     * The default duration of a tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK_DURATION = 10L;
+    /**
+     * The default number of buckets of the wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final Logger LOG = LoggerFactory.getLogger(HashedWheelTimeouts.class);
+    private static final String CONTEXT_KEY = HashedWheelTimeouts.class.getName();
+    private static final LongAdder PENDING = new LongAdder();
+    private static final LongAdder EXPIRED = new LongAdder();
+    private static final LongAdder CANCELLED = new LongAdder();
+
+    private final Vertx vertx;
+    private final Context context;
+    private final long tickDurationMillis;
+    private final long tickDurationNanos;
+    private final int mask;
+    private final List<List<Timeout>> wheel;
+    private final long startNanos = System.nanoTime();
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean ticking = new AtomicBoolean();
+
+    // the following fields are accessed on the vert.x context only
+    private long tick;
+    private int timeoutsInWheel;
+    private long timerId;
+
+    /**
+     * Creates a new wheel.
+     *
+     * @param vertx The vert.x instance to use for advancing the wheel.
+     * @param context The context to advance the wheel and run the handlers of expired timeouts on.
+     * @param tickDurationMillis The duration of a tick in milliseconds.
+     * @param wheelSize The number of buckets. The value will be rounded up to the next power of two.
+     * @throws NullPointerException if vert.x or context are {@code null}.
+     * @throws IllegalArgumentException if tick duration or wheel size are &lt;= 0.
+     */
+    HashedWheelTimeouts(final Vertx vertx, final Context context, final long tickDurationMillis, final int wheelSize) {
+
+        this.vertx = Objects.requireNonNull(vertx);
+        this.context = Objects.requireNonNull(context);
+        if (tickDurationMillis <= 0) {
+            throw new IllegalArgumentException("tick duration must be > 0");
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheel size must be > 0 and <= 2^30");
+        }
+        this.tickDurationMillis = tickDurationMillis;
+        this.tickDurationNanos = TimeUnit.MILLISECONDS.toNanos(tickDurationMillis);
+        int buckets = 1;
+        while (buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        this.mask = buckets - 1;
+        this.wheel = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules a timeout on the current vert.x context.
+     * <p>
+     * The timeout is added to the wheel belonging to the current context. The wheel is
+     * created on first use and is then kept in the context's local data.
+     * <p>
+     * If this method is not invoked on a vert.x context, the timeout is backed by a
+     * plain vert.x timer instead.
+     *
+     * @param vertx The vert.x instance.
+     * @param delayMillis The number of milliseconds after which the timeout should expire.
+     * @param expirationHandler The handler to invoke once the timeout has expired.
+     * @return The timeout.
+     * @throws NullPointerException if vert.x or handler are {@code null}.
+     */
+    public static Timeout schedule(final Vertx vertx, final long delayMillis, final Handler<Void> expirationHandler) {
+
+        Objects.requireNonNull(vertx);
+        Objects.requireNonNull(expirationHandler);
+
+        final Context context = Vertx.currentContext();
+        if (context == null) {
+            final Timeout timeout = new Timeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis), expirationHandler);
+            PENDING.increment();
+            timeout.timerVertx = vertx;
+            timeout.timerId = vertx.setTimer(Math.max(1, delayMillis), id -> timeout.expire());
+            return timeout;
+        }
+        HashedWheelTimeouts timeouts = context.get(CONTEXT_KEY);
+        if (timeouts == null) {
+            timeouts = new HashedWheelTimeouts(vertx, context, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+            context.put(CONTEXT_KEY, timeouts);
+        }
+        return timeouts.add(delayMillis, expirationHandler);
+    }
+
+    /**
+     * Gets the number of timeouts that have been scheduled but have neither expired
+     * nor been cancelled yet.
+     *
+     * @return The number of timeouts.
+     */
+    public static long getPendingTimeouts() {
+        return PENDING.sum();
+    }
+
+    /**
+     * Gets the number of timeouts that have expired.
+     *
+     * @return The number of timeouts.
+     */
+    public static long getExpiredTimeouts() {
+        return EXPIRED.sum();
+    }
+
+    /**
+     * Gets the number of timeouts that have been cancelled.
+     *
+     * @return The number of timeouts.
+     */
+    public static long getCancelledTimeouts() {
+        return CANCELLED.sum();
+    }
+
+    /**
+     * Adds a timeout to this wheel.
+     *
+     * @param delayMillis The number of milliseconds after which the timeout should expire.
+     * @param expirationHandler The handler to invoke once the timeout has expired.
+     * @return The timeout.
+     * @throws NullPointerException if handler is {@code null}.
+     */
+    Timeout add(final long delayMillis, final Handler<Void> expirationHandler) {
+
+        Objects.requireNonNull(expirationHandler);
+
+        final Timeout timeout = new Timeout(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis), expirationHandler);
+        PENDING.increment();
+        newTimeouts.add(timeout);
+        startTicking();
+        return timeout;
+    }
+
+    private void startTicking() {
+        if (ticking.compareAndSet(false, true)) {
+            context.runOnContext(go -> timerId = vertx.setPeriodic(tickDurationMillis, id -> onTick()));
+        }
+    }
+
+    private void onTick() {
+
+        final long targetTick = (System.nanoTime() - startNanos) / tickDurationNanos;
+        if (timeoutsInWheel == 0) {
+            // nothing to catch up on
+            tick = targetTick;
+        }
+        transferNewTimeouts();
+        for (int i = 0; i <= mask && tick <= targetTick; i++) {
+            expireTimeouts(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+        if (timeoutsInWheel == 0 && newTimeouts.isEmpty()) {
+            vertx.cancelTimer(timerId);
+            ticking.set(false);
+            if (!newTimeouts.isEmpty()) {
+                // a timeout has been scheduled concurrently
+                startTicking();
+            }
+        }
+    }
+
+    private void transferNewTimeouts() {
+
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.state.get() != Timeout.STATE_PENDING) {
+                continue;
+            }
+            final long deadlineTick = Math.max(tick,
+                    (timeout.deadline - startNanos + tickDurationNanos - 1) / tickDurationNanos);
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.size();
+            wheel.get((int) (deadlineTick & mask)).add(timeout);
+            timeoutsInWheel++;
+        }
+    }
+
+    private void expireTimeouts(final List<Timeout> bucket) {
+
+        int retained = 0;
+        final int size = bucket.size();
+        for (int i = 0; i < size; i++) {
+            final Timeout timeout = bucket.get(i);
+            if (timeout.state.get() != Timeout.STATE_PENDING) {
+                timeoutsInWheel--;
+            } else if (timeout.remainingRounds <= 0) {
+                timeoutsInWheel--;
+                timeout.expire();
+            } else {
+                timeout.remainingRounds--;
+                bucket.set(retained++, timeout);
+            }
+        }
+        bucket.subList(retained, size).clear();
+    }
+
+    /**
+     * A handle to a scheduled timeout.
+     */
+    public static final class Timeout {
+
+        private static final int STATE_PENDING = 0;
+        private static final int STATE_CANCELLED = 1;
+        private static final int STATE_EXPIRED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(STATE_PENDING);
+        private final long deadline;
+        private final Handler<Void> expirationHandler;
+        private long remainingRounds;
+        private Vertx timerVertx;
+        private long timerId;
+
+        private Timeout(final long deadline, final Handler<Void> expirationHandler) {
+            this.deadline = deadline;
+            this.expirationHandler = expirationHandler;
+        }
+
+        /**
+         * Cancels this timeout.
+         *
+         * @return {@code true} if the timeout has been cancelled or {@code false}
+         *         if the timeout has already expired or been cancelled before.
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(STATE_PENDING, STATE_CANCELLED)) {
+                PENDING.decrement();
+                CANCELLED.increment();
+                if (timerVertx != null) {
+                    timerVertx.cancelTimer(timerId);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Checks if this timeout has expired.
+         *
+         * @return {@code true} if the expiration handler has been invoked.
+         */
+        public boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(STATE_PENDING, STATE_EXPIRED)) {
+                PENDING.decrement();
+                EXPIRED.increment();
+                try {
+                    expirationHandler.handle(null);
+                } catch (final Exception e) {
+                    LOG.warn("error running timeout expiration handler", e);
+                }
+            }
+        }
+    }
+}
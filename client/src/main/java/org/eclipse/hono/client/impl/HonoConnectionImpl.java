@@ -30,6 +30,7 @@ import javax.security.sasl.AuthenticationException;
 
 import org.apache.qpid.proton.amqp.Symbol;
 import org.apache.qpid.proton.amqp.transport.ErrorCondition;
+import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.DisconnectListener;
 import org.eclipse.hono.client.HonoConnection;
@@ -41,6 +42,7 @@ import org.eclipse.hono.config.ClientConfigProperties;
 import org.eclipse.hono.connection.ConnectionFactory;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.HonoProtonHelper;
+import org.eclipse.hono.util.MessageHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,8 +55,10 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.proton.ProtonClientOptions;
 import io.vertx.proton.ProtonConnection;
+import io.vertx.proton.ProtonDelivery;
 import io.vertx.proton.ProtonHelper;
 import io.vertx.proton.ProtonLink;
 import io.vertx.proton.ProtonMessageHandler;
@@ -837,12 +841,20 @@ public class HonoConnectionImpl implements HonoConnection {
             checkConnected().compose(v -> {
                 final Promise<ProtonReceiver> receiverPromise = Promise.promise();
                 final ProtonReceiver receiver = connection.createReceiver(sourceAddress);
+                final AdaptiveCreditWindow creditWindow = clientConfigProperties.isAdaptiveCredits() && preFetchSize > 0
+                        ? new AdaptiveCreditWindow(preFetchSize, clientConfigProperties.getCreditWindowMaxBytes())
+                        : null;
                 receiver.setAutoAccept(autoAccept);
                 receiver.setQoS(qos);
-                receiver.setPrefetch(preFetchSize);
+                // credit is managed manually if the window adapts to the processing rate
+                receiver.setPrefetch(creditWindow == null ? preFetchSize : 0);
                 receiver.handler((delivery, message) -> {
                     try {
-                        messageHandler.handle(delivery, message);
+                        if (creditWindow == null) {
+                            messageHandler.handle(delivery, message);
+                        } else {
+                            handleAndReplenishCredit(receiver, creditWindow, messageHandler, delivery, message);
+                        }
                         if (log.isTraceEnabled()) {
                             final int remainingCredits = receiver.getCredit() - receiver.getQueued();
                             log.trace("handling message [remotely settled: {}, queued messages: {}, remaining credit: {}]",
@@ -879,6 +891,9 @@ public class HonoConnectionImpl implements HonoConnection {
                         }
                     } else if (HonoProtonHelper.isLinkEstablished(receiver)) {
                         log.debug("receiver open [source: {}]", sourceAddress);
+                        if (creditWindow != null) {
+                            receiver.flow(creditWindow.getSize());
+                        }
                         receiverPromise.tryComplete(recvOpen.result());
                     } else {
                         // this means that the peer did not create a local terminus for the link
@@ -905,6 +920,27 @@ public class HonoConnectionImpl implements HonoConnection {
         });
     }
 
+    private void handleAndReplenishCredit(
+            final ProtonReceiver receiver,
+            final AdaptiveCreditWindow creditWindow,
+            final ProtonMessageHandler messageHandler,
+            final ProtonDelivery delivery,
+            final Message message) {
+
+        final long start = System.nanoTime();
+        try {
+            messageHandler.handle(delivery, message);
+        } finally {
+            final Buffer payload = MessageHelper.getPayload(message);
+            creditWindow.onMessageProcessed(payload == null ? 0 : payload.length(), System.nanoTime() - start);
+            final int credit = creditWindow.getCreditToFlow(receiver.getCredit());
+            if (credit > 0 && receiver.isOpen()) {
+                log.trace("replenishing receiver credit [window: {}, credit: {}]", creditWindow.getSize(), credit);
+                receiver.flow(credit);
+            }
+        }
+    }
+
     private void onLinkEstablishmentTimeout(
             final ProtonLink<?> link,
             final ClientConfigProperties clientConfig,
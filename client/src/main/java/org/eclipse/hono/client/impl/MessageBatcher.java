@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.client.HonoConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentracing.SpanContext;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.proton.ProtonDelivery;
+
+/**
+ * Collects messages to be sent over a link into batches.
+ * <p>
+ * Messages may be added from any thread. A batch is handed over to the connection's
+ * vert.x context once it has reached its maximum size or once the batch window has
+ * elapsed since the first message has been added to the batch, whichever comes first.
+ * The handler processing the batch is expected to complete or fail each message's
+ * promise.
+ * <p>
+ * The sizes and flush latencies of the batches can be observed by
+ * means of registering a {@link FlushListener}.
+ */
+public final class MessageBatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MessageBatcher.class);
+
+    private final HonoConnection connection;
+    private final long windowMillis;
+    private final int maxSize;
+    private final Handler<List<Entry>> batchHandler;
+    private volatile FlushListener flushListener;
+
+    // the following fields are guarded by this instance's monitor
+    private List<Entry> pending;
+    private long pendingSince;
+    private long generation;
+
+    /**
+     * Creates a new batcher.
+     *
+     * @param connection The connection to send the messages over.
+     * @param windowMillis The maximum number of milliseconds to collect messages for.
+     * @param maxSize The maximum number of messages in a batch.
+     * @param batchHandler The handler to invoke on the connection's context for each batch.
+     * @throws NullPointerException if connection or handler are {@code null}.
+     * @throws IllegalArgumentException if window or max size are &lt; 1.
+     */
+    public MessageBatcher(
+            final HonoConnection connection,
+            final long windowMillis,
+            final int maxSize,
+            final Handler<List<Entry>> batchHandler) {
+
+        this.connection = Objects.requireNonNull(connection);
+        this.batchHandler = Objects.requireNonNull(batchHandler);
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("window must be at least 1ms");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be at least 1");
+        }
+        this.windowMillis = windowMillis;
+        this.maxSize = maxSize;
+        this.pending = new ArrayList<>(maxSize);
+    }
+
+    /**
+     * Sets the listener to notify about flushed batches.
+     *
+     * @param listener The listener or {@code null} to remove the current listener.
+     */
+    public void setFlushListener(final FlushListener listener) {
+        this.flushListener = listener;
+    }
+
+    /**
+     * Adds a message to the current batch.
+     *
+     * @param message The message to send.
+     * @param parent The context of the span that the sending of the message is part of
+     *               or {@code null} if the message is sent without tracing context.
+     * @return A future indicating the outcome of sending the message. The future will be
+     *         completed by the batch handler.
+     * @throws NullPointerException if message is {@code null}.
+     */
+    public Future<ProtonDelivery> add(final Message message, final SpanContext parent) {
+
+        Objects.requireNonNull(message);
+
+        final Entry entry = new Entry(message, parent);
+        List<Entry> batch = null;
+        long batchStart = 0;
+        long timerGeneration = -1;
+
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                pendingSince = System.nanoTime();
+                timerGeneration = generation;
+            }
+            pending.add(entry);
+            if (pending.size() >= maxSize) {
+                batch = pending;
+                batchStart = pendingSince;
+                pending = new ArrayList<>(maxSize);
+                generation++;
+                timerGeneration = -1;
+            }
+        }
+
+        if (batch != null) {
+            flush(batch, batchStart);
+        } else if (timerGeneration >= 0) {
+            final long expectedGeneration = timerGeneration;
+            connection.getVertx().setTimer(windowMillis, id -> flushPending(expectedGeneration));
+        }
+        return entry.result.future();
+    }
+
+    private void flushPending(final long expectedGeneration) {
+
+        final List<Entry> batch;
+        final long batchStart;
+        synchronized (this) {
+            if (generation != expectedGeneration || pending.isEmpty()) {
+                // batch has already been flushed because it has reached its max size
+                return;
+            }
+            batch = pending;
+            batchStart = pendingSince;
+            pending = new ArrayList<>(maxSize);
+            generation++;
+        }
+        flush(batch, batchStart);
+    }
+
+    private void flush(final List<Entry> batch, final long batchStart) {
+
+        connection.executeOnContext(flushed -> {
+            final FlushListener listener = flushListener;
+            if (listener != null) {
+                listener.onFlush(batch.size(), System.nanoTime() - batchStart);
+            }
+            batchHandler.handle(batch);
+            flushed.complete();
+        }).otherwise(t -> {
+            LOG.debug("cannot send batch of {} messages", batch.size(), t);
+            batch.forEach(entry -> entry.fail(t));
+            return null;
+        });
+    }
+
+    /**
+     * A message that is part of a batch.
+     */
+    public static final class Entry {
+
+        private final Message message;
+        private final SpanContext parent;
+        private final Promise<ProtonDelivery> result = Promise.promise();
+
+        private Entry(final Message message, final SpanContext parent) {
+            this.message = message;
+            this.parent = parent;
+        }
+
+        /**
+         * Gets the message.
+         *
+         * @return The message.
+         */
+        public Message getMessage() {
+            return message;
+        }
+
+        /**
+         * Gets the context of the span that the sending of the message is part of.
+         *
+         * @return The context or {@code null} if the message has been added without tracing context.
+         */
+        public SpanContext getParent() {
+            return parent;
+        }
+
+        /**
+         * Completes the outcome of sending the message.
+         *
+         * @param delivery The delivery of the message.
+         */
+        public void complete(final ProtonDelivery delivery) {
+            result.tryComplete(delivery);
+        }
+
+        /**
+         * Fails the outcome of sending the message.
+         *
+         * @param cause The reason for the failure.
+         */
+        public void fail(final Throwable cause) {
+            result.tryFail(cause);
+        }
+    }
+
+    /**
+     * A listener to be notified about batches that are handed over to the connection.
+     */
+    @FunctionalInterface
+    public interface FlushListener {
+
+        /**
+         * Invoked when a batch is handed over to the connection's context.
+         *
+         * @param batchSize The number of messages in the batch.
+         * @param latencyNanos The number of nanoseconds that have passed between adding the
+         *                     first message to the batch and handing over the batch.
+         */
+        void onFlush(int batchSize, long latencyNanos);
+    }
+}
@@ -0,0 +1,469 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.eclipse.hono.client.DisconnectListener;
+import org.eclipse.hono.client.DownstreamSender;
+import org.eclipse.hono.client.DownstreamSenderFactory;
+import org.eclipse.hono.client.HonoConnection;
+import org.eclipse.hono.client.ReconnectListener;
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.config.ClientConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentracing.SpanContext;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.proton.ProtonDelivery;
+
+/**
+ * A factory for creating downstream senders which distributes the senders over a pool of connections.
+ * <p>
+ * The factory delegates to a fixed number of <em>member</em> factories, each one using its own
+ * connection to the AMQP Messaging Network. All senders for a particular tenant are created by the
+ * member that the tenant identifier's hash code maps to.
+ * <p>
+ * Each member's connection is established on a vert.x context of its own, so that the connections
+ * (and the links opened on them) are handled on different event loop threads. Reconnecting and
+ * re-creating links after a connection loss is done by each member independently.
+ * <p>
+ * The futures returned by this factory and by the senders it creates are completed on the
+ * vert.x context that the corresponding method has been invoked on (if any), i.e. client code
+ * does not need to take care of the senders being bound to another context.
+ */
+public final class PooledDownstreamSenderFactory implements DownstreamSenderFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledDownstreamSenderFactory.class);
+
+    private final Vertx vertx;
+    private final List<DownstreamSenderFactory> members;
+    private final List<Future<Context>> memberContexts;
+    private final List<String> memberDeploymentIds = new ArrayList<>();
+
+    /**
+     * Creates a new factory for a pool of connections.
+     * <p>
+     * The number of connections is determined by the configuration's
+     * <em>connectionPoolSize</em> property.
+     *
+     * @param vertx The vert.x instance to use.
+     * @param config The configuration properties to use for the connections.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public PooledDownstreamSenderFactory(final Vertx vertx, final ClientConfigProperties config) {
+        this(vertx, createMembers(vertx, config));
+    }
+
+    /**
+     * Creates a new factory for a set of member factories.
+     *
+     * @param vertx The vert.x instance to use.
+     * @param members The factories to delegate to.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     * @throws IllegalArgumentException if the list of members is empty.
+     */
+    PooledDownstreamSenderFactory(final Vertx vertx, final List<? extends DownstreamSenderFactory> members) {
+        this.vertx = Objects.requireNonNull(vertx);
+        Objects.requireNonNull(members);
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("pool must contain at least one member");
+        }
+        this.members = Collections.unmodifiableList(new ArrayList<>(members));
+        this.memberContexts = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            memberContexts.add(null);
+        }
+    }
+
+    private static List<DownstreamSenderFactory> createMembers(final Vertx vertx, final ClientConfigProperties config) {
+
+        Objects.requireNonNull(vertx);
+        Objects.requireNonNull(config);
+
+        final List<DownstreamSenderFactory> result = new ArrayList<>(config.getConnectionPoolSize());
+        for (int i = 0; i < config.getConnectionPoolSize(); i++) {
+            result.add(new DownstreamSenderFactoryImpl(HonoConnection.newConnection(vertx, config)));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of connections in the pool.
+     *
+     * @return The number of connections.
+     */
+    public int getPoolSize() {
+        return members.size();
+    }
+
+    /**
+     * Sets the listener to notify about batches of telemetry messages being flushed
+     * by the senders created by the members of the pool.
+     *
+     * @param listener The listener or {@code null} if no listener should be notified.
+     * @see DownstreamSenderFactoryImpl#setBatchFlushListener(MessageBatcher.FlushListener)
+     */
+    public void setBatchFlushListener(final MessageBatcher.FlushListener listener) {
+        members.stream()
+            .filter(DownstreamSenderFactoryImpl.class::isInstance)
+            .forEach(member -> ((DownstreamSenderFactoryImpl) member).setBatchFlushListener(listener));
+    }
+
+    /**
+     * Gets the member factory responsible for a tenant.
+     *
+     * @param tenantId The tenant identifier.
+     * @return The factory.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    DownstreamSenderFactory getMember(final String tenantId) {
+        Objects.requireNonNull(tenantId);
+        return members.get(Math.floorMod(tenantId.hashCode(), members.size()));
+    }
+
+    /**
+     * Gets a vert.x context of its own for a member.
+     * <p>
+     * The context is created by means of deploying a verticle that does nothing
+     * on its own. Vert.x assigns event loop threads to the contexts of (standard)
+     * verticles in a round robin fashion. The verticle is undeployed when
+     * the pool gets disconnected.
+     *
+     * @param index The index of the member.
+     * @return A future that will be completed with the context.
+     */
+    private synchronized Future<Context> getMemberContext(final int index) {
+
+        Future<Context> memberContext = memberContexts.get(index);
+        if (memberContext == null || memberContext.failed()) {
+            final Promise<Context> result = Promise.promise();
+            vertx.deployVerticle(new AbstractVerticle() {
+                @Override
+                public void start() {
+                    result.complete(context);
+                }
+            }, deployment -> {
+                if (deployment.succeeded()) {
+                    synchronized (this) {
+                        memberDeploymentIds.add(deployment.result());
+                    }
+                } else {
+                    result.tryFail(deployment.cause());
+                }
+            });
+            memberContext = result.future();
+            memberContexts.set(index, memberContext);
+        }
+        return memberContext;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Connects all members of the pool, each one on its own vert.x context.
+     *
+     * @return A future indicating the outcome of the operation. The future will be
+     *         completed with the connection of the first member once all members'
+     *         connections have been established.
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Future<HonoConnection> connect() {
+
+        final List<Future> connectionAttempts = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            final DownstreamSenderFactory member = members.get(i);
+            connectionAttempts.add(getMemberContext(i).compose(context -> {
+                final Promise<HonoConnection> connected = Promise.promise();
+                context.runOnContext(go -> member.connect().setHandler(connected));
+                return connected.future();
+            }));
+        }
+        return CompositeFuture.all(connectionAttempts)
+                .map(ok -> {
+                    LOG.debug("established pool of {} connections", members.size());
+                    return ok.resultAt(0);
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The listener is added to each member of the pool.
+     */
+    @Override
+    public void addDisconnectListener(final DisconnectListener<HonoConnection> listener) {
+        members.forEach(member -> member.addDisconnectListener(listener));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The listener is added to each member of the pool.
+     */
+    @Override
+    public void addReconnectListener(final ReconnectListener<HonoConnection> listener) {
+        members.forEach(member -> member.addReconnectListener(listener));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return A succeeded future if the connections of all members are established.
+     *         Otherwise, the future will be failed with a {@link org.eclipse.hono.client.ServerErrorException}.
+     */
+    @Override
+    public Future<Void> isConnected() {
+        return all(members.stream()
+                .map(DownstreamSenderFactory::isConnected)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return A succeeded future if the connections of all members are established.
+     *         Otherwise, the future will be failed with a {@link org.eclipse.hono.client.ServerErrorException}.
+     */
+    @Override
+    public Future<Void> isConnected(final long waitForCurrentConnectAttemptTimeout) {
+        return all(members.stream()
+                .map(member -> member.isConnected(waitForCurrentConnectAttemptTimeout))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Disconnects all members of the pool and undeploys the verticles
+     * that provide the members' vert.x contexts.
+     */
+    @Override
+    public void disconnect() {
+        disconnect(attempt -> {});
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Disconnects all members of the pool and undeploys the verticles
+     * that provide the members' vert.x contexts.
+     */
+    @Override
+    public void disconnect(final Handler<AsyncResult<Void>> completionHandler) {
+
+        Objects.requireNonNull(completionHandler);
+        final Future<Void> membersDisconnected = all(members.stream()
+                .map(member -> {
+                    final Promise<Void> disconnected = Promise.promise();
+                    member.disconnect(disconnected);
+                    return disconnected.future();
+                })
+                .collect(Collectors.toList()));
+        membersDisconnected
+            .recover(t -> Future.succeededFuture())
+            .compose(ok -> undeployMemberContexts())
+            .compose(ok -> membersDisconnected)
+            .setHandler(completionHandler);
+    }
+
+    private Future<Void> undeployMemberContexts() {
+
+        final List<String> deploymentIds;
+        synchronized (this) {
+            deploymentIds = new ArrayList<>(memberDeploymentIds);
+            memberDeploymentIds.clear();
+            Collections.fill(memberContexts, null);
+        }
+        return all(deploymentIds.stream()
+                .map(deploymentId -> {
+                    final Promise<Void> undeployed = Promise.promise();
+                    vertx.undeploy(deploymentId, undeployed);
+                    return undeployed.future();
+                })
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Delegates to the member of the pool that the tenant is mapped to.
+     */
+    @Override
+    public Future<DownstreamSender> getOrCreateTelemetrySender(final String tenantId) {
+        return completeOnCallerContext(getMember(tenantId).getOrCreateTelemetrySender(tenantId))
+                .map(CallerContextSender::new);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Delegates to the member of the pool that the tenant is mapped to.
+     */
+    @Override
+    public Future<DownstreamSender> getOrCreateEventSender(final String tenantId) {
+        return completeOnCallerContext(getMember(tenantId).getOrCreateEventSender(tenantId))
+                .map(CallerContextSender::new);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Future<Void> all(final List<? extends Future> futures) {
+        return CompositeFuture.all(new ArrayList<>(futures)).mapEmpty();
+    }
+
+    /**
+     * Creates a future that is completed with the outcome of another future
+     * on the vert.x context that this method is invoked on.
+     *
+     * @param <T> The type of the future's result.
+     * @param future The future to complete on the current context.
+     * @return The future. If this method is not invoked on a vert.x context,
+     *         the given future is returned.
+     */
+    private static <T> Future<T> completeOnCallerContext(final Future<T> future) {
+
+        final Context callerContext = Vertx.currentContext();
+        if (callerContext == null) {
+            return future;
+        }
+        final Promise<T> result = Promise.promise();
+        future.setHandler(attempt -> runOnContext(callerContext, attempt, result));
+        return result.future();
+    }
+
+    private static <T> Handler<T> handleOnCallerContext(final Handler<T> handler) {
+
+        final Context callerContext = Vertx.currentContext();
+        if (handler == null || callerContext == null) {
+            return handler;
+        }
+        return event -> runOnContext(callerContext, event, handler);
+    }
+
+    private static <T> void runOnContext(final Context context, final T event, final Handler<T> handler) {
+        if (Vertx.currentContext() == context) {
+            handler.handle(event);
+        } else {
+            context.runOnContext(go -> handler.handle(event));
+        }
+    }
+
+    /**
+     * A sender that delegates to a member's sender and completes the futures
+     * it returns on the vert.x context that the sender is invoked on.
+     * <p>
+     * The member's sender executes all operations on its connection's context
+     * and completes the futures on that context.
+     */
+    private static final class CallerContextSender implements DownstreamSender {
+
+        private final DownstreamSender delegate;
+
+        CallerContextSender(final DownstreamSender delegate) {
+            this.delegate = Objects.requireNonNull(delegate);
+        }
+
+        @Override
+        public int getCredit() {
+            return delegate.getCredit();
+        }
+
+        @Override
+        public void sendQueueDrainHandler(final Handler<Void> handler) {
+            delegate.sendQueueDrainHandler(handleOnCallerContext(handler));
+        }
+
+        @Override
+        public void addCreditReplenishedHandler(final Handler<Void> handler) {
+            delegate.addCreditReplenishedHandler(handleOnCallerContext(handler));
+        }
+
+        @Override
+        public String getEndpoint() {
+            return delegate.getEndpoint();
+        }
+
+        @Override
+        public void close(final Handler<AsyncResult<Void>> closeHandler) {
+            delegate.close(handleOnCallerContext(closeHandler));
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public Future<ProtonDelivery> send(final Message message) {
+            return completeOnCallerContext(delegate.send(message));
+        }
+
+        @Override
+        public Future<ProtonDelivery> send(final Message message, final SpanContext context) {
+            return completeOnCallerContext(delegate.send(message, context));
+        }
+
+        @Override
+        public Future<ProtonDelivery> sendAndWaitForOutcome(final Message message) {
+            return completeOnCallerContext(delegate.sendAndWaitForOutcome(message));
+        }
+
+        @Override
+        public Future<ProtonDelivery> sendAndWaitForOutcome(final Message message, final SpanContext context) {
+            return completeOnCallerContext(delegate.sendAndWaitForOutcome(message, context));
+        }
+
+        @Override
+        public Future<ProtonDelivery> send(final String deviceId, final String payload, final String contentType) {
+            return completeOnCallerContext(delegate.send(deviceId, payload, contentType));
+        }
+
+        @Override
+        public Future<ProtonDelivery> send(final String deviceId, final byte[] payload, final String contentType) {
+            return completeOnCallerContext(delegate.send(deviceId, payload, contentType));
+        }
+
+        @Override
+        public Future<ProtonDelivery> send(
+                final String deviceId,
+                final Map<String, ?> properties,
+                final String payload,
+                final String contentType) {
+            return completeOnCallerContext(delegate.send(deviceId, properties, payload, contentType));
+        }
+
+        @Override
+        public Future<ProtonDelivery> send(
+                final String deviceId,
+                final Map<String, ?> properties,
+                final byte[] payload,
+                final String contentType) {
+            return completeOnCallerContext(delegate.send(deviceId, properties, payload, contentType));
+        }
+    }
+}
@@ -57,6 +57,12 @@ import io.vertx.proton.ProtonReceiver;
  */
 public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClientFactory implements ProtocolAdapterCommandConsumerFactory {
 
+    /**
+     * The maximum number of devices to associate with this adapter instance in a single
+     * request to the Device Connection service when re-registering the command handlers.
+     */
+    static final int RE_REGISTRATION_BATCH_SIZE = 500;
+
     private static final int RECREATE_CONSUMERS_DELAY = 20;
 
     /**
@@ -68,8 +74,10 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
     private final AdapterInstanceCommandHandler adapterInstanceCommandHandler;
     private final AtomicBoolean recreatingConsumers = new AtomicBoolean(false);
     private final AtomicBoolean tryAgainRecreatingConsumers = new AtomicBoolean(false);
+    private final AtomicBoolean reRegistrationPending = new AtomicBoolean(false);
 
     private BasicDeviceConnectionClientFactory deviceConnectionClientFactory;
+    private CommandTargetMapper commandTargetMapper;
     private MappingAndDelegatingCommandHandler mappingAndDelegatingCommandHandler;
     private ProtonReceiver adapterSpecificConsumer;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
@@ -82,16 +90,32 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
      * @throws NullPointerException if any of the parameters is {@code null}.
      */
     public ProtocolAdapterCommandConsumerFactoryImpl(final HonoConnection connection, final String adapterInstanceId) {
+        this(connection, adapterInstanceId, new CommandHandlerStatistics());
+    }
+
+    /**
+     * Creates a new factory for an existing connection.
+     *
+     * @param connection The connection to the AMQP network.
+     * @param adapterInstanceId The id of the protocol adapter instance that this factory is running in.
+     * @param commandHandlerStatistics The statistics to account the registered command handlers to.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    public ProtocolAdapterCommandConsumerFactoryImpl(
+            final HonoConnection connection,
+            final String adapterInstanceId,
+            final CommandHandlerStatistics commandHandlerStatistics) {
         super(connection);
         this.adapterInstanceId = Objects.requireNonNull(adapterInstanceId);
 
-        adapterInstanceCommandHandler = new AdapterInstanceCommandHandler(connection.getTracer(), adapterInstanceId);
+        adapterInstanceCommandHandler = new AdapterInstanceCommandHandler(connection.getTracer(), adapterInstanceId,
+                commandHandlerStatistics);
     }
 
     @Override
     public void initialize(final CommandTargetMapper commandTargetMapper,
             final BasicDeviceConnectionClientFactory deviceConnectionClientFactory) {
-        Objects.requireNonNull(commandTargetMapper);
+        this.commandTargetMapper = Objects.requireNonNull(commandTargetMapper);
         this.deviceConnectionClientFactory = Objects.requireNonNull(deviceConnectionClientFactory);
 
         mappingAndDelegatingCommandHandler = new MappingAndDelegatingCommandHandler(connection,
@@ -100,7 +124,10 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
 
         connection.getVertx().eventBus().consumer(Constants.EVENT_BUS_ADDRESS_TENANT_TIMED_OUT,
                 this::handleTenantTimeout);
-        connection.addReconnectListener(c -> recreateConsumers());
+        connection.addReconnectListener(c -> {
+            reRegistrationPending.set(true);
+            recreateConsumers();
+        });
         // trigger creation of adapter specific consumer link (with retry if failed)
         recreateConsumers();
         initialized.set(true);
@@ -168,6 +195,7 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
     }
 
     private Future<Void> setCommandHandlingAdapterInstance(final String tenantId, final String deviceId, final SpanContext context) {
+        commandTargetMapper.invalidateTarget(tenantId, deviceId);
         return deviceConnectionClientFactory.getOrCreateDeviceConnectionClient(tenantId)
                 .compose(client -> {
                     return client.setCommandHandlingAdapterInstance(deviceId, adapterInstanceId, context);
@@ -183,6 +211,7 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
     private Future<Void> removeCommandConsumer(final String tenantId, final String deviceId, final SpanContext context) {
         log.trace("remove command consumer [tenant-id: {}, device-id: {}]", tenantId, deviceId);
         adapterInstanceCommandHandler.removeDeviceSpecificCommandHandler(tenantId, deviceId);
+        commandTargetMapper.invalidateTarget(tenantId, deviceId);
         return deviceConnectionClientFactory.getOrCreateDeviceConnectionClient(tenantId)
                 .compose(client -> {
                     return client.removeCommandHandlingAdapterInstance(deviceId, adapterInstanceId, context);
@@ -271,13 +300,17 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
                             consumerCreationFutures.add(createAdapterSpecificConsumer());
                         }
                         // recreate mappingAndDelegatingCommandConsumers
-                        adapterInstanceCommandHandler.getDeviceSpecificCommandHandlers().stream()
-                                .map(CommandHandlerWrapper::getTenantId).distinct().forEach(tenantId -> {
+                        adapterInstanceCommandHandler.getTenantIds().forEach(tenantId -> {
                                     log.debug("recreate command consumer link for tenant {}", tenantId);
                                     consumerCreationFutures.add(
                                             getOrCreateMappingAndDelegatingCommandConsumer(tenantId));
                                 });
                         return CompositeFuture.join(consumerCreationFutures);
+                    }).map(ok -> {
+                        if (reRegistrationPending.compareAndSet(true, false)) {
+                            reRegisterCommandHandlers();
+                        }
+                        return ok;
                     }).setHandler(ar -> {
                         recreatingConsumers.set(false);
                         if (tryAgainRecreatingConsumers.compareAndSet(true, false) || ar.failed()) {
@@ -297,6 +330,41 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
         }
     }
 
+    /**
+     * Associates the devices that command handlers are registered for with this adapter instance again.
+     * <p>
+     * The association may have been removed or may have expired in the Device Connection service
+     * while the connection was lost. The devices of each tenant are associated by means of
+     * batches of at most {@link #RE_REGISTRATION_BATCH_SIZE} devices, which are sent one after
+     * the other in order to not overload the Device Connection service.
+     *
+     * @return A future indicating the outcome. The future will be succeeded once all batches
+     *         have been processed, regardless of whether individual batches have failed.
+     */
+    Future<Void> reRegisterCommandHandlers() {
+        Future<Void> result = Future.succeededFuture();
+        for (final String tenantId : adapterInstanceCommandHandler.getTenantIds()) {
+            final List<String> deviceIds = adapterInstanceCommandHandler.getDeviceIds(tenantId);
+            log.debug("re-registering command handlers of {} devices [tenant: {}]", deviceIds.size(), tenantId);
+            for (int i = 0; i < deviceIds.size(); i += RE_REGISTRATION_BATCH_SIZE) {
+                final List<String> batch = deviceIds.subList(i, Math.min(i + RE_REGISTRATION_BATCH_SIZE, deviceIds.size()));
+                result = result.compose(ok -> setCommandHandlingAdapterInstanceForDevices(tenantId, batch));
+            }
+        }
+        return result;
+    }
+
+    private Future<Void> setCommandHandlingAdapterInstanceForDevices(final String tenantId, final List<String> deviceIds) {
+        deviceIds.forEach(deviceId -> commandTargetMapper.invalidateTarget(tenantId, deviceId));
+        return deviceConnectionClientFactory.getOrCreateDeviceConnectionClient(tenantId)
+                .compose(client -> client.setCommandHandlingAdapterInstanceForDevices(deviceIds, adapterInstanceId, null))
+                .recover(thr -> {
+                    log.info("error re-registering command handlers of {} devices [tenant: {}]", deviceIds.size(),
+                            tenantId, thr);
+                    return Future.succeededFuture();
+                });
+    }
+
     private void invokeRecreateConsumersWithDelay() {
         connection.getVertx().setTimer(RECREATE_CONSUMERS_DELAY, tid -> recreateConsumers());
     }
@@ -308,11 +376,9 @@ public class ProtocolAdapterCommandConsumerFactoryImpl extends AbstractHonoClien
             log.info("timeout of tenant {}: closing and removing command consumer", tenantId);
             consumer.close(v -> mappingAndDelegatingCommandConsumerFactory.removeClient(tenantId));
         }
-        adapterInstanceCommandHandler
-                .getDeviceSpecificCommandHandlers().stream().filter(handler -> handler.getTenantId().equals(tenantId))
+        adapterInstanceCommandHandler.removeDeviceSpecificCommandHandlers(tenantId)
                 .forEach(handler -> {
-                    log.info("timeout of tenant {}: removing command handler for device {}", tenantId, handler.getDeviceId());
-                    adapterInstanceCommandHandler.removeDeviceSpecificCommandHandler(handler.getTenantId(), handler.getDeviceId());
+                    log.info("timeout of tenant {}: removed command handler for device {}", tenantId, handler.getDeviceId());
                 });
     }
 
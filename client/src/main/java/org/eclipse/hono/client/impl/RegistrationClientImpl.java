@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -15,8 +15,11 @@ package org.eclipse.hono.client.impl;
 
 import java.net.HttpURLConnection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
@@ -40,6 +43,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.proton.ProtonReceiver;
 import io.vertx.proton.ProtonSender;
@@ -245,7 +249,7 @@ public class RegistrationClientImpl extends AbstractRequestResponseClient<Regist
 
         Objects.requireNonNull(deviceId);
 
-        final TriTuple<String, String, String> key = TriTuple.of(RegistrationConstants.ACTION_ASSERT, deviceId, gatewayId);
+        final TriTuple<String, String, String> key = getAssertionCacheKey(deviceId, gatewayId);
         final Span span = newChildSpan(parent, "assert Device Registration");
         span.setTag(MessageHelper.APP_PROPERTY_TENANT_ID, getTenantId());
         span.setTag(MessageHelper.APP_PROPERTY_DEVICE_ID, deviceId);
@@ -283,4 +287,99 @@ public class RegistrationClientImpl extends AbstractRequestResponseClient<Regist
             }
         }, span);
     }
+
+    /**
+     * Invokes the <em>Assert Device Registrations</em> operation of Hono's
+     * <a href="https://www.eclipse.org/hono/docs/api/device-registration/">Device Registration API</a>
+     * on the service represented by the <em>sender</em> and <em>receiver</em> links.
+     * <p>
+     * Assertions that are contained in the response cache are not requested from the service
+     * again. The assertions for all other devices are requested in a single request message and
+     * each of the assertions contained in the response is put to the cache individually.
+     */
+    @Override
+    public final Future<Map<String, JsonObject>> assertRegistrations(
+            final List<String> deviceIds,
+            final String gatewayId,
+            final SpanContext parent) {
+
+        Objects.requireNonNull(deviceIds);
+        Objects.requireNonNull(gatewayId);
+
+        final Span span = newChildSpan(parent, "assert Device Registrations");
+        span.setTag(MessageHelper.APP_PROPERTY_TENANT_ID, getTenantId());
+        span.setTag(MessageHelper.APP_PROPERTY_GATEWAY_ID, gatewayId);
+
+        final Map<String, JsonObject> assertions = new HashMap<>(deviceIds.size());
+        final JsonArray uncachedDeviceIds = new JsonArray();
+        final Set<String> distinctDeviceIds = new LinkedHashSet<>(deviceIds);
+        for (final String deviceId : distinctDeviceIds) {
+            final RegistrationResult cachedResult = getResponseFromCache(getAssertionCacheKey(deviceId, gatewayId)).result();
+            if (cachedResult == null) {
+                uncachedDeviceIds.add(deviceId);
+            } else if (cachedResult.isOk()) {
+                assertions.put(deviceId, cachedResult.getPayload());
+            }
+        }
+        span.log(String.format("found %d assertion(s) in cache", distinctDeviceIds.size() - uncachedDeviceIds.size()));
+
+        if (uncachedDeviceIds.isEmpty()) {
+            span.finish();
+            return Future.succeededFuture(assertions);
+        }
+
+        final Promise<RegistrationResult> batchResult = Promise.promise();
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(MessageHelper.APP_PROPERTY_GATEWAY_ID, gatewayId);
+        createAndSendRequest(
+                RegistrationConstants.ACTION_ASSERT_BATCH,
+                properties,
+                new JsonObject().put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_IDS, uncachedDeviceIds).toBuffer(),
+                RegistrationConstants.CONTENT_TYPE_APPLICATION_JSON,
+                batchResult,
+                null,
+                span);
+
+        return mapResultAndFinishSpan(batchResult.future(), result -> {
+            switch (result.getStatus()) {
+            case HttpURLConnection.HTTP_OK:
+                addAssertions(result.getPayload().getJsonObject(RegistrationConstants.FIELD_RESULTS, new JsonObject()),
+                        uncachedDeviceIds, gatewayId, assertions);
+                return assertions;
+            default:
+                throw StatusCodeMapper.from(result);
+            }
+        }, span);
+    }
+
+    private void addAssertions(
+            final JsonObject results,
+            final JsonArray requestedDeviceIds,
+            final String gatewayId,
+            final Map<String, JsonObject> assertions) {
+
+        for (final Object id : requestedDeviceIds) {
+            final String deviceId = (String) id;
+            final Object entry = results.getValue(deviceId);
+            if (entry instanceof JsonObject) {
+                final JsonObject deviceResult = (JsonObject) entry;
+                final Object payload = deviceResult.getValue(RegistrationConstants.FIELD_PAYLOAD);
+                final RegistrationResult result = RegistrationResult.from(
+                        deviceResult.getInteger(RegistrationConstants.FIELD_STATUS, HttpURLConnection.HTTP_INTERNAL_ERROR),
+                        payload instanceof JsonObject ? (JsonObject) payload : null,
+                        CacheDirective.from(deviceResult.getString(RegistrationConstants.FIELD_CACHE_CONTROL)));
+                addToCache(getAssertionCacheKey(deviceId, gatewayId), result);
+                if (result.isOk() && result.getPayload() != null) {
+                    assertions.put(deviceId, result.getPayload());
+                }
+            } else {
+                LOG.debug("response does not contain assertion result for device [tenant: {}, device-id: {}]",
+                        getTenantId(), deviceId);
+            }
+        }
+    }
+
+    private static TriTuple<String, String, String> getAssertionCacheKey(final String deviceId, final String gatewayId) {
+        return TriTuple.of(RegistrationConstants.ACTION_ASSERT, deviceId, gatewayId);
+    }
 }
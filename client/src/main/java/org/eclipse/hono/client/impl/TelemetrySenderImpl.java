@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -14,9 +14,13 @@
 package org.eclipse.hono.client.impl;
 
 import java.net.HttpURLConnection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.qpid.proton.amqp.messaging.Accepted;
 import org.apache.qpid.proton.amqp.transport.DeliveryState;
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.client.DownstreamSender;
@@ -42,6 +46,14 @@ import io.vertx.proton.ProtonSender;
  */
 public class TelemetrySenderImpl extends AbstractDownstreamSender {
 
+    private final MessageBatcher batcher;
+    /**
+     * The outcome of sending the most recently flushed batch. Batches are sent one after
+     * the other, so that the order of the messages is retained while waiting for credit.
+     * Only accessed on the connection's context.
+     */
+    private Future<Void> lastBatchSent = Future.succeededFuture();
+
     /**
      * Creates a telemetry sender instance for a given connection and proton sender.
      *
@@ -56,7 +68,34 @@ public class TelemetrySenderImpl extends AbstractDownstreamSender {
             final String tenantId,
             final String targetAddress) {
 
+        this(con, sender, tenantId, targetAddress, null);
+    }
+
+    /**
+     * Creates a telemetry sender instance for a given connection and proton sender.
+     *
+     * @param con The open connection to the Hono server.
+     * @param sender The sender link to send telemetry messages over.
+     * @param tenantId The tenant that the messages will be published for.
+     * @param targetAddress The target address to send the messages to.
+     * @param flushListener The listener to notify about flushed batches of messages
+     *                      or {@code null} if no listener should be notified.
+     */
+    protected TelemetrySenderImpl(
+            final HonoConnection con,
+            final ProtonSender sender,
+            final String tenantId,
+            final String targetAddress,
+            final MessageBatcher.FlushListener flushListener) {
+
         super(con, sender, tenantId, targetAddress);
+        final ClientConfigProperties config = con.getConfig();
+        if (config != null && config.getSendBatchWindow() > 0) {
+            this.batcher = new MessageBatcher(con, config.getSendBatchWindow(), config.getSendBatchMaxSize(), this::sendBatch);
+            this.batcher.setFlushListener(flushListener);
+        } else {
+            this.batcher = null;
+        }
     }
 
     /**
@@ -102,13 +141,129 @@ public class TelemetrySenderImpl extends AbstractDownstreamSender {
             final String tenantId,
             final Handler<String> remoteCloseHook) {
 
+        return create(con, tenantId, null, remoteCloseHook);
+    }
+
+    /**
+     * Creates a new sender for publishing telemetry data to a Hono server.
+     *
+     * @param con The connection to the Hono server.
+     * @param tenantId The tenant that the telemetry data will be published for.
+     * @param flushListener The listener to notify about flushed batches of messages
+     *                      or {@code null} if no listener should be notified.
+     * @param remoteCloseHook The handler to invoke when the link is closed by the peer (may be {@code null}). The
+     *            sender's target address is provided as an argument to the handler.
+     * @return A future indicating the outcome.
+     * @throws NullPointerException if con or tenantId is {@code null}.
+     */
+    public static Future<DownstreamSender> create(
+            final HonoConnection con,
+            final String tenantId,
+            final MessageBatcher.FlushListener flushListener,
+            final Handler<String> remoteCloseHook) {
+
         Objects.requireNonNull(con);
         Objects.requireNonNull(tenantId);
 
         final String targetAddress = getTargetAddress(tenantId, null);
         return con.createSender(targetAddress, ProtonQoS.AT_LEAST_ONCE, remoteCloseHook)
                 .compose(sender -> Future
-                        .succeededFuture(new TelemetrySenderImpl(con, sender, tenantId, targetAddress)));
+                        .succeededFuture(new TelemetrySenderImpl(con, sender, tenantId, targetAddress, flushListener)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If a <em>send batch window</em> is configured for the connection, the message is
+     * collected in a batch with other messages that are sent to the same tenant, and is
+     * sent to the peer along with these messages. The messages of a batch wait for credit
+     * in the same way as messages sent without batching. As with messages sent without
+     * batching, the returned future is completed once the message has been sent, i.e.
+     * without waiting for the peer's outcome. The peer's outcomes are logged to the
+     * batch's span only.
+     *
+     * @see ClientConfigProperties#getSendBatchWindow()
+     */
+    @Override
+    public Future<ProtonDelivery> send(final Message rawMessage, final SpanContext parent) {
+
+        if (batcher == null) {
+            return super.send(rawMessage, parent);
+        }
+        Objects.requireNonNull(rawMessage);
+        return batcher.add(rawMessage, parent);
+    }
+
+    /**
+     * Sends a batch of messages to the peer.
+     * <p>
+     * The batch is sent once all previously flushed batches have been sent.
+     *
+     * @param batch The messages to send.
+     */
+    private void sendBatch(final List<MessageBatcher.Entry> batch) {
+        lastBatchSent = lastBatchSent.compose(ok -> sendBatchMessages(batch));
+    }
+
+    /**
+     * Sends the messages of a batch to the peer.
+     * <p>
+     * A single span is used for tracing the sending of all messages of the batch.
+     * Each message waits for credit before being sent. A message's future is completed
+     * once the message has been sent, without waiting for the peer's outcome.
+     *
+     * @param batch The messages to send.
+     * @return A future indicating that all messages of the batch have either been sent
+     *         or have been failed due to a lack of credit. The future is never failed.
+     */
+    private Future<Void> sendBatchMessages(final List<MessageBatcher.Entry> batch) {
+
+        final Span span = newFollowingSpan(batch.get(0).getParent(), "forward Telemetry data batch");
+        Tags.SPAN_KIND.set(span, Tags.SPAN_KIND_PRODUCER);
+        Tags.MESSAGE_BUS_DESTINATION.set(span, targetAddress);
+        span.setTag(MessageHelper.APP_PROPERTY_TENANT_ID, tenantId);
+        span.setTag("batch_size", batch.size());
+
+        final BatchOutcome outcome = new BatchOutcome(span, batch.size());
+        return sendBatchMessages(batch.iterator(), outcome)
+                .map(ok -> {
+                    log.trace("sent batch of {} messages [address: {}], remaining credit: {}, queued messages: {}",
+                            batch.size() - outcome.rejected.get(), targetAddress, sender.getCredit(), sender.getQueued());
+                    return ok;
+                });
+    }
+
+    private Future<Void> sendBatchMessages(final Iterator<MessageBatcher.Entry> entries, final BatchOutcome outcome) {
+
+        while (entries.hasNext()) {
+            final MessageBatcher.Entry entry = entries.next();
+            final Future<Void> creditAvailable = waitForCredit();
+            if (!creditAvailable.isComplete()) {
+                return creditAvailable
+                        .map(ok -> {
+                            sendBatchMessage(entry, outcome);
+                            return (Void) null;
+                        })
+                        .otherwise(t -> {
+                            outcome.rejected(entry, t);
+                            return null;
+                        })
+                        .compose(ok -> sendBatchMessages(entries, outcome));
+            } else if (creditAvailable.succeeded()) {
+                sendBatchMessage(entry, outcome);
+            } else {
+                outcome.rejected(entry, creditAvailable.cause());
+            }
+        }
+        return Future.succeededFuture();
+    }
+
+    private void sendBatchMessage(final MessageBatcher.Entry entry, final BatchOutcome outcome) {
+
+        final Message message = entry.getMessage();
+        message.setMessageId(String.format("%s-%d", getClass().getSimpleName(), MESSAGE_COUNTER.getAndIncrement()));
+        TracingHelper.injectSpanContext(connection.getTracer(), outcome.span.context(), message);
+        entry.complete(sender.send(message, deliveryUpdated -> outcome.deliveryUpdated(message, deliveryUpdated)));
     }
 
     /**
@@ -137,16 +292,16 @@ public class TelemetrySenderImpl extends AbstractDownstreamSender {
         TracingHelper.injectSpanContext(connection.getTracer(), span.context(), rawMessage);
 
         return connection.executeOnContext(result -> {
-            if (sender.sendQueueFull()) {
-                final ServiceInvocationException e = new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE, "no credit available");
-                logMessageSendingError("error sending message [ID: {}, address: {}], no credit available",
-                        rawMessage.getMessageId(), getMessageAddress(rawMessage));
-                logError(span, e);
-                span.finish();
-                result.fail(e);
-            } else {
-                sendMessageAndWaitForOutcome(rawMessage, span).setHandler(result);
-            }
+            waitForCredit()
+                .recover(t -> {
+                    logMessageSendingError("error sending message [ID: {}, address: {}], no credit available",
+                            rawMessage.getMessageId(), getMessageAddress(rawMessage));
+                    logError(span, t);
+                    span.finish();
+                    return Future.failedFuture(t);
+                })
+                .compose(creditAvailable -> sendMessageAndWaitForOutcome(rawMessage, span))
+                .setHandler(result);
         });
     }
 
@@ -180,8 +335,8 @@ public class TelemetrySenderImpl extends AbstractDownstreamSender {
 
         final ClientConfigProperties config = connection.getConfig();
         final AtomicBoolean timeoutReached = new AtomicBoolean(false);
-        final Long timerId = config.getSendMessageTimeout() > 0
-                ? connection.getVertx().setTimer(config.getSendMessageTimeout(), id -> {
+        final HashedWheelTimeouts.Timeout timeout = config.getSendMessageTimeout() > 0
+                ? HashedWheelTimeouts.schedule(connection.getVertx(), config.getSendMessageTimeout(), expired -> {
                     if (timeoutReached.compareAndSet(false, true)) {
                         final ServerErrorException exception = new ServerErrorException(
                                 HttpURLConnection.HTTP_UNAVAILABLE,
@@ -197,8 +352,8 @@ public class TelemetrySenderImpl extends AbstractDownstreamSender {
                 : null;
 
         final ProtonDelivery result = sender.send(message, deliveryUpdated -> {
-            if (timerId != null) {
-                connection.getVertx().cancelTimer(timerId);
+            if (timeout != null) {
+                timeout.cancel();
             }
             final DeliveryState remoteState = deliveryUpdated.getRemoteState();
             if (timeoutReached.get()) {
@@ -235,4 +390,73 @@ public class TelemetrySenderImpl extends AbstractDownstreamSender {
         Tags.SPAN_KIND.set(span, Tags.SPAN_KIND_PRODUCER);
         return span;
     }
+
+    /**
+     * Tracks the outcomes of sending the messages of a batch.
+     * <p>
+     * The batch's span is finished once the peer has settled all messages that have
+     * been sent or once the <em>send message timeout</em> has elapsed.
+     */
+    private final class BatchOutcome {
+
+        private final Span span;
+        private final AtomicInteger outstanding;
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final HashedWheelTimeouts.Timeout timeout;
+
+        BatchOutcome(final Span span, final int batchSize) {
+            this.span = span;
+            this.outstanding = new AtomicInteger(batchSize);
+            final ClientConfigProperties config = connection.getConfig();
+            this.timeout = config != null && config.getSendMessageTimeout() > 0
+                    ? HashedWheelTimeouts.schedule(connection.getVertx(), config.getSendMessageTimeout(), expired -> {
+                        final int remaining = outstanding.getAndSet(0);
+                        if (remaining > 0) {
+                            TracingHelper.logError(span, String.format(
+                                    "waiting for delivery updates of %d messages timed out after %dms",
+                                    remaining, config.getSendMessageTimeout()));
+                            finish();
+                        }
+                    })
+                    : null;
+        }
+
+        void rejected(final MessageBatcher.Entry entry, final Throwable cause) {
+            final Message message = entry.getMessage();
+            logMessageSendingError("error sending message [ID: {}, address: {}], no credit available",
+                    message.getMessageId(), getMessageAddress(message));
+            rejected.incrementAndGet();
+            entry.fail(cause);
+            completed();
+        }
+
+        void deliveryUpdated(final Message message, final ProtonDelivery delivery) {
+            if (!delivery.remotelySettled()) {
+                logMessageSendingError("peer did not settle message [ID: {}, address: {}, remote state: {}]",
+                        message.getMessageId(), getMessageAddress(message),
+                        delivery.getRemoteState() == null ? null : delivery.getRemoteState().getClass().getSimpleName());
+                TracingHelper.logError(span, "peer did not settle message");
+            } else if (!Accepted.class.isInstance(delivery.getRemoteState())) {
+                logUpdatedDeliveryState(span, message, delivery);
+            }
+            completed();
+        }
+
+        private void completed() {
+            if (outstanding.decrementAndGet() == 0) {
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+                finish();
+            }
+        }
+
+        private void finish() {
+            final int rejectedMessages = rejected.get();
+            if (rejectedMessages > 0) {
+                TracingHelper.logError(span, String.format("%d messages rejected, no credit available", rejectedMessages));
+            }
+            span.finish();
+        }
+    }
 }
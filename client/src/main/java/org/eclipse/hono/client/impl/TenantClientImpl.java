@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -237,7 +237,10 @@ public class TenantClientImpl extends AbstractRequestResponseClient<TenantResult
                             tenantResult,
                             key,
                             currentSpan);
-                    return tenantResult.future();
+                    return tenantResult.future().map(result -> {
+                        addToCacheByTenantId(key, result);
+                        return result;
+                    });
                 });
         return mapResultAndFinishSpan(resultTracker, tenantResult -> {
             switch (tenantResult.getStatus()) {
@@ -251,6 +254,27 @@ public class TenantClientImpl extends AbstractRequestResponseClient<TenantResult
         }, currentSpan);
     }
 
+    /**
+     * Puts a tenant retrieved by means of another search criterion than
+     * the tenant identifier (e.g. the subject DN of a trusted CA) to the cache
+     * under the tenant's identifier as well.
+     * <p>
+     * Protocol adapters usually look up a tenant by its identifier right after
+     * having authenticated a device based on its client certificate. This way,
+     * the second lookup can be served from the cache.
+     */
+    private <T> void addToCacheByTenantId(
+            final TriTuple<TenantAction, T, Object> key,
+            final TenantResult<TenantObject> result) {
+
+        if (result.getStatus() == HttpURLConnection.HTTP_OK && result.getPayload() != null) {
+            final String tenantId = result.getPayload().getTenantId();
+            if (tenantId != null && !tenantId.equals(key.two())) {
+                addToCache(TriTuple.of(TenantAction.get, tenantId, null), result);
+            }
+        }
+    }
+
     /**
      * Customize AMQP application properties of the request by overwriting this method.
      * @return The map that holds the properties to include in the AMQP 1.0 message, or null (if nothing is customized).
@@ -22,6 +22,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,10 +53,12 @@ import org.mockito.ArgumentCaptor;
 
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.Checkpoint;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import io.vertx.proton.ProtonDelivery;
@@ -427,6 +430,73 @@ public class AbstractRequestResponseClientTest  {
         client.handleResponse(delivery, response);
     }
 
+    /**
+     * Verifies that concurrent requests for the same cache key are coalesced into
+     * a single request message and that all result handlers are notified about the response.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testCreateAndSendRequestCoalescesRequestsForSameCacheKey(final VertxTestContext ctx) {
+
+        // GIVEN a client with an empty cache
+        client.setResponseCache(cache);
+        final Checkpoint responsesReceived = ctx.checkpoint(2);
+
+        // WHEN sending two requests for the same cache key before a response has been received
+        client.createAndSendRequest("get", (Buffer) null, ctx.succeeding(result -> {
+            ctx.verify(() -> assertEquals(200, result.getStatus()));
+            responsesReceived.flag();
+        }), "cacheKey");
+        client.createAndSendRequest("get", (Buffer) null, ctx.succeeding(result -> {
+            ctx.verify(() -> assertEquals(200, result.getStatus()));
+            responsesReceived.flag();
+        }), "cacheKey");
+
+        // THEN only a single request message has been sent to the peer
+        final ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(sender).send(messageCaptor.capture(), VertxMockSupport.anyHandler());
+
+        // and both handlers are notified about the response to that request
+        final Message response = ProtonHelper.message("result");
+        MessageHelper.addProperty(response, MessageHelper.APP_PROPERTY_STATUS, HttpURLConnection.HTTP_OK);
+        response.setCorrelationId(messageCaptor.getValue().getMessageId());
+        client.handleResponse(mock(ProtonDelivery.class), response);
+    }
+
+    /**
+     * Verifies that all result handlers of coalesced requests are failed if the
+     * outstanding request fails and that a subsequent request for the same cache key
+     * results in a new request message being sent.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testCreateAndSendRequestFailsCoalescedRequests(final VertxTestContext ctx) {
+
+        // GIVEN a client with an empty cache
+        client.setResponseCache(cache);
+        final Checkpoint requestsFailed = ctx.checkpoint(2);
+
+        // WHEN sending two requests for the same cache key
+        client.createAndSendRequest("get", (Buffer) null, ctx.failing(t -> {
+            ctx.verify(() -> assertFailureCause(ctx, span, t, HttpURLConnection.HTTP_UNAVAILABLE));
+            requestsFailed.flag();
+        }), "cacheKey");
+        client.createAndSendRequest("get", (Buffer) null, ctx.failing(t -> {
+            ctx.verify(() -> assertFailureCause(ctx, span, t, HttpURLConnection.HTTP_UNAVAILABLE));
+            requestsFailed.flag();
+        }), "cacheKey");
+
+        // and the outstanding request times out
+        client.cancelRequest(MESSAGE_ID, Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE)));
+
+        // THEN both handlers have been failed
+        // and another request for the same cache key results in a new request message
+        client.createAndSendRequest("get", (Buffer) null, result -> {}, "cacheKey");
+        verify(sender, times(2)).send(any(Message.class), VertxMockSupport.anyHandler());
+    }
+
     /**
      * Verifies that the client succeeds the result handler if the peer accepts
      * the request message for a one-way request.
@@ -48,6 +48,7 @@ import io.vertx.proton.ProtonHelper;
 public class AdapterInstanceCommandHandlerTest {
 
     private AdapterInstanceCommandHandler adapterInstanceCommandHandler;
+    private CommandHandlerStatistics statistics;
 
     /**
      * Sets up fixture.
@@ -62,7 +63,8 @@ public class AdapterInstanceCommandHandlerTest {
         when(tracer.buildSpan(anyString())).thenReturn(spanBuilder);
 
         final String adapterInstanceId = "adapterInstanceId";
-        adapterInstanceCommandHandler = new AdapterInstanceCommandHandler(tracer, adapterInstanceId);
+        statistics = new CommandHandlerStatistics();
+        adapterInstanceCommandHandler = new AdapterInstanceCommandHandler(tracer, adapterInstanceId, statistics);
     }
 
     @Test
@@ -163,4 +165,34 @@ public class AdapterInstanceCommandHandlerTest {
         assertThat(commandContextCaptor.getValue().getCommand().getOriginalDeviceId()).isEqualTo(deviceId);
     }
 
+    /**
+     * Verifies that handlers are registered per tenant and that the memory
+     * occupied by the handlers is accounted for.
+     */
+    @Test
+    void testHandlersArePartitionedByTenant() {
+        final Handler<CommandContext> commandHandler = VertxMockSupport.mockHandler();
+
+        adapterInstanceCommandHandler.putDeviceSpecificCommandHandler("tenant-a", "4711", null, commandHandler);
+        adapterInstanceCommandHandler.putDeviceSpecificCommandHandler("tenant-a", "4712", "gw-1", commandHandler);
+        adapterInstanceCommandHandler.putDeviceSpecificCommandHandler(new String("tenant-b"), "4711", null, commandHandler);
+
+        assertThat(adapterInstanceCommandHandler.getTenantIds()).containsOnly("tenant-a", "tenant-b");
+        assertThat(adapterInstanceCommandHandler.getDeviceSpecificCommandHandler("tenant-a", "4711").getGatewayId()).isNull();
+        assertThat(adapterInstanceCommandHandler.getDeviceSpecificCommandHandler("tenant-a", "4712").getGatewayId()).isEqualTo("gw-1");
+        assertThat(adapterInstanceCommandHandler.getDeviceSpecificCommandHandler("tenant-b", "4712")).isNull();
+        // all handlers of a tenant share the same tenant identifier
+        assertThat(adapterInstanceCommandHandler.getDeviceSpecificCommandHandler("tenant-a", "4711").getTenantId())
+            .isSameAs(adapterInstanceCommandHandler.getDeviceSpecificCommandHandler("tenant-a", "4712").getTenantId());
+        assertThat(statistics.getNumberOfCommandHandlers()).isEqualTo(3);
+        assertThat(statistics.getEstimatedMemoryUsage()).isGreaterThan(
+                3 * CommandHandlerStatistics.ESTIMATED_HANDLER_OVERHEAD_BYTES);
+
+        assertThat(adapterInstanceCommandHandler.removeDeviceSpecificCommandHandlers("tenant-a")).hasSize(2);
+        assertThat(adapterInstanceCommandHandler.getTenantIds()).containsOnly("tenant-b");
+        assertThat(adapterInstanceCommandHandler.removeDeviceSpecificCommandHandler("tenant-b", "4711")).isTrue();
+        assertThat(adapterInstanceCommandHandler.getTenantIds()).isEmpty();
+        assertThat(statistics.getNumberOfCommandHandlers()).isEqualTo(0);
+        assertThat(statistics.getEstimatedMemoryUsage()).isEqualTo(0);
+    }
 }
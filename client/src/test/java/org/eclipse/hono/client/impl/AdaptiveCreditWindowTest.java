@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests verifying behavior of {@link AdaptiveCreditWindow}.
+ *
+ */
+public class AdaptiveCreditWindowTest {
+
+    /**
+     * Verifies that the window shrinks if messages take long to be processed
+     * and grows again once processing speeds up.
+     */
+    @Test
+    public void testWindowAdaptsToProcessingTime() {
+
+        final AdaptiveCreditWindow window = new AdaptiveCreditWindow(200, Long.MAX_VALUE);
+        assertThat(window.getSize()).isEqualTo(200);
+
+        // WHEN messages take 10ms each to be processed
+        window.onMessageProcessed(10, TimeUnit.MILLISECONDS.toNanos(10));
+        // THEN the window covers 100ms worth of processing
+        assertThat(window.getSize()).isEqualTo(10);
+
+        // and WHEN processing speeds up considerably
+        for (int i = 0; i < 50; i++) {
+            window.onMessageProcessed(10, TimeUnit.MICROSECONDS.toNanos(10));
+        }
+        // THEN the window grows back to its maximum size
+        assertThat(window.getSize()).isEqualTo(200);
+    }
+
+    /**
+     * Verifies that the window is limited by the overall size of the messages
+     * that credit is granted for.
+     */
+    @Test
+    public void testWindowIsLimitedByMaxBytes() {
+
+        final AdaptiveCreditWindow window = new AdaptiveCreditWindow(200, 10_000);
+        window.onMessageProcessed(1000, 1);
+        assertThat(window.getSize()).isEqualTo(10);
+
+        window.onMessageProcessed(1_000_000, 1);
+        assertThat(window.getSize()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that credit is replenished only once half of the window has been used up.
+     */
+    @Test
+    public void testCreditIsReplenishedWhenHalfOfWindowIsUsed() {
+
+        final AdaptiveCreditWindow window = new AdaptiveCreditWindow(10, Long.MAX_VALUE);
+        assertThat(window.getCreditToFlow(6)).isEqualTo(0);
+        assertThat(window.getCreditToFlow(5)).isEqualTo(5);
+        assertThat(window.getCreditToFlow(0)).isEqualTo(10);
+    }
+}
@@ -18,11 +18,18 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.eclipse.hono.cache.CacheProvider;
+import org.eclipse.hono.cache.ExpiringValueCache;
 import org.eclipse.hono.client.DeviceConnectionClient;
 import org.eclipse.hono.client.DeviceConnectionClientFactory;
 import org.eclipse.hono.client.RegistrationClient;
@@ -36,6 +43,7 @@ import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -50,6 +58,9 @@ public class CommandTargetMapperImplTest {
     private String tenantId;
     private String deviceId;
     private Span span;
+    private Tracer tracer;
+    private RegistrationClientFactory registrationClientFactory;
+    private DeviceConnectionClientFactory deviceConnectionClientFactory;
 
     /**
      * Sets up common fixture.
@@ -60,18 +71,18 @@ public class CommandTargetMapperImplTest {
         span = mock(Span.class);
         when(span.context()).thenReturn(spanContext);
         final Tracer.SpanBuilder spanBuilder = HonoClientUnitTestHelper.mockSpanBuilder(span);
-        final Tracer tracer = mock(Tracer.class);
+        tracer = mock(Tracer.class);
         when(tracer.buildSpan(anyString())).thenReturn(spanBuilder);
 
         tenantId = "testTenant";
         deviceId = "testDevice";
         regClient = mock(RegistrationClient.class);
-        final RegistrationClientFactory registrationClientFactory = mock(RegistrationClientFactory.class);
+        registrationClientFactory = mock(RegistrationClientFactory.class);
         when(registrationClientFactory.getOrCreateRegistrationClient(anyString()))
                 .thenReturn(Future.succeededFuture(regClient));
 
         devConClient = mock(DeviceConnectionClient.class);
-        final DeviceConnectionClientFactory deviceConnectionClientFactory = mock(DeviceConnectionClientFactory.class);
+        deviceConnectionClientFactory = mock(DeviceConnectionClientFactory.class);
         when(deviceConnectionClientFactory.getOrCreateDeviceConnectionClient(anyString()))
                 .thenReturn(Future.succeededFuture(devConClient));
         commandTargetMapper = new CommandTargetMapperImpl(tracer);
@@ -182,4 +193,133 @@ public class CommandTargetMapperImplTest {
         verify(span).finish();
     }
 
+    /**
+     * Verifies that a mapper configured with a cache determines the target of a device only once
+     * and determines it again after the device's target has been invalidated.
+     */
+    @Test
+    public void testGetTargetGatewayAndAdapterInstanceUsesCachedTarget() {
+
+        final CommandTargetMapperImpl cachingMapper = newCachingMapper();
+        final JsonObject adapterInstanceEntry = givenTargetForDevice(deviceId, deviceId);
+
+        // WHEN determining the target of the device twice
+        assertThat(cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null).result())
+            .isEqualTo(adapterInstanceEntry);
+        assertThat(cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null).result())
+            .isEqualTo(adapterInstanceEntry);
+
+        // THEN the Device Connection service has been invoked only once
+        verify(devConClient, times(1)).getCommandHandlingAdapterInstances(eq(deviceId), any(), any());
+
+        // and WHEN the device's target gets invalidated
+        cachingMapper.invalidateTarget(tenantId, deviceId);
+        assertThat(cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null).result())
+            .isEqualTo(adapterInstanceEntry);
+
+        // THEN the target is determined again
+        verify(devConClient, times(2)).getCommandHandlingAdapterInstances(eq(deviceId), any(), any());
+    }
+
+    /**
+     * Verifies that invalidating the target of a gateway also invalidates the cached
+     * targets of devices that have been mapped to the gateway.
+     */
+    @Test
+    public void testInvalidateTargetOfGatewayInvalidatesTargetsOfTenant() {
+
+        final String gatewayId = "testDeviceVia";
+        final CommandTargetMapperImpl cachingMapper = newCachingMapper();
+        givenTargetForDevice(deviceId, gatewayId);
+
+        cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null);
+        cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null);
+        verify(devConClient, times(1)).getCommandHandlingAdapterInstances(eq(deviceId), any(), any());
+
+        // WHEN the gateway's target gets invalidated
+        cachingMapper.invalidateTarget(tenantId, gatewayId);
+        cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null);
+
+        // THEN the device's target is determined again
+        verify(devConClient, times(2)).getCommandHandlingAdapterInstances(eq(deviceId), any(), any());
+    }
+
+    /**
+     * Verifies that a target that gets invalidated while it is being determined
+     * is not put to the cache.
+     */
+    @Test
+    public void testTargetInvalidatedDuringLookupIsNotCached() {
+
+        final CommandTargetMapperImpl cachingMapper = newCachingMapper();
+        final JsonObject adapterInstanceEntry = givenTargetForDevice(deviceId, deviceId);
+        final Promise<JsonObject> adapterInstancesResult = Promise.promise();
+        when(devConClient.getCommandHandlingAdapterInstances(eq(deviceId), any(), any()))
+            .thenReturn(adapterInstancesResult.future());
+
+        // GIVEN a lookup of the device's target that is in progress
+        final Future<JsonObject> lookup = cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null);
+        assertThat(lookup.isComplete()).isFalse();
+
+        // WHEN the device's target gets invalidated before the lookup completes
+        cachingMapper.invalidateTarget(tenantId, deviceId);
+        adapterInstancesResult.complete(new JsonObject()
+                .put(DeviceConnectionConstants.FIELD_ADAPTER_INSTANCES, new JsonArray().add(adapterInstanceEntry)));
+        assertThat(lookup.result()).isEqualTo(adapterInstanceEntry);
+
+        // THEN the target is determined again for the next command
+        cachingMapper.getTargetGatewayAndAdapterInstance(tenantId, deviceId, null);
+        verify(devConClient, times(2)).getCommandHandlingAdapterInstances(eq(deviceId), any(), any());
+    }
+
+    private CommandTargetMapperImpl newCachingMapper() {
+
+        final Map<Object, Object> entries = new HashMap<>();
+        final ExpiringValueCache<Object, Object> cache = new ExpiringValueCache<Object, Object>() {
+
+            @Override
+            public void put(final Object key, final Object value, final Instant expirationTime) {
+                entries.put(key, value);
+            }
+
+            @Override
+            public void put(final Object key, final Object value, final Duration maxAge) {
+                entries.put(key, value);
+            }
+
+            @Override
+            public Object get(final Object key) {
+                return entries.get(key);
+            }
+
+            @Override
+            public void remove(final Object key) {
+                entries.remove(key);
+            }
+        };
+        final CacheProvider cacheProvider = mock(CacheProvider.class);
+        when(cacheProvider.getCache(anyString())).thenReturn(cache);
+
+        final CommandTargetMapperImpl mapper = new CommandTargetMapperImpl(tracer, cacheProvider, Duration.ofMinutes(1));
+        mapper.initialize(registrationClientFactory, deviceConnectionClientFactory);
+        return mapper;
+    }
+
+    private JsonObject givenTargetForDevice(final String device, final String targetDevice) {
+
+        final JsonObject assertRegistrationResult = new JsonObject();
+        if (!device.equals(targetDevice)) {
+            assertRegistrationResult.put(RegistrationConstants.FIELD_VIA, new JsonArray().add(targetDevice));
+        }
+        when(regClient.assertRegistration(eq(device), any(), any())).thenReturn(Future.succeededFuture(assertRegistrationResult));
+
+        final JsonObject adapterInstanceEntry = new JsonObject()
+                .put(DeviceConnectionConstants.FIELD_PAYLOAD_DEVICE_ID, targetDevice)
+                .put(DeviceConnectionConstants.FIELD_ADAPTER_INSTANCE_ID, "adapter1");
+        final JsonObject adapterInstancesResult = new JsonObject()
+                .put(DeviceConnectionConstants.FIELD_ADAPTER_INSTANCES, new JsonArray().add(adapterInstanceEntry));
+        when(devConClient.getCommandHandlingAdapterInstances(eq(device), any(), any()))
+            .thenReturn(Future.succeededFuture(adapterInstancesResult));
+        return adapterInstanceEntry;
+    }
 }
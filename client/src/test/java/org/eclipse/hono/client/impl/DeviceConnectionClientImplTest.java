@@ -22,6 +22,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.apache.qpid.proton.amqp.messaging.Rejected;
@@ -177,6 +178,37 @@ public class DeviceConnectionClientImplTest {
         client.handleResponse(mock(ProtonDelivery.class), response);
     }
 
+    /**
+     * Verifies that the client sends all device identifiers in a single request of the
+     * <em>set-cmd-handling-adapter-instance-for-devices</em> operation and handles the response
+     * from the Device Connection service.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testSetCommandHandlingAdapterInstanceForDevices(final VertxTestContext ctx) {
+
+        // WHEN setting the command handling adapter instance for two devices
+        client.setCommandHandlingAdapterInstanceForDevices(Arrays.asList("device1", "device2"), "adapterInstanceId", span.context())
+                .setHandler(ctx.succeeding(r -> {
+                    ctx.verify(() -> {
+                        // THEN the response has been handled by the service and the span is finished
+                        verify(span).finish();
+                    });
+                    ctx.completeNow();
+                }));
+
+        // and a single request containing both devices has been sent
+        final Message sentMessage = verifySenderSend();
+        assertThat(sentMessage.getSubject())
+            .isEqualTo(DeviceConnectionConstants.DeviceConnectionAction.SET_CMD_HANDLING_ADAPTER_INSTANCE_FOR_DEVICES.getSubject());
+        final JsonObject payload = MessageHelper.getJsonPayload(sentMessage);
+        assertThat(payload.getJsonArray(DeviceConnectionConstants.FIELD_DEVICE_IDS))
+            .containsExactly("device1", "device2");
+        final Message response = createNoContentResponseMessage(sentMessage.getMessageId());
+        client.handleResponse(mock(ProtonDelivery.class), response);
+    }
+
     /**
      * Verifies that the client handles the response of the <em>remove-cmd-handling-adapter-instance</em> operation from the
      * Device Connection service.
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.Timeout;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+/**
+ * Tests verifying behavior of {@link HashedWheelTimeouts}.
+ *
+ */
+@ExtendWith(VertxExtension.class)
+@Timeout(value = 5, timeUnit = TimeUnit.SECONDS)
+public class HashedWheelTimeoutsTest {
+
+    /**
+     * Verifies that the handler of an expired timeout is invoked on the context
+     * that the timeout has been scheduled on.
+     *
+     * @param vertx The vert.x instance.
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testTimeoutExpiresOnSchedulingContext(final Vertx vertx, final VertxTestContext ctx) {
+
+        final Context context = vertx.getOrCreateContext();
+        final long expiredBefore = HashedWheelTimeouts.getExpiredTimeouts();
+        context.runOnContext(go -> {
+            final long start = System.nanoTime();
+            HashedWheelTimeouts.schedule(vertx, 50, expired -> {
+                ctx.verify(() -> {
+                    assertThat(Vertx.currentContext()).isSameAs(context);
+                    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+                    assertThat(HashedWheelTimeouts.getExpiredTimeouts()).isGreaterThan(expiredBefore);
+                });
+                ctx.completeNow();
+            });
+        });
+    }
+
+    /**
+     * Verifies that the handler of a cancelled timeout is not invoked while timeouts
+     * scheduled for a later point in time on the same context still expire.
+     *
+     * @param vertx The vert.x instance.
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testCancelledTimeoutDoesNotExpire(final Vertx vertx, final VertxTestContext ctx) {
+
+        final AtomicInteger expiredTimeouts = new AtomicInteger();
+        final long cancelledBefore = HashedWheelTimeouts.getCancelledTimeouts();
+        vertx.getOrCreateContext().runOnContext(go -> {
+            final HashedWheelTimeouts.Timeout timeout = HashedWheelTimeouts.schedule(vertx, 20, expired -> expiredTimeouts.incrementAndGet());
+            HashedWheelTimeouts.schedule(vertx, 100, expired -> {
+                ctx.verify(() -> {
+                    assertThat(expiredTimeouts.get()).isEqualTo(0);
+                    assertThat(timeout.isExpired()).isFalse();
+                    assertThat(HashedWheelTimeouts.getCancelledTimeouts()).isGreaterThan(cancelledBefore);
+                });
+                ctx.completeNow();
+            });
+            ctx.verify(() -> assertThat(timeout.cancel()).isTrue());
+        });
+    }
+
+    /**
+     * Verifies that a timeout scheduled outside of a vert.x context is backed
+     * by a vert.x timer.
+     */
+    @Test
+    public void testScheduleOutsideOfContextUsesTimer() {
+
+        final Vertx vertx = mock(Vertx.class);
+        when(vertx.setTimer(anyLong(), VertxMockSupport.anyHandler())).thenReturn(5L);
+
+        final HashedWheelTimeouts.Timeout timeout = HashedWheelTimeouts.schedule(vertx, 200, expired -> {});
+        verify(vertx).setTimer(eq(200L), VertxMockSupport.anyHandler());
+
+        assertThat(timeout.cancel()).isTrue();
+        verify(vertx).cancelTimer(5L);
+    }
+}
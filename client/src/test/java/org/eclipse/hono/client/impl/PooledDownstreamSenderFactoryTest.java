@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.client.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.client.DownstreamSender;
+import org.eclipse.hono.client.DownstreamSenderFactory;
+import org.eclipse.hono.client.HonoConnection;
+import org.eclipse.hono.client.ServerErrorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.Timeout;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.proton.ProtonDelivery;
+import io.vertx.proton.ProtonHelper;
+
+/**
+ * Tests verifying behavior of {@link PooledDownstreamSenderFactory}.
+ *
+ */
+@ExtendWith(VertxExtension.class)
+@Timeout(value = 5, timeUnit = TimeUnit.SECONDS)
+public class PooledDownstreamSenderFactoryTest {
+
+    private DownstreamSenderFactory member1;
+    private DownstreamSenderFactory member2;
+    private List<DownstreamSenderFactory> members;
+
+    /**
+     * Sets up the fixture.
+     */
+    @BeforeEach
+    public void setUp() {
+        member1 = mock(DownstreamSenderFactory.class);
+        member2 = mock(DownstreamSenderFactory.class);
+        members = Arrays.asList(member1, member2);
+    }
+
+    /**
+     * Verifies that all senders for a tenant are created by the same member of the pool.
+     *
+     * @param vertx The vert.x instance.
+     */
+    @Test
+    public void testSendersForTenantAreCreatedBySameMember(final Vertx vertx) {
+
+        final PooledDownstreamSenderFactory factory = new PooledDownstreamSenderFactory(vertx, members);
+        // "a".hashCode() is odd, "b".hashCode() is even
+        final DownstreamSender sender = mock(DownstreamSender.class);
+        when(member2.getOrCreateTelemetrySender("a")).thenReturn(Future.succeededFuture(sender));
+        when(member2.getOrCreateEventSender("a")).thenReturn(Future.succeededFuture(sender));
+        when(member1.getOrCreateTelemetrySender("b")).thenReturn(Future.succeededFuture(sender));
+
+        factory.getOrCreateTelemetrySender("a").result().getEndpoint();
+        factory.getOrCreateEventSender("a").result().getEndpoint();
+        factory.getOrCreateTelemetrySender("b").result().getEndpoint();
+        verify(sender, times(3)).getEndpoint();
+        verify(member2).getOrCreateTelemetrySender("a");
+        verify(member2).getOrCreateEventSender("a");
+        verify(member1).getOrCreateTelemetrySender("b");
+        verify(member1, never()).getOrCreateTelemetrySender("a");
+        verify(member1, never()).getOrCreateEventSender("a");
+        verify(member2, never()).getOrCreateTelemetrySender("b");
+    }
+
+    /**
+     * Verifies that the members of the pool are connected on different vert.x contexts.
+     *
+     * @param vertx The vert.x instance.
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testConnectUsesContextPerMember(final Vertx vertx, final VertxTestContext ctx) {
+
+        final Set<Context> contexts = ConcurrentHashMap.newKeySet();
+        final HonoConnection con = mock(HonoConnection.class);
+        members.forEach(member -> when(member.connect()).thenAnswer(invocation -> {
+            contexts.add(Vertx.currentContext());
+            return Future.succeededFuture(con);
+        }));
+
+        final PooledDownstreamSenderFactory factory = new PooledDownstreamSenderFactory(vertx, members);
+        factory.connect().setHandler(ctx.succeeding(connection -> {
+            ctx.verify(() -> {
+                assertThat(connection).isSameAs(con);
+                assertThat(contexts).hasSize(2);
+                assertThat(contexts).doesNotContainNull();
+            });
+            ctx.completeNow();
+        }));
+    }
+
+    /**
+     * Verifies that the futures returned by a sender are completed on the context
+     * that the sender has been invoked on, even if the member's sender completes them
+     * on its own context.
+     *
+     * @param vertx The vert.x instance.
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testSenderCompletesOnCallerContext(final Vertx vertx, final VertxTestContext ctx) {
+
+        final Context memberContext = vertx.getOrCreateContext();
+        final DownstreamSender sender = mock(DownstreamSender.class);
+        when(sender.send(any(Message.class))).thenAnswer(invocation -> {
+            final Promise<ProtonDelivery> result = Promise.promise();
+            memberContext.runOnContext(go -> result.complete(mock(ProtonDelivery.class)));
+            return result.future();
+        });
+        when(member2.getOrCreateTelemetrySender("a")).thenReturn(Future.succeededFuture(sender));
+
+        final PooledDownstreamSenderFactory factory = new PooledDownstreamSenderFactory(vertx, members);
+        final Context callerContext = vertx.getOrCreateContext();
+        callerContext.runOnContext(go -> {
+            factory.getOrCreateTelemetrySender("a")
+                .compose(s -> s.send(ProtonHelper.message()))
+                .setHandler(ctx.succeeding(delivery -> {
+                    ctx.verify(() -> assertThat(Vertx.currentContext()).isSameAs(callerContext));
+                    ctx.completeNow();
+                }));
+        });
+    }
+
+    /**
+     * Verifies that disconnecting the pool undeploys the verticles providing
+     * the members' contexts.
+     *
+     * @param vertx The vert.x instance.
+     * @param ctx The vert.x test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDisconnectUndeploysMemberContexts(final Vertx vertx, final VertxTestContext ctx) {
+
+        final HonoConnection con = mock(HonoConnection.class);
+        members.forEach(member -> {
+            when(member.connect()).thenReturn(Future.succeededFuture(con));
+            doAnswer(invocation -> {
+                final Handler<AsyncResult<Void>> completionHandler = invocation.getArgument(0);
+                completionHandler.handle(Future.succeededFuture());
+                return null;
+            }).when(member).disconnect(any(Handler.class));
+        });
+        final Set<String> deploymentsBeforeConnect = Set.copyOf(vertx.deploymentIDs());
+
+        final PooledDownstreamSenderFactory factory = new PooledDownstreamSenderFactory(vertx, members);
+        factory.connect()
+            .compose(connection -> {
+                ctx.verify(() -> assertThat(vertx.deploymentIDs()).hasSize(deploymentsBeforeConnect.size() + 2));
+                final Promise<Void> disconnected = Promise.promise();
+                factory.disconnect(disconnected);
+                return disconnected.future();
+            })
+            .setHandler(ctx.succeeding(ok -> {
+                ctx.verify(() -> assertThat(vertx.deploymentIDs()).isEqualTo(deploymentsBeforeConnect));
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that the pool is considered disconnected if any of its members is not connected.
+     */
+    @Test
+    public void testIsConnectedFailsIfMemberIsNotConnected() {
+
+        when(member1.isConnected()).thenReturn(Future.succeededFuture());
+        when(member2.isConnected()).thenReturn(Future.failedFuture(
+                new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE, "not connected")));
+
+        final PooledDownstreamSenderFactory factory = new PooledDownstreamSenderFactory(mock(Vertx.class), members);
+        final Future<Void> result = factory.isConnected();
+        assertThat(result.failed()).isTrue();
+        assertThat(result.cause()).isInstanceOf(ServerErrorException.class);
+    }
+}
@@ -22,9 +22,12 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -41,6 +44,7 @@ import org.eclipse.hono.util.ResourceIdentifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
@@ -179,4 +183,32 @@ public class ProtocolAdapterCommandConsumerFactoryImplTest {
             .setHandler(ctx.completing());
     }
 
+    /**
+     * Verifies that the command handlers registered for devices are associated with the adapter
+     * instance again by means of batches of bulk requests to the Device Connection service.
+     *
+     * @param ctx The test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testReRegisterCommandHandlersUsesBatches(final VertxTestContext ctx) {
+
+        when(devConClient.setCommandHandlingAdapterInstanceForDevices(any(List.class), anyString(), any()))
+            .thenReturn(Future.succeededFuture());
+        final int numberOfDevices = ProtocolAdapterCommandConsumerFactoryImpl.RE_REGISTRATION_BATCH_SIZE + 1;
+        for (int i = 0; i < numberOfDevices; i++) {
+            commandConsumerFactory.createCommandConsumer(tenantId, "device" + i, VertxMockSupport.mockHandler(), null);
+        }
+
+        commandConsumerFactory.reRegisterCommandHandlers().setHandler(ctx.succeeding(ok -> {
+            ctx.verify(() -> {
+                final ArgumentCaptor<List<String>> deviceIds = ArgumentCaptor.forClass(List.class);
+                verify(devConClient, times(2)).setCommandHandlingAdapterInstanceForDevices(
+                        deviceIds.capture(), eq(adapterInstanceId), any());
+                assertThat(deviceIds.getAllValues().get(0)).hasSize(ProtocolAdapterCommandConsumerFactoryImpl.RE_REGISTRATION_BATCH_SIZE);
+                assertThat(deviceIds.getAllValues().get(1)).hasSize(1);
+            });
+            ctx.completeNow();
+        }));
+    }
 }
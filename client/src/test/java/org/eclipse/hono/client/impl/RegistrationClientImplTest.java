@@ -25,6 +25,7 @@ import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
 import java.time.Duration;
+import java.util.List;
 
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.cache.ExpiringValueCache;
@@ -214,6 +215,89 @@ public class RegistrationClientImplTest {
                 .isEqualTo("gateway");
     }
 
+    /**
+     * Verifies that the client requests the assertions of all devices that are not
+     * contained in the cache in a single request message and puts each of the assertions
+     * contained in the response to the cache.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAssertRegistrationsSendsSingleRequestForUncachedDevices(final VertxTestContext ctx) {
+
+        // GIVEN a client with a cache containing an assertion for device-1 only
+        client.setResponseCache(cache);
+        final JsonObject cachedAssertion = newRegistrationAssertionResult()
+                .put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID, "device-1");
+        when(cache.get(eq(TriTuple.of("assert", "device-1", "gw"))))
+            .thenReturn(RegistrationResult.from(HttpURLConnection.HTTP_OK, cachedAssertion));
+
+        // WHEN asserting the registration of three devices
+        client.assertRegistrations(List.of("device-1", "device-2", "device-3"), "gw", null)
+            .setHandler(ctx.succeeding(assertions -> {
+                ctx.verify(() -> {
+                    // THEN the assertions of the registered devices are returned
+                    assertThat(assertions).containsOnlyKeys("device-1", "device-2");
+                    assertThat(assertions.get("device-1")).isEqualTo(cachedAssertion);
+                    // and the assertion received from the service has been put to the cache
+                    verify(cache).put(eq(TriTuple.of("assert", "device-2", "gw")), any(RegistrationResult.class),
+                            eq(Duration.ofSeconds(60)));
+                    verify(span).finish();
+                });
+                ctx.completeNow();
+            }));
+
+        // and a single request for the uncached devices has been sent to the service
+        final ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(sender).send(messageCaptor.capture(), VertxMockSupport.anyHandler());
+        final Message request = messageCaptor.getValue();
+        assertThat(request.getSubject()).isEqualTo(RegistrationConstants.ACTION_ASSERT_BATCH);
+        assertThat(MessageHelper.getGatewayId(request)).isEqualTo("gw");
+        assertThat(MessageHelper.getJsonPayload(request).getJsonArray(RegistrationConstants.FIELD_PAYLOAD_DEVICE_IDS))
+            .containsExactly("device-2", "device-3");
+
+        final JsonObject results = new JsonObject()
+                .put("device-2", new JsonObject()
+                        .put(RegistrationConstants.FIELD_STATUS, HttpURLConnection.HTTP_OK)
+                        .put(RegistrationConstants.FIELD_CACHE_CONTROL, CacheDirective.maxAgeDirective(60).toString())
+                        .put(RegistrationConstants.FIELD_PAYLOAD, newRegistrationAssertionResult()
+                                .put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID, "device-2")))
+                .put("device-3", new JsonObject()
+                        .put(RegistrationConstants.FIELD_STATUS, HttpURLConnection.HTTP_NOT_FOUND));
+        final Message response = ProtonHelper.message(new JsonObject().put(RegistrationConstants.FIELD_RESULTS, results).encode());
+        MessageHelper.addProperty(response, MessageHelper.APP_PROPERTY_STATUS, HttpURLConnection.HTTP_OK);
+        response.setContentType(RegistrationConstants.CONTENT_TYPE_APPLICATION_JSON);
+        response.setCorrelationId(request.getMessageId());
+        client.handleResponse(mock(ProtonDelivery.class), response);
+    }
+
+    /**
+     * Verifies that the client does not send a request message if the assertions
+     * of all devices are contained in the cache.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAssertRegistrationsReturnsCachedAssertions(final VertxTestContext ctx) {
+
+        // GIVEN a client with a cache containing assertions for all devices
+        client.setResponseCache(cache);
+        when(cache.get(any())).thenReturn(RegistrationResult.from(HttpURLConnection.HTTP_OK, newRegistrationAssertionResult()));
+
+        // WHEN asserting the registration of the devices
+        client.assertRegistrations(List.of("device-1", "device-2"), "gw", null)
+            .setHandler(ctx.succeeding(assertions -> {
+                ctx.verify(() -> {
+                    // THEN the assertions are taken from the cache
+                    assertThat(assertions).containsOnlyKeys("device-1", "device-2");
+                    // and no request message has been sent to the service
+                    verify(sender, never()).send(any(Message.class), VertxMockSupport.anyHandler());
+                    verify(span).finish();
+                });
+                ctx.completeNow();
+            }));
+    }
+
     private static JsonObject newRegistrationAssertionResult() {
         return newRegistrationAssertionResult(null);
     }
@@ -18,11 +18,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.qpid.proton.amqp.messaging.Rejected;
@@ -32,6 +35,7 @@ import org.eclipse.hono.client.HonoConnection;
 import org.eclipse.hono.config.ClientConfigProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 import io.opentracing.Span;
 import io.vertx.core.Future;
@@ -139,4 +143,143 @@ public class TelemetrySenderImplTest {
         // THEN the given Span will nonetheless be finished.
         verify(span).finish();
     }
+
+    /**
+     * Verifies that messages are collected in a batch until the batch has reached
+     * its maximum size if a send batch window is configured.
+     */
+    @Test
+    public void testSendCollectsMessagesUntilBatchIsFull() {
+
+        // GIVEN a sender that has credit and is configured to send batches of two messages
+        config.setSendBatchWindow(10);
+        config.setSendBatchMaxSize(2);
+        when(sender.sendQueueFull()).thenReturn(Boolean.FALSE);
+        when(sender.send(any(Message.class), VertxMockSupport.anyHandler())).thenReturn(mock(ProtonDelivery.class));
+        final DownstreamSender messageSender = new TelemetrySenderImpl(connection, sender, "tenant", "telemetry/tenant");
+
+        // WHEN sending a message
+        final Future<ProtonDelivery> first = messageSender.send(ProtonHelper.message("telemetry/tenant", "one"));
+
+        // THEN the message is not sent right away
+        assertFalse(first.isComplete());
+        verify(sender, never()).send(any(Message.class), VertxMockSupport.anyHandler());
+
+        // but is sent along with the next message
+        final Future<ProtonDelivery> second = messageSender.send(ProtonHelper.message("telemetry/tenant", "two"));
+        assertTrue(first.succeeded());
+        assertTrue(second.succeeded());
+        verify(sender, times(2)).send(any(Message.class), VertxMockSupport.anyHandler());
+    }
+
+    /**
+     * Verifies that a batch is sent once the send batch window has elapsed.
+     */
+    @Test
+    public void testSendFlushesBatchAfterWindow() {
+
+        // GIVEN a sender that has credit and is configured to send batches
+        config.setSendBatchWindow(10);
+        when(sender.sendQueueFull()).thenReturn(Boolean.FALSE);
+        when(sender.send(any(Message.class), VertxMockSupport.anyHandler())).thenReturn(mock(ProtonDelivery.class));
+        final AtomicReference<Handler<Long>> timerHandler = new AtomicReference<>();
+        when(vertx.setTimer(eq(10L), VertxMockSupport.anyHandler())).thenAnswer(invocation -> {
+            timerHandler.set(invocation.getArgument(1));
+            return 1L;
+        });
+        final DownstreamSender messageSender = new TelemetrySenderImpl(connection, sender, "tenant", "telemetry/tenant");
+
+        // WHEN sending a message
+        final Future<ProtonDelivery> result = messageSender.send(ProtonHelper.message("telemetry/tenant", "one"));
+        assertFalse(result.isComplete());
+
+        // THEN the message is sent once the batch window has elapsed
+        timerHandler.get().handle(1L);
+        assertTrue(result.succeeded());
+        verify(sender).send(any(Message.class), VertxMockSupport.anyHandler());
+    }
+
+    /**
+     * Verifies that a message sent while the sender has no credit is kept waiting
+     * until the sender gets replenished with credit, if a send queue is configured.
+     */
+    @Test
+    public void testSendWaitsForCredit() {
+
+        // GIVEN a sender without credit that may keep a single message waiting for credit
+        config.setSendQueueMaxSize(1);
+        final AtomicReference<Handler<ProtonSender>> drainHandler = new AtomicReference<>();
+        doAnswer(invocation -> {
+            drainHandler.set(invocation.getArgument(0));
+            return sender;
+        }).when(sender).sendQueueDrainHandler(VertxMockSupport.anyHandler());
+        when(sender.sendQueueFull()).thenReturn(Boolean.TRUE);
+        when(sender.send(any(Message.class), VertxMockSupport.anyHandler())).thenReturn(mock(ProtonDelivery.class));
+        final DownstreamSender messageSender = new TelemetrySenderImpl(connection, sender, "tenant", "telemetry/tenant");
+        final AtomicBoolean replenished = new AtomicBoolean();
+        messageSender.addCreditReplenishedHandler(v -> replenished.set(true));
+
+        // WHEN sending two messages
+        final Future<ProtonDelivery> first = messageSender.send(ProtonHelper.message("telemetry/tenant", "one"));
+        final Future<ProtonDelivery> second = messageSender.send(ProtonHelper.message("telemetry/tenant", "two"));
+
+        // THEN the first message waits for credit while the second one is rejected
+        assertFalse(first.isComplete());
+        assertTrue(second.failed());
+        verify(sender, never()).send(any(Message.class), VertxMockSupport.anyHandler());
+
+        // and WHEN the sender gets replenished with credit
+        when(sender.sendQueueFull()).thenReturn(Boolean.FALSE);
+        drainHandler.get().handle(sender);
+
+        // THEN the first message is sent
+        assertTrue(first.succeeded());
+        verify(sender).send(any(Message.class), VertxMockSupport.anyHandler());
+        // and the credit replenished handler has been notified
+        assertTrue(replenished.get());
+    }
+
+    /**
+     * Verifies that the messages of a batch wait for credit and are sent in order
+     * once the sender gets replenished with credit.
+     */
+    @Test
+    public void testSendBatchWaitsForCredit() {
+
+        // GIVEN a sender without credit that may keep messages waiting for credit
+        // and which is configured to send batches of two messages
+        config.setSendQueueMaxSize(2);
+        config.setSendBatchWindow(10);
+        config.setSendBatchMaxSize(2);
+        final AtomicReference<Handler<ProtonSender>> drainHandler = new AtomicReference<>();
+        doAnswer(invocation -> {
+            drainHandler.set(invocation.getArgument(0));
+            return sender;
+        }).when(sender).sendQueueDrainHandler(VertxMockSupport.anyHandler());
+        when(sender.sendQueueFull()).thenReturn(Boolean.TRUE);
+        when(sender.send(any(Message.class), VertxMockSupport.anyHandler())).thenReturn(mock(ProtonDelivery.class));
+        final DownstreamSender messageSender = new TelemetrySenderImpl(connection, sender, "tenant", "telemetry/tenant");
+
+        // WHEN sending a batch of two messages
+        final Message one = ProtonHelper.message("telemetry/tenant", "one");
+        final Message two = ProtonHelper.message("telemetry/tenant", "two");
+        final Future<ProtonDelivery> first = messageSender.send(one);
+        final Future<ProtonDelivery> second = messageSender.send(two);
+
+        // THEN the messages wait for credit
+        assertFalse(first.isComplete());
+        assertFalse(second.isComplete());
+        verify(sender, never()).send(any(Message.class), VertxMockSupport.anyHandler());
+
+        // and WHEN the sender gets replenished with credit
+        when(sender.sendQueueFull()).thenReturn(Boolean.FALSE);
+        drainHandler.get().handle(sender);
+
+        // THEN both messages are sent in order
+        assertTrue(first.succeeded());
+        assertTrue(second.succeeded());
+        final InOrder inOrder = inOrder(sender);
+        inOrder.verify(sender).send(eq(one), VertxMockSupport.anyHandler());
+        inOrder.verify(sender).send(eq(two), VertxMockSupport.anyHandler());
+    }
 }
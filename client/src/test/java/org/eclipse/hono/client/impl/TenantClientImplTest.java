@@ -173,6 +173,44 @@ public class TenantClientImplTest {
         client.handleResponse(delivery, response);
     }
 
+    /**
+     * Verifies that on a cache miss for a subject DN the client puts the tenant
+     * information retrieved from the Tenant service to the cache under the subject DN
+     * as well as under the tenant identifier.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetTenantByCaAddsInfoToCacheByTenantId(final VertxTestContext ctx) {
+
+        // GIVEN an adapter with an empty cache
+        client.setResponseCache(cache);
+        final X500Principal dn = new X500Principal("CN=ca, OU=Hono, O=Eclipse");
+        final JsonObject tenantResult = newTenantResult("tenant");
+
+        // WHEN getting tenant information for a subject DN
+        client.get(dn).setHandler(ctx.succeeding(tenant -> {
+            ctx.verify(() -> {
+                // THEN the tenant result has been added to the cache using the subject DN
+                verify(cache).put(eq(TriTuple.of(TenantAction.get, dn, null)), any(TenantResult.class), any(Duration.class));
+                // and using the tenant identifier
+                verify(cache).put(eq(TriTuple.of(TenantAction.get, "tenant", null)), any(TenantResult.class), any(Duration.class));
+            });
+            ctx.completeNow();
+        }));
+
+        final ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(sender).send(messageCaptor.capture(), VertxMockSupport.anyHandler());
+        final Message response = ProtonHelper.message(tenantResult.encode());
+        MessageHelper.addProperty(response, MessageHelper.APP_PROPERTY_STATUS, HttpURLConnection.HTTP_OK);
+        MessageHelper.addCacheDirective(response, CacheDirective.maxAgeDirective(60));
+        response.setContentType(MessageHelper.CONTENT_TYPE_APPLICATION_JSON);
+        response.setCorrelationId(messageCaptor.getValue().getMessageId());
+        final ProtonDelivery delivery = mock(ProtonDelivery.class);
+        client.handleResponse(delivery, response);
+    }
+
     /**
      * Verifies that tenant information is taken from cache if cache is configured and the cache has this tenant
      * information cached.
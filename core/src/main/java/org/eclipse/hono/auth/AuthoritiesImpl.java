@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -25,7 +25,10 @@ import io.jsonwebtoken.Claims;
 
 /**
  * A map backed implementation of authorities on resources and operations.
- *
+ * <p>
+ * The authorities are compiled into a lookup structure when being checked for the first time
+ * after they have been modified. Authorization checks do not need to create any
+ * intermediary lookup keys.
  */
 public final class AuthoritiesImpl implements Authorities {
 
@@ -43,6 +46,8 @@ public final class AuthoritiesImpl implements Authorities {
     private static final String TEMPLATE_RESOURCE = PREFIX_RESOURCE + "%s";
     // holds mapping resources -> activities
     private final Map<String, String> authorities = new HashMap<>();
+    // the lookup structure created from the authorities, reset on modification
+    private volatile CompiledAuthorities compiled;
 
     /**
      * Creates empty authorities.
@@ -63,7 +68,7 @@ public final class AuthoritiesImpl implements Authorities {
         claims.forEach((key, value) -> {
             if ((key.startsWith(PREFIX_OPERATION) || key.startsWith(PREFIX_RESOURCE)) && value instanceof String) {
                 LOG.trace("adding claim [key: {}, value: {}]", key, value);
-                result.authorities.put(key, (String) value);
+                result.putAuthority(key, (String) value);
             } else {
                 LOG.trace("ignoring unsupported claim [key: {}]", key);
             }
@@ -107,7 +112,7 @@ public final class AuthoritiesImpl implements Authorities {
      * @return This instance for command chaining.
      */
     public AuthoritiesImpl addOperation(final String endpoint, final String tenant, final String operation) {
-        authorities.put(getOperationKey(endpoint, tenant, operation), String.valueOf(Activity.EXECUTE.getCode()));
+        putAuthority(getOperationKey(endpoint, tenant, operation), String.valueOf(Activity.EXECUTE.getCode()));
         return this;
     }
 
@@ -135,7 +140,7 @@ public final class AuthoritiesImpl implements Authorities {
         for (final Activity a : activities) {
             b.append(a.getCode());
         }
-        authorities.put(getResourceKey(endpoint, tenant), b.toString());
+        putAuthority(getResourceKey(endpoint, tenant), b.toString());
         return this;
     }
 
@@ -151,49 +156,38 @@ public final class AuthoritiesImpl implements Authorities {
             .forEach(entry -> {
                 final String value = (String) entry.getValue();
                 LOG.trace("adding authority [key: {}, activities: {}]", entry.getKey(), value);
-                authorities.put(entry.getKey(), value);
+                putAuthority(entry.getKey(), value);
             });
         return this;
     }
 
+    private void putAuthority(final String key, final String activities) {
+        authorities.put(key, activities);
+        compiled = null;
+    }
+
+    private CompiledAuthorities getCompiledAuthorities() {
+        CompiledAuthorities result = compiled;
+        if (result == null) {
+            result = new CompiledAuthorities(authorities);
+            compiled = result;
+        }
+        return result;
+    }
+
     @Override
     public boolean isAuthorized(final ResourceIdentifier resource, final Activity intent) {
 
-        boolean allowed = false;
-        if (resource.getResourceId() != null) {
-            allowed = isAuthorized(String.format(TEMPLATE_RESOURCE, resource.toString()), intent);
-        }
-        if (!allowed && resource.getTenantId() != null) {
-            allowed = isAuthorized(String.format(TEMPLATE_RESOURCE, resource.getEndpoint() + "/" + resource.getTenantId()), intent) ||
-                    isAuthorized(String.format(TEMPLATE_RESOURCE, resource.getEndpoint() + "/*"), intent);
-        }
-        if (!allowed) {
-            allowed = isAuthorized(String.format(TEMPLATE_RESOURCE, resource.getEndpoint()), intent) ||
-                    isAuthorized(String.format(TEMPLATE_RESOURCE, "*"), intent);
-        }
+        final boolean allowed = getCompiledAuthorities().isAuthorized(resource, intent);
+        LOG.trace("authorities {}matching intent [resource: {}, activity: {}]", allowed ? "" : "not ", resource, intent);
         return allowed;
     }
 
     @Override
     public boolean isAuthorized(final ResourceIdentifier resource, final String operation) {
 
-        boolean allowed = false;
-        if (resource.getResourceId() != null) {
-            allowed = isAuthorized(String.format(TEMPLATE_OP, resource.toString(), operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(TEMPLATE_OP, resource.toString(), "*"), Activity.EXECUTE);
-        }
-        if (!allowed && resource.getTenantId() != null) {
-            allowed = isAuthorized(String.format(TEMPLATE_OP, resource.getEndpoint() + "/" + resource.getTenantId(), operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(TEMPLATE_OP, resource.getEndpoint() + "/" + resource.getTenantId(), "*"), Activity.EXECUTE) ||
-                    isAuthorized(String.format(TEMPLATE_OP, resource.getEndpoint() + "/*", operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(TEMPLATE_OP, resource.getEndpoint() + "/*", "*"), Activity.EXECUTE);
-        }
-        if (!allowed) {
-            allowed = isAuthorized(String.format(TEMPLATE_OP, resource.getEndpoint(), operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(TEMPLATE_OP, resource.getEndpoint(), "*"), Activity.EXECUTE) ||
-                    isAuthorized(String.format(TEMPLATE_OP, "*", operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(TEMPLATE_OP, "*", "*"), Activity.EXECUTE);
-        }
+        final boolean allowed = getCompiledAuthorities().isAuthorized(resource, operation);
+        LOG.trace("authorities {}matching operation [resource: {}, operation: {}]", allowed ? "" : "not ", resource, operation);
         return allowed;
     }
 
@@ -202,17 +196,4 @@ public final class AuthoritiesImpl implements Authorities {
         final Map<String, Object> result = new HashMap<>(authorities);
         return result;
     }
-
-    boolean isAuthorized(final String key, final Activity intent) {
-        boolean result = false;
-        final String grantedActivities = authorities.get(key);
-        if (grantedActivities == null) {
-            LOG.trace("no claim for key [{}]", key);
-        } else {
-            result = grantedActivities.contains(String.valueOf(intent.getCode())) ||
-                    grantedActivities.equals("*");
-            LOG.trace("found claim [key: {}, activities: {}] {}matching intent [{}]", key, grantedActivities, result ? "" : "not ", intent.name());
-        }
-        return result;
-    }
 }
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.auth;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.hono.util.ResourceIdentifier;
+
+/**
+ * A lookup structure for the authorities contained in an {@link AuthoritiesImpl} instance.
+ * <p>
+ * The authorities are indexed by the resource path they apply to. The wildcard authorities
+ * that apply to all tenants of an endpoint and to all endpoints are merged into the authorities
+ * of each endpoint up front. Checking an authorization therefore requires at most three
+ * map look-ups using the (cached) string representations of the resource identifier,
+ * without creating any intermediary objects.
+ * <p>
+ * Instances are immutable.
+ */
+final class CompiledAuthorities {
+
+    private static final String WILDCARD = "*";
+    private static final int ALL_ACTIVITIES = (1 << Activity.values().length) - 1;
+
+    /**
+     * The authorities that have been granted on specific resources.
+     */
+    private final Map<String, Grant> resources = new HashMap<>();
+    /**
+     * The authorities that apply to an endpoint, including the ones granted on all endpoints.
+     */
+    private final Map<String, Grant> endpoints = new HashMap<>();
+    /**
+     * The authorities that apply to all tenants of an endpoint, including the ones granted
+     * on the endpoint and on all endpoints.
+     */
+    private final Map<String, Grant> tenantWildcards = new HashMap<>();
+    /**
+     * The authorities granted on all endpoints.
+     */
+    private final Grant global;
+
+    /**
+     * Creates the lookup structure for authorities.
+     *
+     * @param authorities The authorities as used by {@link AuthoritiesImpl}, i.e. a map of keys
+     *                    of the form <em>r:${resource}</em> or <em>o:${resource}:${operation}</em>
+     *                    to activity codes.
+     */
+    CompiledAuthorities(final Map<String, String> authorities) {
+
+        authorities.forEach((key, activities) -> {
+            if (key.startsWith(AuthoritiesImpl.PREFIX_RESOURCE)) {
+                final String resource = key.substring(AuthoritiesImpl.PREFIX_RESOURCE.length());
+                resources.computeIfAbsent(resource, k -> new Grant()).activities |= toBitMask(activities);
+            } else if (key.startsWith(AuthoritiesImpl.PREFIX_OPERATION)) {
+                final int idx = key.lastIndexOf(':');
+                if (idx >= AuthoritiesImpl.PREFIX_OPERATION.length()
+                        && (toBitMask(activities) & toBitMask(Activity.EXECUTE)) != 0) {
+                    final String resource = key.substring(AuthoritiesImpl.PREFIX_OPERATION.length(), idx);
+                    resources.computeIfAbsent(resource, k -> new Grant()).addOperation(key.substring(idx + 1));
+                }
+            }
+        });
+
+        global = resources.getOrDefault(WILDCARD, new Grant());
+        resources.forEach((resource, grant) -> {
+            final int idx = resource.indexOf('/');
+            final String endpoint = idx < 0 ? resource : resource.substring(0, idx);
+            endpoints.computeIfAbsent(endpoint, this::newEndpointGrant);
+            tenantWildcards.computeIfAbsent(endpoint, this::newTenantWildcardGrant);
+        });
+    }
+
+    private Grant newEndpointGrant(final String endpoint) {
+        return new Grant()
+                .merge(resources.get(endpoint))
+                .merge(global);
+    }
+
+    private Grant newTenantWildcardGrant(final String endpoint) {
+        return new Grant()
+                .merge(resources.get(endpoint + "/" + WILDCARD))
+                .merge(endpoints.get(endpoint));
+    }
+
+    private static int toBitMask(final String activities) {
+        if (WILDCARD.equals(activities)) {
+            return ALL_ACTIVITIES;
+        }
+        int result = 0;
+        for (final Activity activity : Activity.values()) {
+            if (activities.indexOf(activity.getCode()) >= 0) {
+                result |= toBitMask(activity);
+            }
+        }
+        return result;
+    }
+
+    private static int toBitMask(final Activity activity) {
+        return 1 << activity.ordinal();
+    }
+
+    /**
+     * Checks if an activity is allowed on a resource.
+     *
+     * @param resource The resource.
+     * @param intent The activity.
+     * @return {@code true} if the activity is allowed.
+     */
+    boolean isAuthorized(final ResourceIdentifier resource, final Activity intent) {
+
+        final int mask = toBitMask(intent);
+        if (resource.getResourceId() != null && (activitiesOf(resources.get(resource.toString())) & mask) != 0) {
+            return true;
+        }
+        if (resource.getTenantId() != null) {
+            return (activitiesOf(resources.get(resource.getBasePath())) & mask) != 0
+                    || (activitiesOf(tenantWildcards.getOrDefault(resource.getEndpoint(), global)) & mask) != 0;
+        }
+        return (activitiesOf(endpoints.getOrDefault(resource.getEndpoint(), global)) & mask) != 0;
+    }
+
+    /**
+     * Checks if an operation may be executed on a resource.
+     *
+     * @param resource The resource.
+     * @param operation The operation.
+     * @return {@code true} if the operation may be executed.
+     */
+    boolean isAuthorized(final ResourceIdentifier resource, final String operation) {
+
+        if (resource.getResourceId() != null && allowsOperation(resources.get(resource.toString()), operation)) {
+            return true;
+        }
+        if (resource.getTenantId() != null) {
+            return allowsOperation(resources.get(resource.getBasePath()), operation)
+                    || allowsOperation(tenantWildcards.getOrDefault(resource.getEndpoint(), global), operation);
+        }
+        return allowsOperation(endpoints.getOrDefault(resource.getEndpoint(), global), operation);
+    }
+
+    private static int activitiesOf(final Grant grant) {
+        return grant == null ? 0 : grant.activities;
+    }
+
+    private static boolean allowsOperation(final Grant grant, final String operation) {
+        return grant != null && (grant.allOperations || grant.operations.contains(operation));
+    }
+
+    /**
+     * The activities and operations granted on a resource.
+     */
+    private static final class Grant {
+
+        private final Set<String> operations = new HashSet<>();
+        private int activities;
+        private boolean allOperations;
+
+        private void addOperation(final String operation) {
+            if (WILDCARD.equals(operation)) {
+                allOperations = true;
+            } else {
+                operations.add(operation);
+            }
+        }
+
+        private Grant merge(final Grant other) {
+            if (other != null) {
+                activities |= other.activities;
+                allOperations |= other.allOperations;
+                operations.addAll(other.operations);
+            }
+            return this;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -60,4 +60,13 @@ public interface ExpiringValueCache<K, V> {
      *         if the value is expired.
      */
     V get(K key);
+
+    /**
+     * Removes a value from the cache.
+     * <p>
+     * This method does nothing if the cache does not contain a value for the key.
+     *
+     * @param key The key of the value to remove.
+     */
+    void remove(K key);
 }
@@ -27,6 +27,15 @@ public class ClientConfigProperties extends AuthenticatingClientConfigProperties
      * be opened.
      */
     public static final int DEFAULT_CONNECT_TIMEOUT = 5000; // ms
+    /**
+     * The default maximum number of bytes that a receiver in adaptive credit mode
+     * grants credit for.
+     */
+    public static final long DEFAULT_CREDIT_WINDOW_MAX_BYTES = 1024 * 1024L;
+    /**
+     * The default number of connections to establish to the peer.
+     */
+    public static final int DEFAULT_CONNECTION_POOL_SIZE = 1;
     /**
      * The default amount of time (milliseconds) to wait for credits after link creation.
      */
@@ -69,10 +78,17 @@ public class ClientConfigProperties extends AuthenticatingClientConfigProperties
      * The default amount of time (milliseconds) to wait for a delivery update after a message was sent.
      */
     public static final long DEFAULT_SEND_MESSAGE_TIMEOUT = 1000L; // ms
+    /**
+     * The default maximum number of messages to send in a batch.
+     */
+    public static final int DEFAULT_SEND_BATCH_MAX_SIZE = 100;
 
     private final String containerIdUuidPart = UUID.randomUUID().toString();
+    private boolean adaptiveCredits = false;
     private String amqpHostname;
+    private int connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
     private int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT;
+    private long creditWindowMaxBytes = DEFAULT_CREDIT_WINDOW_MAX_BYTES;
     private long flowLatency = DEFAULT_FLOW_LATENCY;
     private int idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT;
     private int initialCredits = DEFAULT_INITIAL_CREDITS;
@@ -84,6 +100,9 @@ public class ClientConfigProperties extends AuthenticatingClientConfigProperties
     private long reconnectDelayIncrementMillis = DEFAULT_RECONNECT_DELAY_INCREMENT;
     private long requestTimeoutMillis = DEFAULT_REQUEST_TIMEOUT;
     private long sendMessageTimeoutMillis = DEFAULT_SEND_MESSAGE_TIMEOUT;
+    private long sendBatchWindowMillis = 0L;
+    private int sendBatchMaxSize = DEFAULT_SEND_BATCH_MAX_SIZE;
+    private int sendQueueMaxSize = 0;
 
     /**
      * Creates new properties with default values.
@@ -100,8 +119,11 @@ public class ClientConfigProperties extends AuthenticatingClientConfigProperties
      */
     public ClientConfigProperties(final ClientConfigProperties otherProperties) {
         super(otherProperties);
+        this.adaptiveCredits = otherProperties.adaptiveCredits;
         this.amqpHostname = otherProperties.amqpHostname;
+        this.connectionPoolSize = otherProperties.connectionPoolSize;
         this.connectTimeoutMillis = otherProperties.connectTimeoutMillis;
+        this.creditWindowMaxBytes = otherProperties.creditWindowMaxBytes;
         this.flowLatency = otherProperties.flowLatency;
         this.idleTimeoutMillis = otherProperties.idleTimeoutMillis;
         this.initialCredits = otherProperties.initialCredits;
@@ -113,6 +135,9 @@ public class ClientConfigProperties extends AuthenticatingClientConfigProperties
         this.reconnectDelayIncrementMillis = otherProperties.reconnectDelayIncrementMillis;
         this.requestTimeoutMillis = otherProperties.requestTimeoutMillis;
         this.sendMessageTimeoutMillis = otherProperties.sendMessageTimeoutMillis;
+        this.sendBatchWindowMillis = otherProperties.sendBatchWindowMillis;
+        this.sendBatchMaxSize = otherProperties.sendBatchMaxSize;
+        this.sendQueueMaxSize = otherProperties.sendQueueMaxSize;
     }
 
     /**
@@ -534,4 +559,219 @@ public class ClientConfigProperties extends AuthenticatingClientConfigProperties
             this.idleTimeoutMillis = idleTimeoutMillis;
         }
     }
+
+    /**
+     * Gets the number of AMQP connections that should be established to the peer.
+     * <p>
+     * Clients supporting this property distribute the links that they open over
+     * the given number of connections. Each connection is handled on its own
+     * vert.x event loop thread and is (re-)established independently of the others.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_CONNECTION_POOL_SIZE}.
+     *
+     * @return The number of connections.
+     */
+    public final int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    /**
+     * Sets the number of AMQP connections that should be established to the peer.
+     * <p>
+     * Clients supporting this property distribute the links that they open over
+     * the given number of connections. Each connection is handled on its own
+     * vert.x event loop thread and is (re-)established independently of the others.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_CONNECTION_POOL_SIZE}.
+     *
+     * @param connectionPoolSize The number of connections.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public final void setConnectionPoolSize(final int connectionPoolSize) {
+        if (connectionPoolSize < 1) {
+            throw new IllegalArgumentException("connection pool size must be at least 1");
+        } else {
+            this.connectionPoolSize = connectionPoolSize;
+        }
+    }
+
+    /**
+     * Gets the maximum amount of time that telemetry messages, which are sent without waiting
+     * for the outcome, are collected before they are sent to the peer in a batch.
+     * <p>
+     * Collecting messages in batches reduces the overhead of handing over each message
+     * to the connection's event loop thread individually, at the expense of increased latency.
+     * A value of 0 disables batching.
+     * <p>
+     * The default value of this property is 0.
+     *
+     * @return The maximum number of milliseconds to collect messages for.
+     */
+    public final long getSendBatchWindow() {
+        return sendBatchWindowMillis;
+    }
+
+    /**
+     * Sets the maximum amount of time that telemetry messages, which are sent without waiting
+     * for the outcome, are collected before they are sent to the peer in a batch.
+     * <p>
+     * Collecting messages in batches reduces the overhead of handing over each message
+     * to the connection's event loop thread individually, at the expense of increased latency.
+     * A value of 0 disables batching.
+     * <p>
+     * The default value of this property is 0.
+     *
+     * @param sendBatchWindowMillis The maximum number of milliseconds to collect messages for.
+     * @throws IllegalArgumentException if the window is negative.
+     */
+    public final void setSendBatchWindow(final long sendBatchWindowMillis) {
+        if (sendBatchWindowMillis < 0) {
+            throw new IllegalArgumentException("send batch window must not be negative");
+        } else {
+            this.sendBatchWindowMillis = sendBatchWindowMillis;
+        }
+    }
+
+    /**
+     * Gets the maximum number of messages to collect in a batch.
+     * <p>
+     * A batch is sent to the peer once it contains this number of messages,
+     * even if the batch window has not elapsed yet.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_SEND_BATCH_MAX_SIZE}.
+     *
+     * @return The maximum number of messages.
+     * @see #getSendBatchWindow()
+     */
+    public final int getSendBatchMaxSize() {
+        return sendBatchMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of messages to collect in a batch.
+     * <p>
+     * A batch is sent to the peer once it contains this number of messages,
+     * even if the batch window has not elapsed yet.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_SEND_BATCH_MAX_SIZE}.
+     *
+     * @param sendBatchMaxSize The maximum number of messages.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     * @see #setSendBatchWindow(long)
+     */
+    public final void setSendBatchMaxSize(final int sendBatchMaxSize) {
+        if (sendBatchMaxSize < 1) {
+            throw new IllegalArgumentException("send batch max size must be at least 1");
+        } else {
+            this.sendBatchMaxSize = sendBatchMaxSize;
+        }
+    }
+
+    /**
+     * Checks if receivers adapt the credit they grant to the peer to the rate at which
+     * received messages are being processed.
+     * <p>
+     * If enabled, a receiver's credit is sized so that the messages it may receive can be
+     * processed within a short amount of time and so that the overall size of these messages
+     * does not exceed {@link #getCreditWindowMaxBytes()}. The number of initial credits
+     * serves as the upper limit of the receiver's credit.
+     * <p>
+     * The default value of this property is {@code false}, i.e. receivers replenish their
+     * credit to the number of initial credits after each message.
+     *
+     * @return {@code true} if receivers adapt their credit.
+     * @see #getInitialCredits()
+     */
+    public final boolean isAdaptiveCredits() {
+        return adaptiveCredits;
+    }
+
+    /**
+     * Sets whether receivers should adapt the credit they grant to the peer to the rate at which
+     * received messages are being processed.
+     * <p>
+     * If enabled, a receiver's credit is sized so that the messages it may receive can be
+     * processed within a short amount of time and so that the overall size of these messages
+     * does not exceed {@link #getCreditWindowMaxBytes()}. The number of initial credits
+     * serves as the upper limit of the receiver's credit.
+     * <p>
+     * The default value of this property is {@code false}, i.e. receivers replenish their
+     * credit to the number of initial credits after each message.
+     *
+     * @param adaptiveCredits {@code true} if receivers should adapt their credit.
+     * @see #setInitialCredits(int)
+     */
+    public final void setAdaptiveCredits(final boolean adaptiveCredits) {
+        this.adaptiveCredits = adaptiveCredits;
+    }
+
+    /**
+     * Gets the maximum overall (payload) size of the messages that a receiver adapting its
+     * credit grants credit for.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_CREDIT_WINDOW_MAX_BYTES}.
+     *
+     * @return The maximum number of bytes.
+     * @see #isAdaptiveCredits()
+     */
+    public final long getCreditWindowMaxBytes() {
+        return creditWindowMaxBytes;
+    }
+
+    /**
+     * Sets the maximum overall (payload) size of the messages that a receiver adapting its
+     * credit grants credit for.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_CREDIT_WINDOW_MAX_BYTES}.
+     *
+     * @param creditWindowMaxBytes The maximum number of bytes.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     * @see #setAdaptiveCredits(boolean)
+     */
+    public final void setCreditWindowMaxBytes(final long creditWindowMaxBytes) {
+        if (creditWindowMaxBytes < 1) {
+            throw new IllegalArgumentException("credit window max bytes must be at least 1");
+        } else {
+            this.creditWindowMaxBytes = creditWindowMaxBytes;
+        }
+    }
+
+    /**
+     * Gets the maximum number of messages that a sender keeps waiting for credit.
+     * <p>
+     * Messages that are sent while the sender has no credit are kept in a queue of this size
+     * until the peer replenishes the sender's credit or until the send message timeout has
+     * elapsed. A message is rejected right away if the queue is full.
+     * <p>
+     * The default value of this property is 0, i.e. messages are rejected right away
+     * if the sender has no credit.
+     *
+     * @return The maximum number of messages.
+     * @see #getSendMessageTimeout()
+     */
+    public final int getSendQueueMaxSize() {
+        return sendQueueMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of messages that a sender keeps waiting for credit.
+     * <p>
+     * Messages that are sent while the sender has no credit are kept in a queue of this size
+     * until the peer replenishes the sender's credit or until the send message timeout has
+     * elapsed. A message is rejected right away if the queue is full.
+     * <p>
+     * The default value of this property is 0, i.e. messages are rejected right away
+     * if the sender has no credit.
+     *
+     * @param sendQueueMaxSize The maximum number of messages.
+     * @throws IllegalArgumentException if the number is negative.
+     * @see #setSendMessageTimeout(long)
+     */
+    public final void setSendQueueMaxSize(final int sendQueueMaxSize) {
+        if (sendQueueMaxSize < 0) {
+            throw new IllegalArgumentException("send queue max size must not be negative");
+        } else {
+            this.sendQueueMaxSize = sendQueueMaxSize;
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -27,6 +27,23 @@ public class ProtocolAdapterProperties extends ServiceConfigProperties {
      * disables automatic tenant timeout.
      */
     public static final Duration DEFAULT_TENANT_IDLE_TIMEOUT = Duration.ZERO;
+    /**
+     * The default maximum number of password hash verifications that may be pending at any time.
+     */
+    public static final int DEFAULT_MAX_PENDING_PASSWORD_VERIFICATIONS = 1000;
+    /**
+     * The default duration for which the successful verification of a password is cached.
+     */
+    public static final Duration DEFAULT_VERIFIED_CREDENTIALS_CACHE_TIMEOUT = Duration.ofSeconds(60);
+    /**
+     * The default duration for which the resolved target of a command is cached.
+     * The default value disables caching.
+     */
+    public static final Duration DEFAULT_COMMAND_TARGET_CACHE_TIMEOUT = Duration.ZERO;
+    /**
+     * The default maximum number of resolved command targets to cache.
+     */
+    public static final int DEFAULT_COMMAND_TARGET_CACHE_MAX_SIZE = 10_000;
 
     private boolean authenticationRequired = true;
     private boolean jmsVendorPropsEnabled = false;
@@ -34,6 +51,11 @@ public class ProtocolAdapterProperties extends ServiceConfigProperties {
     private long eventLoopBlockedCheckTimeout = 5000L;
     private int maxConnections = 0;
     private Duration tenantIdleTimeout = DEFAULT_TENANT_IDLE_TIMEOUT;
+    private int passwordVerificationPoolSize = Runtime.getRuntime().availableProcessors();
+    private int maxPendingPasswordVerifications = DEFAULT_MAX_PENDING_PASSWORD_VERIFICATIONS;
+    private Duration verifiedCredentialsCacheTimeout = DEFAULT_VERIFIED_CREDENTIALS_CACHE_TIMEOUT;
+    private Duration commandTargetCacheTimeout = DEFAULT_COMMAND_TARGET_CACHE_TIMEOUT;
+    private int commandTargetCacheMaxSize = DEFAULT_COMMAND_TARGET_CACHE_MAX_SIZE;
 
     /**
      * Checks whether the protocol adapter always authenticates devices using their provided credentials as defined
@@ -229,4 +251,162 @@ public class ProtocolAdapterProperties extends ServiceConfigProperties {
     public void setTenantIdleTimeout(final Duration tenantIdleTimeout) {
         this.tenantIdleTimeout = Objects.requireNonNull(tenantIdleTimeout);
     }
+
+    /**
+     * Gets the number of threads that are used for verifying the (hashed) passwords
+     * presented by devices.
+     * <p>
+     * Password hash functions like bcrypt are deliberately expensive. The verification
+     * is therefore run on a dedicated worker pool of this size, which is shared by all
+     * verticle instances of the adapter.
+     * <p>
+     * The default value of this property is the number of processors available to the JVM.
+     *
+     * @return The number of threads.
+     */
+    public final int getPasswordVerificationPoolSize() {
+        return passwordVerificationPoolSize;
+    }
+
+    /**
+     * Sets the number of threads that should be used for verifying the (hashed) passwords
+     * presented by devices.
+     * <p>
+     * The default value of this property is the number of processors available to the JVM.
+     *
+     * @param poolSize The number of threads.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public final void setPasswordVerificationPoolSize(final int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("pool size must be a positive integer");
+        }
+        this.passwordVerificationPoolSize = poolSize;
+    }
+
+    /**
+     * Gets the maximum number of password hash verifications that may be pending at any time.
+     * <p>
+     * Authentication attempts that would exceed this limit are rejected right away instead
+     * of being queued for the verification pool.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_MAX_PENDING_PASSWORD_VERIFICATIONS}.
+     *
+     * @return The number of verifications.
+     */
+    public final int getMaxPendingPasswordVerifications() {
+        return maxPendingPasswordVerifications;
+    }
+
+    /**
+     * Sets the maximum number of password hash verifications that may be pending at any time.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_MAX_PENDING_PASSWORD_VERIFICATIONS}.
+     *
+     * @param maxPendingVerifications The number of verifications.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public final void setMaxPendingPasswordVerifications(final int maxPendingVerifications) {
+        if (maxPendingVerifications < 1) {
+            throw new IllegalArgumentException("verification limit must be a positive integer");
+        }
+        this.maxPendingPasswordVerifications = maxPendingVerifications;
+    }
+
+    /**
+     * Gets the duration for which the successful verification of a device's password is cached.
+     * <p>
+     * Subsequent authentication attempts of the device using the same password are then
+     * verified without computing the password hash again, as long as the secrets on record
+     * have not changed in the meantime.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_VERIFIED_CREDENTIALS_CACHE_TIMEOUT}.
+     * A value of zero disables caching.
+     *
+     * @return The duration.
+     */
+    public final Duration getVerifiedCredentialsCacheTimeout() {
+        return verifiedCredentialsCacheTimeout;
+    }
+
+    /**
+     * Sets the duration for which the successful verification of a device's password is cached.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_VERIFIED_CREDENTIALS_CACHE_TIMEOUT}.
+     * A value of zero disables caching.
+     *
+     * @param timeout The duration.
+     * @throws NullPointerException if timeout is {@code null}.
+     * @throws IllegalArgumentException if the timeout is negative.
+     */
+    public final void setVerifiedCredentialsCacheTimeout(final Duration timeout) {
+        Objects.requireNonNull(timeout);
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.verifiedCredentialsCacheTimeout = timeout;
+    }
+
+    /**
+     * Gets the duration for which the gateway and protocol adapter instance that a command
+     * for a device has been routed to is cached.
+     * <p>
+     * Subsequent commands for the same device are then routed without looking up the
+     * device's registration and command handling adapter instances again. A cached target
+     * is removed as soon as a command consumer for the device is created or closed on
+     * this adapter instance.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_COMMAND_TARGET_CACHE_TIMEOUT}.
+     * A value of zero disables caching.
+     *
+     * @return The duration.
+     */
+    public final Duration getCommandTargetCacheTimeout() {
+        return commandTargetCacheTimeout;
+    }
+
+    /**
+     * Sets the duration for which the gateway and protocol adapter instance that a command
+     * for a device has been routed to is cached.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_COMMAND_TARGET_CACHE_TIMEOUT}.
+     * A value of zero disables caching.
+     *
+     * @param timeout The duration.
+     * @throws NullPointerException if timeout is {@code null}.
+     * @throws IllegalArgumentException if the timeout is negative.
+     */
+    public final void setCommandTargetCacheTimeout(final Duration timeout) {
+        Objects.requireNonNull(timeout);
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.commandTargetCacheTimeout = timeout;
+    }
+
+    /**
+     * Gets the maximum number of command targets to cache.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_COMMAND_TARGET_CACHE_MAX_SIZE}.
+     *
+     * @return The number of targets.
+     */
+    public final int getCommandTargetCacheMaxSize() {
+        return commandTargetCacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of command targets to cache.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_COMMAND_TARGET_CACHE_MAX_SIZE}.
+     *
+     * @param maxSize The number of targets.
+     * @throws IllegalArgumentException if the size is &lt; 1.
+     */
+    public final void setCommandTargetCacheMaxSize(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be at least 1");
+        }
+        this.commandTargetCacheMaxSize = maxSize;
+    }
 }
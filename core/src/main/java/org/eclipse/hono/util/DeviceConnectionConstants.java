@@ -51,6 +51,17 @@ public final class DeviceConnectionConstants extends RequestResponseApiConstants
      */
     public static final String FIELD_GATEWAY_IDS = "gateway-ids";
 
+    /**
+     * The name of the field that contains the array of device ids.
+     */
+    public static final String FIELD_DEVICE_IDS = "device-ids";
+
+    /**
+     * The maximum number of device ids that may be contained in a single
+     * <em>set command handling protocol adapter instance for devices</em> request.
+     */
+    public static final int MAX_DEVICE_IDS_PER_REQUEST = 1000;
+
     /**
      * The name of the Device Connection API endpoint.
      */
@@ -81,6 +92,10 @@ public final class DeviceConnectionConstants extends RequestResponseApiConstants
          * The <em>set command handling protocol adapter instance</em> operation.
          */
         SET_CMD_HANDLING_ADAPTER_INSTANCE("set-cmd-handling-adapter-instance"),
+        /**
+         * The <em>set command handling protocol adapter instance for devices</em> operation.
+         */
+        SET_CMD_HANDLING_ADAPTER_INSTANCE_FOR_DEVICES("set-cmd-handling-adapter-instance-for-devices"),
         /**
          * The <em>remove command handling protocol adapter instance</em> operation.
          */
@@ -32,6 +32,7 @@ import org.apache.qpid.proton.message.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.ByteBuf;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
@@ -389,7 +390,7 @@ public final class MessageHelper {
 
         if (msg.getBody() instanceof Data) {
             final Data body = (Data) msg.getBody();
-            return Buffer.buffer(body.getValue().getArray());
+            return toBuffer(body.getValue());
         } else if (msg.getBody() instanceof AmqpValue) {
             final AmqpValue body = (AmqpValue) msg.getBody();
             if (body.getValue() instanceof byte[]) {
@@ -403,6 +404,10 @@ public final class MessageHelper {
         return null;
     }
 
+    private static Buffer toBuffer(final Binary binary) {
+        return Buffer.buffer(binary.getLength()).appendBytes(binary.getArray(), binary.getArrayOffset(), binary.getLength());
+    }
+
     /**
      * Gets the payload data contained in a message's body as a String.
      * <p>
@@ -437,7 +442,7 @@ public final class MessageHelper {
         if (message.getBody() instanceof Data) {
 
             final Data body = (Data) message.getBody();
-            return Buffer.buffer(body.getValue().getArray()).toString();
+            return toBuffer(body.getValue()).toString();
 
         } else if (message.getBody() instanceof AmqpValue) {
 
@@ -801,6 +806,38 @@ public final class MessageHelper {
         setPayload(message, contentType, payload != null ? payload.getBytes() : null);
     }
 
+    /**
+     * Sets the payload of an AMQP message using a <em>Data</em> section that shares
+     * the content of the given buffer.
+     * <p>
+     * In contrast to {@link #setPayload(Message, String, Buffer)}, the payload's bytes are not
+     * copied if the buffer is backed by a byte array. The buffer must therefore not be modified
+     * after this method has been invoked.
+     *
+     * @param message The message.
+     * @param contentType The type of the payload. The message's <em>content-type</em> property
+     *                    will only be set if both this and the payload parameter are not {@code null}.
+     * @param payload The payload or {@code null} if there is no payload to convey in the message body.
+     *
+     * @throws NullPointerException If message is {@code null}.
+     */
+    public static void wrapPayload(final Message message, final String contentType, final Buffer payload) {
+        Objects.requireNonNull(message);
+
+        if (payload == null) {
+            return;
+        }
+        final ByteBuf buf = payload.getByteBuf();
+        if (buf.hasArray()) {
+            message.setBody(new Data(new Binary(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes())));
+            if (contentType != null) {
+                message.setContentType(contentType);
+            }
+        } else {
+            setPayload(message, contentType, payload);
+        }
+    }
+
     /**
      * Sets the payload of an AMQP message using a <em>Data</em> section.
      *
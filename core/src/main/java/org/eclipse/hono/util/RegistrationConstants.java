@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -24,6 +24,10 @@ public final class RegistrationConstants extends RequestResponseApiConstants {
      * The AMQP 1.0 <em>subject</em> to use for the <em>assert device registration</em> operation.
      */
     public static final String ACTION_ASSERT     = "assert";
+    /**
+     * The AMQP 1.0 <em>subject</em> to use for the <em>assert device registrations</em> operation.
+     */
+    public static final String ACTION_ASSERT_BATCH = "assert_batch";
     /**
      * The AMQP 1.0 <em>subject</em> to use for the <em>register device</em> operation.
      */
@@ -47,6 +51,27 @@ public final class RegistrationConstants extends RequestResponseApiConstants {
      */
     public static final String FIELD_DATA         = "data";
 
+    /**
+     * The name of the field in a request for the <em>assert device registrations</em> operation
+     * that contains the identifiers of the devices to assert the registration status for.
+     */
+    public static final String FIELD_PAYLOAD_DEVICE_IDS = "device-ids";
+    /**
+     * The name of the field in a response to the <em>assert device registrations</em> operation
+     * that contains the outcome of the assertion for each of the devices.
+     */
+    public static final String FIELD_RESULTS = "results";
+    /**
+     * The name of the field in an entry of the results of the <em>assert device registrations</em>
+     * operation that contains the status code of the assertion.
+     */
+    public static final String FIELD_STATUS = "status";
+    /**
+     * The name of the field in an entry of the results of the <em>assert device registrations</em>
+     * operation that contains the cache directive for the assertion.
+     */
+    public static final String FIELD_CACHE_CONTROL = "cache-control";
+
     /**
      * The name of the field in a device's registration information that contains
      * the identifier of the gateway that it is connected to (either as string value or inside a JSON array).
@@ -81,7 +106,7 @@ public final class RegistrationConstants extends RequestResponseApiConstants {
      */
     public static final String EVENT_BUS_ADDRESS_REGISTRATION_IN = "registration.in";
 
-    private static final List<String> ACTIONS = Arrays.asList(ACTION_ASSERT, ACTION_REGISTER,
+    private static final List<String> ACTIONS = Arrays.asList(ACTION_ASSERT, ACTION_ASSERT_BATCH, ACTION_REGISTER,
             ACTION_GET, ACTION_DEREGISTER, ACTION_UPDATE);
 
     private RegistrationConstants() {
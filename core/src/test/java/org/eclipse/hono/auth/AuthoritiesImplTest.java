@@ -57,4 +57,51 @@ public class AuthoritiesImplTest {
         assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("other-endpoint/tenant"), "get")).isFalse();
         assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("endpoint/tenant"), "get")).isTrue();
     }
+
+    /**
+     * Verifies that authorities granted on a resource, an endpoint or on all endpoints
+     * are taken into account.
+     */
+    @Test
+    public void testIsAuthorizedConsidersAllResourceLevels() {
+
+        final AuthoritiesImpl authorities = new AuthoritiesImpl()
+                .addResource("telemetry/tenant/device", Activity.READ)
+                .addResource("event", Activity.WRITE)
+                .addResource("*", Activity.EXECUTE)
+                .addOperation("registration/tenant/device", "get")
+                .addOperation("*", "assert");
+
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("telemetry/tenant/device"), Activity.READ)).isTrue();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("telemetry/tenant/other"), Activity.READ)).isFalse();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("telemetry/tenant"), Activity.READ)).isFalse();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("event/tenant/device"), Activity.WRITE)).isTrue();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("event"), Activity.READ)).isFalse();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("unknown/tenant"), Activity.EXECUTE)).isTrue();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("unknown/tenant"), Activity.READ)).isFalse();
+
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant/device"), "get")).isTrue();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant"), "get")).isFalse();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("credentials/tenant"), "assert")).isTrue();
+        assertThat(authorities.isAuthorized(ResourceIdentifier.fromString("credentials/tenant"), "get")).isFalse();
+    }
+
+    /**
+     * Verifies that authorities added after an authorization check has been performed
+     * are taken into account in subsequent checks.
+     */
+    @Test
+    public void testIsAuthorizedConsidersAddedAuthorities() {
+
+        final AuthoritiesImpl authorities = new AuthoritiesImpl();
+        final ResourceIdentifier resource = ResourceIdentifier.fromString("telemetry/tenant");
+        assertThat(authorities.isAuthorized(resource, Activity.WRITE)).isFalse();
+
+        authorities.addResource("telemetry", "*", Activity.WRITE);
+        assertThat(authorities.isAuthorized(resource, Activity.WRITE)).isTrue();
+        assertThat(authorities.isAuthorized(resource, Activity.READ)).isFalse();
+
+        authorities.addAll(new AuthoritiesImpl().addResource("*", Activity.READ));
+        assertThat(authorities.isAuthorized(resource, Activity.READ)).isTrue();
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -337,4 +337,22 @@ public class MessageHelperTest {
         assertThat(message.getCreationTime()).isGreaterThan(0);
     }
 
+    /**
+     * Verifies that the helper conveys the content of a buffer in a message's
+     * Data section without copying it.
+     */
+    @Test
+    public void testWrapPayloadSharesBufferContent() {
+
+        final Buffer payload = Buffer.buffer(16).appendString("hello");
+        final Message message = ProtonHelper.message();
+
+        MessageHelper.wrapPayload(message, "text/plain", payload);
+
+        assertThat(message.getContentType()).isEqualTo("text/plain");
+        final Binary body = ((Data) message.getBody()).getValue();
+        assertThat(body.getLength()).isEqualTo(5);
+        assertThat(body.getArray()).isSameAs(payload.getByteBuf().array());
+        assertThat(MessageHelper.getPayloadAsString(message)).isEqualTo("hello");
+    }
 }
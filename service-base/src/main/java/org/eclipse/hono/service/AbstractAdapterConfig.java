@@ -13,6 +13,7 @@
 
 package org.eclipse.hono.service;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.eclipse.hono.cache.CacheProvider;
@@ -26,11 +27,20 @@ import org.eclipse.hono.client.ProtocolAdapterCommandConsumerFactory;
 import org.eclipse.hono.client.RegistrationClientFactory;
 import org.eclipse.hono.client.RequestResponseClientConfigProperties;
 import org.eclipse.hono.client.TenantClientFactory;
+import org.eclipse.hono.client.impl.CommandHandlerStatistics;
+import org.eclipse.hono.client.impl.CommandTargetMapperImpl;
+import org.eclipse.hono.client.impl.DownstreamSenderFactoryImpl;
+import org.eclipse.hono.client.impl.MessageBatcher;
+import org.eclipse.hono.client.impl.PooledDownstreamSenderFactory;
+import org.eclipse.hono.client.impl.ProtocolAdapterCommandConsumerFactoryImpl;
 import org.eclipse.hono.config.ApplicationConfigProperties;
 import org.eclipse.hono.config.ClientConfigProperties;
+import org.eclipse.hono.config.ProtocolAdapterProperties;
 import org.eclipse.hono.config.ServerConfig;
 import org.eclipse.hono.config.VertxProperties;
-import org.eclipse.hono.service.cache.SpringCacheProvider;
+import org.eclipse.hono.service.cache.CaffeineCacheProvider;
+import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
+import org.eclipse.hono.service.resourcelimits.LocalUsageBasedResourceLimitChecks;
 import org.eclipse.hono.service.resourcelimits.PrometheusBasedResourceLimitChecks;
 import org.eclipse.hono.service.resourcelimits.PrometheusBasedResourceLimitChecksConfig;
 import org.eclipse.hono.service.resourcelimits.ResourceLimitChecks;
@@ -40,16 +50,16 @@ import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.DeviceConnectionConstants;
 import org.eclipse.hono.util.RegistrationConstants;
 import org.eclipse.hono.util.TenantConstants;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Scope;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentracing.Tracer;
 import io.opentracing.contrib.tracerresolver.TracerResolver;
 import io.opentracing.noop.NoopTracerFactory;
@@ -63,6 +73,36 @@ import io.vertx.ext.web.client.WebClientOptions;
  */
 public abstract class AbstractAdapterConfig {
 
+    private final CommandHandlerStatistics commandHandlerStatistics = new CommandHandlerStatistics();
+    private MeterRegistry meterRegistry;
+    private ObjectProvider<ProtocolAdapterProperties> adapterProperties;
+
+    /**
+     * Sets the registry to report the response caches' statistics to.
+     * <p>
+     * The number of command handlers registered with all of the adapter's
+     * command consumer factories is reported to the registry as well.
+     *
+     * @param registry The meter registry.
+     */
+    @Autowired(required = false)
+    public final void setMeterRegistry(final MeterRegistry registry) {
+        this.meterRegistry = registry;
+        MicrometerBasedMetrics.registerCommandHandlerGauges(registry, commandHandlerStatistics);
+    }
+
+    /**
+     * Sets the provider of the protocol adapter's configuration properties.
+     * <p>
+     * The properties are used for configuring the caching of command targets.
+     *
+     * @param adapterProperties The provider.
+     */
+    @Autowired
+    public final void setProtocolAdapterProperties(final ObjectProvider<ProtocolAdapterProperties> adapterProperties) {
+        this.adapterProperties = adapterProperties;
+    }
+
     /**
      * Exposes an OpenTracing {@code Tracer} as a Spring Bean.
      * <p>
@@ -128,6 +168,11 @@ public abstract class AbstractAdapterConfig {
      * Exposes a factory for creating clients for the <em>AMQP Messaging Network</em> as a Spring bean.
      * <p>
      * The factory is initialized with the connection provided by {@link #downstreamConnection()}.
+     * If the <em>connectionPoolSize</em> property of the {@link #downstreamSenderFactoryConfig()}
+     * is greater than 1, the factory distributes the senders over a pool of connections instead.
+     * <p>
+     * If a meter registry is available, the sizes and flush latencies of batches of telemetry
+     * messages are reported to it.
      *
      * @return The factory.
      */
@@ -135,7 +180,17 @@ public abstract class AbstractAdapterConfig {
     @Bean
     @Scope("prototype")
     public DownstreamSenderFactory downstreamSenderFactory() {
-        return DownstreamSenderFactory.create(downstreamConnection());
+        final ClientConfigProperties config = downstreamSenderFactoryConfig();
+        final MessageBatcher.FlushListener batchFlushListener = meterRegistry == null ? null
+                : MicrometerBasedMetrics.newBatchFlushListener(meterRegistry);
+        if (config.getConnectionPoolSize() > 1) {
+            final PooledDownstreamSenderFactory factory = new PooledDownstreamSenderFactory(vertx(), config);
+            factory.setBatchFlushListener(batchFlushListener);
+            return factory;
+        }
+        final DownstreamSenderFactoryImpl factory = new DownstreamSenderFactoryImpl(downstreamConnection());
+        factory.setBatchFlushListener(batchFlushListener);
+        return factory;
     }
 
     /**
@@ -215,7 +270,7 @@ public abstract class AbstractAdapterConfig {
     @Qualifier(RegistrationConstants.REGISTRATION_ENDPOINT)
     @Scope("prototype")
     public CacheProvider registrationCacheProvider() {
-        return newCaffeineCache(registrationClientFactoryConfig());
+        return newCaffeineCache(registrationClientFactoryConfig(), RegistrationConstants.REGISTRATION_ENDPOINT);
     }
 
     /**
@@ -279,7 +334,7 @@ public abstract class AbstractAdapterConfig {
     @Qualifier(CredentialsConstants.CREDENTIALS_ENDPOINT)
     @Scope("prototype")
     public CacheProvider credentialsCacheProvider() {
-        return newCaffeineCache(credentialsClientFactoryConfig());
+        return newCaffeineCache(credentialsClientFactoryConfig(), CredentialsConstants.CREDENTIALS_ENDPOINT);
     }
 
     /**
@@ -343,7 +398,7 @@ public abstract class AbstractAdapterConfig {
     @Qualifier(TenantConstants.TENANT_ENDPOINT)
     @Scope("prototype")
     public CacheProvider tenantCacheProvider() {
-        return newCaffeineCache(tenantServiceClientConfig());
+        return newCaffeineCache(tenantServiceClientConfig(), TenantConstants.TENANT_ENDPOINT);
     }
 
     /**
@@ -443,13 +498,17 @@ public abstract class AbstractAdapterConfig {
     /**
      * Exposes a factory for creating clients for receiving upstream commands
      * via the AMQP Messaging Network.
+     * <p>
+     * The command handlers registered with the factory are accounted to the
+     * statistics shared by all of the adapter's command consumer factories.
      *
      * @return The factory.
      */
     @Bean
     @Scope("prototype")
     public ProtocolAdapterCommandConsumerFactory commandConsumerFactory() {
-        return ProtocolAdapterCommandConsumerFactory.create(commandConsumerConnection(), getAdapterInstanceId());
+        return new ProtocolAdapterCommandConsumerFactoryImpl(commandConsumerConnection(), getAdapterInstanceId(),
+                commandHandlerStatistics);
     }
 
     /**
@@ -469,13 +528,24 @@ public abstract class AbstractAdapterConfig {
     /**
      * Exposes the component for mapping an incoming command to the gateway (if applicable)
      * and protocol adapter instance that can handle it.
+     * <p>
+     * The mapper caches the determined targets if the protocol adapter's configuration
+     * properties define a <em>commandTargetCacheTimeout</em>.
      *
      * @return The newly created mapper instance.
      */
     @Bean
     @Scope("prototype")
     public CommandTargetMapper commandTargetMapper() {
-        return CommandTargetMapper.create(getTracer());
+        final ProtocolAdapterProperties adapterConfig = adapterProperties == null ? null
+                : adapterProperties.getIfUnique();
+        if (adapterConfig == null || adapterConfig.getCommandTargetCacheTimeout().isZero()) {
+            return CommandTargetMapper.create(getTracer());
+        }
+        return CommandTargetMapper.create(
+                getTracer(),
+                newCaffeineCache(0, adapterConfig.getCommandTargetCacheMaxSize(), CommandTargetMapperImpl.TARGET_CACHE_NAME),
+                adapterConfig.getCommandTargetCacheTimeout());
     }
 
     /**
@@ -490,37 +560,33 @@ public abstract class AbstractAdapterConfig {
     }
 
     /**
-     * Create a new cache provider based on Caffeine and Spring Cache.
+     * Create a new cache provider based on Caffeine.
      *
      * @param config The configuration to use as base for this cache.
+     * @param name The name to use for tagging the cache's meters.
      * @return A new cache provider or {@code null} if no cache should be used.
      */
-    private static CacheProvider newCaffeineCache(final RequestResponseClientConfigProperties config) {
-        return newCaffeineCache(config.getResponseCacheMinSize(), config.getResponseCacheMaxSize());
+    private CacheProvider newCaffeineCache(final RequestResponseClientConfigProperties config, final String name) {
+        return newCaffeineCache(config.getResponseCacheMinSize(), config.getResponseCacheMaxSize(), name);
     }
 
     /**
-     * Create a new cache provider based on Caffeine and Spring Cache.
+     * Create a new cache provider based on Caffeine.
+     * <p>
+     * The provider reports the caches' statistics to the meter registry, if set.
      *
      * @param minCacheSize The minimum size of the cache.
      * @param maxCacheSize the maximum size of the cache.
+     * @param name The name to use for tagging the cache's meters.
      * @return A new cache provider or {@code null} if no cache should be used.
      */
-    private static CacheProvider newCaffeineCache(final int minCacheSize, final long maxCacheSize) {
+    private CacheProvider newCaffeineCache(final int minCacheSize, final long maxCacheSize, final String name) {
 
         if (maxCacheSize <= 0) {
             return null;
         }
 
-        final Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
-                .initialCapacity(minCacheSize)
-                .maximumSize(Math.max(minCacheSize, maxCacheSize));
-
-        final CaffeineCacheManager manager = new CaffeineCacheManager();
-        manager.setAllowNullValues(false);
-        manager.setCaffeine(caffeine);
-
-        return new SpringCacheProvider(manager);
+        return new CaffeineCacheProvider(minCacheSize, maxCacheSize, name, meterRegistry);
     }
 
     /**
@@ -570,6 +636,10 @@ public abstract class AbstractAdapterConfig {
 
     /**
      * Creates a new instance of {@link ResourceLimitChecks} based on prometheus metrics data.
+     * <p>
+     * If a usage reconciliation interval is configured, the message and connection duration
+     * limits are checked against the resource usage accounted for locally, which is
+     * reconciled with the prometheus metrics data periodically.
      * 
      * @return A ResourceLimitChecks instance.
      */
@@ -584,10 +654,20 @@ public abstract class AbstractAdapterConfig {
         webClientOptions.setTrustOptions(config.getTrustOptions());
         webClientOptions.setKeyCertOptions(config.getKeyCertOptions());
         webClientOptions.setSsl(config.isTlsEnabled());
-        return new PrometheusBasedResourceLimitChecks(
+        final PrometheusBasedResourceLimitChecks prometheusBasedChecks = new PrometheusBasedResourceLimitChecks(
                 WebClient.create(vertx(), webClientOptions),
                 config,
-                newCaffeineCache(config.getCacheMinSize(), config.getCacheMaxSize()),
+                newCaffeineCache(config.getCacheMinSize(), config.getCacheMaxSize(), "resource-limits"),
                 getTracer());
+        if (config.getUsageReconciliationInterval() > 0) {
+            return new LocalUsageBasedResourceLimitChecks(
+                    vertx(),
+                    prometheusBasedChecks,
+                    prometheusBasedChecks,
+                    Duration.ofSeconds(config.getUsageReconciliationInterval()),
+                    Duration.ofSeconds(config.getCacheTimeout()),
+                    getTracer());
+        }
+        return prometheusBasedChecks;
     }
 }
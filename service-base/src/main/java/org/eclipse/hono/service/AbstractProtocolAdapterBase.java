@@ -69,7 +69,9 @@ import org.eclipse.hono.util.TenantObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer.Sample;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.opentracing.SpanContext;
 import io.opentracing.tag.Tags;
@@ -118,6 +120,8 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
 
     private ConnectionEventProducer connectionEventProducer;
     private ResourceLimitChecks resourceLimitChecks = new NoopResourceLimitChecks();
+    // a composite registry without any registries added discards all meters
+    private MeterRegistry meterRegistry = new CompositeMeterRegistry();
     private final ConnectionEventProducer.Context connectionEventProducerContext = new ConnectionEventProducer.Context() {
 
         @Override
@@ -320,6 +324,28 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
         return this.connectionEventProducer;
     }
 
+    /**
+     * Sets the registry that components created by this adapter report their meters to.
+     * <p>
+     * If not set, the meters reported by these components are discarded.
+     *
+     * @param meterRegistry The meter registry.
+     * @throws NullPointerException if registry is {@code null}.
+     */
+    @Autowired(required = false)
+    public final void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
+    }
+
+    /**
+     * Gets the registry that components created by this adapter report their meters to.
+     *
+     * @return The meter registry.
+     */
+    protected final MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
     /**
      * Gets this adapter's type name.
      * <p>
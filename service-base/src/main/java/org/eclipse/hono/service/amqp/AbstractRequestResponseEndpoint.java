@@ -13,9 +13,12 @@
 package org.eclipse.hono.service.amqp;
 
 import java.net.HttpURLConnection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.qpid.proton.amqp.transport.AmqpError;
 import org.apache.qpid.proton.amqp.transport.ErrorCondition;
@@ -27,6 +30,8 @@ import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.config.ServiceConfigProperties;
 import org.eclipse.hono.service.auth.AuthorizationService;
 import org.eclipse.hono.service.auth.ClaimsBasedAuthorizationService;
+import org.eclipse.hono.service.metric.MetricsTags;
+import org.eclipse.hono.service.metric.MetricsTags.RequestProcessingPhase;
 import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.HonoProtonHelper;
@@ -37,6 +42,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.tag.Tags;
@@ -56,11 +64,19 @@ import io.vertx.proton.ProtonSender;
  * An abstract base class for implementing endpoints that implement a request response pattern.
  * <p>
  * It is used e.g. in the implementation of the device registration and the credentials API endpoints.
+ * <p>
+ * The time spent in each phase of processing a request is reported to the
+ * {@value #METER_REQUESTS_DURATION} timer.
  *
  * @param <T> The type of configuration properties this endpoint uses.
  */
 public abstract class AbstractRequestResponseEndpoint<T extends ServiceConfigProperties> extends AbstractAmqpEndpoint<T> {
 
+    /**
+     * The name of the meter for the time spent in the phases of processing request messages.
+     */
+    public static final String METER_REQUESTS_DURATION = "hono.requests.duration";
+
     /**
      * A logger to be shared by subclasses.
      */
@@ -68,7 +84,11 @@ public abstract class AbstractRequestResponseEndpoint<T extends ServiceConfigPro
 
     private final Map<String, ProtonSender> replyToSenderMap = new HashMap<>();
 
+    private final Map<RequestProcessingPhase, Timer> phaseTimers = new EnumMap<>(RequestProcessingPhase.class);
+
     private AuthorizationService authorizationService = new ClaimsBasedAuthorizationService();
+    // a composite registry without any registries added discards all meters
+    private MeterRegistry meterRegistry = new CompositeMeterRegistry();
 
     /**
      * Creates an endpoint for a Vertx instance.
@@ -113,6 +133,20 @@ public abstract class AbstractRequestResponseEndpoint<T extends ServiceConfigPro
         this.authorizationService = authService;
     }
 
+    /**
+     * Sets the registry to report the duration of processing request messages to.
+     * <p>
+     * If not set, the durations are not reported.
+     *
+     * @param meterRegistry The meter registry.
+     * @throws NullPointerException if registry is {@code null}.
+     */
+    @Autowired(required = false)
+    public final void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
+        this.phaseTimers.clear();
+    }
+
     /**
      * Handles a client's request to establish a link for sending service invocation requests.
      * <p>
@@ -211,6 +245,7 @@ public abstract class AbstractRequestResponseEndpoint<T extends ServiceConfigPro
 
         ProtonHelper.accepted(delivery, true);
         currentSpan.log("request message accepted");
+        final PhaseTimer phaseTimer = new PhaseTimer(RequestProcessingPhase.AUTHORIZATION);
 
         getSenderForConnection(con, replyTo)
                 .compose(sender -> isAuthorized(clientPrincipal, targetAddress, requestMessage)
@@ -225,10 +260,17 @@ public abstract class AbstractRequestResponseEndpoint<T extends ServiceConfigPro
                                 throw new ClientErrorException(HttpURLConnection.HTTP_FORBIDDEN, "not authorized to invoke operation");
                             }
                         })
-                        .compose(authorized -> handleRequestMessage(requestMessage, targetAddress))
-                        .compose(amqpMessage -> filterResponse(clientPrincipal, requestMessage, amqpMessage))
+                        .compose(authorized -> {
+                            phaseTimer.next(RequestProcessingPhase.INVOCATION);
+                            return handleRequestMessage(requestMessage, targetAddress);
+                        })
+                        .compose(amqpMessage -> {
+                            phaseTimer.next(RequestProcessingPhase.RESPONSE);
+                            return filterResponse(clientPrincipal, requestMessage, amqpMessage);
+                        })
                         .otherwise(t -> {
 
+                            phaseTimer.next(RequestProcessingPhase.RESPONSE);
                             logger.debug("error processing request [resource: {}, op: {}]: {}", targetAddress,
                                     requestMessage.getSubject(), t.getMessage());
                             currentSpan.log("error processing request");
@@ -255,10 +297,17 @@ public abstract class AbstractRequestResponseEndpoint<T extends ServiceConfigPro
                 .setHandler(s -> {
                     // allow client to send another request
                     flowCreditToRequestor(receiver, replyTo);
+                    phaseTimer.stop();
                     currentSpan.finish();
                 });
     }
 
+    private Timer getPhaseTimer(final RequestProcessingPhase phase) {
+        return phaseTimers.computeIfAbsent(phase, p -> Timer.builder(METER_REQUESTS_DURATION)
+                .tags(List.of(MetricsTags.getEndpointTag(getName()), p.asTag()))
+                .register(meterRegistry));
+    }
+
     /**
      * Applies arbitrary filters on the response before it is sent to the client.
      * <p>
@@ -539,4 +588,40 @@ public abstract class AbstractRequestResponseEndpoint<T extends ServiceConfigPro
         }
     }
 
+    /**
+     * Measures the time spent in the phases of processing a single request message.
+     */
+    private final class PhaseTimer {
+
+        private RequestProcessingPhase currentPhase;
+        private long phaseStart;
+
+        private PhaseTimer(final RequestProcessingPhase initialPhase) {
+            this.currentPhase = initialPhase;
+            this.phaseStart = System.nanoTime();
+        }
+
+        /**
+         * Ends the current phase and starts another one.
+         * <p>
+         * Does nothing if the given phase is the current phase.
+         */
+        private void next(final RequestProcessingPhase phase) {
+            if (currentPhase != phase) {
+                stop();
+                currentPhase = phase;
+                phaseStart = System.nanoTime();
+            }
+        }
+
+        /**
+         * Ends the current phase.
+         */
+        private void stop() {
+            if (currentPhase != null) {
+                getPhaseTimer(currentPhase).record(System.nanoTime() - phaseStart, TimeUnit.NANOSECONDS);
+                currentPhase = null;
+            }
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -14,45 +14,124 @@
 package org.eclipse.hono.service.auth.device;
 
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.auth.HonoPasswordEncoder;
 import org.eclipse.hono.auth.SpringBasedHonoPasswordEncoder;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.CredentialsClientFactory;
-import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.client.ServerErrorException;
+import org.eclipse.hono.config.ProtocolAdapterProperties;
+import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.CredentialsObject;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentracing.Tracer;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Closeable;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.json.JsonObject;
 
 
 /**
  * An authentication provider that verifies username/password credentials using
  * Hono's <em>Credentials</em> API.
+ * <p>
+ * The password hashes are verified on a dedicated vert.x worker pool named
+ * {@value #PASSWORD_VERIFICATION_POOL_NAME} which is shared by all instances of this class.
+ * Authentication attempts that would exceed the configured maximum number of pending
+ * verifications are rejected with a {@code 503} error. Successful verifications are cached
+ * for a configurable (short) period of time, so that devices authenticating repeatedly
+ * using the same password do not cause the password hash to be computed over and over again.
+ * The worker pool is released when the verticle that the provider has been used by is undeployed.
+ * <p>
+ * The number of pending verifications is reported by means of the
+ * {@value #METER_PENDING_VERIFICATIONS} gauge, the number of rejected and cached verifications
+ * by means of the {@value #METER_REJECTED_VERIFICATIONS} and {@value #METER_CACHED_VERIFICATIONS}
+ * counters.
  */
-public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvider<UsernamePasswordCredentials> {
+public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvider<UsernamePasswordCredentials>
+        implements Closeable {
 
-    private final ServiceConfigProperties config;
+    /**
+     * The name of the vert.x worker pool used for verifying password hashes.
+     */
+    public static final String PASSWORD_VERIFICATION_POOL_NAME = "hono-password-verification";
+    /**
+     * The name of the gauge reporting the number of pending password hash verifications.
+     */
+    public static final String METER_PENDING_VERIFICATIONS = "hono.authentication.password.verifications.pending";
+    /**
+     * The name of the counter reporting the number of rejected password hash verifications.
+     */
+    public static final String METER_REJECTED_VERIFICATIONS = "hono.authentication.password.verifications.rejected";
+    /**
+     * The name of the counter reporting the number of passwords verified using the cache.
+     */
+    public static final String METER_CACHED_VERIFICATIONS = "hono.authentication.password.verifications.cached";
+
+    private static final int VERIFIED_CREDENTIALS_CACHE_MAX_SIZE = 10_000;
+    private static final String CACHE_KEY_ALGORITHM = "HmacSHA256";
+    /**
+     * The number of verifications that have been submitted to the (shared) worker pool
+     * but have not completed yet.
+     */
+    private static final AtomicInteger SHARED_PENDING_VERIFICATIONS = new AtomicInteger();
+    /**
+     * The secret used for deriving the verified credentials cache keys.
+     * <p>
+     * The secret is created randomly on start up and is never disclosed, so that the
+     * cache keys cannot be used for checking guessed passwords without the cost of
+     * the (deliberately expensive) password hash function.
+     */
+    private static final SecretKeySpec CACHE_KEY_SECRET = newCacheKeySecret();
+
+    private final ProtocolAdapterProperties config;
     private final HonoPasswordEncoder pwdEncoder;
+    private final AtomicInteger pendingVerifications;
+    private final Cache<String, Boolean> verifiedCredentials;
+    private final Counter rejectedVerifications;
+    private final Counter cachedVerifications;
+    private WorkerExecutor verificationExecutor;
 
     /**
      * Creates a new provider for a given configuration.
      * 
      * @param credentialsClientFactory The factory to use for creating a Credentials service client.
      * @param config The configuration.
+     * @param meterRegistry The registry to report the password verification meters to.
      * @param tracer The tracer instance.
      * @throws NullPointerException if any of the parameters are {@code null}.
      */
     @Autowired
-    public UsernamePasswordAuthProvider(final CredentialsClientFactory credentialsClientFactory, final ServiceConfigProperties config, final Tracer tracer) {
-        this(credentialsClientFactory, new SpringBasedHonoPasswordEncoder(), config, tracer);
+    public UsernamePasswordAuthProvider(
+            final CredentialsClientFactory credentialsClientFactory,
+            final ProtocolAdapterProperties config,
+            final MeterRegistry meterRegistry,
+            final Tracer tracer) {
+        this(credentialsClientFactory, new SpringBasedHonoPasswordEncoder(), config, meterRegistry, tracer);
     }
 
     /**
@@ -61,6 +140,7 @@ public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvid
      * @param credentialsClientFactory The factory to use for creating a Credentials service client.
      * @param pwdEncoder The object to use for validating hashed passwords.
      * @param config The configuration.
+     * @param meterRegistry The registry to report the password verification meters to.
      * @param tracer The tracer instance.
      * @throws NullPointerException if any of the parameters are {@code null}.
      */
@@ -68,12 +148,58 @@ public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvid
     public UsernamePasswordAuthProvider(
             final CredentialsClientFactory credentialsClientFactory,
             final HonoPasswordEncoder pwdEncoder,
-            final ServiceConfigProperties config,
+            final ProtocolAdapterProperties config,
+            final MeterRegistry meterRegistry,
             final Tracer tracer) {
+        this(credentialsClientFactory, pwdEncoder, config, meterRegistry, tracer, SHARED_PENDING_VERIFICATIONS);
+    }
+
+    /**
+     * Creates a new provider for a given configuration.
+     * <p>
+     * This constructor is intended for testing purposes only. It allows for
+     * using a counter of pending verifications which is not shared with other
+     * instances.
+     *
+     * @param credentialsClientFactory The factory to use for creating a Credentials service client.
+     * @param pwdEncoder The object to use for validating hashed passwords.
+     * @param config The configuration.
+     * @param meterRegistry The registry to report the password verification meters to.
+     * @param tracer The tracer instance.
+     * @param pendingVerifications The counter to keep track of the number of pending verifications with.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    UsernamePasswordAuthProvider(
+            final CredentialsClientFactory credentialsClientFactory,
+            final HonoPasswordEncoder pwdEncoder,
+            final ProtocolAdapterProperties config,
+            final MeterRegistry meterRegistry,
+            final Tracer tracer,
+            final AtomicInteger pendingVerifications) {
 
         super(credentialsClientFactory, tracer);
         this.config = Objects.requireNonNull(config);
         this.pwdEncoder = Objects.requireNonNull(pwdEncoder);
+        this.pendingVerifications = Objects.requireNonNull(pendingVerifications);
+        Objects.requireNonNull(meterRegistry);
+        Gauge.builder(METER_PENDING_VERIFICATIONS, pendingVerifications, AtomicInteger::get)
+            .description("The number of password hash verifications waiting for or being executed")
+            .register(meterRegistry);
+        this.rejectedVerifications = Counter.builder(METER_REJECTED_VERIFICATIONS)
+                .description("The number of password hash verifications rejected because of too many pending verifications")
+                .register(meterRegistry);
+        this.cachedVerifications = Counter.builder(METER_CACHED_VERIFICATIONS)
+                .description("The number of passwords verified by means of previously cached verification results")
+                .register(meterRegistry);
+        final Duration cacheTimeout = config.getVerifiedCredentialsCacheTimeout();
+        if (cacheTimeout.isZero()) {
+            this.verifiedCredentials = null;
+        } else {
+            this.verifiedCredentials = Caffeine.newBuilder()
+                    .maximumSize(VERIFIED_CREDENTIALS_CACHE_MAX_SIZE)
+                    .expireAfterWrite(cacheTimeout)
+                    .build();
+        }
     }
 
     /**
@@ -104,6 +230,18 @@ public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvid
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The password presented by the device is verified against the candidate secrets on record
+     * on the dedicated password verification worker pool, unless the same password has been
+     * verified successfully against the same secrets recently.
+     *
+     * @return A future indicating the outcome of the verification. The future will be failed with a
+     *         {@link ClientErrorException} if the password does not match any of the secrets or with a
+     *         {@link ServerErrorException} if the maximum number of pending verifications has been
+     *         reached.
+     */
     @Override
     protected Future<Device> doValidateCredentials(
             final UsernamePasswordCredentials deviceCredentials,
@@ -112,19 +250,124 @@ public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvid
         final Context currentContext = Vertx.currentContext();
         if (currentContext == null) {
             return Future.failedFuture(new IllegalStateException("not running on vert.x Context"));
-        } else {
-            final Promise<Device> result = Promise.promise();
-            currentContext.executeBlocking(blockingCodeHandler -> {
-                log.debug("validating password hash on vert.x worker thread [{}]", Thread.currentThread().getName());
-                final boolean isValid = credentialsOnRecord.getCandidateSecrets().stream()
-                        .anyMatch(candidateSecret -> pwdEncoder.matches(deviceCredentials.getPassword(), candidateSecret));
-                if (isValid) {
-                    blockingCodeHandler.complete(new Device(deviceCredentials.getTenantId(), credentialsOnRecord.getDeviceId()));
-                } else {
-                    blockingCodeHandler.fail(new ClientErrorException(HttpURLConnection.HTTP_UNAUTHORIZED, "bad credentials"));
+        }
+
+        final List<JsonObject> candidateSecrets = credentialsOnRecord.getCandidateSecrets();
+        final Device device = new Device(deviceCredentials.getTenantId(), credentialsOnRecord.getDeviceId());
+        final String cacheKey = getVerifiedCredentialsCacheKey(deviceCredentials, candidateSecrets);
+        if (cacheKey != null && verifiedCredentials.getIfPresent(cacheKey) != null) {
+            log.debug("password of device [tenant: {}, auth-id: {}] has been verified recently",
+                    deviceCredentials.getTenantId(), deviceCredentials.getAuthId());
+            cachedVerifications.increment();
+            return Future.succeededFuture(device);
+        }
+
+        if (pendingVerifications.incrementAndGet() > config.getMaxPendingPasswordVerifications()) {
+            pendingVerifications.decrementAndGet();
+            rejectedVerifications.increment();
+            log.debug("rejecting authentication of device [tenant: {}, auth-id: {}], too many pending password verifications",
+                    deviceCredentials.getTenantId(), deviceCredentials.getAuthId());
+            return Future.failedFuture(new ServerErrorException(
+                    HttpURLConnection.HTTP_UNAVAILABLE, "too many pending password verifications"));
+        }
+
+        final Promise<Device> result = Promise.promise();
+        getVerificationExecutor(currentContext).<Device> executeBlocking(blockingCodeHandler -> {
+            log.debug("validating password hash on vert.x worker thread [{}]", Thread.currentThread().getName());
+            final boolean isValid = candidateSecrets.stream()
+                    .anyMatch(candidateSecret -> pwdEncoder.matches(deviceCredentials.getPassword(), candidateSecret));
+            if (isValid) {
+                if (cacheKey != null) {
+                    verifiedCredentials.put(cacheKey, Boolean.TRUE);
                 }
-            }, false, result);
-            return result.future();
+                blockingCodeHandler.complete(device);
+            } else {
+                blockingCodeHandler.fail(new ClientErrorException(HttpURLConnection.HTTP_UNAUTHORIZED, "bad credentials"));
+            }
+        }, false, verification -> {
+            pendingVerifications.decrementAndGet();
+            result.handle(verification);
+        });
+        return result.future();
+    }
+
+    private WorkerExecutor getVerificationExecutor(final Context context) {
+        if (verificationExecutor == null) {
+            verificationExecutor = context.owner().createSharedWorkerExecutor(
+                    PASSWORD_VERIFICATION_POOL_NAME,
+                    config.getPasswordVerificationPoolSize());
+            context.addCloseHook(this);
+        }
+        return verificationExecutor;
+    }
+
+    /**
+     * Releases this provider's reference to the password verification worker pool.
+     * <p>
+     * This method is invoked automatically when the verticle that this provider has
+     * been used by is undeployed. The pool is closed once all providers have
+     * released their reference to it.
+     *
+     * @param completionHandler The handler to notify once the reference has been released.
+     */
+    @Override
+    public void close(final Handler<AsyncResult<Void>> completionHandler) {
+        if (verificationExecutor != null) {
+            verificationExecutor.close();
+            verificationExecutor = null;
         }
+        completionHandler.handle(Future.succeededFuture());
+    }
+
+    /**
+     * Creates the key for caching the successful verification of a password.
+     * <p>
+     * The key is an HMAC of the device's identity, the presented password and the
+     * candidate secrets on record, using a random secret that is created on start up.
+     * Changing any of the secrets on record therefore invalidates the cached verification
+     * result. The password is not kept in clear text in the cache and the key cannot be
+     * used for checking guessed passwords without knowing the secret.
+     *
+     * @param deviceCredentials The credentials presented by the device.
+     * @param candidateSecrets The secrets on record.
+     * @return The key or {@code null} if caching is disabled or no secrets are on record.
+     */
+    private String getVerifiedCredentialsCacheKey(
+            final UsernamePasswordCredentials deviceCredentials,
+            final List<JsonObject> candidateSecrets) {
+
+        if (verifiedCredentials == null || candidateSecrets.isEmpty()) {
+            return null;
+        }
+        try {
+            final Mac mac = Mac.getInstance(CACHE_KEY_ALGORITHM);
+            mac.init(CACHE_KEY_SECRET);
+            update(mac, deviceCredentials.getTenantId());
+            update(mac, deviceCredentials.getAuthId());
+            update(mac, deviceCredentials.getPassword());
+            for (final JsonObject secret : candidateSecrets) {
+                update(mac, secret.getString(CredentialsConstants.FIELD_SECRETS_HASH_FUNCTION));
+                update(mac, secret.getString(CredentialsConstants.FIELD_SECRETS_SALT));
+                update(mac, secret.getString(CredentialsConstants.FIELD_SECRETS_PWD_HASH));
+            }
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (final GeneralSecurityException e) {
+            // every JVM is required to support HmacSHA256
+            return null;
+        }
+    }
+
+    private static void update(final Mac mac, final String value) {
+        if (value != null) {
+            mac.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // separate the values in order to prevent ambiguous concatenations
+        mac.update((byte) 0);
+    }
+
+    private static SecretKeySpec newCacheKeySecret() {
+        final byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return new SecretKeySpec(secret, CACHE_KEY_ALGORITHM);
     }
 }
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.cache.ExpiringValueCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy.VarExpiration;
+
+/**
+ * A cache for expiring values based on a Caffeine cache using variable expiration.
+ * <p>
+ * The values are put to the underlying cache as is, i.e. without being wrapped in an
+ * {@code ExpiringValue}. The expiration of the values is tracked by the Caffeine cache
+ * based on its (monotonic) ticker, which is why expired values are never returned,
+ * regardless of whether they have already been removed from the underlying cache or not.
+ * <p>
+ * An instance represents a named region of a (potentially shared) Caffeine cache.
+ * The keys of the values are therefore scoped by the region name. This allows
+ * multiple instances to share a single underlying cache and thus a common
+ * upper bound on the overall number of cached values.
+ *
+ * @param <K> The type of keys that the cache supports.
+ * @param <V> The type of values that the cache supports.
+ */
+public class CaffeineBasedExpiringValueCache<K, V> implements ExpiringValueCache<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaffeineBasedExpiringValueCache.class);
+
+    private final Cache<Object, Object> cache;
+    private final VarExpiration<Object, Object> expiration;
+    private final String region;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param cache The Caffeine cache to use for storing values. The cache must have been
+     *              configured with a variable expiration policy, e.g. by means of
+     *              {@link CaffeineCacheProvider#newCache(int, long)}.
+     * @param region The name of the region within the cache that this instance represents.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     * @throws IllegalArgumentException if the cache does not support variable expiration.
+     */
+    public CaffeineBasedExpiringValueCache(final Cache<Object, Object> cache, final String region) {
+        this.cache = Objects.requireNonNull(cache);
+        this.region = Objects.requireNonNull(region);
+        this.expiration = cache.policy().expireVariably()
+                .orElseThrow(() -> new IllegalArgumentException("cache does not support variable expiration"));
+    }
+
+    @Override
+    public void put(final K key, final V value, final Instant expirationTime) {
+
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(expirationTime);
+
+        put(key, value, Duration.between(Instant.now(), expirationTime));
+    }
+
+    @Override
+    public void put(final K key, final V value, final Duration maxAge) {
+
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(maxAge);
+
+        if (maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("value is already expired");
+        }
+        expiration.put(new RegionKey(region, key), value, maxAge.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public V get(final K key) {
+
+        if (key == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        final V value = (V) cache.getIfPresent(new RegionKey(region, key));
+        if (value == null) {
+            LOG.trace("cache miss [region: {}, key: {}]", region, key);
+        } else {
+            LOG.trace("cache hit [region: {}, key: {}]", region, key);
+        }
+        return value;
+    }
+
+    @Override
+    public void remove(final K key) {
+        if (key != null) {
+            cache.invalidate(new RegionKey(region, key));
+        }
+    }
+
+    /**
+     * A key that is scoped by the name of the region it belongs to.
+     */
+    private static final class RegionKey {
+
+        private final String region;
+        private final Object key;
+        private final int hashCode;
+
+        RegionKey(final String region, final Object key) {
+            this.region = region;
+            this.key = key;
+            this.hashCode = 31 * region.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof RegionKey)) {
+                return false;
+            }
+            final RegionKey other = (RegionKey) obj;
+            return region.equals(other.region) && key.equals(other.key);
+        }
+
+        @Override
+        public String toString() {
+            return region + ":" + key;
+        }
+    }
+}
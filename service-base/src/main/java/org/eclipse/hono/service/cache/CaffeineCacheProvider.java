@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.cache;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.hono.cache.CacheProvider;
+import org.eclipse.hono.cache.ExpiringValueCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * A cache provider based on a single, size bounded Caffeine cache.
+ * <p>
+ * All caches returned by this provider share the same underlying Caffeine cache.
+ * The maximum number of values held by all of these caches is therefore bounded by the
+ * maximum size that this provider has been created with, regardless of the number of caches
+ * (e.g. one per tenant) that are being retrieved from the provider.
+ * <p>
+ * Once the maximum size has been reached, Caffeine's <em>Window TinyLFU</em> policy
+ * is used to determine the values to evict. Each value expires individually after the
+ * period of time that has been specified when putting the value to the cache. Expiration
+ * is based on a monotonic clock and expired values are removed from the cache proactively
+ * by means of a background task.
+ * <p>
+ * If a meter registry is provided, the provider registers Micrometer's standard cache
+ * meters (<em>cache.gets</em>, <em>cache.puts</em>, <em>cache.evictions</em> and
+ * <em>cache.size</em>) tagged with the name of the provider.
+ */
+public class CaffeineCacheProvider implements CacheProvider {
+
+    private final Cache<Object, Object> cache;
+    private final Map<String, ExpiringValueCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new provider.
+     *
+     * @param minCacheSize The number of values that the cache should initially be able to hold.
+     * @param maxCacheSize The maximum number of values that the cache should hold.
+     * @throws IllegalArgumentException if any of the sizes is &lt; 0.
+     */
+    public CaffeineCacheProvider(final int minCacheSize, final long maxCacheSize) {
+        this(newCache(minCacheSize, maxCacheSize));
+    }
+
+    /**
+     * Creates a new provider which reports statistics about the cache's usage.
+     *
+     * @param minCacheSize The number of values that the cache should initially be able to hold.
+     * @param maxCacheSize The maximum number of values that the cache should hold.
+     * @param name The name to use for tagging the cache meters.
+     * @param registry The meter registry to register the cache meters with or {@code null}
+     *                 if no meters should be registered.
+     * @throws NullPointerException if name is {@code null}.
+     * @throws IllegalArgumentException if any of the sizes is &lt; 0.
+     */
+    public CaffeineCacheProvider(
+            final int minCacheSize,
+            final long maxCacheSize,
+            final String name,
+            final MeterRegistry registry) {
+
+        this(newCache(minCacheSize, maxCacheSize));
+        Objects.requireNonNull(name);
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, name);
+        }
+    }
+
+    /**
+     * Creates a new provider for an existing Caffeine cache.
+     *
+     * @param cache The cache to use. The cache must have been configured with a variable
+     *              expiration policy, e.g. by means of {@link #newCache(int, long)}.
+     * @throws NullPointerException if cache is {@code null}.
+     */
+    CaffeineCacheProvider(final Cache<Object, Object> cache) {
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    /**
+     * Creates a new size bounded Caffeine cache supporting variable expiration.
+     *
+     * @param minCacheSize The number of values that the cache should initially be able to hold.
+     * @param maxCacheSize The maximum number of values that the cache should hold.
+     * @return The new cache.
+     * @throws IllegalArgumentException if any of the sizes is &lt; 0.
+     */
+    public static Cache<Object, Object> newCache(final int minCacheSize, final long maxCacheSize) {
+        return newCache(minCacheSize, maxCacheSize, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a new size bounded Caffeine cache supporting variable expiration.
+     *
+     * @param minCacheSize The number of values that the cache should initially be able to hold.
+     * @param maxCacheSize The maximum number of values that the cache should hold.
+     * @param ticker The source of time to use for determining expiration.
+     * @return The new cache.
+     * @throws IllegalArgumentException if any of the sizes is &lt; 0.
+     */
+    static Cache<Object, Object> newCache(final int minCacheSize, final long maxCacheSize, final Ticker ticker) {
+
+        if (minCacheSize < 0 || maxCacheSize < 0) {
+            throw new IllegalArgumentException("cache size must not be negative");
+        }
+
+        return Caffeine.newBuilder()
+                .initialCapacity(minCacheSize)
+                .maximumSize(Math.max(minCacheSize, maxCacheSize))
+                .expireAfter(new PerValueExpiry())
+                .ticker(ticker)
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K, V> ExpiringValueCache<K, V> getCache(final String cacheName) {
+        Objects.requireNonNull(cacheName);
+        return (ExpiringValueCache<K, V>) caches.computeIfAbsent(
+                cacheName,
+                name -> new CaffeineBasedExpiringValueCache<>(cache, name));
+    }
+
+    /**
+     * An expiration policy which keeps the period of time explicitly set for a value.
+     * <p>
+     * The values are expected to be put to the cache by means of the cache's
+     * variable expiration policy, which sets the value's expiration explicitly.
+     * Values put to the cache by other means do not expire.
+     */
+    private static final class PerValueExpiry implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(final Object key, final Object value, final long currentTime) {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(final Object key, final Object value, final long currentTime,
+                final long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(final Object key, final Object value, final long currentTime,
+                final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
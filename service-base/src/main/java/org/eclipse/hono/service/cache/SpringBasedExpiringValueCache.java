@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -94,4 +94,10 @@ public class SpringBasedExpiringValueCache<K, V> implements ExpiringValueCache<K
         }
     }
 
+    @Override
+    public void remove(final K key) {
+        if (key != null) {
+            cache.evict(key);
+        }
+    }
 }
@@ -13,6 +13,7 @@
 package org.eclipse.hono.service.deviceconnection;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -45,6 +46,7 @@ public abstract class AbstractDeviceConnectionAmqpEndpoint extends AbstractReque
     private static final String SPAN_NAME_SET_LAST_GATEWAY = "set last known gateway";
     private static final String SPAN_NAME_GET_CMD_HANDLING_ADAPTER_INSTANCES = "get command handling adapter instances";
     private static final String SPAN_NAME_SET_CMD_HANDLING_ADAPTER_INSTANCE = "set command handling adapter instance";
+    private static final String SPAN_NAME_SET_CMD_HANDLING_ADAPTER_INSTANCE_FOR_DEVICES = "set command handling adapter instance for devices";
     private static final String SPAN_NAME_REMOVE_CMD_HANDLING_ADAPTER_INSTANCE = "remove command handling adapter instance";
 
     /**
@@ -76,6 +78,8 @@ public abstract class AbstractDeviceConnectionAmqpEndpoint extends AbstractReque
             return processGetCmdHandlingAdapterInstances(requestMessage, targetAddress);
         case SET_CMD_HANDLING_ADAPTER_INSTANCE:
             return processSetCmdHandlingAdapterInstance(requestMessage, targetAddress);
+        case SET_CMD_HANDLING_ADAPTER_INSTANCE_FOR_DEVICES:
+            return processSetCmdHandlingAdapterInstanceForDevices(requestMessage, targetAddress);
         case REMOVE_CMD_HANDLING_ADAPTER_INSTANCE:
             return processRemoveCmdHandlingAdapterInstance(requestMessage, targetAddress);
         default:
@@ -261,6 +265,86 @@ public abstract class AbstractDeviceConnectionAmqpEndpoint extends AbstractReque
         return finishSpanOnFutureCompletion(span, resultFuture);
     }
 
+    /**
+     * Processes a <em>set protocol adapter instance for command handlers of devices</em> request message.
+     *
+     * @param request The request message.
+     * @param targetAddress The address the message is sent to.
+     * @return The response to send to the client via the event bus.
+     */
+    protected Future<Message> processSetCmdHandlingAdapterInstanceForDevices(final Message request, final ResourceIdentifier targetAddress) {
+        final String tenantId = targetAddress.getTenantId();
+        final String adapterInstanceId = MessageHelper.getApplicationProperty(request.getApplicationProperties(), MessageHelper.APP_PROPERTY_ADAPTER_INSTANCE_ID, String.class);
+
+        final Span span = TracingHelper.buildServerChildSpan(
+                tracer,
+                TracingHelper.extractSpanContext(tracer, request),
+                SPAN_NAME_SET_CMD_HANDLING_ADAPTER_INSTANCE_FOR_DEVICES,
+                getClass().getSimpleName()
+        ).start();
+
+        final JsonObject payload;
+        try {
+            payload = MessageHelper.getJsonPayload(request);
+        } catch (DecodeException e) {
+            logger.debug("failed to decode AMQP request message", e);
+            return finishSpanOnFutureCompletion(span, Future.failedFuture(
+                    new ClientErrorException(
+                            HttpURLConnection.HTTP_BAD_REQUEST,
+                            "request message body contains malformed JSON")));
+        }
+
+        final Future<Message> resultFuture;
+        if (tenantId == null || adapterInstanceId == null || payload == null) {
+            TracingHelper.logError(span, "missing tenant, adapter instance id and/or payload");
+            resultFuture = Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST));
+        } else {
+            TracingHelper.TAG_TENANT_ID.set(span, tenantId);
+            span.setTag(MessageHelper.APP_PROPERTY_ADAPTER_INSTANCE_ID, adapterInstanceId);
+
+            final Object devicesValue = payload.getValue(DeviceConnectionConstants.FIELD_DEVICE_IDS);
+            final List<String> list = getDeviceIds(devicesValue);
+            if (list == null) {
+                TracingHelper.logError(span, "payload JSON is missing valid '" + DeviceConnectionConstants.FIELD_DEVICE_IDS + "' field value");
+                resultFuture = Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST));
+            } else if (list.size() > DeviceConnectionConstants.MAX_DEVICE_IDS_PER_REQUEST) {
+                TracingHelper.logError(span, String.format("request contains too many device ids [max: %d]",
+                        DeviceConnectionConstants.MAX_DEVICE_IDS_PER_REQUEST));
+                resultFuture = Future.failedFuture(new ClientErrorException(
+                        HttpURLConnection.HTTP_ENTITY_TOO_LARGE,
+                        String.format("request must not contain more than %d device ids",
+                                DeviceConnectionConstants.MAX_DEVICE_IDS_PER_REQUEST)));
+            } else {
+                span.setTag("no_of_devices", list.size());
+                log.debug("setting command handling adapter instance for tenant [{}], {} devices to {}", tenantId, list.size(), adapterInstanceId);
+
+                resultFuture = getService().setCommandHandlingAdapterInstanceForDevices(tenantId, list, adapterInstanceId, span)
+                        .map(res -> DeviceConnectionConstants.getAmqpReply(
+                                DeviceConnectionConstants.DEVICE_CONNECTION_ENDPOINT,
+                                tenantId,
+                                request,
+                                res)
+                        );
+            }
+        }
+        return finishSpanOnFutureCompletion(span, resultFuture);
+    }
+
+    private static List<String> getDeviceIds(final Object devicesValue) {
+        if (!(devicesValue instanceof JsonArray)) {
+            return null;
+        }
+        final JsonArray devices = (JsonArray) devicesValue;
+        final List<String> deviceIds = new ArrayList<>(devices.size());
+        for (final Object deviceId : devices) {
+            if (!(deviceId instanceof String) || ((String) deviceId).isEmpty()) {
+                return null;
+            }
+            deviceIds.add((String) deviceId);
+        }
+        return deviceIds;
+    }
+
     /**
      * Processes a <em>remove command handling protocol adapter instance</em> request message.
      *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -15,6 +15,7 @@ package org.eclipse.hono.service.deviceconnection;
 
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.util.BaseMessageFilter;
+import org.eclipse.hono.util.DeviceConnectionConstants;
 import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.ResourceIdentifier;
 import org.slf4j.Logger;
@@ -42,7 +43,7 @@ public final class DeviceConnectionMessageFilter extends BaseMessageFilter {
 
         final Object correlationId = MessageHelper.getCorrelationId(msg);
 
-        if (!hasValidDeviceId(linkTarget, msg)) {
+        if (!isBulkOperation(msg) && !hasValidDeviceId(linkTarget, msg)) {
             return false;
         } else if (correlationId == null) {
             LOG.trace("message has neither a message-id nor correlation-id");
@@ -58,4 +59,13 @@ public final class DeviceConnectionMessageFilter extends BaseMessageFilter {
         }
     }
 
+    /**
+     * Checks if a message represents a request for an operation that
+     * does not refer to a single device.
+     */
+    private static boolean isBulkOperation(final Message msg) {
+        return DeviceConnectionConstants.DeviceConnectionAction.SET_CMD_HANDLING_ADAPTER_INSTANCE_FOR_DEVICES
+                .getSubject().equals(msg.getSubject());
+    }
+
 }
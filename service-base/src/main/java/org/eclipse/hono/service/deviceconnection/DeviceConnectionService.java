@@ -13,7 +13,9 @@
 
 package org.eclipse.hono.service.deviceconnection;
 
+import java.net.HttpURLConnection;
 import java.util.List;
+import java.util.Objects;
 
 import org.eclipse.hono.util.DeviceConnectionResult;
 
@@ -88,6 +90,42 @@ public interface DeviceConnectionService {
      */
     Future<DeviceConnectionResult> setCommandHandlingAdapterInstance(String tenantId, String deviceId, String adapterInstanceId, Span span);
 
+    /**
+     * Sets the protocol adapter instance that handles commands for each of the given devices or gateways.
+     * <p>
+     * This default implementation invokes {@link #setCommandHandlingAdapterInstance(String, String, String, Span)}
+     * for the devices one after the other. The operation is aborted with the corresponding result as soon as
+     * one of these invocations does not succeed with a <em>204 No Content</em> status. The entries that have
+     * already been set are kept in that case. Implementations may override this method in order to set all
+     * entries by means of a single bulk operation.
+     *
+     * @param tenantId The tenant id.
+     * @param deviceIds The device ids.
+     * @param adapterInstanceId The protocol adapter instance id.
+     * @param span The active OpenTracing span for this operation. It is not to be closed in this method! An
+     *            implementation should log (error) events on this span and it may set tags and use this span as the
+     *            parent for any spans created in this method.
+     * @return A future indicating the outcome of the operation.
+     *         The <em>status</em> will be <em>204 No Content</em> if the operation completed successfully.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    default Future<DeviceConnectionResult> setCommandHandlingAdapterInstanceForDevices(final String tenantId,
+            final List<String> deviceIds, final String adapterInstanceId, final Span span) {
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceIds);
+        Objects.requireNonNull(adapterInstanceId);
+        Objects.requireNonNull(span);
+
+        Future<DeviceConnectionResult> result = Future.succeededFuture(
+                DeviceConnectionResult.from(HttpURLConnection.HTTP_NO_CONTENT));
+        for (final String deviceId : deviceIds) {
+            result = result.compose(previous -> previous.getStatus() == HttpURLConnection.HTTP_NO_CONTENT
+                    ? setCommandHandlingAdapterInstance(tenantId, deviceId, adapterInstanceId, span)
+                    : Future.succeededFuture(previous));
+        }
+        return result;
+    }
+
     /**
      * Removes the mapping information that associates the given device with the given protocol adapter instance
      * that handles commands for the given device. The mapping entry is only deleted if its value
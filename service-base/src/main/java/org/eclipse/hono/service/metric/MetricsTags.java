@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2018, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -329,10 +329,51 @@ public final class MetricsTags {
         }
     }
 
+    /**
+     * The phases of processing a request message received by a service endpoint.
+     *
+     */
+    public enum RequestProcessingPhase {
+
+        /**
+         * The phase of checking if the client is authorized to invoke the operation.
+         */
+        AUTHORIZATION("authorization"),
+        /**
+         * The phase of invoking the service implementation.
+         */
+        INVOCATION("invocation"),
+        /**
+         * The phase of filtering the response and sending it to the client.
+         */
+        RESPONSE("response");
+
+        static final String TAG_NAME = "phase";
+
+        private final Tag tag;
+
+        RequestProcessingPhase(final String tagValue) {
+            this.tag = Tag.of(TAG_NAME, tagValue);
+        }
+
+        /**
+         * Gets a <em>Micrometer</em> tag for the phase.
+         * 
+         * @return The tag.
+         */
+        public Tag asTag() {
+            return tag;
+        }
+    }
+
     /**
      * The name of the tag that holds the name of the component that reports a metric.
      */
     static final String TAG_COMPONENT_NAME = "component-name";
+    /**
+     * The name of the tag that holds the name of the endpoint that a metric has been reported for.
+     */
+    static final String TAG_ENDPOINT       = "endpoint";
     /**
      * The tag that holds the name of the host that the component reporting a metric is running on.
      */
@@ -386,4 +427,16 @@ public final class MetricsTags {
         Objects.requireNonNull(tenant);
         return Tag.of(MetricsTags.TAG_TENANT, tenant);
     }
+
+    /**
+     * Creates a tag for the name of a service endpoint.
+     * 
+     * @param endpoint The name of the endpoint.
+     * @return The tag.
+     * @throws NullPointerException if endpoint is {@code null}.
+     */
+    public static Tag getEndpointTag(final String endpoint) {
+        Objects.requireNonNull(endpoint);
+        return Tag.of(MetricsTags.TAG_ENDPOINT, endpoint);
+    }
 }
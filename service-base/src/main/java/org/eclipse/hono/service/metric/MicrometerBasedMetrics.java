@@ -20,8 +20,12 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Supplier;
 
+import org.eclipse.hono.client.impl.CommandHandlerStatistics;
+import org.eclipse.hono.client.impl.HashedWheelTimeouts;
+import org.eclipse.hono.client.impl.MessageBatcher;
 import org.eclipse.hono.config.ProtocolAdapterProperties;
 import org.eclipse.hono.service.metric.MetricsTags.Direction;
 import org.eclipse.hono.service.metric.MetricsTags.ProcessingOutcome;
@@ -31,7 +35,10 @@ import org.eclipse.hono.util.TenantObject;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Timer.Sample;
@@ -76,11 +83,43 @@ public class MicrometerBasedMetrics implements Metrics {
      * The name of the meter for command messages.
      */
     public static final String METER_COMMANDS_RECEIVED = "hono.commands.received";
+    /**
+     * The name of the meter for tracking the number of command handlers registered for connected devices.
+     */
+    public static final String METER_COMMANDS_HANDLERS = "hono.commands.handlers";
+    /**
+     * The name of the meter for tracking the estimated total memory occupied by the registered command handlers.
+     */
+    public static final String METER_COMMANDS_HANDLERS_MEMORY = "hono.commands.handlers.memory";
+    /**
+     * The name of the meter for the number of pending timeouts of messages sent to peers.
+     */
+    public static final String METER_CLIENT_TIMEOUTS_PENDING = "hono.client.timeouts.pending";
+    /**
+     * The name of the meter for the number of timeouts of messages sent to peers that have expired
+     * or been cancelled.
+     */
+    public static final String METER_CLIENT_TIMEOUTS = "hono.client.timeouts";
+    /**
+     * The name of the meter for the number of messages in batches sent to the AMQP Messaging Network.
+     */
+    public static final String METER_CLIENT_BATCH_SIZE = "hono.client.batch.size";
+    /**
+     * The name of the meter for the time that messages are collected in a batch before the batch is
+     * sent to the AMQP Messaging Network.
+     */
+    public static final String METER_CLIENT_BATCH_FLUSH_LATENCY = "hono.client.batch.flush.latency";
 
     private static final long DEFAULT_TENANT_IDLE_TIMEOUT = ProtocolAdapterProperties.DEFAULT_TENANT_IDLE_TIMEOUT
             .toMillis();
     private static final long DEVICE_CONNECTION_DURATION_RECORDING_INTERVAL_IN_MS = TimeUnit.SECONDS.toMillis(10);
 
+    private static final int NO_OF_ENDPOINT_TYPES = MetricsTags.EndpointType.values().length;
+    private static final int NO_OF_OUTCOMES = MetricsTags.ProcessingOutcome.values().length;
+    private static final int NO_OF_QOS_LEVELS = MetricsTags.QoS.values().length;
+    private static final int NO_OF_TTD_STATUSES = MetricsTags.TtdStatus.values().length;
+    private static final int NO_OF_DIRECTIONS = MetricsTags.Direction.values().length;
+
     /**
      * The meter registry.
      */
@@ -89,6 +128,7 @@ public class MicrometerBasedMetrics implements Metrics {
     private final Map<String, AtomicLong> authenticatedConnections = new ConcurrentHashMap<>();
     private final Map<String, DeviceConnectionDurationTracker> connectionDurationTrackers = new ConcurrentHashMap<>();
     private final Map<String, Long> lastSeenTimestampPerTenant = new ConcurrentHashMap<>();
+    private final Map<String, TenantMeters> metersPerTenant = new ConcurrentHashMap<>();
     private final AtomicLong unauthenticatedConnections;
     private final AtomicInteger totalCurrentConnections = new AtomicInteger();
     private final Vertx vertx;
@@ -111,11 +151,74 @@ public class MicrometerBasedMetrics implements Metrics {
 
         this.registry.config().onMeterRemoved(meter -> {
             // execution is synchronized in MeterRegistry#remove(Meter)
-            if (METER_CONNECTIONS_AUTHENTICATED.equals(meter.getId().getName())) {
+            final String meterName = meter.getId().getName();
+            if (METER_CONNECTIONS_AUTHENTICATED.equals(meterName)) {
                 authenticatedConnections.remove(meter.getId().getTag(MetricsTags.TAG_TENANT));
+            } else if (METER_MESSAGES_RECEIVED.equals(meterName) || METER_MESSAGES_PAYLOAD.equals(meterName)
+                    || METER_COMMANDS_RECEIVED.equals(meterName) || METER_COMMANDS_PAYLOAD.equals(meterName)) {
+                // make sure that the meter is not used anymore
+                Optional.ofNullable(meter.getId().getTag(MetricsTags.TAG_TENANT)).ifPresent(metersPerTenant::remove);
             }
         });
         this.unauthenticatedConnections = registry.gauge(METER_CONNECTIONS_UNAUTHENTICATED, new AtomicLong());
+
+        Gauge.builder(METER_CLIENT_TIMEOUTS_PENDING, HashedWheelTimeouts::getPendingTimeouts)
+            .register(registry);
+        FunctionCounter.builder(METER_CLIENT_TIMEOUTS, registry, r -> HashedWheelTimeouts.getExpiredTimeouts())
+            .tag(ProcessingOutcome.TAG_NAME, "expired")
+            .register(registry);
+        FunctionCounter.builder(METER_CLIENT_TIMEOUTS, registry, r -> HashedWheelTimeouts.getCancelledTimeouts())
+            .tag(ProcessingOutcome.TAG_NAME, "cancelled")
+            .register(registry);
+    }
+
+    /**
+     * Registers gauges that report the number of command handlers registered with a
+     * protocol adapter and the estimated total amount of memory they occupy.
+     * <p>
+     * The values are reported to the {@value #METER_COMMANDS_HANDLERS} and
+     * {@value #METER_COMMANDS_HANDLERS_MEMORY} meters.
+     *
+     * @param registry The registry to report to.
+     * @param statistics The statistics of the adapter's command handlers.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    public static void registerCommandHandlerGauges(final MeterRegistry registry,
+            final CommandHandlerStatistics statistics) {
+
+        Objects.requireNonNull(registry);
+        Objects.requireNonNull(statistics);
+        Gauge.builder(METER_COMMANDS_HANDLERS, statistics, CommandHandlerStatistics::getNumberOfCommandHandlers)
+            .register(registry);
+        Gauge.builder(METER_COMMANDS_HANDLERS_MEMORY, statistics, CommandHandlerStatistics::getEstimatedMemoryUsage)
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    /**
+     * Creates a listener that reports the sizes and flush latencies of batches
+     * of messages sent to the AMQP Messaging Network.
+     * <p>
+     * The listener reports to the {@value #METER_CLIENT_BATCH_SIZE} and
+     * {@value #METER_CLIENT_BATCH_FLUSH_LATENCY} meters.
+     *
+     * @param registry The registry to report to.
+     * @return The listener.
+     * @throws NullPointerException if registry is {@code null}.
+     */
+    public static MessageBatcher.FlushListener newBatchFlushListener(final MeterRegistry registry) {
+
+        Objects.requireNonNull(registry);
+        final DistributionSummary batchSize = DistributionSummary.builder(METER_CLIENT_BATCH_SIZE)
+                .publishPercentileHistogram()
+                .register(registry);
+        final Timer batchFlushLatency = Timer.builder(METER_CLIENT_BATCH_FLUSH_LATENCY)
+                .publishPercentileHistogram()
+                .register(registry);
+        return (size, latencyNanos) -> {
+            batchSize.record(size);
+            batchFlushLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        };
     }
 
     /**
@@ -214,21 +317,9 @@ public class MicrometerBasedMetrics implements Metrics {
             throw new IllegalArgumentException("payload size must not be negative");
         }
 
-        final Tags tags = Tags.of(type.asTag())
-                .and(MetricsTags.getTenantTag(tenantId))
-                .and(outcome.asTag())
-                .and(qos.asTag())
-                .and(ttdStatus.asTag());
-
-        timer.stop(this.registry.timer(METER_MESSAGES_RECEIVED, tags));
-
-        // record payload size
-        DistributionSummary.builder(METER_MESSAGES_PAYLOAD)
-            .baseUnit("bytes")
-            .minimumExpectedValue(0L)
-            .tags(tags)
-            .register(this.registry)
-            .record(ServiceBaseUtils.calculatePayloadSize(payloadSize, tenantObject));
+        final MessageMeters meters = getMetersForTenant(tenantId).getTelemetryMeters(type, outcome, qos, ttdStatus);
+        timer.stop(meters.processingTime);
+        meters.payloadSize.record(ServiceBaseUtils.calculatePayloadSize(payloadSize, tenantObject));
 
         updateLastSeenTimestamp(tenantId);
     }
@@ -251,19 +342,9 @@ public class MicrometerBasedMetrics implements Metrics {
             throw new IllegalArgumentException("payload size must not be negative");
         }
 
-        final Tags tags = Tags.of(direction.asTag())
-                .and(MetricsTags.getTenantTag(tenantId))
-                .and(outcome.asTag());
-
-        timer.stop(this.registry.timer(METER_COMMANDS_RECEIVED, tags));
-
-        // record payload size
-        DistributionSummary.builder(METER_COMMANDS_PAYLOAD)
-            .baseUnit("bytes")
-            .minimumExpectedValue(0L)
-            .tags(tags)
-            .register(this.registry)
-            .record(ServiceBaseUtils.calculatePayloadSize(payloadSize, tenantObject));
+        final MessageMeters meters = getMetersForTenant(tenantId).getCommandMeters(direction, outcome);
+        timer.stop(meters.processingTime);
+        meters.payloadSize.record(ServiceBaseUtils.calculatePayloadSize(payloadSize, tenantObject));
 
         updateLastSeenTimestamp(tenantId);
     }
@@ -312,6 +393,14 @@ public class MicrometerBasedMetrics implements Metrics {
         return gaugeForKey(name, map, tenant, Tags.of(MetricsTags.getTenantTag(tenant)), instanceSupplier);
     }
 
+    private TenantMeters getMetersForTenant(final String tenantId) {
+        final TenantMeters meters = metersPerTenant.get(tenantId);
+        if (meters == null) {
+            return metersPerTenant.computeIfAbsent(tenantId, TenantMeters::new);
+        }
+        return meters;
+    }
+
     // visible for testing
     Map<String, Long> getLastSeenTimestampPerTenant() {
         return lastSeenTimestampPerTenant;
@@ -373,6 +462,7 @@ public class MicrometerBasedMetrics implements Metrics {
         registry.find(METER_MESSAGES_RECEIVED).tags(tenantTag).meters().forEach(registry::remove);
         registry.find(METER_COMMANDS_PAYLOAD).tags(tenantTag).meters().forEach(registry::remove);
         registry.find(METER_COMMANDS_RECEIVED).tags(tenantTag).meters().forEach(registry::remove);
+        metersPerTenant.remove(tenantId);
 
         vertx.eventBus().publish(Constants.EVENT_BUS_ADDRESS_TENANT_TIMED_OUT, tenantId);
     }
@@ -404,4 +494,84 @@ public class MicrometerBasedMetrics implements Metrics {
                             return null;
                         }));
     }
+
+    /**
+     * The meters for recording the processing time and payload size of messages.
+     */
+    private static final class MessageMeters {
+
+        private final Timer processingTime;
+        private final DistributionSummary payloadSize;
+
+        MessageMeters(final Timer processingTime, final DistributionSummary payloadSize) {
+            this.processingTime = processingTime;
+            this.payloadSize = payloadSize;
+        }
+    }
+
+    /**
+     * The message related meters of a tenant.
+     * <p>
+     * The meters are registered on first use only and are then kept in arrays indexed
+     * by the ordinals of the tag values. Recording a message for a combination of tag values
+     * that has already been used before therefore neither requires a look-up in the
+     * meter registry nor the creation of any tags.
+     */
+    private final class TenantMeters {
+
+        private final Tag tenantTag;
+        private final AtomicReferenceArray<MessageMeters> telemetryMeters = new AtomicReferenceArray<>(
+                NO_OF_ENDPOINT_TYPES * NO_OF_OUTCOMES * NO_OF_QOS_LEVELS * NO_OF_TTD_STATUSES);
+        private final AtomicReferenceArray<MessageMeters> commandMeters = new AtomicReferenceArray<>(
+                NO_OF_DIRECTIONS * NO_OF_OUTCOMES);
+
+        TenantMeters(final String tenantId) {
+            this.tenantTag = MetricsTags.getTenantTag(tenantId);
+        }
+
+        MessageMeters getTelemetryMeters(
+                final MetricsTags.EndpointType type,
+                final MetricsTags.ProcessingOutcome outcome,
+                final MetricsTags.QoS qos,
+                final MetricsTags.TtdStatus ttdStatus) {
+
+            final int index = ((type.ordinal() * NO_OF_OUTCOMES + outcome.ordinal()) * NO_OF_QOS_LEVELS
+                    + qos.ordinal()) * NO_OF_TTD_STATUSES + ttdStatus.ordinal();
+            final MessageMeters meters = telemetryMeters.get(index);
+            if (meters != null) {
+                return meters;
+            }
+            final Tags tags = Tags.of(type.asTag())
+                    .and(tenantTag)
+                    .and(outcome.asTag())
+                    .and(qos.asTag())
+                    .and(ttdStatus.asTag());
+            telemetryMeters.compareAndSet(index, null, newMessageMeters(METER_MESSAGES_RECEIVED, METER_MESSAGES_PAYLOAD, tags));
+            return telemetryMeters.get(index);
+        }
+
+        MessageMeters getCommandMeters(final Direction direction, final ProcessingOutcome outcome) {
+
+            final int index = direction.ordinal() * NO_OF_OUTCOMES + outcome.ordinal();
+            final MessageMeters meters = commandMeters.get(index);
+            if (meters != null) {
+                return meters;
+            }
+            final Tags tags = Tags.of(direction.asTag())
+                    .and(tenantTag)
+                    .and(outcome.asTag());
+            commandMeters.compareAndSet(index, null, newMessageMeters(METER_COMMANDS_RECEIVED, METER_COMMANDS_PAYLOAD, tags));
+            return commandMeters.get(index);
+        }
+
+        private MessageMeters newMessageMeters(final String timerName, final String payloadSizeName, final Tags tags) {
+            return new MessageMeters(
+                    registry.timer(timerName, tags),
+                    DistributionSummary.builder(payloadSizeName)
+                        .baseUnit("bytes")
+                        .minimumExpectedValue(0L)
+                        .tags(tags)
+                        .register(registry));
+        }
+    }
 }
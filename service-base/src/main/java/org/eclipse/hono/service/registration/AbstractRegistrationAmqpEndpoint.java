@@ -13,6 +13,9 @@
 package org.eclipse.hono.service.registration;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.apache.qpid.proton.message.Message;
@@ -28,6 +31,9 @@ import org.eclipse.hono.util.ResourceIdentifier;
 import io.opentracing.Span;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 
 /**
  * An {@code AmqpEndpoint} for managing device registration information.
@@ -39,6 +45,7 @@ import io.vertx.core.Vertx;
 public abstract class AbstractRegistrationAmqpEndpoint extends AbstractRequestResponseEndpoint<ServiceConfigProperties> {
 
     private static final String SPAN_NAME_ASSERT_DEVICE_REGISTRATION = "assert Device Registration";
+    private static final String SPAN_NAME_ASSERT_DEVICE_REGISTRATIONS = "assert Device Registrations";
 
     /**
      * Creates a new registration endpoint for a vertx instance.
@@ -70,6 +77,8 @@ public abstract class AbstractRegistrationAmqpEndpoint extends AbstractRequestRe
         switch (operation) {
             case RegistrationConstants.ACTION_ASSERT:
                 return processAssertRequest(requestMessage, targetAddress);
+            case RegistrationConstants.ACTION_ASSERT_BATCH:
+                return processAssertBatchRequest(requestMessage, targetAddress);
             default:
                 return processCustomRegistrationMessage(requestMessage);
         }
@@ -115,6 +124,81 @@ public abstract class AbstractRegistrationAmqpEndpoint extends AbstractRequestRe
         return finishSpanOnFutureCompletion(span, resultFuture);
     }
 
+    private Future<Message> processAssertBatchRequest(final Message request, final ResourceIdentifier targetAddress) {
+
+        final String tenantId = targetAddress.getTenantId();
+        final String gatewayId = MessageHelper.getGatewayId(request);
+
+        final Span span = TracingHelper.buildServerChildSpan(tracer,
+                TracingHelper.extractSpanContext(tracer, request),
+                SPAN_NAME_ASSERT_DEVICE_REGISTRATIONS,
+                getClass().getSimpleName()
+        ).start();
+
+        final List<String> deviceIds = getDeviceIds(request);
+        final Future<Message> resultFuture;
+        if (tenantId == null || gatewayId == null || deviceIds == null) {
+            TracingHelper.logError(span, "missing tenant, gateway and/or device IDs");
+            resultFuture = Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST));
+        } else {
+            TracingHelper.TAG_TENANT_ID.set(span, tenantId);
+            TracingHelper.TAG_GATEWAY_ID.set(span, gatewayId);
+            span.log(Map.of("no. of devices", deviceIds.size()));
+            log.debug("asserting registration of {} devices with tenant [{}] for gateway [{}]",
+                    deviceIds.size(), tenantId, gatewayId);
+
+            resultFuture = getService().assertRegistrations(tenantId, deviceIds, gatewayId, span)
+                    .map(results -> {
+                        final JsonObject payload = new JsonObject();
+                        results.forEach((deviceId, result) -> {
+                            final JsonObject entry = new JsonObject()
+                                    .put(RegistrationConstants.FIELD_STATUS, result.getStatus());
+                            if (result.getCacheDirective() != null) {
+                                entry.put(RegistrationConstants.FIELD_CACHE_CONTROL, result.getCacheDirective().toString());
+                            }
+                            if (result.getPayload() != null) {
+                                entry.put(RegistrationConstants.FIELD_PAYLOAD, result.getPayload());
+                            }
+                            payload.put(deviceId, entry);
+                        });
+                        return RegistrationConstants.getAmqpReply(
+                                RegistrationConstants.REGISTRATION_ENDPOINT,
+                                tenantId,
+                                request,
+                                RegistrationResult.from(
+                                        HttpURLConnection.HTTP_OK,
+                                        new JsonObject().put(RegistrationConstants.FIELD_RESULTS, payload)));
+                    });
+        }
+        return finishSpanOnFutureCompletion(span, resultFuture);
+    }
+
+    private List<String> getDeviceIds(final Message request) {
+
+        try {
+            final JsonObject payload = MessageHelper.getJsonPayload(request);
+            if (payload == null) {
+                return null;
+            }
+            final JsonArray ids = payload.getJsonArray(RegistrationConstants.FIELD_PAYLOAD_DEVICE_IDS);
+            if (ids == null || ids.isEmpty()) {
+                return null;
+            }
+            final List<String> deviceIds = new ArrayList<>(ids.size());
+            for (final Object id : ids) {
+                if (id instanceof String) {
+                    deviceIds.add((String) id);
+                } else {
+                    return null;
+                }
+            }
+            return deviceIds;
+        } catch (final DecodeException | ClassCastException e) {
+            log.debug("failed to parse device IDs from batch assertion request", e);
+            return null;
+        }
+    }
+
     /**
      * Processes a request for a non-standard operation.
      * <p>
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -15,6 +15,7 @@ package org.eclipse.hono.service.registration;
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.util.BaseMessageFilter;
 import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.RegistrationConstants;
 import org.eclipse.hono.util.ResourceIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,9 +42,16 @@ public final class RegistrationMessageFilter extends BaseMessageFilter {
 
          final Object correlationId = MessageHelper.getCorrelationId(msg);
 
-         if (!hasValidDeviceId(linkTarget, msg)) {
+         if (RegistrationConstants.ACTION_ASSERT_BATCH.equals(msg.getSubject())) {
+             if (MessageHelper.getGatewayId(msg) == null) {
+                 LOG.trace("batch assertion request [correlation ID: {}] does not contain a gateway ID", correlationId);
+                 return false;
+             }
+         } else if (!hasValidDeviceId(linkTarget, msg)) {
              return false;
-         } else if (correlationId == null) {
+         }
+
+         if (correlationId == null) {
              LOG.trace("message has neither a message-id nor correlation-id");
              return false;
          } else if (msg.getSubject() == null) {
@@ -13,9 +13,18 @@
 
 package org.eclipse.hono.service.registration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.util.RegistrationResult;
 
 import io.opentracing.Span;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 
 /**
@@ -142,4 +151,52 @@ public interface RegistrationService {
         return assertRegistration(tenantId, deviceId, gatewayId);
     }
 
+    /**
+     * Asserts that a gateway is authorized to act on behalf of a set of devices.
+     * <p>
+     * This operation allows a gateway to get the assertions for all of the devices that
+     * it is connected to in a single request.
+     * <p>
+     * This default implementation invokes {@link #assertRegistration(String, String, String, Span)}
+     * for each of the devices. Subclasses may override this method in order to implement a more
+     * efficient approach, e.g. by looking up the gateway's registration information only once.
+     *
+     * @param tenantId The tenant the devices belong to.
+     * @param deviceIds The IDs of the devices to get the assertions for.
+     * @param gatewayId The gateway that wants to act on behalf of the devices.
+     * @param span The active OpenTracing span for this operation. It is not to be closed in this method!
+     *            An implementation should log (error) events on this span and it may set tags and use this span as the
+     *            parent for any spans created in this method.
+     * @return A future indicating the outcome of the operation.
+     *         The future will succeed with a map containing the outcome of the assertion for each of the
+     *         given device IDs. The results have the same semantics as the result of
+     *         {@link #assertRegistration(String, String, String, Span)}.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     * @see <a href="https://www.eclipse.org/hono/docs/api/device-registration/#assert-device-registrations">
+     *      Device Registration API - Assert Device Registrations</a>
+     */
+    default Future<Map<String, RegistrationResult>> assertRegistrations(
+            final String tenantId,
+            final List<String> deviceIds,
+            final String gatewayId,
+            final Span span) {
+
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceIds);
+        Objects.requireNonNull(gatewayId);
+        Objects.requireNonNull(span);
+
+        final Map<String, Future<RegistrationResult>> assertions = new HashMap<>(deviceIds.size());
+        deviceIds.forEach(deviceId -> assertions.computeIfAbsent(
+                deviceId,
+                id -> assertRegistration(tenantId, id, gatewayId, span)
+                    .recover(t -> Future.succeededFuture(RegistrationResult.from(
+                            ServiceInvocationException.extractStatusCode(t))))));
+
+        @SuppressWarnings("rawtypes")
+        final List<Future> futures = new ArrayList<>(assertions.values());
+        return CompositeFuture.all(futures)
+                .map(ok -> assertions.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().result())));
+    }
 }
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.hono.service.resourcelimits;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.hono.service.resourcelimits.PrometheusBasedResourceLimitChecks.PeriodMode;
+import org.eclipse.hono.tracing.TracingHelper;
+import org.eclipse.hono.util.ConnectionDuration;
+import org.eclipse.hono.util.DataVolume;
+import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.ResourceLimits;
+import org.eclipse.hono.util.ResourceLimitsPeriod;
+import org.eclipse.hono.util.TenantConstants;
+import org.eclipse.hono.util.TenantObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.log.Fields;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+/**
+ * Resource limit checks which compare configured limits with the resource usage of tenants
+ * that is accounted for locally.
+ * <p>
+ * The message and connection duration limit checks are answered from memory without
+ * querying any external system. For that purpose, the amount of data exchanged with
+ * the devices of a tenant is determined by means of adding up the payload size of all
+ * messages that have passed the check since the tenant's usage has last been
+ * reconciled. The overall duration of the tenant's connections is extrapolated from
+ * the number of devices that have been connected at the time of the last reconciliation.
+ * <p>
+ * The usage of all tenants that have been checked recently is reconciled periodically
+ * in the background with the (cluster wide) usage retrieved from a {@link ResourceUsageSource}.
+ * Changes to a tenant's limits also take effect with the next reconciliation.
+ * Until the usage of a tenant has been reconciled successfully for the first time,
+ * the message and connection duration limit checks are delegated to a fallback
+ * {@link ResourceLimitChecks} instance.
+ * <p>
+ * The connection limit check always retrieves the current number of connections from
+ * the resource usage source.
+ */
+public final class LocalUsageBasedResourceLimitChecks implements ResourceLimitChecks {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalUsageBasedResourceLimitChecks.class);
+    private static final long NO_LIMIT = -1;
+
+    private final ResourceUsageSource usageSource;
+    private final ResourceLimitChecks fallback;
+    private final Tracer tracer;
+    private final long idleTimeoutMillis;
+    private final Map<String, TenantUsage> usagePerTenant = new ConcurrentHashMap<>();
+
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Creates new checks.
+     *
+     * @param vertx The vert.x instance to use for scheduling the reconciliation of the resource usage.
+     * @param usageSource The source to reconcile the locally accounted resource usage with.
+     * @param fallback The checks to use for a tenant until its usage has been reconciled
+     *                 for the first time.
+     * @param reconciliationInterval The interval at which the resource usage is reconciled.
+     * @param idleTimeout The period of time after which the usage of a tenant that has not been
+     *                    checked anymore is no longer accounted for.
+     * @param tracer The tracer instance.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     * @throws IllegalArgumentException if the reconciliation interval is shorter than one millisecond.
+     */
+    public LocalUsageBasedResourceLimitChecks(
+            final Vertx vertx,
+            final ResourceUsageSource usageSource,
+            final ResourceLimitChecks fallback,
+            final Duration reconciliationInterval,
+            final Duration idleTimeout,
+            final Tracer tracer) {
+
+        Objects.requireNonNull(vertx);
+        Objects.requireNonNull(reconciliationInterval);
+        this.usageSource = Objects.requireNonNull(usageSource);
+        this.fallback = Objects.requireNonNull(fallback);
+        this.idleTimeoutMillis = Objects.requireNonNull(idleTimeout).toMillis();
+        this.tracer = Objects.requireNonNull(tracer);
+
+        if (reconciliationInterval.toMillis() < 1) {
+            throw new IllegalArgumentException("reconciliation interval must be at least 1ms");
+        }
+        vertx.setPeriodic(reconciliationInterval.toMillis(), tid -> reconcileAll());
+    }
+
+    /**
+     * Sets the clock to use for determining the current time.
+     *
+     * @param clock The clock.
+     * @throws NullPointerException if clock is {@code null}.
+     */
+    void setClock(final Clock clock) {
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    private Span createSpan(final String name, final SpanContext parent, final TenantObject tenant) {
+        return TracingHelper.buildChildSpan(tracer, parent, name, getClass().getSimpleName())
+                .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, tenant.getTenantId())
+                .start();
+    }
+
+    private Future<Boolean> finishSpan(final Span span, final Map<String, Object> items, final boolean isExceeded) {
+        items.put("limit exceeded", isExceeded);
+        span.log(items);
+        span.finish();
+        return Future.succeededFuture(isExceeded);
+    }
+
+    @Override
+    public Future<Boolean> isConnectionLimitReached(final TenantObject tenant, final SpanContext spanContext) {
+
+        Objects.requireNonNull(tenant);
+
+        final Span span = createSpan("verify connection limit", spanContext, tenant);
+        final Map<String, Object> items = new HashMap<>();
+
+        if (tenant.getResourceLimits() == null) {
+            items.put(Fields.EVENT, "no resource limits configured");
+            return finishSpan(span, items, false);
+        }
+        final long maxConnections = tenant.getResourceLimits().getMaxConnections();
+        items.put(TenantConstants.FIELD_MAX_CONNECTIONS, maxConnections);
+        if (maxConnections == -1) {
+            items.put(Fields.EVENT, "no connection limit configured");
+            return finishSpan(span, items, false);
+        }
+        return usageSource.getConnections(tenant, span.context())
+                .map(currentConnections -> {
+                    items.put("current-connections", currentConnections);
+                    return currentConnections >= maxConnections;
+                })
+                .otherwise(failure -> Boolean.FALSE)
+                .compose(isExceeded -> finishSpan(span, items, isExceeded));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The payload size of messages that pass the check is added to the amount of data
+     * that has been consumed by the tenant. The check is delegated to the fallback checks
+     * until the tenant's usage has been reconciled for the first time.
+     */
+    @Override
+    public Future<Boolean> isMessageLimitReached(
+            final TenantObject tenant,
+            final long payloadSize,
+            final SpanContext spanContext) {
+
+        Objects.requireNonNull(tenant);
+
+        final Span span = createSpan("verify message limit", spanContext, tenant);
+        final Map<String, Object> items = new HashMap<>();
+        items.put("payload-size", payloadSize);
+
+        if (tenant.getResourceLimits() == null) {
+            items.put(Fields.EVENT, "no resource limits configured");
+            return finishSpan(span, items, false);
+        } else if (tenant.getResourceLimits().getDataVolume() == null) {
+            items.put(Fields.EVENT, "no message limits configured");
+            return finishSpan(span, items, false);
+        } else if (payloadSize <= 0) {
+            return finishSpan(span, items, false);
+        }
+
+        final TenantUsage usage = getUsage(tenant);
+        if (!usage.reconciled) {
+            items.put(Fields.EVENT, "resource usage not reconciled yet, using fallback");
+            return fallback.isMessageLimitReached(tenant, payloadSize, span.context())
+                    .map(isExceeded -> {
+                        if (!isExceeded) {
+                            usage.localBytes.addAndGet(payloadSize);
+                        }
+                        return isExceeded;
+                    })
+                    .compose(isExceeded -> finishSpan(span, items, isExceeded));
+        }
+        final long allowedMaxBytes = usage.allowedMaxBytes;
+        final long bytesConsumed = usage.reconciledBytes + usage.localBytes.get();
+        final boolean isExceeded = allowedMaxBytes != NO_LIMIT && bytesConsumed + payloadSize > allowedMaxBytes;
+        if (!isExceeded) {
+            usage.localBytes.addAndGet(payloadSize);
+        }
+        items.put("current period bytes limit", allowedMaxBytes);
+        items.put("current period bytes consumed", bytesConsumed);
+        LOG.trace("data limit {}exceeded [tenant: {}, bytes consumed: {}, allowed max-bytes: {}]",
+                isExceeded ? "" : "not ", tenant.getTenantId(), bytesConsumed, allowedMaxBytes);
+        return finishSpan(span, items, isExceeded);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The check is delegated to the fallback checks until the tenant's usage has been
+     * reconciled for the first time.
+     */
+    @Override
+    public Future<Boolean> isConnectionDurationLimitReached(
+            final TenantObject tenant,
+            final SpanContext spanContext) {
+
+        Objects.requireNonNull(tenant);
+
+        final Span span = createSpan("verify connection duration limit", spanContext, tenant);
+        final Map<String, Object> items = new HashMap<>();
+
+        if (tenant.getResourceLimits() == null) {
+            items.put(Fields.EVENT, "no resource limits configured");
+            return finishSpan(span, items, false);
+        } else if (tenant.getResourceLimits().getConnectionDuration() == null) {
+            items.put(Fields.EVENT, "no connection duration limit configured");
+            return finishSpan(span, items, false);
+        }
+
+        final TenantUsage usage = getUsage(tenant);
+        if (!usage.reconciled) {
+            items.put(Fields.EVENT, "resource usage not reconciled yet, using fallback");
+            return fallback.isConnectionDurationLimitReached(tenant, span.context())
+                    .compose(isExceeded -> finishSpan(span, items, isExceeded));
+        }
+        final long allowedMaxMinutes = usage.allowedMaxMinutes;
+        final long minutesSinceReconciliation = TimeUnit.MILLISECONDS.toMinutes(
+                Math.max(0, clock.millis() - usage.reconciledAt));
+        final long minutesConnected = usage.reconciledMinutes + usage.reconciledConnections * minutesSinceReconciliation;
+        final boolean isExceeded = allowedMaxMinutes != NO_LIMIT && minutesConnected >= allowedMaxMinutes;
+        items.put("current period connection duration limit in minutes", allowedMaxMinutes);
+        items.put("current period's connection duration in minutes", minutesConnected);
+        LOG.trace("connection duration limit {}exceeded [tenant: {}, connection duration consumed: {}, allowed max-duration: {}]",
+                isExceeded ? "" : "not ", tenant.getTenantId(), minutesConnected, allowedMaxMinutes);
+        return finishSpan(span, items, isExceeded);
+    }
+
+    private TenantUsage getUsage(final TenantObject tenant) {
+
+        TenantUsage usage = usagePerTenant.get(tenant.getTenantId());
+        if (usage == null) {
+            final TenantUsage newUsage = new TenantUsage(tenant);
+            usage = Optional.ofNullable(usagePerTenant.putIfAbsent(tenant.getTenantId(), newUsage))
+                    .orElseGet(() -> {
+                        // make sure that the limits are determined as soon as possible
+                        reconcile(newUsage);
+                        return newUsage;
+                    });
+        }
+        usage.tenant = tenant;
+        usage.lastAccess = clock.millis();
+        return usage;
+    }
+
+    private void reconcileAll() {
+
+        final long now = clock.millis();
+        usagePerTenant.values().removeIf(usage -> {
+            final boolean isIdle = now - usage.lastAccess > idleTimeoutMillis;
+            if (isIdle) {
+                LOG.debug("no longer accounting for resource usage of idle tenant [{}]", usage.tenant.getTenantId());
+            }
+            return isIdle;
+        });
+        usagePerTenant.values().forEach(this::reconcile);
+    }
+
+    private void reconcile(final TenantUsage usage) {
+
+        if (!usage.reconciling.compareAndSet(false, true)) {
+            // previous reconciliation still in progress
+            return;
+        }
+
+        final TenantObject tenant = usage.tenant;
+        final OffsetDateTime now = OffsetDateTime.now(clock);
+        final long localBytes = usage.localBytes.get();
+
+        final Optional<DataVolume> dataVolume = Optional.ofNullable(tenant.getResourceLimits())
+                .map(ResourceLimits::getDataVolume);
+        final Limit bytesLimit = dataVolume
+                .map(config -> getLimit(config.getMaxBytes(), config.getEffectiveSince(), config.getPeriod(), now))
+                .orElse(null);
+        final Optional<ConnectionDuration> connectionDuration = Optional.ofNullable(tenant.getResourceLimits())
+                .map(ResourceLimits::getConnectionDuration);
+        final Limit minutesLimit = connectionDuration
+                .map(config -> getLimit(config.getMaxMinutes(), config.getEffectiveSince(), config.getPeriod(), now))
+                .orElse(null);
+
+        final Future<Long> bytesConsumed = bytesLimit == null ? Future.succeededFuture(0L)
+                : usageSource.getBytesConsumed(tenant, bytesLimit.periodInDays, null);
+        final Future<Long> minutesConnected = minutesLimit == null ? Future.succeededFuture(0L)
+                : usageSource.getMinutesConnected(tenant, minutesLimit.periodInDays, null);
+        final Future<Long> connections = minutesLimit == null ? Future.succeededFuture(0L)
+                : usageSource.getConnections(tenant, null);
+
+        CompositeFuture.all(bytesConsumed, minutesConnected, connections).setHandler(attempt -> {
+            if (attempt.succeeded()) {
+                usage.allowedMaxBytes = Optional.ofNullable(bytesLimit).map(limit -> limit.allowedMax).orElse(NO_LIMIT);
+                usage.reconciledBytes = bytesConsumed.result();
+                // the data consumed until now is included in the value retrieved from the source
+                usage.localBytes.addAndGet(-localBytes);
+                usage.allowedMaxMinutes = Optional.ofNullable(minutesLimit).map(limit -> limit.allowedMax).orElse(NO_LIMIT);
+                usage.reconciledMinutes = minutesConnected.result();
+                usage.reconciledConnections = connections.result();
+                usage.reconciledAt = now.toInstant().toEpochMilli();
+                usage.reconciled = true;
+                LOG.trace("reconciled resource usage [tenant: {}, bytes consumed: {}, minutes connected: {}, connections: {}]",
+                        tenant.getTenantId(), usage.reconciledBytes, usage.reconciledMinutes, usage.reconciledConnections);
+            } else {
+                LOG.debug("failed to reconcile resource usage of tenant [{}]", tenant.getTenantId(), attempt.cause());
+            }
+            usage.reconciling.set(false);
+        });
+    }
+
+    private static Limit getLimit(
+            final long configuredLimit,
+            final Instant effectiveSince,
+            final ResourceLimitsPeriod period,
+            final OffsetDateTime now) {
+
+        //If the period is not set explicitly, monthly is assumed as the default value
+        final PeriodMode periodMode = Optional.ofNullable(period)
+                .map(p -> PeriodMode.from(p.getMode()))
+                .orElse(PeriodMode.MONTHLY);
+        final long periodInDays = Optional.ofNullable(period)
+                .map(ResourceLimitsPeriod::getNoOfDays)
+                .orElse(0);
+
+        if (configuredLimit == NO_LIMIT || effectiveSince == null || PeriodMode.UNKNOWN.equals(periodMode)) {
+            return null;
+        }
+        final OffsetDateTime since = OffsetDateTime.ofInstant(effectiveSince, ZoneOffset.UTC);
+        final long usagePeriod = PrometheusBasedResourceLimitChecks.calculateResourceUsagePeriod(
+                since, now, periodMode, periodInDays);
+        if (usagePeriod <= 0) {
+            return null;
+        }
+        return new Limit(
+                PrometheusBasedResourceLimitChecks.calculateEffectiveLimit(since, now, periodMode, configuredLimit),
+                usagePeriod);
+    }
+
+    /**
+     * The effective limit of a resource for the current period.
+     */
+    private static final class Limit {
+
+        private final long allowedMax;
+        private final long periodInDays;
+
+        Limit(final long allowedMax, final long periodInDays) {
+            this.allowedMax = allowedMax;
+            this.periodInDays = periodInDays;
+        }
+    }
+
+    /**
+     * The resource usage of a tenant.
+     */
+    private static final class TenantUsage {
+
+        private final AtomicLong localBytes = new AtomicLong();
+        private final AtomicBoolean reconciling = new AtomicBoolean();
+
+        private volatile TenantObject tenant;
+        private volatile long lastAccess;
+        private volatile long allowedMaxBytes = NO_LIMIT;
+        private volatile long reconciledBytes;
+        private volatile long allowedMaxMinutes = NO_LIMIT;
+        private volatile long reconciledMinutes;
+        private volatile long reconciledConnections;
+        private volatile long reconciledAt;
+        private volatile boolean reconciled;
+
+        TenantUsage(final TenantObject tenant) {
+            this.tenant = tenant;
+        }
+    }
+}
@@ -59,8 +59,11 @@ import io.vertx.ext.web.codec.BodyCodec;
 /**
  * Resource limit checks which compare configured limits with live metrics retrieved
  * from a <em>Prometheus</em> server.
+ * <p>
+ * The checks can also be used as the {@link ResourceUsageSource} of
+ * {@link LocalUsageBasedResourceLimitChecks}.
  */
-public final class PrometheusBasedResourceLimitChecks implements ResourceLimitChecks {
+public final class PrometheusBasedResourceLimitChecks implements ResourceLimitChecks, ResourceUsageSource {
 
     private static final String CONNECTIONS_METRIC_NAME = MicrometerBasedMetrics.METER_CONNECTIONS_AUTHENTICATED
             .replace(".", "_");
@@ -210,9 +213,7 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
                 items.put(Fields.EVENT, "no connection limit configured");
                 result.complete(Boolean.FALSE);
             } else {
-                final String queryParams = String.format("sum(%s{tenant=\"%s\"})", CONNECTIONS_METRIC_NAME,
-                        tenant.getTenantId());
-                executeQuery(queryParams, span)
+                executeQuery(getConnectionsQuery(tenant.getTenantId()), span)
                     .map(currentConnections -> {
                         items.put("current-connections", currentConnections);
                         final boolean isExceeded = currentConnections >= maxConnections;
@@ -374,10 +375,7 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
             if (connectionDurationUsagePeriod <= 0) {
                 result.complete(Boolean.FALSE);
             } else {
-                final String queryParams = String.format("minute( sum( increase( %s {tenant=\"%s\"} [%sd])))",
-                        CONNECTIONS_DURATION_METRIC_NAME,
-                        tenant.getTenantId(),
-                        connectionDurationUsagePeriod);
+                final String queryParams = getMinutesConnectedQuery(tenant.getTenantId(), connectionDurationUsagePeriod);
                 final String key = String.format("%s_minutes_consumed", tenant.getTenantId());
 
                 Optional.ofNullable(limitsCache)
@@ -446,20 +444,7 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
                 result.complete(Boolean.FALSE);
             } else {
 
-                final String queryParams = String.format(
-                        "floor(sum(increase(%s{status=~\"%s|%s\", tenant=\"%s\"} [%sd]) or %s*0) + sum(increase(%s{status=~\"%s|%s\", tenant=\"%s\"} [%sd]) or %s*0))",
-                        MESSAGES_PAYLOAD_SIZE_METRIC_NAME,
-                        MetricsTags.ProcessingOutcome.FORWARDED.asTag().getValue(),
-                        MetricsTags.ProcessingOutcome.UNPROCESSABLE.asTag().getValue(),
-                        tenant.getTenantId(),
-                        dataUsagePeriod,
-                        COMMANDS_PAYLOAD_SIZE_METRIC_NAME,
-                        COMMANDS_PAYLOAD_SIZE_METRIC_NAME,
-                        MetricsTags.ProcessingOutcome.FORWARDED.asTag().getValue(),
-                        MetricsTags.ProcessingOutcome.UNPROCESSABLE.asTag().getValue(),
-                        tenant.getTenantId(),
-                        dataUsagePeriod,
-                        MESSAGES_PAYLOAD_SIZE_METRIC_NAME);
+                final String queryParams = getBytesConsumedQuery(tenant.getTenantId(), dataUsagePeriod);
                 final String key = String.format("%s_bytes_consumed", tenant.getTenantId());
 
                 Optional.ofNullable(limitsCache)
@@ -484,6 +469,96 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
         }
     }
 
+    private static String getConnectionsQuery(final String tenantId) {
+        return String.format("sum(%s{tenant=\"%s\"})", CONNECTIONS_METRIC_NAME, tenantId);
+    }
+
+    private static String getMinutesConnectedQuery(final String tenantId, final long periodInDays) {
+        return String.format("minute( sum( increase( %s {tenant=\"%s\"} [%sd])))",
+                CONNECTIONS_DURATION_METRIC_NAME,
+                tenantId,
+                periodInDays);
+    }
+
+    private static String getBytesConsumedQuery(final String tenantId, final long periodInDays) {
+        return String.format(
+                "floor(sum(increase(%s{status=~\"%s|%s\", tenant=\"%s\"} [%sd]) or %s*0) + sum(increase(%s{status=~\"%s|%s\", tenant=\"%s\"} [%sd]) or %s*0))",
+                MESSAGES_PAYLOAD_SIZE_METRIC_NAME,
+                MetricsTags.ProcessingOutcome.FORWARDED.asTag().getValue(),
+                MetricsTags.ProcessingOutcome.UNPROCESSABLE.asTag().getValue(),
+                tenantId,
+                periodInDays,
+                COMMANDS_PAYLOAD_SIZE_METRIC_NAME,
+                COMMANDS_PAYLOAD_SIZE_METRIC_NAME,
+                MetricsTags.ProcessingOutcome.FORWARDED.asTag().getValue(),
+                MetricsTags.ProcessingOutcome.UNPROCESSABLE.asTag().getValue(),
+                tenantId,
+                periodInDays,
+                MESSAGES_PAYLOAD_SIZE_METRIC_NAME);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value is retrieved from the Prometheus server without using the cache.
+     */
+    @Override
+    public Future<Long> getConnections(final TenantObject tenant, final SpanContext spanContext) {
+
+        Objects.requireNonNull(tenant);
+        return executeUsageQuery("get connections", getConnectionsQuery(tenant.getTenantId()), tenant, spanContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value is retrieved from the Prometheus server without using the cache.
+     */
+    @Override
+    public Future<Long> getBytesConsumed(final TenantObject tenant, final long periodInDays, final SpanContext spanContext) {
+
+        Objects.requireNonNull(tenant);
+        return executeUsageQuery(
+                "get bytes consumed",
+                getBytesConsumedQuery(tenant.getTenantId(), periodInDays),
+                tenant,
+                spanContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value is retrieved from the Prometheus server without using the cache.
+     */
+    @Override
+    public Future<Long> getMinutesConnected(final TenantObject tenant, final long periodInDays, final SpanContext spanContext) {
+
+        Objects.requireNonNull(tenant);
+        return executeUsageQuery(
+                "get connection duration",
+                getMinutesConnectedQuery(tenant.getTenantId(), periodInDays),
+                tenant,
+                spanContext);
+    }
+
+    private Future<Long> executeUsageQuery(
+            final String operation,
+            final String query,
+            final TenantObject tenant,
+            final SpanContext spanContext) {
+
+        final Span span = createSpan(operation, spanContext, tenant);
+        return executeQuery(query, span)
+                .map(value -> {
+                    span.finish();
+                    return value;
+                })
+                .recover(t -> {
+                    span.finish();
+                    return Future.failedFuture(t);
+                });
+    }
+
     private Future<Long> executeQuery(final String query, final Span span) {
 
         final Promise<Long> result = Promise.promise();
@@ -610,7 +685,7 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
      * @param configuredLimit The configured limit. 
      * @return The effective resource limit that has been calculated.
      */
-    long calculateEffectiveLimit(
+    static long calculateEffectiveLimit(
             final OffsetDateTime effectiveSince,
             final OffsetDateTime targetDateTime,
             final PeriodMode mode,
@@ -640,7 +715,7 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
      * @param periodInDays The number of days defined by {@link TenantConstants#FIELD_PERIOD_NO_OF_DAYS}. 
      * @return The period in days for which the resource usage is to be calculated.
      */
-    long calculateResourceUsagePeriod(
+    static long calculateResourceUsagePeriod(
             final OffsetDateTime effectiveSince,
             final OffsetDateTime currentDateTime,
             final PeriodMode mode,
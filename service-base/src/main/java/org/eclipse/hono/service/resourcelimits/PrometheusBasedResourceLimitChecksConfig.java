@@ -35,6 +35,7 @@ public final class PrometheusBasedResourceLimitChecksConfig extends Authenticati
     private int cacheMinSize = DEFAULT_CACHE_MIN_SIZE;
     private long cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
     private long cacheTimeout = DEFAULT_CACHE_TIMEOUT;
+    private long usageReconciliationInterval = 0L;
 
     /**
      * Creates new properties with default values.
@@ -138,4 +139,41 @@ public final class PrometheusBasedResourceLimitChecksConfig extends Authenticati
         this.cacheTimeout = timeout;
     }
 
+    /**
+     * Gets the interval at which the resource usage of tenants that is accounted for locally
+     * is reconciled with the metrics data retrieved from the Prometheus server.
+     * <p>
+     * If set to a value &gt; 0, the message and connection duration limits are checked
+     * against the locally accounted resource usage instead of querying the Prometheus
+     * server for each check (see {@link LocalUsageBasedResourceLimitChecks}).
+     * The {@linkplain #getCacheTimeout() cache timeout} is then used as the period of time
+     * after which the usage of a tenant that has not been checked anymore is no longer accounted for.
+     * <p>
+     * The default value of this property is 0, which disables local accounting.
+     *
+     * @return The interval in seconds.
+     */
+    public long getUsageReconciliationInterval() {
+        return usageReconciliationInterval;
+    }
+
+    /**
+     * Sets the interval at which the resource usage of tenants that is accounted for locally
+     * is reconciled with the metrics data retrieved from the Prometheus server.
+     * <p>
+     * If set to a value &gt; 0, the message and connection duration limits are checked
+     * against the locally accounted resource usage instead of querying the Prometheus
+     * server for each check (see {@link LocalUsageBasedResourceLimitChecks}).
+     * <p>
+     * The default value of this property is 0, which disables local accounting.
+     *
+     * @param interval The interval in seconds.
+     * @throws IllegalArgumentException if interval is &lt; 0.
+     */
+    public void setUsageReconciliationInterval(final long interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("usage reconciliation interval must not be negative");
+        }
+        this.usageReconciliationInterval = interval;
+    }
 }
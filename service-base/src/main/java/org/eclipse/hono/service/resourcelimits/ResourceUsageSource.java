@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.hono.service.resourcelimits;
+
+import org.eclipse.hono.util.TenantObject;
+
+import io.opentracing.SpanContext;
+import io.vertx.core.Future;
+
+/**
+ * A source of the (cluster wide) amount of resources that have been consumed by the devices of a tenant.
+ */
+public interface ResourceUsageSource {
+
+    /**
+     * Gets the number of devices of a tenant that are currently connected.
+     *
+     * @param tenant The tenant to get the number of connections for.
+     * @param spanContext The currently active OpenTracing span context or {@code null}
+     *                    if no span is currently active.
+     * @return A future indicating the outcome of the operation.
+     *         <p>
+     *         The future will be succeeded with the number of connected devices or
+     *         failed if the number could not be determined.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    Future<Long> getConnections(TenantObject tenant, SpanContext spanContext);
+
+    /**
+     * Gets the amount of data that has been exchanged with the devices of a tenant.
+     *
+     * @param tenant The tenant to get the amount of data for.
+     * @param periodInDays The number of days (including the current day) to get the amount of data for.
+     * @param spanContext The currently active OpenTracing span context or {@code null}
+     *                    if no span is currently active.
+     * @return A future indicating the outcome of the operation.
+     *         <p>
+     *         The future will be succeeded with the number of bytes or
+     *         failed if the number could not be determined.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    Future<Long> getBytesConsumed(TenantObject tenant, long periodInDays, SpanContext spanContext);
+
+    /**
+     * Gets the overall amount of time that the devices of a tenant have been connected.
+     *
+     * @param tenant The tenant to get the connection duration for.
+     * @param periodInDays The number of days (including the current day) to get the connection duration for.
+     * @param spanContext The currently active OpenTracing span context or {@code null}
+     *                    if no span is currently active.
+     * @return A future indicating the outcome of the operation.
+     *         <p>
+     *         The future will be succeeded with the number of minutes or
+     *         failed if the number could not be determined.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    Future<Long> getMinutesConnected(TenantObject tenant, long periodInDays, SpanContext spanContext);
+}
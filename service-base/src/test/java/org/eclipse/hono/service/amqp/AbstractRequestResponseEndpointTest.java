@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.amqp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.auth.HonoUser;
+import org.eclipse.hono.client.ServerErrorException;
+import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.service.auth.AuthorizationService;
+import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.proton.ProtonConnection;
+import io.vertx.proton.ProtonDelivery;
+import io.vertx.proton.ProtonHelper;
+import io.vertx.proton.ProtonReceiver;
+import io.vertx.proton.ProtonSender;
+import io.vertx.proton.ProtonSession;
+
+/**
+ * Tests verifying behavior of {@link AbstractRequestResponseEndpoint}.
+ */
+public class AbstractRequestResponseEndpointTest {
+
+    private static final ResourceIdentifier RESOURCE = ResourceIdentifier.from("endpoint", Constants.DEFAULT_TENANT, null);
+    private static final ResourceIdentifier REPLY_RESOURCE = ResourceIdentifier.from("endpoint",
+            Constants.DEFAULT_TENANT, "reply-to");
+
+    private ProtonConnection connection;
+    private ProtonReceiver receiver;
+    private ProtonSender sender;
+    private AuthorizationService authService;
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Initializes common fixture.
+     */
+    @BeforeEach
+    public void setUp() {
+
+        connection = mock(ProtonConnection.class);
+        receiver = mock(ProtonReceiver.class);
+        final ProtonSession session = mock(ProtonSession.class);
+        when(session.getConnection()).thenReturn(connection);
+        sender = mock(ProtonSender.class);
+        when(sender.getName()).thenReturn("mocked sender");
+        when(sender.isOpen()).thenReturn(Boolean.TRUE);
+        when(sender.getSession()).thenReturn(session);
+        authService = mock(AuthorizationService.class);
+        when(authService.isAuthorized(any(HonoUser.class), any(ResourceIdentifier.class), anyString()))
+            .thenReturn(Future.succeededFuture(Boolean.TRUE));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * Verifies that the endpoint reports the time spent in each phase of processing
+     * a request that has been handled successfully.
+     */
+    @Test
+    public void testHandleMessageRecordsProcessingPhases() {
+
+        final AbstractRequestResponseEndpoint<ServiceConfigProperties> endpoint = getEndpoint(
+                Future.succeededFuture(ProtonHelper.message()));
+
+        // WHEN a request is processed successfully
+        endpoint.handleRequestMessage(connection, receiver, RESOURCE, mock(ProtonDelivery.class), newRequest());
+
+        // THEN the response is sent to the client
+        verify(sender).send(any(Message.class));
+        // and the duration of all phases has been recorded
+        assertThat(getPhaseCount("authorization")).isEqualTo(1);
+        assertThat(getPhaseCount("invocation")).isEqualTo(1);
+        assertThat(getPhaseCount("response")).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that the endpoint reports the time spent in each phase of processing
+     * a request that the service implementation has failed to process.
+     */
+    @Test
+    public void testHandleMessageRecordsProcessingPhasesForFailedRequest() {
+
+        final AbstractRequestResponseEndpoint<ServiceConfigProperties> endpoint = getEndpoint(
+                Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE)));
+
+        // WHEN the service implementation fails to process a request
+        endpoint.handleRequestMessage(connection, receiver, RESOURCE, mock(ProtonDelivery.class), newRequest());
+
+        // THEN an error response is sent to the client
+        verify(sender).send(argThat(m -> Integer.valueOf(HttpURLConnection.HTTP_UNAVAILABLE).equals(MessageHelper.getStatus(m))));
+        // and the duration of all phases has been recorded
+        assertThat(getPhaseCount("authorization")).isEqualTo(1);
+        assertThat(getPhaseCount("invocation")).isEqualTo(1);
+        assertThat(getPhaseCount("response")).isEqualTo(1);
+    }
+
+    private long getPhaseCount(final String phase) {
+        final Timer timer = meterRegistry.find(AbstractRequestResponseEndpoint.METER_REQUESTS_DURATION)
+                .tag("endpoint", "endpoint")
+                .tag("phase", phase)
+                .timer();
+        assertThat(timer).isNotNull();
+        return timer.count();
+    }
+
+    private static Message newRequest() {
+        final Message msg = ProtonHelper.message();
+        msg.setSubject("get");
+        msg.setReplyTo(REPLY_RESOURCE.toString());
+        msg.setCorrelationId("correlation-id");
+        return msg;
+    }
+
+    private AbstractRequestResponseEndpoint<ServiceConfigProperties> getEndpoint(final Future<Message> response) {
+
+        final AbstractRequestResponseEndpoint<ServiceConfigProperties> endpoint =
+                new AbstractRequestResponseEndpoint<>(mock(Vertx.class)) {
+
+            @Override
+            public String getName() {
+                return "endpoint";
+            }
+
+            @Override
+            protected boolean passesFormalVerification(final ResourceIdentifier targetAddress, final Message message) {
+                return true;
+            }
+
+            @Override
+            protected Future<Message> handleRequestMessage(final Message requestMessage, final ResourceIdentifier targetAddress) {
+                return response.map(msg -> {
+                    MessageHelper.addProperty(msg, MessageHelper.APP_PROPERTY_STATUS, HttpURLConnection.HTTP_OK);
+                    return msg;
+                });
+            }
+        };
+        endpoint.setConfiguration(new ServiceConfigProperties());
+        endpoint.setAuthorizationService(authService);
+        endpoint.setMeterRegistry(meterRegistry);
+        endpoint.onLinkAttach(connection, sender, REPLY_RESOURCE);
+        return endpoint;
+    }
+}
@@ -18,17 +18,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
 import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.hono.auth.HonoPasswordEncoder;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.CredentialsClient;
 import org.eclipse.hono.client.CredentialsClientFactory;
-import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.client.ServerErrorException;
+import org.eclipse.hono.config.ProtocolAdapterProperties;
 import org.eclipse.hono.service.auth.DeviceUser;
 import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.CredentialsObject;
@@ -37,6 +42,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.opentracing.noop.NoopTracerFactory;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
@@ -63,6 +70,9 @@ public class UsernamePasswordAuthProviderTest {
     private CredentialsClientFactory credentialsClientFactory;
     private CredentialsClient credentialsClient;
     private HonoPasswordEncoder pwdEncoder;
+    private ProtocolAdapterProperties config;
+    private MeterRegistry meterRegistry;
+    private AtomicInteger pendingVerifications;
 
     /**
      * Initializes vert.x.
@@ -84,7 +94,12 @@ public class UsernamePasswordAuthProviderTest {
         pwdEncoder = mock(HonoPasswordEncoder.class);
         when(pwdEncoder.matches(eq("the-secret"), any(JsonObject.class))).thenReturn(true);
 
-        provider = new UsernamePasswordAuthProvider(credentialsClientFactory, pwdEncoder, new ServiceConfigProperties(), NoopTracerFactory.create());
+        config = new ProtocolAdapterProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        pendingVerifications = new AtomicInteger();
+        // use a counter that is not shared with other tests
+        provider = new UsernamePasswordAuthProvider(credentialsClientFactory, pwdEncoder, config, meterRegistry,
+                NoopTracerFactory.create(), pendingVerifications);
         givenCredentialsOnRecord(CredentialsObject.fromClearTextPassword("4711", "device", "the-secret", null, null));
 
     }
@@ -189,6 +204,99 @@ public class UsernamePasswordAuthProviderTest {
         }));
     }
 
+    /**
+     * Verifies that the provider does not verify the password hash again when the same
+     * credentials are presented repeatedly.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAuthenticateUsesCachedVerificationResult(final VertxTestContext ctx) {
+
+        final Promise<DeviceUser> firstAttempt = Promise.promise();
+        vertx.runOnContext(go -> provider.authenticate(deviceCredentials, null, firstAttempt));
+        firstAttempt.future().compose(device -> {
+            final Promise<DeviceUser> secondAttempt = Promise.promise();
+            vertx.runOnContext(go -> provider.authenticate(deviceCredentials, null, secondAttempt));
+            return secondAttempt.future();
+        }).setHandler(ctx.succeeding(device -> {
+            ctx.verify(() -> {
+                assertThat(device.getDeviceId()).isEqualTo("4711");
+                verify(pwdEncoder, times(1)).matches(eq("the-secret"), any(JsonObject.class));
+                assertThat(meterRegistry.get(UsernamePasswordAuthProvider.METER_CACHED_VERIFICATIONS).counter().count())
+                    .isEqualTo(1.0);
+            });
+            ctx.completeNow();
+        }));
+    }
+
+    /**
+     * Verifies that the provider verifies the password hash again if the
+     * secrets on record have changed since the last successful verification.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAuthenticateDoesNotUseCachedVerificationResultForChangedSecrets(final VertxTestContext ctx) {
+
+        final Promise<DeviceUser> firstAttempt = Promise.promise();
+        vertx.runOnContext(go -> provider.authenticate(deviceCredentials, null, firstAttempt));
+        firstAttempt.future().compose(device -> {
+            final CredentialsObject changedCredentials = new CredentialsObject("4711", "device", CredentialsConstants.SECRETS_TYPE_HASHED_PASSWORD);
+            changedCredentials.addSecret(CredentialsObject.hashedPasswordSecretForPasswordHash(
+                    "new-hash", CredentialsConstants.HASH_FUNCTION_BCRYPT, null, null, (String) null));
+            givenCredentialsOnRecord(changedCredentials);
+            final Promise<DeviceUser> secondAttempt = Promise.promise();
+            vertx.runOnContext(go -> provider.authenticate(deviceCredentials, null, secondAttempt));
+            return secondAttempt.future();
+        }).setHandler(ctx.succeeding(device -> {
+            ctx.verify(() -> verify(pwdEncoder, times(2)).matches(eq("the-secret"), any(JsonObject.class)));
+            ctx.completeNow();
+        }));
+    }
+
+    /**
+     * Verifies that the provider rejects authentication attempts with a 503 error
+     * while the maximum number of password verifications is pending.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAuthenticateFailsIfTooManyVerificationsArePending(final VertxTestContext ctx) {
+
+        // GIVEN a provider that allows for a single pending verification only
+        config.setMaxPendingPasswordVerifications(1);
+        // and a password hash verification which takes until the second attempt has been rejected
+        final CountDownLatch rejected = new CountDownLatch(1);
+        when(pwdEncoder.matches(eq("the-secret"), any(JsonObject.class))).thenAnswer(invocation -> {
+            rejected.await(4, TimeUnit.SECONDS);
+            return true;
+        });
+        final Promise<DeviceUser> firstAttempt = Promise.promise();
+        final Promise<DeviceUser> secondAttempt = Promise.promise();
+
+        // WHEN two devices authenticate concurrently
+        vertx.runOnContext(go -> {
+            provider.authenticate(deviceCredentials, null, firstAttempt);
+            provider.authenticate(
+                    UsernamePasswordCredentials.create("device@DEFAULT_TENANT", "other-secret", false),
+                    null,
+                    secondAttempt);
+        });
+
+        // THEN the second attempt is rejected right away
+        secondAttempt.future().recover(t -> {
+            ctx.verify(() -> assertThat(((ServerErrorException) t).getErrorCode()).isEqualTo(HttpURLConnection.HTTP_UNAVAILABLE));
+            rejected.countDown();
+            // while the first attempt succeeds
+            return firstAttempt.future();
+        }).setHandler(ctx.succeeding(device -> ctx.verify(() -> {
+            // and no verification is pending anymore
+            assertThat(pendingVerifications.get()).isEqualTo(0);
+            ctx.completeNow();
+        })));
+    }
+
     private void givenCredentialsOnRecord(final CredentialsObject credentials) {
         when(credentialsClient.get(
                 eq(CredentialsConstants.SECRETS_TYPE_HASHED_PASSWORD),
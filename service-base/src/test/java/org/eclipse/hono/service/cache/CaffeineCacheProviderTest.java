@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.hono.cache.ExpiringValueCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests verifying behavior of {@link CaffeineCacheProvider} and {@link CaffeineBasedExpiringValueCache}.
+ *
+ */
+public class CaffeineCacheProviderTest {
+
+    private AtomicLong nanoTime;
+    private Cache<Object, Object> caffeineCache;
+    private CaffeineCacheProvider provider;
+
+    /**
+     * Sets up the fixture.
+     */
+    @BeforeEach
+    public void setUp() {
+        nanoTime = new AtomicLong();
+        caffeineCache = CaffeineCacheProvider.newCache(10, 100, nanoTime::get);
+        provider = new CaffeineCacheProvider(caffeineCache);
+    }
+
+    /**
+     * Verifies that the cache returns values until they expire.
+     */
+    @Test
+    public void testGetReturnsValueUntilExpired() {
+
+        // GIVEN a cache that contains a value with a max age of 10 seconds
+        final ExpiringValueCache<String, String> cache = provider.getCache("tenant");
+        cache.put("key", "hello", Duration.ofSeconds(10));
+
+        // WHEN 9 seconds have elapsed
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        // THEN the value is returned
+        assertThat(cache.get("key")).isEqualTo("hello");
+
+        // WHEN another 2 seconds have elapsed
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        // THEN the value is considered expired
+        assertThat(cache.get("key")).isNull();
+    }
+
+    /**
+     * Verifies that putting a value with an expiration time in the past fails.
+     */
+    @Test
+    public void testPutFailsForExpiredValue() {
+
+        final ExpiringValueCache<String, String> cache = provider.getCache("tenant");
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> cache.put("key", "hello", Instant.now().minusSeconds(1)));
+    }
+
+    /**
+     * Verifies that the caches returned for different names do not share their keys
+     * while the same cache is returned for the same name.
+     */
+    @Test
+    public void testGetCacheScopesKeysByName() {
+
+        final ExpiringValueCache<String, String> tenantCache = provider.getCache("tenant");
+        final ExpiringValueCache<String, String> otherTenantCache = provider.getCache("other-tenant");
+        tenantCache.put("key", "hello", Duration.ofSeconds(10));
+
+        assertThat(otherTenantCache.get("key")).isNull();
+        assertThat(provider.<String, String> getCache("tenant")).isSameAs(tenantCache);
+        assertThat(provider.<String, String> getCache("tenant").get("key")).isEqualTo("hello");
+    }
+
+    /**
+     * Verifies that a value can be removed from the cache.
+     */
+    @Test
+    public void testRemoveEvictsValue() {
+
+        final ExpiringValueCache<String, String> cache = provider.getCache("tenant");
+        cache.put("key", "hello", Duration.ofSeconds(10));
+        cache.remove("key");
+
+        assertThat(cache.get("key")).isNull();
+    }
+
+    /**
+     * Verifies that the overall number of values held by all caches is bounded by the
+     * provider's maximum size.
+     */
+    @Test
+    public void testCachesShareMaximumSize() {
+
+        final ExpiringValueCache<String, String> tenantCache = provider.getCache("tenant");
+        final ExpiringValueCache<String, String> otherTenantCache = provider.getCache("other-tenant");
+        for (int i = 0; i < 100; i++) {
+            tenantCache.put("key" + i, "hello", Duration.ofSeconds(10));
+            otherTenantCache.put("key" + i, "hello", Duration.ofSeconds(10));
+        }
+        caffeineCache.cleanUp();
+
+        assertThat(caffeineCache.estimatedSize()).isLessThanOrEqualTo(100);
+    }
+
+    /**
+     * Verifies that the provider reports hits and misses to the meter registry.
+     */
+    @Test
+    public void testProviderReportsCacheStatistics() {
+
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final CaffeineCacheProvider monitoredProvider = new CaffeineCacheProvider(10, 100, "tenant", registry);
+        final ExpiringValueCache<String, String> cache = monitoredProvider.getCache("tenant");
+
+        cache.put("key", "hello", Duration.ofSeconds(10));
+        cache.get("key");
+        cache.get("unknown");
+
+        assertThat(registry.find("cache.gets").tags("cache", "tenant", "result", "hit").functionCounter().count())
+            .isEqualTo(1.0);
+        assertThat(registry.find("cache.gets").tags("cache", "tenant", "result", "miss").functionCounter().count())
+            .isEqualTo(1.0);
+    }
+}
@@ -17,6 +17,7 @@ package org.eclipse.hono.service.metric;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,6 +44,7 @@ import org.mockito.Mockito;
 import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Timer.Sample;
 import io.micrometer.graphite.GraphiteConfig;
 import io.micrometer.graphite.GraphiteMeterRegistry;
@@ -329,6 +331,54 @@ public class MicrometerBasedMetricsTest {
 
     }
 
+    /**
+     * Verifies that the meters used for recording messages are registered on first use only
+     * and are registered again after they have been removed due to the tenant being idle.
+     *
+     * @param registry The registry that the tests should be run against.
+     */
+    @ParameterizedTest
+    @MethodSource("registries")
+    public void testMessageMetersAreReusedUntilTenantTimesOut(final MeterRegistry registry) {
+
+        final Tags tenantTags = Tags.of(MetricsTags.getTenantTag(tenant));
+        final Vertx vertx = mock(Vertx.class);
+        when(vertx.eventBus()).thenReturn(mock(EventBus.class));
+        final AtomicReference<Handler<Long>> timerHandler = new AtomicReference<>();
+        when(vertx.setTimer(anyLong(), any())).thenAnswer(invocation -> {
+            final Handler<Long> task = invocation.getArgument(1);
+            timerHandler.set(task);
+            return 1L;
+        });
+
+        // GIVEN a metrics instance with tenantIdleTimeout configured
+        final MicrometerBasedMetrics metrics = new MicrometerBasedMetrics(registry, vertx);
+        metrics.setProtocolAdapterProperties(configWithTenantIdleTimeout(1L));
+
+        // WHEN reporting two telemetry messages and two commands
+        reportTelemetry(metrics);
+        final Timer messagesTimer = registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED).tags(tenantTags).timer();
+        reportTelemetry(metrics);
+        reportCommand(metrics);
+        reportCommand(metrics);
+
+        // THEN the same meters have been used for recording both messages
+        assertEquals(1, registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED).tags(tenantTags).timers().size());
+        assertEquals(2L, messagesTimer.count());
+        assertEquals(2L, registry.find(MicrometerBasedMetrics.METER_COMMANDS_PAYLOAD).tags(tenantTags).summary().count());
+
+        // WHEN the tenant times out
+        metrics.getLastSeenTimestampPerTenant().put(tenant, 0L);
+        timerHandler.get().handle(null);
+        // and another message is reported
+        reportTelemetry(metrics);
+
+        // THEN the message is recorded using newly registered meters
+        final Timer newMessagesTimer = registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED).tags(tenantTags).timer();
+        assertNotSame(messagesTimer, newMessagesTimer);
+        assertEquals(1L, newMessagesTimer.count());
+    }
+
     /**
      * Verifies that sending messages updates the stored timestamp for the tenant.
      * 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2020 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -111,6 +111,39 @@ public class RegistrationMessageFilterTest {
         assertTrue(RegistrationMessageFilter.verify(linkTarget, msg));
     }
 
+    /**
+     * Verifies that a batch assertion request that contains a gateway ID but no device ID
+     * passes the filter.
+     */
+    @Test
+    public void testVerifySucceedsForBatchAssertionWithGatewayId() {
+        // GIVEN a batch assertion message for a gateway
+        final Message msg = givenAMessageHavingProperties(null, RegistrationConstants.ACTION_ASSERT_BATCH);
+        MessageHelper.addProperty(msg, MessageHelper.APP_PROPERTY_GATEWAY_ID, "myGateway");
+
+        // WHEN receiving the message via a link with a tenant-level target address
+        final ResourceIdentifier linkTarget = getResourceIdentifier(MY_TENANT);
+
+        // THEN message validation succeeds
+        assertTrue(RegistrationMessageFilter.verify(linkTarget, msg));
+    }
+
+    /**
+     * Verifies that a batch assertion request that does not contain a gateway ID
+     * does not pass the filter.
+     */
+    @Test
+    public void testVerifyDetectsMissingGatewayIdForBatchAssertion() {
+        // GIVEN a batch assertion message lacking the gateway id
+        final Message msg = givenAMessageHavingProperties(MY_DEVICE, RegistrationConstants.ACTION_ASSERT_BATCH);
+
+        // WHEN receiving the message via a link
+        final ResourceIdentifier linkTarget = getResourceIdentifier(MY_TENANT);
+
+        // THEN message validation fails
+        assertFalse(RegistrationMessageFilter.verify(linkTarget, msg));
+    }
+
     private static ResourceIdentifier getResourceIdentifier(final String tenant) {
         return getResourceIdentifier(tenant, null);
     }
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.hono.service.resourcelimits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.hono.util.ConnectionDuration;
+import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.DataVolume;
+import org.eclipse.hono.util.ResourceLimits;
+import org.eclipse.hono.util.TenantObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentracing.noop.NoopTracerFactory;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+/**
+ * Verifies the behavior of {@link LocalUsageBasedResourceLimitChecks}.
+ */
+public class LocalUsageBasedResourceLimitChecksTest {
+
+    private static final Instant NOW = Instant.parse("2020-03-10T10:00:00Z");
+    private static final Instant EFFECTIVE_SINCE = Instant.parse("2019-01-01T00:00:00Z");
+
+    private ResourceUsageSource usageSource;
+    private ResourceLimitChecks fallback;
+    private AtomicReference<Handler<Long>> reconciliationTask;
+    private LocalUsageBasedResourceLimitChecks limitChecks;
+
+    /**
+     * Sets up the fixture.
+     */
+    @BeforeEach
+    public void setUp() {
+
+        usageSource = mock(ResourceUsageSource.class);
+        fallback = mock(ResourceLimitChecks.class);
+        reconciliationTask = new AtomicReference<>();
+        final Vertx vertx = mock(Vertx.class);
+        when(vertx.setPeriodic(anyLong(), any())).thenAnswer(invocation -> {
+            final Handler<Long> task = invocation.getArgument(1);
+            reconciliationTask.set(task);
+            return 1L;
+        });
+        limitChecks = new LocalUsageBasedResourceLimitChecks(
+                vertx,
+                usageSource,
+                fallback,
+                Duration.ofSeconds(10),
+                Duration.ofMinutes(10),
+                NoopTracerFactory.create());
+        limitChecks.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    /**
+     * Verifies that the message limit is checked against the amount of data retrieved
+     * from the usage source plus the payload of the messages that have passed the check since.
+     */
+    @Test
+    public void testMessageLimitIsCheckedAgainstLocalUsage() {
+
+        givenBytesConsumed(50L);
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true)
+                .setResourceLimits(new ResourceLimits()
+                        .setDataVolume(new DataVolume().setMaxBytes(100).setEffectiveSince(EFFECTIVE_SINCE)));
+
+        assertThat(limitChecks.isMessageLimitReached(tenant, 20, null).result()).isFalse();
+        assertThat(limitChecks.isMessageLimitReached(tenant, 20, null).result()).isFalse();
+        assertThat(limitChecks.isMessageLimitReached(tenant, 20, null).result()).isTrue();
+        // the usage source has been queried only once
+        verify(usageSource).getBytesConsumed(any(TenantObject.class), anyLong(), any());
+    }
+
+    /**
+     * Verifies that reconciling the resource usage replaces the locally accounted
+     * amount of data with the amount retrieved from the usage source.
+     */
+    @Test
+    public void testReconciliationReplacesLocalUsage() {
+
+        givenBytesConsumed(50L);
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true)
+                .setResourceLimits(new ResourceLimits()
+                        .setDataVolume(new DataVolume().setMaxBytes(100).setEffectiveSince(EFFECTIVE_SINCE)));
+        assertThat(limitChecks.isMessageLimitReached(tenant, 40, null).result()).isFalse();
+
+        // WHEN the usage source reports that other adapter instances have forwarded data as well
+        givenBytesConsumed(95L);
+        reconciliationTask.get().handle(1L);
+
+        // THEN the data forwarded by this instance is no longer accounted for twice
+        assertThat(limitChecks.isMessageLimitReached(tenant, 5, null).result()).isFalse();
+        assertThat(limitChecks.isMessageLimitReached(tenant, 1, null).result()).isTrue();
+        verify(usageSource, times(2)).getBytesConsumed(any(TenantObject.class), anyLong(), any());
+    }
+
+    /**
+     * Verifies that the message limit check is delegated to the fallback checks
+     * until the tenant's usage has been reconciled for the first time.
+     */
+    @Test
+    public void testMessageLimitUsesFallbackUntilReconciled() {
+
+        final Promise<Long> bytesConsumed = Promise.promise();
+        when(usageSource.getBytesConsumed(any(TenantObject.class), anyLong(), any()))
+            .thenReturn(bytesConsumed.future());
+        when(fallback.isMessageLimitReached(any(TenantObject.class), anyLong(), any()))
+            .thenReturn(Future.succeededFuture(Boolean.TRUE));
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true)
+                .setResourceLimits(new ResourceLimits()
+                        .setDataVolume(new DataVolume().setMaxBytes(100).setEffectiveSince(EFFECTIVE_SINCE)));
+
+        // WHEN the usage has not been reconciled yet
+        // THEN the outcome of the fallback check is used
+        assertThat(limitChecks.isMessageLimitReached(tenant, 20, null).result()).isTrue();
+
+        // WHEN the usage has been reconciled
+        bytesConsumed.complete(50L);
+
+        // THEN the locally accounted usage is used
+        assertThat(limitChecks.isMessageLimitReached(tenant, 20, null).result()).isFalse();
+        verify(fallback, times(1)).isMessageLimitReached(any(TenantObject.class), anyLong(), any());
+    }
+
+    /**
+     * Verifies that the connection duration is extrapolated from the number of connections
+     * retrieved from the usage source.
+     */
+    @Test
+    public void testConnectionDurationIsExtrapolated() {
+
+        when(usageSource.getMinutesConnected(any(TenantObject.class), anyLong(), any()))
+            .thenReturn(Future.succeededFuture(90L));
+        when(usageSource.getConnections(any(TenantObject.class), any()))
+            .thenReturn(Future.succeededFuture(2L));
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true)
+                .setResourceLimits(new ResourceLimits()
+                        .setConnectionDuration(new ConnectionDuration().setMaxDuration(100).setEffectiveSince(EFFECTIVE_SINCE)));
+
+        assertThat(limitChecks.isConnectionDurationLimitReached(tenant, null).result()).isFalse();
+
+        // WHEN the two devices stay connected for another five minutes
+        limitChecks.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+
+        // THEN the limit has been reached
+        assertThat(limitChecks.isConnectionDurationLimitReached(tenant, null).result()).isTrue();
+    }
+
+    private void givenBytesConsumed(final long bytes) {
+        when(usageSource.getBytesConsumed(any(TenantObject.class), anyLong(), any()))
+            .thenReturn(Future.succeededFuture(bytes));
+    }
+}
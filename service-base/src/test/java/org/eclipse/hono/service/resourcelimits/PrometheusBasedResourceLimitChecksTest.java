@@ -302,7 +302,7 @@ public class PrometheusBasedResourceLimitChecksTest {
         // Monthly mode
         // The case where the effectiveSince lies on the past months of the target date.
         assertEquals(maxBytes,
-                limitChecksImpl.calculateEffectiveLimit(
+                PrometheusBasedResourceLimitChecks.calculateEffectiveLimit(
                         OffsetDateTime.parse("2019-08-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.MONTHLY,
@@ -310,7 +310,7 @@ public class PrometheusBasedResourceLimitChecksTest {
         // The case where the effectiveSince lies on the the same month as of the target date 
         // and first day of the month.
         assertEquals(9300,
-                limitChecksImpl.calculateEffectiveLimit(
+                PrometheusBasedResourceLimitChecks.calculateEffectiveLimit(
                         OffsetDateTime.parse("2019-09-01T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.MONTHLY,
@@ -318,7 +318,7 @@ public class PrometheusBasedResourceLimitChecksTest {
         // The case where the effectiveSince lies on the the same month as of the target date
         // and not on the first day of the month.
         assertEquals(8990,
-                limitChecksImpl.calculateEffectiveLimit(
+                PrometheusBasedResourceLimitChecks.calculateEffectiveLimit(
                         OffsetDateTime.parse("2019-09-02T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.MONTHLY,
@@ -326,7 +326,7 @@ public class PrometheusBasedResourceLimitChecksTest {
 
         // Days mode
         assertEquals(maxBytes,
-                limitChecksImpl.calculateEffectiveLimit(
+                PrometheusBasedResourceLimitChecks.calculateEffectiveLimit(
                         OffsetDateTime.parse("2019-09-02T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.DAYS,
@@ -343,14 +343,14 @@ public class PrometheusBasedResourceLimitChecksTest {
         // Monthly mode
         // The case where the effectiveSince lies on the past months of the target date.
         assertEquals(6,
-                limitChecksImpl.calculateResourceUsagePeriod(
+                PrometheusBasedResourceLimitChecks.calculateResourceUsagePeriod(
                         OffsetDateTime.parse("2019-08-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.MONTHLY,
                         noOfDays));
         // The case where the effectiveSince lies on the the same month as of the target date.
         assertEquals(5,
-                limitChecksImpl.calculateResourceUsagePeriod(
+                PrometheusBasedResourceLimitChecks.calculateResourceUsagePeriod(
                         OffsetDateTime.parse("2019-09-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-10T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.MONTHLY,
@@ -359,14 +359,14 @@ public class PrometheusBasedResourceLimitChecksTest {
         // Days mode
         // The case where the effectiveSince lies on the past months of the target date.
         assertEquals(6,
-                limitChecksImpl.calculateResourceUsagePeriod(
+                PrometheusBasedResourceLimitChecks.calculateResourceUsagePeriod(
                         OffsetDateTime.parse("2019-08-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-10T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.DAYS,
                         noOfDays));
         // The case where the effectiveSince lies on the the same month as of the target date.
         assertEquals(5,
-                limitChecksImpl.calculateResourceUsagePeriod(
+                PrometheusBasedResourceLimitChecks.calculateResourceUsagePeriod(
                         OffsetDateTime.parse("2019-09-06T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         OffsetDateTime.parse("2019-09-10T14:30:00Z", DateTimeFormatter.ISO_OFFSET_DATE_TIME),
                         PrometheusBasedResourceLimitChecks.PeriodMode.DAYS,
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.auth.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.hono.auth.Authorities;
+import org.eclipse.hono.auth.AuthoritiesImpl;
+import org.eclipse.hono.util.RegistrationConstants;
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Test cases verifying that the permissions shipped with Hono grant
+ * the protocol adapters access to the operations they invoke.
+ *
+ */
+public class ShippedPermissionsTest {
+
+    private static final ResourceIdentifier REGISTRATION = ResourceIdentifier.fromString(
+            RegistrationConstants.REGISTRATION_ENDPOINT + "/DEFAULT_TENANT");
+
+    /**
+     * Verifies that the Authentication service's default permissions authorize
+     * protocol adapters to assert registrations in batches.
+     *
+     * @throws IOException if the permissions cannot be read.
+     */
+    @Test
+    public void testDefaultPermissionsAuthorizeBatchAssertion() throws IOException {
+        assertBatchAssertionIsAuthorized(Path.of("src/main/resources/permissions.json"));
+    }
+
+    /**
+     * Verifies that the example deployment's permissions authorize
+     * protocol adapters to assert registrations in batches.
+     *
+     * @throws IOException if the permissions cannot be read.
+     */
+    @Test
+    public void testExamplePermissionsAuthorizeBatchAssertion() throws IOException {
+        assertBatchAssertionIsAuthorized(Path.of("../../deploy/src/main/deploy/example-permissions.json"));
+    }
+
+    /**
+     * Verifies that the sandbox's permissions authorize
+     * protocol adapters to assert registrations in batches.
+     *
+     * @throws IOException if the permissions cannot be read.
+     */
+    @Test
+    public void testSandboxPermissionsAuthorizeBatchAssertion() throws IOException {
+        assertBatchAssertionIsAuthorized(Path.of("../../deploy/src/main/sandbox/sandbox-permissions.json"));
+    }
+
+    private static void assertBatchAssertionIsAuthorized(final Path permissionsFile) throws IOException {
+
+        final Authorities authorities = getRoleAuthorities(permissionsFile, "protocol-adapter");
+        assertThat(authorities.isAuthorized(REGISTRATION, RegistrationConstants.ACTION_ASSERT)).isTrue();
+        assertThat(authorities.isAuthorized(REGISTRATION, RegistrationConstants.ACTION_ASSERT_BATCH)).isTrue();
+    }
+
+    /**
+     * Collects the operations granted to a role in the same way as
+     * {@link FileBasedAuthenticationService} does.
+     */
+    private static Authorities getRoleAuthorities(final Path permissionsFile, final String role) throws IOException {
+
+        final JsonObject permissions = new JsonObject(Files.readString(permissionsFile));
+        final JsonArray authSpecs = permissions.getJsonObject("roles").getJsonArray(role);
+        assertThat(authSpecs).isNotNull();
+
+        final AuthoritiesImpl result = new AuthoritiesImpl();
+        authSpecs.stream()
+            .filter(JsonObject.class::isInstance)
+            .map(JsonObject.class::cast)
+            .map(spec -> spec.getString("operation"))
+            .filter(operation -> operation != null)
+            .map(operation -> operation.split(":", 2))
+            .filter(parts -> parts.length == 2)
+            .forEach(parts -> result.addOperation(parts[0], parts[1]));
+        return result;
+    }
+}
@@ -13,6 +13,7 @@
 
 package org.eclipse.hono.deviceconnection.infinispan;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.eclipse.hono.config.ApplicationConfigProperties;
@@ -179,16 +180,20 @@ public class ApplicationConfig {
      * connection information.
      *
      * @param vertx The vert.x instance to run on.
+     * @param meterRegistry The registry to report the cache's metrics to.
      * @return The cache.
      */
     @Bean
-    public HotrodCache<String, String> remoteCache(final Vertx vertx) {
+    public HotrodCache<String, String> remoteCache(final Vertx vertx, final MeterRegistry meterRegistry) {
         return new HotrodCache<>(
                 vertx,
                 remoteCacheManager(),
                 DeviceConnectionConstants.CACHE_NAME,
                 "KEY_CONNECTION_CHECK",
-                "VALUE_CONNECTION_CHECK");
+                "VALUE_CONNECTION_CHECK",
+                0,
+                Duration.ZERO,
+                meterRegistry);
     }
 
     /**
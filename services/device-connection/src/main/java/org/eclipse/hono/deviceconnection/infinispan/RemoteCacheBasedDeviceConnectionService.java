@@ -85,6 +85,14 @@ public class RemoteCacheBasedDeviceConnectionService extends AbstractVerticle im
                 .otherwise(t -> DeviceConnectionResult.from(ServiceInvocationException.extractStatusCode(t)));
     }
 
+    @Override
+    public Future<DeviceConnectionResult> setCommandHandlingAdapterInstanceForDevices(final String tenantId,
+            final List<String> deviceIds, final String adapterInstanceId, final Span span) {
+        return cache.setCommandHandlingAdapterInstanceForDevices(tenantId, new HashSet<>(deviceIds), adapterInstanceId, span.context())
+                .map(v -> DeviceConnectionResult.from(HttpURLConnection.HTTP_NO_CONTENT))
+                .otherwise(t -> DeviceConnectionResult.from(ServiceInvocationException.extractStatusCode(t)));
+    }
+
     @Override
     public Future<DeviceConnectionResult> removeCommandHandlingAdapterInstance(final String tenantId, final String deviceId,
             final String adapterInstanceId, final Span span) {
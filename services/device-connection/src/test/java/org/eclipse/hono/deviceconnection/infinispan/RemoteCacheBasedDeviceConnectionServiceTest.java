@@ -15,6 +15,7 @@ package org.eclipse.hono.deviceconnection.infinispan;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
@@ -23,6 +24,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Set;
 
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.deviceconnection.infinispan.client.DeviceConnectionInfo;
@@ -168,4 +171,30 @@ public class RemoteCacheBasedDeviceConnectionServiceTest {
                     ctx.completeNow();
                 }));
     }
+
+    /**
+     * Verifies that the <em>setCommandHandlingAdapterInstanceForDevices</em> operation succeeds and invokes the
+     * corresponding method on the {@link DeviceConnectionInfo} instance.
+     *
+     * @param ctx The vert.x context.
+     */
+    @Test
+    public void testSetCommandHandlingAdapterInstanceForDevices(final VertxTestContext ctx) {
+
+        final List<String> deviceIds = List.of("device1", "device2");
+        final String adapterInstanceId = "adapterInstanceId";
+        when(cache.setCommandHandlingAdapterInstanceForDevices(anyString(), anySet(), anyString(), any(SpanContext.class)))
+                .thenReturn(Future.succeededFuture());
+
+        givenAStartedService()
+                .compose(ok -> svc.setCommandHandlingAdapterInstanceForDevices(Constants.DEFAULT_TENANT, deviceIds, adapterInstanceId, span))
+                .setHandler(ctx.succeeding(result -> {
+                    ctx.verify(() -> {
+                        assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_NO_CONTENT);
+                        verify(cache).setCommandHandlingAdapterInstanceForDevices(eq(Constants.DEFAULT_TENANT),
+                                eq(Set.of("device1", "device2")), eq(adapterInstanceId), any(SpanContext.class));
+                    });
+                    ctx.completeNow();
+                }));
+    }
 }
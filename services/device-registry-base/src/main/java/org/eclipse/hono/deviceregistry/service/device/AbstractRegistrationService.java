@@ -14,7 +14,12 @@
 package org.eclipse.hono.deviceregistry.service.device;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.deviceregistry.service.tenant.TenantInformationService;
@@ -171,56 +176,115 @@ public abstract class AbstractRegistrationService implements RegistrationService
                     }
 
                     final TenantKey tenantKey = result.getPayload();
-
-                    final Future<RegistrationResult> deviceInfoTracker = processAssertRegistration(DeviceKey.from(tenantKey, deviceId), span);
                     final Future<RegistrationResult> gatewayInfoTracker = processAssertRegistration(DeviceKey.from(tenantKey, gatewayId), span);
+                    return assertRegistration(tenantKey, deviceId, gatewayId, gatewayInfoTracker, span);
+                });
+    }
 
-                    return CompositeFuture
-                            .all(deviceInfoTracker, gatewayInfoTracker)
-                            .compose(ok -> {
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation looks up the gateway's registration information only once
+     * for all of the devices.
+     * <p>
+     * Subclasses may override this method in order to implement a more sophisticated approach for asserting
+     * registration status, e.g. using cached information etc. This method requires a functional
+     * {@link #processAssertRegistration(DeviceKey, Span) processAssertRegistration} method to work.
+     */
+    @Override
+    public Future<Map<String, RegistrationResult>> assertRegistrations(
+            final String tenantId,
+            final List<String> deviceIds,
+            final String gatewayId,
+            final Span span) {
 
-                                final RegistrationResult deviceResult = deviceInfoTracker.result();
-                                final RegistrationResult gatewayResult = gatewayInfoTracker.result();
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceIds);
+        Objects.requireNonNull(gatewayId);
+        Objects.requireNonNull(span);
 
-                                if (!isDeviceEnabled(deviceResult)) {
-                                    if (deviceResult.isNotFound()) {
-                                        log.debug("no such device");
-                                        TracingHelper.logError(span, "no such device");
-                                    } else {
-                                        log.debug("device not enabled");
-                                        TracingHelper.logError(span, "device not enabled");
-                                    }
-                                    return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_NOT_FOUND));
-                                } else if (!isDeviceEnabled(gatewayResult)) {
-                                    if (gatewayResult.isNotFound()) {
-                                        log.debug("no such gateway");
-                                        TracingHelper.logError(span, "no such gateway");
-                                    } else {
-                                        log.debug("gateway not enabled");
-                                        TracingHelper.logError(span, "gateway not enabled");
-                                    }
-                                    return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_FORBIDDEN));
-                                } else {
+        return this.tenantInformationService
+                .tenantExists(tenantId, span)
+                .compose(result -> {
 
-                                    final JsonObject deviceData = deviceResult.getPayload()
-                                            .getJsonObject(RegistrationConstants.FIELD_DATA, new JsonObject());
-                                    final JsonObject gatewayData = gatewayResult.getPayload()
-                                            .getJsonObject(RegistrationConstants.FIELD_DATA, new JsonObject());
+                    final Map<String, Future<RegistrationResult>> assertions = new HashMap<>(deviceIds.size());
+                    if (result.isError()) {
+                        deviceIds.forEach(deviceId -> assertions.put(
+                                deviceId,
+                                Future.succeededFuture(RegistrationResult.from(result.getStatus()))));
+                    } else {
+                        final TenantKey tenantKey = result.getPayload();
+                        final Future<RegistrationResult> gatewayInfoTracker = processAssertRegistration(DeviceKey.from(tenantKey, gatewayId), span);
+                        deviceIds.forEach(deviceId -> assertions.computeIfAbsent(
+                                deviceId,
+                                id -> assertRegistration(tenantKey, id, gatewayId, gatewayInfoTracker, span)
+                                    .recover(t -> Future.succeededFuture(RegistrationResult.from(
+                                            ServiceInvocationException.extractStatusCode(t))))));
+                    }
 
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Device data: {}", deviceData.encodePrettily());
-                                        log.debug("Gateway data: {}", gatewayData.encodePrettily());
-                                    }
+                    @SuppressWarnings("rawtypes")
+                    final List<Future> futures = new ArrayList<>(assertions.values());
+                    return CompositeFuture.all(futures)
+                            .map(ok -> assertions.entrySet().stream()
+                                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().result())));
+                });
+    }
 
-                                    if (isGatewayAuthorized(gatewayId, gatewayData, deviceId, deviceData)) {
-                                        return createSuccessfulRegistrationResult(tenantId, deviceId, deviceData, span);
-                                    } else {
-                                        log.debug("gateway not authorized");
-                                        TracingHelper.logError(span, "gateway not authorized");
-                                        return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_FORBIDDEN));
-                                    }
-                                }
-                            });
+    private Future<RegistrationResult> assertRegistration(
+            final TenantKey tenantKey,
+            final String deviceId,
+            final String gatewayId,
+            final Future<RegistrationResult> gatewayInfoTracker,
+            final Span span) {
+
+        final String tenantId = tenantKey.getTenantId();
+        final Future<RegistrationResult> deviceInfoTracker = processAssertRegistration(DeviceKey.from(tenantKey, deviceId), span);
+
+        return CompositeFuture
+                .all(deviceInfoTracker, gatewayInfoTracker)
+                .compose(ok -> {
+
+                    final RegistrationResult deviceResult = deviceInfoTracker.result();
+                    final RegistrationResult gatewayResult = gatewayInfoTracker.result();
+
+                    if (!isDeviceEnabled(deviceResult)) {
+                        if (deviceResult.isNotFound()) {
+                            log.debug("no such device");
+                            TracingHelper.logError(span, "no such device");
+                        } else {
+                            log.debug("device not enabled");
+                            TracingHelper.logError(span, "device not enabled");
+                        }
+                        return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_NOT_FOUND));
+                    } else if (!isDeviceEnabled(gatewayResult)) {
+                        if (gatewayResult.isNotFound()) {
+                            log.debug("no such gateway");
+                            TracingHelper.logError(span, "no such gateway");
+                        } else {
+                            log.debug("gateway not enabled");
+                            TracingHelper.logError(span, "gateway not enabled");
+                        }
+                        return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_FORBIDDEN));
+                    } else {
+
+                        final JsonObject deviceData = deviceResult.getPayload()
+                                .getJsonObject(RegistrationConstants.FIELD_DATA, new JsonObject());
+                        final JsonObject gatewayData = gatewayResult.getPayload()
+                                .getJsonObject(RegistrationConstants.FIELD_DATA, new JsonObject());
+
+                        if (log.isDebugEnabled()) {
+                            log.debug("Device data: {}", deviceData.encodePrettily());
+                            log.debug("Gateway data: {}", gatewayData.encodePrettily());
+                        }
+
+                        if (isGatewayAuthorized(gatewayId, gatewayData, deviceId, deviceData)) {
+                            return createSuccessfulRegistrationResult(tenantId, deviceId, deviceData, span);
+                        } else {
+                            log.debug("gateway not authorized");
+                            TracingHelper.logError(span, "gateway not authorized");
+                            return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_FORBIDDEN));
+                        }
+                    }
                 });
     }
 
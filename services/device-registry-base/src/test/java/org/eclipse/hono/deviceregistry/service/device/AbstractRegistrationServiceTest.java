@@ -17,11 +17,15 @@ package org.eclipse.hono.deviceregistry.service.device;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.util.List;
 import java.util.Optional;
 
 import org.eclipse.hono.deviceregistry.service.tenant.TenantInformationService;
@@ -198,4 +202,45 @@ public class AbstractRegistrationServiceTest {
             }));
     }
 
+    /**
+     * Verifies that the service looks up the gateway's registration information only once
+     * when asserting the registration of multiple devices and returns the outcome of the
+     * assertion for each of the devices.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAssertRegistrationsLooksUpGatewayOnce(final VertxTestContext ctx) {
+
+        final JsonObject viaGateway = new JsonObject().put(RegistrationConstants.FIELD_DATA, new JsonObject()
+                .put(RegistrationConstants.FIELD_ENABLED, Boolean.TRUE)
+                .put(RegistrationConstants.FIELD_VIA, "gw"));
+        when(service.processAssertRegistration(any(DeviceKey.class), any(Span.class)))
+            .thenAnswer(invocation -> {
+                final DeviceKey key = invocation.getArgument(0);
+                switch (key.getDeviceId()) {
+                case "gw":
+                    return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_OK, PAYLOAD_ENABLED));
+                case "unknown":
+                    return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_NOT_FOUND));
+                default:
+                    return Future.succeededFuture(RegistrationResult.from(HttpURLConnection.HTTP_OK, viaGateway));
+                }
+            });
+
+        service.assertRegistrations(Constants.DEFAULT_TENANT, List.of("device-1", "device-2", "unknown"), "gw", span)
+            .setHandler(ctx.succeeding(results -> {
+                ctx.verify(() -> {
+                    assertThat(results).hasSize(3);
+                    assertThat(results.get("device-1").getStatus()).isEqualTo(HttpURLConnection.HTTP_OK);
+                    assertThat(results.get("device-1").getPayload().getString(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID))
+                        .isEqualTo("device-1");
+                    assertThat(results.get("device-2").getStatus()).isEqualTo(HttpURLConnection.HTTP_OK);
+                    assertThat(results.get("unknown").getStatus()).isEqualTo(HttpURLConnection.HTTP_NOT_FOUND);
+                    verify(service, times(1)).processAssertRegistration(
+                            argThat(key -> key.getDeviceId().equals("gw")), any(Span.class));
+                });
+                ctx.completeNow();
+            }));
+    }
 }
@@ -21,6 +21,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -202,6 +203,30 @@ public class MapBasedDeviceConnectionServiceTest {
                 })));
     }
 
+    /**
+     * Verifies that the <em>setCommandHandlingAdapterInstanceForDevices</em> operation sets the adapter instance
+     * for the given devices and is aborted once the maximum number of entries for the given tenant is reached.
+     *
+     * @param ctx The vert.x context.
+     */
+    @Test
+    public void testSetCommandHandlingAdapterInstanceForDevicesStopsIfLimitReached(final VertxTestContext ctx) {
+        props.setMaxDevicesPerTenant(2);
+        final String adapterInstance = "adapterInstance";
+        svc.setCommandHandlingAdapterInstanceForDevices(Constants.DEFAULT_TENANT,
+                Arrays.asList("testDevice1", "testDevice2", "testDevice3"), adapterInstance, span)
+                .compose(deviceConnectionResult -> {
+                    ctx.verify(() -> {
+                        assertEquals(HttpURLConnection.HTTP_FORBIDDEN, deviceConnectionResult.getStatus());
+                    });
+                    return svc.getCommandHandlingAdapterInstances(Constants.DEFAULT_TENANT, "testDevice2",
+                            Collections.emptyList(), span);
+                }).setHandler(ctx.succeeding(deviceConnectionResult -> ctx.verify(() -> {
+                    assertEquals(HttpURLConnection.HTTP_OK, deviceConnectionResult.getStatus());
+                    ctx.completeNow();
+                })));
+    }
+
     /**
      * Verifies that the <em>removeCommandHandlingAdapterInstance</em> operation succeeds if there was an entry to be
      * deleted.
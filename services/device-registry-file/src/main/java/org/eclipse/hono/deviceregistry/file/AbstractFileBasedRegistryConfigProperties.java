@@ -28,9 +28,16 @@ public abstract class AbstractFileBasedRegistryConfigProperties {
      * operations may be cached for.
      */
     public static final int DEFAULT_MAX_AGE_SECONDS = 180;
+    /**
+     * The default number of seconds after which the journal is compacted
+     * into a snapshot of the registry.
+     */
+    public static final int DEFAULT_JOURNAL_COMPACTION_INTERVAL_SECONDS = 60;
 
     private String filename = getDefaultFileName();
     private boolean saveToFile = false;
+    private boolean journalEnabled = false;
+    private int journalCompactionInterval = DEFAULT_JOURNAL_COMPACTION_INTERVAL_SECONDS;
     private boolean modificationEnabled = true;
     private boolean startEmpty = false;
     private int cacheMaxAge = DEFAULT_MAX_AGE_SECONDS;
@@ -97,6 +104,60 @@ public abstract class AbstractFileBasedRegistryConfigProperties {
         this.saveToFile = enabled;
     }
 
+    /**
+     * Checks whether changes to the registry's content should be recorded in a journal.
+     * <p>
+     * If set to {@code true} and the registry's content is persisted to the file system,
+     * then each change is appended to a journal which is located next to the registry file.
+     * The journal is compacted into the registry file periodically and is replayed when
+     * the registry is started. Otherwise, the complete registry file is re-written every
+     * three seconds if the registry's content has been changed.
+     * <p>
+     * Default value is {@code false}.
+     *
+     * @return {@code true} if changes should be recorded in a journal.
+     */
+    public final boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    /**
+     * Sets whether changes to the registry's content should be recorded in a journal.
+     * <p>
+     * Default value is {@code false}.
+     *
+     * @param enabled {@code true} if changes should be recorded in a journal.
+     */
+    public final void setJournalEnabled(final boolean enabled) {
+        this.journalEnabled = enabled;
+    }
+
+    /**
+     * Gets the period of time after which the journal is compacted into the registry file.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_JOURNAL_COMPACTION_INTERVAL_SECONDS} seconds.
+     *
+     * @return The period of time in seconds.
+     */
+    public final int getJournalCompactionInterval() {
+        return journalCompactionInterval;
+    }
+
+    /**
+     * Sets the period of time after which the journal is compacted into the registry file.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_JOURNAL_COMPACTION_INTERVAL_SECONDS} seconds.
+     *
+     * @param interval The period of time in seconds.
+     * @throws IllegalArgumentException if interval is &lt; 1.
+     */
+    public final void setJournalCompactionInterval(final int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("compaction interval must be > 0");
+        }
+        this.journalCompactionInterval = interval;
+    }
+
     /**
      * Checks whether this registry allows the creation, modification and removal of entries.
      * <p>
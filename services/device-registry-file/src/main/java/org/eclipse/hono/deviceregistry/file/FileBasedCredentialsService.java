@@ -16,8 +16,10 @@ package org.eclipse.hono.deviceregistry.file;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
@@ -51,6 +53,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.opentracing.Span;
 import io.opentracing.noop.NoopSpan;
 import io.vertx.core.AbstractVerticle;
@@ -59,7 +63,6 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -93,6 +96,9 @@ public final class FileBasedCredentialsService extends AbstractVerticle
     private final ConcurrentMap<String, ConcurrentMap<String, String>> versions = new ConcurrentHashMap<>();
     private boolean running = false;
     private boolean dirty = false;
+    private RegistryJournal journal;
+    // a composite registry without any registries added discards all meters
+    private MeterRegistry meterRegistry = new CompositeMeterRegistry();
     private FileBasedCredentialsConfigProperties config;
 
     private HonoPasswordEncoder passwordEncoder;
@@ -102,6 +108,19 @@ public final class FileBasedCredentialsService extends AbstractVerticle
         this.config = configuration;
     }
 
+    /**
+     * Sets the registry to report metrics about loading the credentials to.
+     * <p>
+     * If not set, no metrics are reported.
+     *
+     * @param meterRegistry The meter registry.
+     * @throws NullPointerException if registry is {@code null}.
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
+    }
+
     @Autowired
     public void setPasswordEncoder(final HonoPasswordEncoder passwordEncoder) {
         this.passwordEncoder = passwordEncoder;
@@ -144,15 +163,8 @@ public final class FileBasedCredentialsService extends AbstractVerticle
             } else {
                 checkFileExists(getConfig().isSaveToFile())
                 .compose(ok -> loadCredentials())
+                .compose(ok -> startPersistence())
                 .map(ok -> {
-                    if (getConfig().isSaveToFile()) {
-                        log.info("saving credentials to file every 3 seconds");
-                        vertx.setPeriodic(3000, saveIdentities -> {
-                            saveToFile();
-                        });
-                    } else {
-                        log.info("persistence is disabled, will not save credentials to file");
-                    }
                     running = true;
                     return ok;
                 })
@@ -161,6 +173,112 @@ public final class FileBasedCredentialsService extends AbstractVerticle
         }
     }
 
+    private Future<Void> startPersistence() {
+
+        if (!getConfig().isSaveToFile()) {
+            log.info("persistence is disabled, will not save credentials to file");
+            return Future.succeededFuture();
+        } else if (getConfig().isJournalEnabled()) {
+            journal = new RegistryJournal(vertx.fileSystem(), getConfig().getFilename());
+            return journal.open(this::applyJournalRecord).map(count -> {
+                log.info("recording changes to credentials in journal, compacting journal every {} seconds",
+                        getConfig().getJournalCompactionInterval());
+                vertx.setPeriodic(getConfig().getJournalCompactionInterval() * 1000L, tid -> {
+                    journal.compact(this::createSnapshot);
+                });
+                return null;
+            });
+        } else {
+            log.info("saving credentials to file every 3 seconds");
+            vertx.setPeriodic(3000, saveIdentities -> {
+                saveToFile();
+            });
+            return Future.succeededFuture();
+        }
+    }
+
+    private void applyJournalRecord(final JsonObject record) {
+
+        if (getConfig().isStartEmpty()) {
+            return;
+        }
+        switch (record.getString(RegistryJournal.FIELD_OPERATION, "")) {
+        case RegistryJournal.OPERATION_PUT:
+            final ConcurrentMap<String, JsonArray> credentialsForTenant = createOrGetCredentialsForTenant(
+                    record.getString(FIELD_TENANT));
+            record.getJsonObject(ARRAY_CREDENTIALS).forEach(authIdCredentials -> {
+                credentialsForTenant.put(authIdCredentials.getKey(), (JsonArray) authIdCredentials.getValue());
+            });
+            break;
+        case RegistryJournal.OPERATION_CLEAR:
+            credentials.clear();
+            break;
+        default:
+            log.debug("ignoring unsupported journal record");
+        }
+    }
+
+    /**
+     * Appends the given credentials of authentication identifiers to the journal.
+     *
+     * @return A future indicating whether the record has been written.
+     */
+    private Future<Void> journalPut(final String tenantId, final Map<String, JsonArray> credentialsByAuthId) {
+
+        if (journal == null) {
+            // the change will be persisted with the next periodic save
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        final JsonObject authIdCredentials = new JsonObject();
+        credentialsByAuthId.forEach(authIdCredentials::put);
+        return journal.append(new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_PUT)
+                .put(FIELD_TENANT, tenantId)
+                .put(ARRAY_CREDENTIALS, authIdCredentials));
+    }
+
+    /**
+     * Replaces the credentials on record for authentication identifiers and records
+     * the change in the journal.
+     * <p>
+     * If the change cannot be recorded in the journal, the credentials of each authentication
+     * identifier are reverted, unless they have been changed again in the meantime.
+     *
+     * @param tenantId The tenant that the credentials belong to.
+     * @param modifiedCredentials The new credentials by authentication identifier. The credentials
+     *                            must not be modified after they have been put.
+     * @return A future indicating whether the change has been recorded in the journal.
+     */
+    private Future<Void> putCredentials(final String tenantId, final Map<String, JsonArray> modifiedCredentials) {
+
+        if (modifiedCredentials.isEmpty()) {
+            return Future.succeededFuture();
+        }
+        final ConcurrentMap<String, JsonArray> credentialsForTenant = createOrGetCredentialsForTenant(tenantId);
+        final Map<String, JsonArray> previousCredentials = new HashMap<>();
+        modifiedCredentials.forEach((authId, authIdCredentials) -> {
+            previousCredentials.put(authId, credentialsForTenant.put(authId, authIdCredentials));
+        });
+        return journalPut(tenantId, modifiedCredentials)
+                .recover(t -> {
+                    modifiedCredentials.forEach((authId, authIdCredentials) -> {
+                        final JsonArray previous = previousCredentials.get(authId);
+                        if (previous == null) {
+                            credentialsForTenant.remove(authId, authIdCredentials);
+                        } else {
+                            credentialsForTenant.replace(authId, authIdCredentials, previous);
+                        }
+                    });
+                    return Future.failedFuture(t);
+                });
+    }
+
+    private void logJournalError(final Span span, final Throwable error) {
+        log.warn("failed to record change to credentials in journal", error);
+        TracingHelper.logError(span, "failed to record change in journal", error);
+    }
+
     Future<Void> loadCredentials() {
 
         if (getConfig().getFilename() == null || getConfig().isStartEmpty()) {
@@ -168,11 +286,17 @@ public final class FileBasedCredentialsService extends AbstractVerticle
             log.info("Either filename is null or empty start is set, won't load any credentials");
             return Future.succeededFuture();
         } else {
-            final Promise<Buffer> readResult = Promise.promise();
             log.debug("trying to load credentials from file {}", getConfig().getFilename());
-            vertx.fileSystem().readFile(getConfig().getFilename(), readResult);
-            return readResult.future()
-                    .compose(this::addAll)
+            final RegistryFileLoader loader = new RegistryFileLoader(
+                    vertx.fileSystem(),
+                    meterRegistry,
+                    FIELD_TENANT,
+                    ARRAY_CREDENTIALS);
+            return loader.load(getConfig().getFilename(), this::addCredentials)
+                    .map(count -> {
+                        log.info("successfully loaded {} credentials from file [{}]", count, getConfig().getFilename());
+                        return (Void) null;
+                    })
                     .recover(t -> {
                         log.debug("cannot load credentials from file [{}]: {}", getConfig().getFilename(),
                                 t.getMessage());
@@ -181,51 +305,24 @@ public final class FileBasedCredentialsService extends AbstractVerticle
         }
     }
 
-    private Future<Void> addAll(final Buffer credentials) {
-        final Promise<Void> result = Promise.promise();
-        try {
-            int credentialsCount = 0;
-            final JsonArray allObjects = credentials.toJsonArray();
-            log.debug("trying to load credentials for {} tenants", allObjects.size());
-            for (final Object obj : allObjects) {
-                if (JsonObject.class.isInstance(obj)) {
-                    credentialsCount += addCredentialsForTenant((JsonObject) obj);
-                }
-            }
-            log.info("successfully loaded {} credentials from file [{}]", credentialsCount, getConfig().getFilename());
-            result.complete();
-        } catch (final DecodeException e) {
-            log.warn("cannot read malformed JSON from credentials file [{}]", getConfig().getFilename());
-            result.fail(e);
-        }
-        return result.future();
-    }
-
-    int addCredentialsForTenant(final JsonObject tenant) {
-        int count = 0;
-        final String tenantId = tenant.getString(FIELD_TENANT);
-        final ConcurrentMap<String, JsonArray> credentialsMap = new ConcurrentHashMap<>();
-        for (final Object credentialsObj : tenant.getJsonArray(ARRAY_CREDENTIALS)) {
-            final JsonObject credentials = (JsonObject) credentialsObj;
-            final JsonArray authIdCredentials;
-            if (credentialsMap.containsKey(credentials.getString(CredentialsConstants.FIELD_AUTH_ID))) {
-                authIdCredentials = credentialsMap.get(credentials.getString(CredentialsConstants.FIELD_AUTH_ID));
-            } else {
-                authIdCredentials = new JsonArray();
-            }
-            authIdCredentials.add(credentials);
-            credentialsMap.put(credentials.getString(CredentialsConstants.FIELD_AUTH_ID), authIdCredentials);
-            count++;
-        }
-        credentials.put(tenantId, credentialsMap);
-        return count;
+    private void addCredentials(final String tenantId, final JsonObject credentials) {
+        final String authId = credentials.getString(CredentialsConstants.FIELD_AUTH_ID);
+        createOrGetAuthIdCredentials(authId, createOrGetCredentialsForTenant(tenantId)).add(credentials);
     }
 
     @Override
     public void stop(final Promise<Void> stopPromise) {
 
         if (running) {
-            saveToFile().setHandler(attempt -> {
+            final Future<Void> persisted;
+            if (journal == null) {
+                persisted = saveToFile();
+            } else {
+                persisted = journal.compact(this::createSnapshot)
+                        .otherwiseEmpty()
+                        .compose(ok -> journal.close());
+            }
+            persisted.setHandler(attempt -> {
                 if (attempt.succeeded()) {
                     running = false;
                     stopPromise.complete();
@@ -243,40 +340,48 @@ public final class FileBasedCredentialsService extends AbstractVerticle
         if (!getConfig().isSaveToFile()) {
             return Future.succeededFuture();
         } else if (dirty) {
-            return checkFileExists(true).compose(s -> {
-                final AtomicInteger idCount = new AtomicInteger();
-                final JsonArray tenants = new JsonArray();
-                for (final Entry<String, ConcurrentMap<String, JsonArray>> entry : credentials.entrySet()) {
-                    final JsonArray credentialsArray = new JsonArray();
-                    for (final JsonArray singleAuthIdCredentials : entry.getValue().values()) {
-                        credentialsArray.addAll(singleAuthIdCredentials.copy());
-                        idCount.incrementAndGet();
-                    }
-                    tenants.add(
-                            new JsonObject()
-                                    .put(FIELD_TENANT, entry.getKey())
-                                    .put(ARRAY_CREDENTIALS, credentialsArray));
-                }
-                final Promise<Void> writeHandler = Promise.promise();
-                vertx.fileSystem().writeFile(
-                        getConfig().getFilename(),
-                        Buffer.buffer(tenants.encodePrettily(), StandardCharsets.UTF_8.name()),
-                        writeHandler);
-                return writeHandler.future().map(ok -> {
-                    dirty = false;
-                    log.trace("successfully wrote {} credentials to file {}", idCount.get(), getConfig().getFilename());
-                    return (Void) null;
-                }).otherwise(t -> {
-                    log.warn("could not write credentials to file {}", getConfig().getFilename(), t);
-                    return (Void) null;
-                });
-            });
+            return writeSnapshot().otherwiseEmpty();
         } else {
             log.trace("credentials registry does not need to be persisted");
             return Future.succeededFuture();
         }
     }
 
+    private Buffer createSnapshot() {
+
+        final AtomicInteger idCount = new AtomicInteger();
+        final JsonArray tenants = new JsonArray();
+        for (final Entry<String, ConcurrentMap<String, JsonArray>> entry : credentials.entrySet()) {
+            final JsonArray credentialsArray = new JsonArray();
+            for (final JsonArray singleAuthIdCredentials : entry.getValue().values()) {
+                credentialsArray.addAll(singleAuthIdCredentials.copy());
+                idCount.incrementAndGet();
+            }
+            tenants.add(
+                    new JsonObject()
+                            .put(FIELD_TENANT, entry.getKey())
+                            .put(ARRAY_CREDENTIALS, credentialsArray));
+        }
+        log.trace("created snapshot of {} credentials", idCount.get());
+        return Buffer.buffer(tenants.encodePrettily(), StandardCharsets.UTF_8.name());
+    }
+
+    private Future<Void> writeSnapshot() {
+
+        return checkFileExists(true).compose(s -> {
+            final Promise<Void> writeHandler = Promise.promise();
+            vertx.fileSystem().writeFile(getConfig().getFilename(), createSnapshot(), writeHandler);
+            return writeHandler.future().map(ok -> {
+                dirty = false;
+                log.trace("successfully wrote credentials to file {}", getConfig().getFilename());
+                return (Void) null;
+            }).recover(t -> {
+                log.warn("could not write credentials to file {}", getConfig().getFilename(), t);
+                return Future.failedFuture(t);
+            });
+        });
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -464,13 +569,36 @@ public final class FileBasedCredentialsService extends AbstractVerticle
             final Optional<String> resourceVersion,
             final Span span) {
 
-        return Future.succeededFuture(set(tenantId, deviceId, resourceVersion, span, secrets));
+        return set(tenantId, deviceId, resourceVersion, span, secrets);
 
     }
 
-    private OperationResult<Void> set(final String tenantId, final String deviceId,
+    private Future<OperationResult<Void>> set(final String tenantId, final String deviceId,
             final Optional<String> resourceVersion, final Span span, final List<CommonCredential> credentials) {
 
+        // the changes are made to copies of the credentials on record which replace
+        // the credentials on record once all changes have been made successfully
+        final Map<String, JsonArray> modifiedCredentials = new HashMap<>();
+        final OperationResult<Void> result = set(tenantId, deviceId, resourceVersion, span, credentials,
+                modifiedCredentials);
+        if (result.isError()) {
+            return Future.succeededFuture(result);
+        }
+        return putCredentials(tenantId, modifiedCredentials)
+                .map(ok -> {
+                    setResourceVersion(tenantId, deviceId, result.getResourceVersion().get());
+                    return result;
+                })
+                .otherwise(t -> {
+                    logJournalError(span, t);
+                    return OperationResult.empty(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                });
+    }
+
+    private OperationResult<Void> set(final String tenantId, final String deviceId,
+            final Optional<String> resourceVersion, final Span span, final List<CommonCredential> credentials,
+            final Map<String, JsonArray> modifiedCredentials) {
+
         if (!checkResourceVersion(tenantId, deviceId, resourceVersion)) {
             TracingHelper.logError(span, "Resource version mismatch");
             return OperationResult.empty(HttpURLConnection.HTTP_PRECON_FAILED);
@@ -478,7 +606,6 @@ public final class FileBasedCredentialsService extends AbstractVerticle
 
         // change version
         final var newVersion = UUID.randomUUID().toString();
-        setResourceVersion(tenantId, deviceId, newVersion);
 
 
         // authId->credentials[]
@@ -507,7 +634,9 @@ public final class FileBasedCredentialsService extends AbstractVerticle
             final String authId = credential.getAuthId();
             final JsonObject credentialObject = JsonObject.mapFrom(credential);
             final String type = credentialObject.getString(CredentialsConstants.FIELD_TYPE);
-            final JsonArray json = createOrGetAuthIdCredentials(authId, credentialsForTenant);
+            final JsonArray json = modifiedCredentials.computeIfAbsent(
+                    authId,
+                    id -> credentialsForTenant.getOrDefault(id, new JsonArray()).copy());
 
             // find credentials - matching by type
             JsonObject credentialsJson = json.stream()
@@ -583,8 +712,6 @@ public final class FileBasedCredentialsService extends AbstractVerticle
                 }
             }
 
-            dirty = true;
-
             // Now we can remove all the secrets
             secretsJson.clear();
 
@@ -593,8 +720,6 @@ public final class FileBasedCredentialsService extends AbstractVerticle
 
             // Commit the update
             credentialsJson.put(CredentialsConstants.FIELD_SECRETS, secretsJson);
-
-            credentialsForTenant.put(authId, json);
         }
 
         return OperationResult.ok(HttpURLConnection.HTTP_NO_CONTENT, null, Optional.empty(), Optional.of(newVersion));
@@ -675,35 +800,40 @@ public final class FileBasedCredentialsService extends AbstractVerticle
 
     /**
      * Remove all credentials that point to a device.
+     * <p>
+     * The credentials on record are not changed. Instead, the remaining credentials of
+     * each authentication identifier that has credentials of the device are collected.
      *
      * @param tenantId The tenant to process.
      * @param deviceId The device id to look for.
+     * @param modifiedCredentials The map to put the remaining credentials to
+     *                            by authentication identifier.
      */
-    private void removeAllForDevice(final String tenantId, final String deviceId, final Span span) {
+    private void removeAllForDevice(final String tenantId, final String deviceId, final Span span,
+            final Map<String, JsonArray> modifiedCredentials) {
 
         final ConcurrentMap<String, JsonArray> credentialsForTenant = createOrGetCredentialsForTenant(tenantId);
 
-        for (final JsonArray versionedCredentials : credentialsForTenant.values()) {
+        for (final Entry<String, JsonArray> authIdCredentials : credentialsForTenant.entrySet()) {
 
-            for (final Iterator<Object> i = versionedCredentials.iterator(); i.hasNext();) {
+            final JsonArray remainingCredentials = new JsonArray();
+            boolean removed = false;
 
-                final Object o = i.next();
+            for (final Object o : authIdCredentials.getValue()) {
 
-                if (!(o instanceof JsonObject)) {
-                    continue;
-                }
+                if (o instanceof JsonObject
+                        && deviceId.equals(((JsonObject) o).getString(Constants.JSON_FIELD_DEVICE_ID))) {
 
-                final JsonObject credentials = (JsonObject) o;
-                final String currentDeviceId = credentials.getString(Constants.JSON_FIELD_DEVICE_ID);
-                if (!deviceId.equals(currentDeviceId)) {
-                    continue;
+                    verifyOverwriteEnabled(span);
+                    // remove device from credentials set
+                    removed = true;
+                } else {
+                    remainingCredentials.add(o);
                 }
+            }
 
-                verifyOverwriteEnabled(span);
-
-                // remove device from credentials set
-                i.remove();
-                this.dirty = true;
+            if (removed) {
+                modifiedCredentials.put(authIdCredentials.getKey(), remainingCredentials);
             }
         }
     }
@@ -767,21 +897,28 @@ public final class FileBasedCredentialsService extends AbstractVerticle
 
         log.debug("removing credentials for device [tenant-id: {}, device-id: {}]", tenantId, deviceId);
 
-        resultHandler.handle(Future.succeededFuture(remove(tenantId, deviceId, span)));
+        remove(tenantId, deviceId, span).setHandler(resultHandler);
     }
 
-    private Result<Void> remove(final String tenantId, final String deviceId, final Span span) {
-
-        setResourceVersion(tenantId, deviceId, null);
+    private Future<Result<Void>> remove(final String tenantId, final String deviceId, final Span span) {
 
+        final Map<String, JsonArray> modifiedCredentials = new HashMap<>();
         try {
-            removeAllForDevice(tenantId, deviceId, span);
+            removeAllForDevice(tenantId, deviceId, span, modifiedCredentials);
         } catch (final ClientErrorException e) {
             TracingHelper.logError(span, e);
-            return Result.from(e.getErrorCode());
+            return Future.succeededFuture(Result.from(e.getErrorCode()));
         }
 
-        return Result.from(HttpURLConnection.HTTP_NO_CONTENT);
+        return putCredentials(tenantId, modifiedCredentials)
+                .map(ok -> {
+                    setResourceVersion(tenantId, deviceId, null);
+                    return Result.<Void> from(HttpURLConnection.HTTP_NO_CONTENT);
+                })
+                .otherwise(t -> {
+                    logJournalError(span, t);
+                    return Result.from(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                });
     }
 
     private boolean checkResourceVersion(final String tenantId, final String deviceId, final Optional<String> resourceVersion) {
@@ -865,10 +1002,20 @@ public final class FileBasedCredentialsService extends AbstractVerticle
 
     /**
      * Removes all credentials from the registry.
+     *
+     * @return A future indicating whether the removal has been recorded in the journal.
      */
-    public void clear() {
-        dirty = true;
+    public Future<Void> clear() {
         credentials.clear();
+        if (journal == null) {
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        return journal.append(new JsonObject().put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_CLEAR))
+                .recover(t -> {
+                    log.warn("failed to record removal of all credentials in journal", t);
+                    return Future.failedFuture(t);
+                });
     }
 
     @Override
@@ -277,10 +277,14 @@ public class FileBasedDeviceBackend implements AutoProvisioningEnabledDeviceBack
 
     /**
      * Removes all credentials from the registry.
+     *
+     * @return A future indicating whether the removal has been recorded in the journals.
      */
-    public void clear() {
-        registrationService.clear();
-        credentialsService.clear();
+    public Future<Void> clear() {
+        return CompositeFuture.all(
+                registrationService.clear(),
+                credentialsService.clear())
+                .mapEmpty();
     }
 
     /**
@@ -45,13 +45,14 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.opentracing.Span;
 import io.opentracing.noop.NoopSpan;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -72,6 +73,9 @@ public class FileBasedRegistrationService extends AbstractVerticle
     private final ConcurrentMap<String, ConcurrentMap<String, Versioned<Device>>> identities = new ConcurrentHashMap<>();
     private boolean running = false;
     private boolean dirty = false;
+    private RegistryJournal journal;
+    // a composite registry without any registries added discards all meters
+    private MeterRegistry meterRegistry = new CompositeMeterRegistry();
     private FileBasedRegistrationConfigProperties config;
 
     /**
@@ -99,6 +103,19 @@ public class FileBasedRegistrationService extends AbstractVerticle
         this.config = config;
     }
 
+    /**
+     * Sets the registry to report metrics about loading the device identities to.
+     * <p>
+     * If not set, no metrics are reported.
+     *
+     * @param meterRegistry The meter registry.
+     * @throws NullPointerException if registry is {@code null}.
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
+    }
+
     public FileBasedRegistrationConfigProperties getConfig() {
         return config;
     }
@@ -124,15 +141,8 @@ public class FileBasedRegistrationService extends AbstractVerticle
             } else {
                 checkFileExists(getConfig().isSaveToFile())
                 .compose(ok -> loadRegistrationData())
+                .compose(ok -> startPersistence())
                 .map(ok -> {
-                    if (getConfig().isSaveToFile()) {
-                        log.info("saving device identities to file every 3 seconds");
-                        vertx.setPeriodic(3000, tid -> {
-                            saveToFile();
-                        });
-                    } else {
-                        log.info("persistence is disabled, will not save device identities to file");
-                    }
                     running = true;
                     return ok;
                 })
@@ -144,6 +154,84 @@ public class FileBasedRegistrationService extends AbstractVerticle
         }
     }
 
+    private Future<Void> startPersistence() {
+
+        if (!getConfig().isSaveToFile()) {
+            log.info("persistence is disabled, will not save device identities to file");
+            return Future.succeededFuture();
+        } else if (getConfig().isJournalEnabled()) {
+            journal = new RegistryJournal(vertx.fileSystem(), getConfig().getFilename());
+            return journal.open(this::applyJournalRecord).map(count -> {
+                log.info("recording changes to device identities in journal, compacting journal every {} seconds",
+                        getConfig().getJournalCompactionInterval());
+                vertx.setPeriodic(getConfig().getJournalCompactionInterval() * 1000L, tid -> {
+                    journal.compact(this::createSnapshot);
+                });
+                return null;
+            });
+        } else {
+            log.info("saving device identities to file every 3 seconds");
+            vertx.setPeriodic(3000, tid -> {
+                saveToFile();
+            });
+            return Future.succeededFuture();
+        }
+    }
+
+    private void applyJournalRecord(final JsonObject record) {
+
+        if (getConfig().isStartEmpty()) {
+            return;
+        }
+        final String tenantId = record.getString(RegistryManagementConstants.FIELD_TENANT);
+        final String deviceId = record.getString(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID);
+        switch (record.getString(RegistryJournal.FIELD_OPERATION, "")) {
+        case RegistryJournal.OPERATION_PUT:
+            getDevicesForTenant(tenantId).put(
+                    deviceId,
+                    new Versioned<>(mapFromStoredJson(record.getJsonObject(RegistrationConstants.FIELD_DATA))));
+            break;
+        case RegistryJournal.OPERATION_REMOVE:
+            getDevicesForTenant(tenantId).remove(deviceId);
+            break;
+        case RegistryJournal.OPERATION_CLEAR:
+            identities.clear();
+            break;
+        default:
+            log.debug("ignoring unsupported journal record");
+        }
+    }
+
+    private Future<Void> journalPut(final String tenantId, final String deviceId, final Device device) {
+        if (journal == null) {
+            // the change will be persisted with the next periodic save
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        return journal.append(new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_PUT)
+                .put(RegistryManagementConstants.FIELD_TENANT, tenantId)
+                .put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID, deviceId)
+                .put(RegistrationConstants.FIELD_DATA, mapToStoredJson(device)));
+    }
+
+    private Future<Void> journalRemove(final String tenantId, final String deviceId) {
+        if (journal == null) {
+            // the change will be persisted with the next periodic save
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        return journal.append(new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_REMOVE)
+                .put(RegistryManagementConstants.FIELD_TENANT, tenantId)
+                .put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID, deviceId));
+    }
+
+    private void logJournalError(final Span span, final Throwable error) {
+        log.warn("failed to record change to device identities in journal", error);
+        TracingHelper.logError(span, "failed to record change in journal", error);
+    }
+
     Future<Void> loadRegistrationData() {
 
         if (getConfig().getFilename() == null || getConfig().isStartEmpty()) {
@@ -151,10 +239,16 @@ public class FileBasedRegistrationService extends AbstractVerticle
             return Future.succeededFuture();
         }
 
-        final Promise<Buffer> readResult = Promise.promise();
-        vertx.fileSystem().readFile(getConfig().getFilename(), readResult);
-        return readResult.future()
-                .compose(this::addAll)
+        final RegistryFileLoader loader = new RegistryFileLoader(
+                vertx.fileSystem(),
+                meterRegistry,
+                RegistryManagementConstants.FIELD_TENANT,
+                RegistryManagementConstants.FIELD_DEVICES);
+        return loader.load(getConfig().getFilename(), this::addDevice)
+                .map(count -> {
+                    log.info("successfully loaded {} device identities from file [{}]", count, getConfig().getFilename());
+                    return (Void) null;
+                })
                 .recover(t -> {
                     log.debug("cannot load device identities from file [{}]: {}", getConfig().getFilename(),
                             t.getMessage());
@@ -179,53 +273,14 @@ public class FileBasedRegistrationService extends AbstractVerticle
 
     }
 
-    private Future<Void> addAll(final Buffer deviceIdentities) {
+    private void addDevice(final String tenantId, final JsonObject entry) {
 
-        final Promise<Void> result = Promise.promise();
-        try {
-            int deviceCount = 0;
-            final JsonArray allObjects = deviceIdentities.toJsonArray();
-            for (final Object obj : allObjects) {
-                if (obj instanceof JsonObject) {
-                    deviceCount += addDevicesForTenant((JsonObject) obj);
-                }
-            }
-            log.info("successfully loaded {} device identities from file [{}]", deviceCount, getConfig().getFilename());
-            result.complete();
-        } catch (final DecodeException e) {
-            log.warn("cannot read malformed JSON from device identity file [{}]", getConfig().getFilename());
-            result.fail(e);
+        final String deviceId = entry.getString(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID);
+        if (deviceId != null) {
+            log.trace("loading device [tenant: {}, device-id: {}]", tenantId, deviceId);
+            final Device device = mapFromStoredJson(entry.getJsonObject(RegistrationConstants.FIELD_DATA));
+            getDevicesForTenant(tenantId).put(deviceId, new Versioned<>(device));
         }
-        return result.future();
-    }
-
-    private int addDevicesForTenant(final JsonObject tenant) {
-
-        final String tenantId = tenant.getString(RegistryManagementConstants.FIELD_TENANT);
-        if (tenantId == null) {
-            log.debug("Tenant field missing, skipping!");
-            return 0;
-        }
-
-        int count = 0;
-        log.debug("loading devices for tenant [{}]", tenantId);
-        final ConcurrentMap<String, Versioned<Device>> deviceMap = new ConcurrentHashMap<>();
-        for (final Object deviceObj : tenant.getJsonArray(RegistryManagementConstants.FIELD_DEVICES)) {
-            if (deviceObj instanceof JsonObject) {
-                final JsonObject entry = (JsonObject) deviceObj;
-                final String deviceId = entry.getString(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID);
-                if (deviceId != null) {
-                    log.trace("loading device [{}]", deviceId);
-                    final Device device = mapFromStoredJson(entry.getJsonObject(RegistrationConstants.FIELD_DATA));
-                    deviceMap.put(deviceId, new Versioned<>(device));
-                    count++;
-                }
-            }
-        }
-        identities.put(tenantId, deviceMap);
-
-        log.debug("Loaded {} devices for tenant {}", count, tenantId);
-        return count;
     }
 
     private static Device mapFromStoredJson(final JsonObject json) {
@@ -249,7 +304,15 @@ public class FileBasedRegistrationService extends AbstractVerticle
         result.future().setHandler(stopFuture);
 
         if (running) {
-            saveToFile()
+            final Future<Void> persisted;
+            if (journal == null) {
+                persisted = saveToFile();
+            } else {
+                persisted = journal.compact(this::createSnapshot)
+                        .otherwiseEmpty()
+                        .compose(ok -> journal.close());
+            }
+            persisted
             .map(ok -> {
                 running = false;
                 return ok;
@@ -271,35 +334,43 @@ public class FileBasedRegistrationService extends AbstractVerticle
             return Future.succeededFuture();
         }
 
-        return checkFileExists(true).compose(s -> {
-            final AtomicInteger idCount = new AtomicInteger();
-            final JsonArray tenants = new JsonArray();
-            for (final Entry<String, ConcurrentMap<String, Versioned<Device>>> entry : identities.entrySet()) {
-                final JsonArray devices = new JsonArray();
-                for (final Entry<String, Versioned<Device>> deviceEntry : entry.getValue().entrySet()) {
-                    devices.add(
-                            new JsonObject()
-                                    .put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID, deviceEntry.getKey())
-                                    .put(RegistrationConstants.FIELD_DATA, mapToStoredJson(deviceEntry.getValue().getValue())));
-                    idCount.incrementAndGet();
-                }
-                tenants.add(
+        return writeSnapshot().otherwiseEmpty();
+    }
+
+    private Buffer createSnapshot() {
+
+        final AtomicInteger idCount = new AtomicInteger();
+        final JsonArray tenants = new JsonArray();
+        for (final Entry<String, ConcurrentMap<String, Versioned<Device>>> entry : identities.entrySet()) {
+            final JsonArray devices = new JsonArray();
+            for (final Entry<String, Versioned<Device>> deviceEntry : entry.getValue().entrySet()) {
+                devices.add(
                         new JsonObject()
-                                .put(RegistryManagementConstants.FIELD_TENANT, entry.getKey())
-                                .put(RegistryManagementConstants.FIELD_DEVICES, devices));
+                                .put(RegistrationConstants.FIELD_PAYLOAD_DEVICE_ID, deviceEntry.getKey())
+                                .put(RegistrationConstants.FIELD_DATA, mapToStoredJson(deviceEntry.getValue().getValue())));
+                idCount.incrementAndGet();
             }
+            tenants.add(
+                    new JsonObject()
+                            .put(RegistryManagementConstants.FIELD_TENANT, entry.getKey())
+                            .put(RegistryManagementConstants.FIELD_DEVICES, devices));
+        }
+        log.trace("created snapshot of {} device identities", idCount.get());
+        return Buffer.factory.buffer(tenants.encodePrettily());
+    }
+
+    private Future<Void> writeSnapshot() {
 
+        return checkFileExists(true).compose(s -> {
             final Promise<Void> writeHandler = Promise.promise();
-            vertx.fileSystem().writeFile(getConfig().getFilename(), Buffer.factory.buffer(tenants.encodePrettily()),
-                    writeHandler);
+            vertx.fileSystem().writeFile(getConfig().getFilename(), createSnapshot(), writeHandler);
             return writeHandler.future().map(ok -> {
                 dirty = false;
-                log.trace("successfully wrote {} device identities to file {}", idCount.get(),
-                        getConfig().getFilename());
+                log.trace("successfully wrote device identities to file {}", getConfig().getFilename());
                 return (Void) null;
-            }).otherwise(t -> {
+            }).recover(t -> {
                 log.warn("could not write device identities to file {}", getConfig().getFilename(), t);
-                return (Void) null;
+                return Future.failedFuture(t);
             });
         });
 
@@ -405,10 +476,10 @@ public class FileBasedRegistrationService extends AbstractVerticle
         Objects.requireNonNull(deviceId);
         Objects.requireNonNull(resourceVersion);
 
-        return Future.succeededFuture(processDeleteDevice(tenantId, deviceId, resourceVersion, span));
+        return processDeleteDevice(tenantId, deviceId, resourceVersion, span);
     }
 
-    Result<Void> processDeleteDevice(final String tenantId, final String deviceId,
+    Future<Result<Void>> processDeleteDevice(final String tenantId, final String deviceId,
             final Optional<String> resourceVersion, final Span span) {
 
         Objects.requireNonNull(tenantId);
@@ -416,29 +487,34 @@ public class FileBasedRegistrationService extends AbstractVerticle
 
         if (!getConfig().isModificationEnabled()) {
             TracingHelper.logError(span, "Modification is disabled for Registration Service");
-            return Result.from(HttpURLConnection.HTTP_FORBIDDEN);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_FORBIDDEN));
         }
 
         final ConcurrentMap<String, Versioned<Device>> devices = identities.get(tenantId);
         if (devices == null) {
             TracingHelper.logError(span, "No devices found for tenant");
-            return Result.from(HttpURLConnection.HTTP_NOT_FOUND);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_NOT_FOUND));
         }
         final Versioned<Device> device = devices.get(deviceId);
         if (device == null) {
             TracingHelper.logError(span, "Device not found");
-            return Result.from(HttpURLConnection.HTTP_NOT_FOUND);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_NOT_FOUND));
         }
 
         if (resourceVersion.isPresent() && !resourceVersion.get().equals(device.getVersion())) {
             TracingHelper.logError(span, "Resource Version mismatch");
-            return Result.from(HttpURLConnection.HTTP_PRECON_FAILED);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_PRECON_FAILED));
         }
 
         devices.remove(deviceId);
-        dirty = true;
-        return Result.from(HttpURLConnection.HTTP_NO_CONTENT);
-
+        return journalRemove(tenantId, deviceId)
+                .map(ok -> Result.<Void> from(HttpURLConnection.HTTP_NO_CONTENT))
+                .otherwise(t -> {
+                    logJournalError(span, t);
+                    // revert the removal unless the device has been added again in the meantime
+                    devices.putIfAbsent(deviceId, device);
+                    return Result.from(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                });
     }
 
     @Override
@@ -451,7 +527,7 @@ public class FileBasedRegistrationService extends AbstractVerticle
         Objects.requireNonNull(tenantId);
         Objects.requireNonNull(deviceId);
 
-        return Future.succeededFuture(processCreateDevice(tenantId, deviceId, device, span));
+        return processCreateDevice(tenantId, deviceId, device, span);
     }
 
     /**
@@ -461,9 +537,9 @@ public class FileBasedRegistrationService extends AbstractVerticle
      * @param deviceId The ID of the device to add.
      * @param device Additional data to register with the device (may be {@code null}).
      * @param span The tracing span to use.
-     * @return The outcome of the operation indicating success or failure.
+     * @return A future indicating the outcome of the operation.
      */
-    public OperationResult<Id> processCreateDevice(final String tenantId, final Optional<String> deviceId,
+    public Future<OperationResult<Id>> processCreateDevice(final String tenantId, final Optional<String> deviceId,
             final Device device, final Span span) {
 
         Objects.requireNonNull(tenantId);
@@ -472,17 +548,23 @@ public class FileBasedRegistrationService extends AbstractVerticle
         final ConcurrentMap<String, Versioned<Device>> devices = getDevicesForTenant(tenantId);
         if (devices.size() >= getConfig().getMaxDevicesPerTenant()) {
             TracingHelper.logError(span, "Maximum devices number limit reached for tenant");
-            return Result.from(HttpURLConnection.HTTP_FORBIDDEN, OperationResult::empty);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_FORBIDDEN, OperationResult::empty));
         }
 
         final Versioned<Device> newDevice = new Versioned<>(device);
         if (devices.putIfAbsent(deviceIdValue, newDevice) == null) {
-            dirty = true;
-            return OperationResult.ok(HttpURLConnection.HTTP_CREATED,
-                    Id.of(deviceIdValue), Optional.empty(), Optional.of(newDevice.getVersion()));
+            return journalPut(tenantId, deviceIdValue, device)
+                    .map(ok -> OperationResult.ok(HttpURLConnection.HTTP_CREATED,
+                            Id.of(deviceIdValue), Optional.empty(), Optional.of(newDevice.getVersion())))
+                    .otherwise(t -> {
+                        logJournalError(span, t);
+                        // revert the addition unless the device has been changed in the meantime
+                        devices.remove(deviceIdValue, newDevice);
+                        return OperationResult.empty(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                    });
         } else {
             TracingHelper.logError(span, "Device already exist for tenant");
-            return Result.from(HttpURLConnection.HTTP_CONFLICT, OperationResult::empty);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_CONFLICT, OperationResult::empty));
         }
 
     }
@@ -495,10 +577,10 @@ public class FileBasedRegistrationService extends AbstractVerticle
         Objects.requireNonNull(deviceId);
         Objects.requireNonNull(resourceVersion);
 
-        return Future.succeededFuture(processUpdateDevice(tenantId, deviceId, device, resourceVersion, span));
+        return processUpdateDevice(tenantId, deviceId, device, resourceVersion, span);
     }
 
-    OperationResult<Id> processUpdateDevice(final String tenantId, final String deviceId, final Device device,
+    Future<OperationResult<Id>> processUpdateDevice(final String tenantId, final String deviceId, final Device device,
             final Optional<String> resourceVersion, final Span span) {
 
         Objects.requireNonNull(tenantId);
@@ -508,36 +590,42 @@ public class FileBasedRegistrationService extends AbstractVerticle
             return doUpdateDevice(tenantId, deviceId, device, resourceVersion, span);
         } else {
             TracingHelper.logError(span, "Modification is disabled for Registration Service");
-            return Result.from(HttpURLConnection.HTTP_FORBIDDEN, OperationResult::empty);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_FORBIDDEN, OperationResult::empty));
         }
     }
 
-    private OperationResult<Id> doUpdateDevice(final String tenantId, final String deviceId, final Device device,
+    private Future<OperationResult<Id>> doUpdateDevice(final String tenantId, final String deviceId, final Device device,
             final Optional<String> resourceVersion, final Span span) {
 
         final ConcurrentMap<String, Versioned<Device>> devices = identities.get(tenantId);
         if (devices == null) {
             TracingHelper.logError(span, "No devices found for tenant");
-            return Result.from(HttpURLConnection.HTTP_NOT_FOUND, OperationResult::empty);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_NOT_FOUND, OperationResult::empty));
         }
 
         final Versioned<Device> currentDevice = devices.get(deviceId);
         if (currentDevice == null) {
             TracingHelper.logError(span, "Device not found");
-            return Result.from(HttpURLConnection.HTTP_NOT_FOUND, OperationResult::empty);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_NOT_FOUND, OperationResult::empty));
         }
 
         final Versioned<Device> newDevice = currentDevice.update(resourceVersion, () -> device);
         if (newDevice == null) {
             TracingHelper.logError(span, "Resource Version mismatch");
-            return Result.from(HttpURLConnection.HTTP_PRECON_FAILED, OperationResult::empty);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_PRECON_FAILED, OperationResult::empty));
         }
 
         devices.put(deviceId, newDevice);
-        dirty = true;
 
-        return OperationResult.ok(HttpURLConnection.HTTP_NO_CONTENT, Id.of(deviceId), Optional.empty(),
-                Optional.ofNullable(newDevice.getVersion()));
+        return journalPut(tenantId, deviceId, device)
+                .map(ok -> OperationResult.ok(HttpURLConnection.HTTP_NO_CONTENT, Id.of(deviceId), Optional.empty(),
+                        Optional.ofNullable(newDevice.getVersion())))
+                .otherwise(t -> {
+                    logJournalError(span, t);
+                    // revert the update unless the device has been changed again in the meantime
+                    devices.replace(deviceId, newDevice, currentDevice);
+                    return OperationResult.empty(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                });
     }
 
     private ConcurrentMap<String, Versioned<Device>> getDevicesForTenant(final String tenantId) {
@@ -546,10 +634,20 @@ public class FileBasedRegistrationService extends AbstractVerticle
 
     /**
      * Removes all devices from the registry.
+     *
+     * @return A future indicating whether the removal has been recorded in the journal.
      */
-    public void clear() {
-        dirty = true;
+    public Future<Void> clear() {
         identities.clear();
+        if (journal == null) {
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        return journal.append(new JsonObject().put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_CLEAR))
+                .recover(t -> {
+                    log.warn("failed to record removal of all device identities in journal", t);
+                    return Future.failedFuture(t);
+                });
     }
 
     @Override
@@ -14,10 +14,14 @@
 package org.eclipse.hono.deviceregistry.file;
 
 import java.net.HttpURLConnection;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -33,6 +37,7 @@ import org.eclipse.hono.service.management.tenant.Tenant;
 import org.eclipse.hono.service.management.tenant.TenantManagementService;
 import org.eclipse.hono.service.tenant.TenantService;
 import org.eclipse.hono.tracing.TracingHelper;
+import org.eclipse.hono.util.RegistryManagementConstants;
 import org.eclipse.hono.util.TenantConstants;
 import org.eclipse.hono.util.TenantResult;
 import org.slf4j.Logger;
@@ -66,9 +71,12 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
 
     // <ID, tenant>
     private final ConcurrentMap<String, Versioned<Tenant>> tenants = new ConcurrentHashMap<>();
+    // <subject DN of trusted CA, IDs of tenants trusting the CA in order of registration>
+    private final ConcurrentMap<X500Principal, Set<String>> tenantIdsByCa = new ConcurrentHashMap<>();
     private boolean running = false;
     private boolean dirty = false;
     private FileBasedTenantsConfigProperties config;
+    private RegistryJournal journal;
 
     /**
      * Sets the configuration properties for this service.
@@ -109,16 +117,9 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
                 .compose(ok -> {
                     return loadTenantData();
                 })
+                .compose(ok -> startPersistence())
                 .setHandler(attempt -> {
                     if (attempt.succeeded()) {
-                        if (getConfig().isSaveToFile()) {
-                            log.info("saving tenants to file every 3 seconds");
-                            vertx.setPeriodic(3000, tid -> {
-                                saveToFile();
-                            });
-                        } else {
-                            log.info("persistence is disabled, will not save tenants to file");
-                        }
                         running = true;
                         startPromise.complete();
                     } else {
@@ -129,6 +130,106 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
         }
     }
 
+    private Future<Void> startPersistence() {
+
+        if (!getConfig().isSaveToFile()) {
+            log.info("persistence is disabled, will not save tenants to file");
+            return Future.succeededFuture();
+        } else if (getConfig().isJournalEnabled()) {
+            journal = new RegistryJournal(vertx.fileSystem(), getConfig().getFilename());
+            return journal.open(this::applyJournalRecord).map(count -> {
+                log.info("recording changes to tenants in journal, compacting journal every {} seconds",
+                        getConfig().getJournalCompactionInterval());
+                vertx.setPeriodic(getConfig().getJournalCompactionInterval() * 1000L, tid -> {
+                    journal.compact(this::createSnapshot);
+                });
+                return null;
+            });
+        } else {
+            log.info("saving tenants to file every 3 seconds");
+            vertx.setPeriodic(3000, tid -> {
+                saveToFile();
+            });
+            return Future.succeededFuture();
+        }
+    }
+
+    private void applyJournalRecord(final JsonObject record) {
+
+        if (getConfig().isStartEmpty()) {
+            return;
+        }
+        switch (record.getString(RegistryJournal.FIELD_OPERATION, "")) {
+        case RegistryJournal.OPERATION_PUT:
+            addTenant(record.getJsonObject(RegistryManagementConstants.FIELD_TENANT));
+            break;
+        case RegistryJournal.OPERATION_REMOVE:
+            removeFromRegistry(record.getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID));
+            break;
+        case RegistryJournal.OPERATION_CLEAR:
+            tenants.clear();
+            tenantIdsByCa.clear();
+            break;
+        default:
+            log.debug("ignoring unsupported journal record");
+        }
+    }
+
+    private Future<Void> journalPut(final String tenantId, final Tenant tenant) {
+        if (journal == null) {
+            // the change will be persisted with the next periodic save
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        return journal.append(new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_PUT)
+                .put(RegistryManagementConstants.FIELD_TENANT, toStoredJson(tenantId, tenant)));
+    }
+
+    private Future<Void> journalRemove(final String tenantId) {
+        if (journal == null) {
+            // the change will be persisted with the next periodic save
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        return journal.append(new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_REMOVE)
+                .put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, tenantId));
+    }
+
+    private void logJournalError(final Span span, final Throwable error) {
+        log.warn("failed to record change to tenants in journal", error);
+        TracingHelper.logError(span, "failed to record change in journal", error);
+    }
+
+    /**
+     * Reverts a change to a tenant that could not be recorded in the journal.
+     * <p>
+     * The change is not reverted if the tenant has been changed again in the meantime.
+     *
+     * @param tenantId The identifier of the tenant.
+     * @param changedTenant The tenant as changed or {@code null} if the tenant has been removed.
+     * @param previousTenant The tenant before the change or {@code null} if the tenant has been added.
+     */
+    private void revertChange(final String tenantId, final Versioned<Tenant> changedTenant,
+            final Versioned<Tenant> previousTenant) {
+
+        if (tenants.get(tenantId) != changedTenant) {
+            return;
+        }
+        if (previousTenant == null) {
+            removeFromRegistry(tenantId);
+        } else {
+            putTenant(tenantId, previousTenant);
+        }
+    }
+
+    private static JsonObject toStoredJson(final String tenantId, final Tenant tenant) {
+        final JsonObject json = JsonObject.mapFrom(tenant);
+        json.put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, tenantId);
+        return json;
+    }
+
     Future<Void> loadTenantData() {
 
         if (getConfig().getFilename() == null || getConfig().isStartEmpty()) {
@@ -195,7 +296,7 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
             final String tenantId = tenantToAdd.getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID);
             final Versioned<Tenant> tenant = new Versioned<>(tenantToAdd.mapTo(Tenant.class));
             log.debug("loading tenant [{}]", tenantId);
-            tenants.put(tenantId, tenant);
+            putTenant(tenantId, tenant);
         } catch (final IllegalArgumentException | ClassCastException e) {
             log.warn("cannot deserialize tenant", e);
         }
@@ -205,7 +306,15 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
     public void stop(final Promise<Void> stopPromise) {
 
         if (running) {
-            saveToFile()
+            final Future<Void> persisted;
+            if (journal == null) {
+                persisted = saveToFile();
+            } else {
+                persisted = journal.compact(this::createSnapshot)
+                        .otherwiseEmpty()
+                        .compose(ok -> journal.close());
+            }
+            persisted
             .map(ok -> {
                 running = false;
                 return ok;
@@ -221,34 +330,40 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
         if (!getConfig().isSaveToFile()) {
             return Future.succeededFuture();
         } else if (dirty) {
-            return checkFileExists(true).compose(s -> {
-
-                final JsonArray tenantsJson = new JsonArray();
-                tenants.forEach((tenantId, versionedTenant) -> {
-                    final JsonObject json = JsonObject.mapFrom(versionedTenant.getValue());
-                    json.put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, tenantId);
-                    tenantsJson.add(json);
-                });
-
-                final Promise<Void> writeHandler = Promise.promise();
-                vertx.fileSystem().writeFile(getConfig().getFilename(),
-                        Buffer.factory.buffer(tenantsJson.encodePrettily()), writeHandler);
-                return writeHandler.future().map(ok -> {
-                    dirty = false;
-                    log.trace("successfully wrote {} tenants to file {}", tenantsJson.size(),
-                            getConfig().getFilename());
-                    return (Void) null;
-                }).otherwise(t -> {
-                    log.warn("could not write tenants to file {}", getConfig().getFilename(), t);
-                    return (Void) null;
-                });
-            });
+            return writeSnapshot().otherwiseEmpty();
         } else {
             log.trace("tenants registry does not need to be persisted");
             return Future.succeededFuture();
         }
     }
 
+    private Buffer createSnapshot() {
+
+        final JsonArray tenantsJson = new JsonArray();
+        tenants.forEach((tenantId, versionedTenant) -> {
+            tenantsJson.add(toStoredJson(tenantId, versionedTenant.getValue()));
+        });
+        log.trace("created snapshot of {} tenants", tenantsJson.size());
+        return Buffer.factory.buffer(tenantsJson.encodePrettily());
+    }
+
+    private Future<Void> writeSnapshot() {
+
+        return checkFileExists(true).compose(s -> {
+
+            final Promise<Void> writeHandler = Promise.promise();
+            vertx.fileSystem().writeFile(getConfig().getFilename(), createSnapshot(), writeHandler);
+            return writeHandler.future().map(ok -> {
+                dirty = false;
+                log.trace("successfully wrote tenants to file {}", getConfig().getFilename());
+                return (Void) null;
+            }).recover(t -> {
+                log.warn("could not write tenants to file {}", getConfig().getFilename(), t);
+                return Future.failedFuture(t);
+            });
+        });
+    }
+
     @Override
     public Future<TenantResult<JsonObject>> get(final String tenantId) {
         return get(tenantId, null);
@@ -341,31 +456,36 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
         Objects.requireNonNull(tenantId);
         Objects.requireNonNull(resourceVersion);
 
-        return Future.succeededFuture(removeTenant(tenantId, resourceVersion, span));
+        return removeTenant(tenantId, resourceVersion, span);
     }
 
-    Result<Void> removeTenant(final String tenantId, final Optional<String> resourceVersion, final Span span) {
+    Future<Result<Void>> removeTenant(final String tenantId, final Optional<String> resourceVersion, final Span span) {
 
         Objects.requireNonNull(tenantId);
 
         if (getConfig().isModificationEnabled()) {
             if (tenants.containsKey(tenantId)) {
-                final String actualVersion = tenants.get(tenantId).getVersion();
-                if (checkResourceVersion(resourceVersion, actualVersion)) {
-                    tenants.remove(tenantId);
-                    dirty = true;
-                    return Result.from(HttpURLConnection.HTTP_NO_CONTENT);
+                final Versioned<Tenant> tenant = tenants.get(tenantId);
+                if (checkResourceVersion(resourceVersion, tenant.getVersion())) {
+                    removeFromRegistry(tenantId);
+                    return journalRemove(tenantId)
+                            .map(ok -> Result.<Void> from(HttpURLConnection.HTTP_NO_CONTENT))
+                            .otherwise(t -> {
+                                logJournalError(span, t);
+                                revertChange(tenantId, null, tenant);
+                                return Result.from(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                            });
                 } else {
                     TracingHelper.logError(span, "Resource Version mismatch.");
-                    return Result.from(HttpURLConnection.HTTP_PRECON_FAILED);
+                    return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_PRECON_FAILED));
                 }
             } else {
                 TracingHelper.logError(span, "Tenant not found.");
-                return Result.from(HttpURLConnection.HTTP_NOT_FOUND);
+                return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_NOT_FOUND));
             }
         } else {
             TracingHelper.logError(span, "Modification is disabled for Tenant Service");
-            return Result.from(HttpURLConnection.HTTP_FORBIDDEN);
+            return Future.succeededFuture(Result.from(HttpURLConnection.HTTP_FORBIDDEN));
         }
     }
 
@@ -377,7 +497,7 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
         Objects.requireNonNull(tenantSpec);
 
         final String tenantIdValue = tenantId.orElseGet(this::generateTenantId);
-        return Future.succeededFuture(add(tenantIdValue, tenantSpec, span));
+        return add(tenantIdValue, tenantSpec, span);
     }
 
     /**
@@ -385,17 +505,17 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
      *
      * @param tenantId The identifier of the tenant. If null, an random ID will be generated.
      * @param tenantSpec The information to register for the tenant.
-     * @return The outcome of the operation indicating success or failure.
+     * @return A future indicating the outcome of the operation.
      * @throws NullPointerException if any of the parameters are {@code null}.
      */
-    private OperationResult<Id> add(final String tenantId, final Tenant tenantSpec, final Span span) {
+    private Future<OperationResult<Id>> add(final String tenantId, final Tenant tenantSpec, final Span span) {
 
         Objects.requireNonNull(tenantId);
         Objects.requireNonNull(tenantSpec);
 
         if (tenants.containsKey(tenantId)) {
             TracingHelper.logError(span, "Conflict : tenantId already exists.");
-            return OperationResult.empty(HttpURLConnection.HTTP_CONFLICT);
+            return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_CONFLICT));
         }
         try {
             if (log.isTraceEnabled()) {
@@ -407,18 +527,23 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
             if (existsConflictingTenant) {
                 // we are trying to use the same CA as an already existing tenant
                 TracingHelper.logError(span, "Conflict : CA already used by an existing tenant.");
-                return OperationResult.empty(HttpURLConnection.HTTP_CONFLICT);
+                return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_CONFLICT));
             } else {
                 final Versioned<Tenant> tenant = new Versioned<>(tenantSpec);
-                tenants.put(tenantId, tenant);
-                dirty = true;
-                return OperationResult.ok(HttpURLConnection.HTTP_CREATED,
-                        Id.of(tenantId), Optional.empty(), Optional.of(tenant.getVersion()));
+                putTenant(tenantId, tenant);
+                return journalPut(tenantId, tenantSpec)
+                        .map(ok -> OperationResult.ok(HttpURLConnection.HTTP_CREATED,
+                                Id.of(tenantId), Optional.empty(), Optional.of(tenant.getVersion())))
+                        .otherwise(t -> {
+                            logJournalError(span, t);
+                            revertChange(tenantId, tenant, null);
+                            return OperationResult.empty(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                        });
             }
         } catch (final IllegalArgumentException e) {
             log.debug("error parsing payload of add tenant request", e);
             TracingHelper.logError(span, e);
-            return OperationResult.empty(HttpURLConnection.HTTP_BAD_REQUEST);
+            return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_BAD_REQUEST));
         }
     }
 
@@ -438,7 +563,7 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
         Objects.requireNonNull(tenantId);
         Objects.requireNonNull(tenantSpec);
 
-        return Future.succeededFuture(update(tenantId, tenantSpec, expectedResourceVersion, span));
+        return update(tenantId, tenantSpec, expectedResourceVersion, span);
     }
 
     /**
@@ -448,10 +573,10 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
      * @param tenantSpec The information to update the tenant with.
      * @param expectedResourceVersion The version identifier of the tenant information to update.
      * @param span The tracing span to use.
-     * @return The outcome of the operation indicating success or failure.
+     * @return A future indicating the outcome of the operation.
      * @throws NullPointerException if any of the parameters are {@code null}.
      */
-    public OperationResult<Void> update(
+    public Future<OperationResult<Void>> update(
             final String tenantId,
             final Tenant tenantSpec,
             final Optional<String> expectedResourceVersion,
@@ -474,32 +599,38 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
                     if (conflictingTenant != null && !tenantId.equals(conflictingTenant.getKey())) {
                         // we are trying to use the same CA as another tenant
                         TracingHelper.logError(span, "Conflict : CA already used by an existing tenant.");
-                        return OperationResult.empty(HttpURLConnection.HTTP_CONFLICT);
+                        return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_CONFLICT));
                     } else {
-                        final Versioned<Tenant> updatedTenant = tenants.get(tenantId).update(expectedResourceVersion, () -> tenantSpec);
+                        final Versioned<Tenant> currentTenant = tenants.get(tenantId);
+                        final Versioned<Tenant> updatedTenant = currentTenant.update(expectedResourceVersion, () -> tenantSpec);
                         if ( updatedTenant != null ) {
 
-                            tenants.put(tenantId, updatedTenant);
-                            dirty = true;
-                            return OperationResult.ok(HttpURLConnection.HTTP_NO_CONTENT,
-                                    null, Optional.empty(),
-                                    Optional.of(updatedTenant.getVersion()));
+                            putTenant(tenantId, updatedTenant);
+                            return journalPut(tenantId, updatedTenant.getValue())
+                                    .map(ok -> OperationResult.<Void> ok(HttpURLConnection.HTTP_NO_CONTENT,
+                                            null, Optional.empty(),
+                                            Optional.of(updatedTenant.getVersion())))
+                                    .otherwise(t -> {
+                                        logJournalError(span, t);
+                                        revertChange(tenantId, updatedTenant, currentTenant);
+                                        return OperationResult.empty(HttpURLConnection.HTTP_INTERNAL_ERROR);
+                                    });
                         } else {
                             TracingHelper.logError(span, "Resource Version mismatch.");
-                            return OperationResult.empty(HttpURLConnection.HTTP_PRECON_FAILED);
+                            return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_PRECON_FAILED));
                         }
                     }
                 } catch (final IllegalArgumentException e) {
                     TracingHelper.logError(span, e);
-                    return OperationResult.empty(HttpURLConnection.HTTP_BAD_REQUEST);
+                    return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_BAD_REQUEST));
                 }
             } else {
                 TracingHelper.logError(span, "Tenant not found.");
-                return OperationResult.empty(HttpURLConnection.HTTP_NOT_FOUND);
+                return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_NOT_FOUND));
             }
         } else {
             TracingHelper.logError(span, "Modification disabled for Tenant Service.");
-            return OperationResult.empty(HttpURLConnection.HTTP_FORBIDDEN);
+            return Future.succeededFuture(OperationResult.empty(HttpURLConnection.HTTP_FORBIDDEN));
         }
     }
 
@@ -508,19 +639,110 @@ public final class FileBasedTenantService extends AbstractVerticle implements Te
         if (subjectDn == null) {
             return null;
         } else {
-            return tenants.entrySet().stream()
-                    .filter(entry -> entry.getValue().getValue().hasTrustedCertificateAuthoritySubjectDN(subjectDn))
-                    .findFirst()
-                    .orElse(null);
+            final Set<String> tenantIds = tenantIdsByCa.get(subjectDn);
+            if (tenantIds == null || tenantIds.isEmpty()) {
+                return null;
+            }
+            // the tenant that has been registered first for the CA owns it
+            final String tenantId = tenantIds.iterator().next();
+            final Versioned<Tenant> tenant = tenants.get(tenantId);
+            return tenant == null ? null : new SimpleImmutableEntry<>(tenantId, tenant);
+        }
+    }
+
+    /**
+     * Puts a tenant to the registry and updates the index of trusted CAs accordingly.
+     * <p>
+     * Only the subject DNs of the CAs that have been trusted by a previous version of the
+     * tenant but are not trusted by the given version anymore are removed from the index.
+     * A subject DN that is already owned by another tenant is not re-assigned to the
+     * given tenant.
+     *
+     * @param tenantId The identifier of the tenant.
+     * @param tenant The tenant.
+     */
+    private void putTenant(final String tenantId, final Versioned<Tenant> tenant) {
+
+        final Set<X500Principal> trustedCas = tenant.getValue().getTrustedCertificateAuthoritySubjectDNs();
+        final Versioned<Tenant> oldTenant = tenants.put(tenantId, tenant);
+        if (oldTenant != null) {
+            oldTenant.getValue().getTrustedCertificateAuthoritySubjectDNs().stream()
+                .filter(subjectDn -> subjectDn != null && !trustedCas.contains(subjectDn))
+                .forEach(subjectDn -> removeFromCaIndex(subjectDn, tenantId));
+        }
+        trustedCas.stream()
+            .filter(Objects::nonNull)
+            .forEach(subjectDn -> addToCaIndex(subjectDn, tenantId));
+    }
+
+    private void removeFromRegistry(final String tenantId) {
+
+        final Versioned<Tenant> oldTenant = tenants.remove(tenantId);
+        if (oldTenant != null) {
+            oldTenant.getValue().getTrustedCertificateAuthoritySubjectDNs().stream()
+                .filter(Objects::nonNull)
+                .forEach(subjectDn -> removeFromCaIndex(subjectDn, tenantId));
         }
     }
 
+    /**
+     * Adds a tenant to the tenants trusting a CA.
+     * <p>
+     * The sets of tenant IDs are never modified in place but are replaced atomically,
+     * so that they can safely be read without locking.
+     */
+    private void addToCaIndex(final X500Principal subjectDn, final String tenantId) {
+        tenantIdsByCa.compute(subjectDn, (dn, tenantIds) -> {
+            if (tenantIds == null) {
+                return Collections.singleton(tenantId);
+            } else if (tenantIds.contains(tenantId)) {
+                return tenantIds;
+            } else {
+                final Set<String> result = new LinkedHashSet<>(tenantIds);
+                result.add(tenantId);
+                return Collections.unmodifiableSet(result);
+            }
+        });
+    }
+
+    /**
+     * Removes a tenant from the tenants trusting a CA.
+     * <p>
+     * A subject DN that is (erroneously) also trusted by other tenants, e.g. because
+     * of conflicting entries in the tenants file, is thereby re-assigned to the tenant
+     * that has been registered next.
+     */
+    private void removeFromCaIndex(final X500Principal subjectDn, final String tenantId) {
+        tenantIdsByCa.computeIfPresent(subjectDn, (dn, tenantIds) -> {
+            if (!tenantIds.contains(tenantId)) {
+                return tenantIds;
+            } else if (tenantIds.size() == 1) {
+                return null;
+            } else {
+                final Set<String> result = new LinkedHashSet<>(tenantIds);
+                result.remove(tenantId);
+                return Collections.unmodifiableSet(result);
+            }
+        });
+    }
+
     /**
      * Removes all devices from the tenant registry.
+     *
+     * @return A future indicating whether the removal has been recorded in the journal.
      */
-    public void clear() {
+    public Future<Void> clear() {
         tenants.clear();
-        dirty = true;
+        tenantIdsByCa.clear();
+        if (journal == null) {
+            dirty = true;
+            return Future.succeededFuture();
+        }
+        return journal.append(new JsonObject().put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_CLEAR))
+                .recover(t -> {
+                    log.warn("failed to record removal of all tenants in journal", t);
+                    return Future.failedFuture(t);
+                });
     }
 
     @Override
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.deviceregistry.file;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.JsonEvent;
+import io.vertx.core.parsetools.JsonParser;
+
+/**
+ * A loader for the files that the file based registry services persist their data to.
+ * <p>
+ * The files are expected to contain a JSON array of objects, each containing the identifier of
+ * a tenant and an array of the records (e.g. device identities) belonging to the tenant:
+ * <pre>
+ * [
+ *   {
+ *     "tenant": "DEFAULT_TENANT",
+ *     "devices": [ { ... }, { ... } ]
+ *   }
+ * ]
+ * </pre>
+ * <p>
+ * In contrast to reading the whole file into a buffer and parsing it into a {@code JsonArray},
+ * the loader parses the file's content while it is being read from the file system and passes
+ * each record to a handler as soon as it has been parsed. Provided that the tenant identifier
+ * precedes the records, the memory required for loading the file is therefore bounded by the
+ * size of the largest record instead of the size of the file.
+ * <p>
+ * The loader reports the time it took to load the file and the amount of heap memory in use
+ * after the file has been loaded by means of the <em>hono.registry.file.load.duration</em> and
+ * <em>hono.registry.file.load.heap.used</em> meters, tagged with the type of records loaded.
+ */
+public final class RegistryFileLoader {
+
+    /**
+     * The name of the meter reporting the time it took to load a file.
+     */
+    public static final String METER_LOAD_DURATION = "hono.registry.file.load.duration";
+    /**
+     * The name of the meter reporting the amount of heap memory in use after a file has been loaded.
+     */
+    public static final String METER_HEAP_USED = "hono.registry.file.load.heap.used";
+    /**
+     * The name of the tag containing the type of records loaded.
+     */
+    public static final String TAG_TYPE = "type";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegistryFileLoader.class);
+
+    private final FileSystem fileSystem;
+    private final MeterRegistry meterRegistry;
+    private final String tenantField;
+    private final String recordsField;
+
+    /**
+     * Creates a loader for a type of records.
+     *
+     * @param fileSystem The file system to read files from.
+     * @param meterRegistry The registry to report metrics to.
+     * @param tenantField The name of the field containing the tenant identifier.
+     * @param recordsField The name of the field containing the array of records.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public RegistryFileLoader(
+            final FileSystem fileSystem,
+            final MeterRegistry meterRegistry,
+            final String tenantField,
+            final String recordsField) {
+
+        this.fileSystem = Objects.requireNonNull(fileSystem);
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
+        this.tenantField = Objects.requireNonNull(tenantField);
+        this.recordsField = Objects.requireNonNull(recordsField);
+    }
+
+    /**
+     * Loads the records contained in a file.
+     * <p>
+     * Records that are contained in an object that does not include a tenant identifier
+     * are skipped.
+     *
+     * @param filename The path to the file.
+     * @param recordHandler The handler to invoke with the tenant identifier and record
+     *                      for each record contained in the file.
+     * @return A future indicating the outcome of the operation. The future will be
+     *         succeeded with the number of loaded records. The future will be failed
+     *         if the file cannot be read or does not contain well formed JSON. Note that
+     *         the handler may already have been invoked for some of the records in the latter case.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public Future<Long> load(final String filename, final BiConsumer<String, JsonObject> recordHandler) {
+
+        Objects.requireNonNull(filename);
+        Objects.requireNonNull(recordHandler);
+
+        final long start = System.nanoTime();
+        final Promise<AsyncFile> openResult = Promise.promise();
+        fileSystem.open(filename, new OpenOptions().setRead(true).setWrite(false).setCreate(false), openResult);
+        return openResult.future()
+                .compose(file -> {
+                    final Promise<Long> result = Promise.promise();
+                    final RecordCollector collector = new RecordCollector(recordHandler);
+                    final JsonParser parser = JsonParser.newParser(file);
+                    parser.exceptionHandler(t -> {
+                        file.close();
+                        result.tryFail(t);
+                    });
+                    parser.endHandler(end -> {
+                        file.close();
+                        result.tryComplete(collector.count);
+                    });
+                    parser.handler(event -> {
+                        try {
+                            collector.handle(parser, event);
+                        } catch (final IllegalArgumentException e) {
+                            parser.handler(null);
+                            file.close();
+                            result.tryFail(e);
+                        }
+                    });
+                    return result.future();
+                })
+                .map(count -> {
+                    final long duration = System.nanoTime() - start;
+                    final long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+                    Timer.builder(METER_LOAD_DURATION)
+                        .tag(TAG_TYPE, recordsField)
+                        .register(meterRegistry)
+                        .record(duration, TimeUnit.NANOSECONDS);
+                    DistributionSummary.builder(METER_HEAP_USED)
+                        .tag(TAG_TYPE, recordsField)
+                        .baseUnit("bytes")
+                        .register(meterRegistry)
+                        .record(heapUsed);
+                    LOG.debug("loaded {} {} from file [{}] in {}ms, heap in use: {} bytes",
+                            count, recordsField, filename, TimeUnit.NANOSECONDS.toMillis(duration), heapUsed);
+                    return count;
+                });
+    }
+
+    /**
+     * Tracks the parser's position within the file's structure.
+     * <p>
+     * The parser is switched to <em>object value mode</em> while it is positioned
+     * within a tenant's records array so that each record is reported as a single event.
+     */
+    private final class RecordCollector {
+
+        private final BiConsumer<String, JsonObject> recordHandler;
+        private final List<JsonObject> recordsWithoutTenant = new ArrayList<>();
+        private long count;
+        private int depth;
+        private boolean inRecords;
+        private String tenantId;
+
+        RecordCollector(final BiConsumer<String, JsonObject> recordHandler) {
+            this.recordHandler = recordHandler;
+        }
+
+        void handle(final JsonParser parser, final JsonEvent event) {
+
+            switch (event.type()) {
+            case START_ARRAY:
+                if (depth == 0) {
+                    // the top level array
+                } else if (depth == 2 && recordsField.equals(event.fieldName())) {
+                    inRecords = true;
+                    parser.objectValueMode();
+                }
+                depth++;
+                break;
+            case END_ARRAY:
+                depth--;
+                if (depth == 2 && inRecords) {
+                    inRecords = false;
+                    parser.objectEventMode();
+                }
+                break;
+            case START_OBJECT:
+                if (depth == 0) {
+                    throw new IllegalArgumentException("file does not contain a JSON array");
+                } else if (depth == 1) {
+                    tenantId = null;
+                    recordsWithoutTenant.clear();
+                }
+                depth++;
+                break;
+            case END_OBJECT:
+                depth--;
+                if (depth == 1 && tenantId == null && !recordsWithoutTenant.isEmpty()) {
+                    LOG.debug("tenant field missing, skipping {} {}", recordsWithoutTenant.size(), recordsField);
+                    recordsWithoutTenant.clear();
+                }
+                break;
+            case VALUE:
+                if (depth == 0) {
+                    throw new IllegalArgumentException("file does not contain a JSON array");
+                } else if (depth == 2 && tenantField.equals(event.fieldName()) && event.value() instanceof String) {
+                    tenantId = event.stringValue();
+                    recordsWithoutTenant.forEach(this::addRecord);
+                    recordsWithoutTenant.clear();
+                } else if (depth == 3 && inRecords && event.isObject()) {
+                    if (tenantId == null) {
+                        // the tenant field may succeed the records
+                        recordsWithoutTenant.add(event.objectValue());
+                    } else {
+                        addRecord(event.objectValue());
+                    }
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        private void addRecord(final JsonObject record) {
+            recordHandler.accept(tenantId, record);
+            count++;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.deviceregistry.file;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.CopyOptions;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A write-ahead journal for the changes made to a file based registry.
+ * <p>
+ * Each change is appended to the journal as a single line containing a compact JSON
+ * record. The journal consists of numbered segment files which are located next to
+ * the registry's (snapshot) file and are named after it, e.g. <em>tenants.json.journal.3</em>.
+ * <p>
+ * The segments are opened for synchronous writing of data (<em>DSYNC</em>), i.e. a record
+ * has been persisted to the storage device once the future returned by {@link #append(JsonObject)}
+ * has completed. Records are written one batch at a time in the order in which they have
+ * been appended. All records appended while a batch is being written are written together
+ * with the next batch.
+ * <p>
+ * The journal is compacted by writing a new snapshot of the registry. For that purpose,
+ * the current segment is sealed and a new segment is started, so that changes made while the
+ * snapshot is being written are recorded in the new segment. The snapshot is written to a
+ * temporary file which then atomically replaces the registry file, so that a valid snapshot
+ * exists at any point in time. The sealed segments are deleted once the snapshot has been
+ * written successfully.
+ * <p>
+ * During startup, all existing segments are replayed (in order) on top of the state
+ * loaded from the snapshot. The records are therefore expected to be idempotent,
+ * e.g. by containing the complete state of the entity that has been changed.
+ * <p>
+ * Instances of this class are thread safe, i.e. records may be appended from
+ * arbitrary vert.x contexts.
+ */
+public final class RegistryJournal {
+
+    /**
+     * The name of the field containing the type of operation that a record represents.
+     */
+    public static final String FIELD_OPERATION = "op";
+    /**
+     * The operation type indicating that an entity has been added or updated.
+     */
+    public static final String OPERATION_PUT = "put";
+    /**
+     * The operation type indicating that an entity has been removed.
+     */
+    public static final String OPERATION_REMOVE = "remove";
+    /**
+     * The operation type indicating that all entities have been removed.
+     */
+    public static final String OPERATION_CLEAR = "clear";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegistryJournal.class);
+
+    private final FileSystem fileSystem;
+    private final String registryFile;
+    private final String snapshotFile;
+    private final Path directory;
+    private final String segmentPrefix;
+    private final Pattern segmentPattern;
+
+    // all of the following fields are guarded by this instance's lock
+    private final List<String> sealedSegments = new ArrayList<>();
+    private final List<PendingRecord> pendingRecords = new ArrayList<>();
+    private AsyncFile currentSegment;
+    private long currentSegmentPosition;
+    private Future<Void> currentSegmentOpened = Future.succeededFuture();
+    private Future<Void> lastRecordWritten = Future.succeededFuture();
+    private int currentSegmentIndex;
+    private int recordsInCurrentSegment;
+    private boolean opening;
+    private boolean writing;
+    private boolean compacting;
+    private boolean closed;
+
+    /**
+     * Creates a journal for a registry file.
+     *
+     * @param fileSystem The file system to use for accessing the journal segments.
+     * @param registryFilename The path to the file that the registry's snapshots are written to.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public RegistryJournal(final FileSystem fileSystem, final String registryFilename) {
+
+        this.fileSystem = Objects.requireNonNull(fileSystem);
+        final Path registryPath = Paths.get(Objects.requireNonNull(registryFilename)).toAbsolutePath();
+        this.registryFile = registryPath.toString();
+        this.directory = registryPath.getParent();
+        this.snapshotFile = directory.resolve(registryPath.getFileName().toString() + ".snapshot").toString();
+        this.segmentPrefix = registryPath.getFileName().toString() + ".journal.";
+        this.segmentPattern = Pattern.compile(Pattern.quote(segmentPrefix) + "(\\d+)$");
+    }
+
+    /**
+     * Replays the records of all existing journal segments and opens a new segment
+     * for appending records.
+     * <p>
+     * The segments are replayed in the order in which they have been written. Replaying
+     * a segment stops at the first record that cannot be parsed, e.g. because the process
+     * has been terminated while the record was being written.
+     * <p>
+     * The replayed segments are deleted with the next successful compaction.
+     *
+     * @param recordHandler The handler to invoke for each record.
+     * @return A future indicating the outcome of the operation. The future will be
+     *         succeeded with the number of replayed records.
+     * @throws NullPointerException if handler is {@code null}.
+     */
+    public Future<Integer> open(final Handler<JsonObject> recordHandler) {
+
+        Objects.requireNonNull(recordHandler);
+
+        final Promise<List<String>> dirContent = Promise.promise();
+        fileSystem.readDir(directory.toString(), Pattern.quote(segmentPrefix) + "\\d+", dirContent);
+        return dirContent.future()
+                .compose(files -> {
+                    final List<String> segments = new ArrayList<>(files);
+                    segments.sort(Comparator.comparingInt(this::getSegmentIndex));
+                    Future<Integer> replayed = Future.succeededFuture(0);
+                    for (final String segment : segments) {
+                        replayed = replayed.compose(count -> replaySegment(segment, recordHandler)
+                                .map(segmentCount -> count + segmentCount));
+                    }
+                    return replayed.map(count -> {
+                        LOG.info("replayed {} records from {} journal segment(s)", count, segments.size());
+                        return count;
+                    }).compose(count -> {
+                        synchronized (this) {
+                            sealedSegments.addAll(segments);
+                            currentSegmentIndex = segments.isEmpty() ? 0
+                                    : getSegmentIndex(segments.get(segments.size() - 1)) + 1;
+                            return openSegment(currentSegmentIndex).map(count);
+                        }
+                    });
+                });
+    }
+
+    private int getSegmentIndex(final String segment) {
+        final Matcher matcher = segmentPattern.matcher(segment);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private String getSegmentPath(final int index) {
+        return directory.resolve(segmentPrefix + index).toString();
+    }
+
+    private Future<Integer> replaySegment(final String segment, final Handler<JsonObject> recordHandler) {
+
+        final Promise<Buffer> content = Promise.promise();
+        fileSystem.readFile(segment, content);
+        return content.future().map(buffer -> {
+            int count = 0;
+            for (final String line : buffer.toString().split("\n")) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    recordHandler.handle(new JsonObject(line));
+                    count++;
+                } catch (final DecodeException e) {
+                    LOG.warn("ignoring malformed record and remaining records of journal segment [{}]", segment);
+                    break;
+                }
+            }
+            LOG.debug("replayed {} records from journal segment [{}]", count, segment);
+            return count;
+        });
+    }
+
+    /**
+     * Opens a new segment.
+     * <p>
+     * Must be invoked while holding this instance's lock.
+     */
+    private Future<Void> openSegment(final int index) {
+
+        final String path = getSegmentPath(index);
+        final Promise<AsyncFile> result = Promise.promise();
+        opening = true;
+        fileSystem.open(
+                path,
+                new OpenOptions().setCreate(true).setTruncateExisting(true).setRead(false).setDsync(true),
+                result);
+        currentSegmentOpened = result.future()
+                .map(file -> {
+                    file.exceptionHandler(t -> LOG.warn("error writing to journal segment [{}]", path, t));
+                    synchronized (this) {
+                        opening = false;
+                        currentSegment = file;
+                        currentSegmentPosition = 0;
+                        writeNextBatch();
+                    }
+                    LOG.debug("opened journal segment [{}]", path);
+                    return (Void) null;
+                })
+                .recover(t -> {
+                    LOG.warn("failed to open journal segment [{}]", path, t);
+                    final List<PendingRecord> failedRecords;
+                    synchronized (this) {
+                        opening = false;
+                        failedRecords = new ArrayList<>(pendingRecords);
+                        pendingRecords.clear();
+                    }
+                    // the segment will be opened again when the next record is appended
+                    failedRecords.forEach(record -> record.written.fail(t));
+                    return Future.failedFuture(t);
+                });
+        return currentSegmentOpened;
+    }
+
+    /**
+     * Appends a record to the journal.
+     * <p>
+     * The record is written to the current segment asynchronously. Records are written
+     * in the order in which they have been appended.
+     *
+     * @param record The record to append.
+     * @return A future indicating the outcome of the operation. The future will be succeeded
+     *         once the record has been written to the storage device. The future will be completed
+     *         on the vert.x context that this method has been invoked on (if any).
+     * @throws NullPointerException if record is {@code null}.
+     * @throws IllegalStateException if the journal has been closed.
+     */
+    public Future<Void> append(final JsonObject record) {
+
+        Objects.requireNonNull(record);
+        final PendingRecord pendingRecord = new PendingRecord(record.toBuffer().appendString("\n"));
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("journal is closed");
+            }
+            recordsInCurrentSegment++;
+            pendingRecords.add(pendingRecord);
+            lastRecordWritten = pendingRecord.written.future();
+            if (currentSegment == null && !opening) {
+                openSegment(currentSegmentIndex);
+            } else {
+                writeNextBatch();
+            }
+        }
+        return completeOnCurrentContext(pendingRecord.written.future());
+    }
+
+    private static <T> Future<T> completeOnCurrentContext(final Future<T> future) {
+
+        final Context context = Vertx.currentContext();
+        if (context == null) {
+            return future;
+        }
+        final Promise<T> result = Promise.promise();
+        future.setHandler(attempt -> context.runOnContext(go -> result.handle(attempt)));
+        return result.future();
+    }
+
+    /**
+     * Writes all pending records to the current segment, unless a write is
+     * already in progress or no segment is open.
+     * <p>
+     * Must be invoked while holding this instance's lock.
+     */
+    private void writeNextBatch() {
+
+        if (writing || currentSegment == null || pendingRecords.isEmpty()) {
+            return;
+        }
+        final List<PendingRecord> batch = new ArrayList<>(pendingRecords);
+        pendingRecords.clear();
+        final Buffer data = Buffer.buffer();
+        batch.forEach(record -> data.appendBuffer(record.line));
+
+        final long position = currentSegmentPosition;
+        currentSegmentPosition += data.length();
+        writing = true;
+        currentSegment.write(data, position, attempt -> {
+            if (attempt.failed()) {
+                LOG.warn("failed to write {} record(s) to journal", batch.size(), attempt.cause());
+            }
+            batch.forEach(record -> record.written.handle(attempt));
+            synchronized (this) {
+                writing = false;
+                writeNextBatch();
+            }
+        });
+    }
+
+    /**
+     * Checks if any records have been appended since the last successful compaction.
+     *
+     * @return {@code true} if the journal contains records.
+     */
+    public synchronized boolean hasRecords() {
+        return recordsInCurrentSegment > 0 || !sealedSegments.isEmpty();
+    }
+
+    /**
+     * Compacts the journal by means of writing a snapshot of the registry.
+     * <p>
+     * This method does nothing if the journal does not contain any records or
+     * if a compaction is already in progress.
+     * <p>
+     * Otherwise, the current segment is sealed and a new segment is started before the
+     * snapshot supplier is invoked. The supplier is expected to capture the state of
+     * the registry <em>after</em> it has been invoked. The snapshot is written to a temporary
+     * file in the registry file's directory which is then moved to the registry file.
+     * Once the registry file has been replaced, all sealed segments are deleted.
+     *
+     * @param snapshotSupplier The function to invoke for creating a snapshot of the registry.
+     * @return A future indicating the outcome of the compaction.
+     * @throws NullPointerException if snapshot supplier is {@code null}.
+     */
+    public Future<Void> compact(final Supplier<Buffer> snapshotSupplier) {
+
+        Objects.requireNonNull(snapshotSupplier);
+
+        final List<String> obsoleteSegments;
+        synchronized (this) {
+            if (closed || compacting || !hasRecords()) {
+                return Future.succeededFuture();
+            }
+            compacting = true;
+            if (recordsInCurrentSegment > 0 && currentSegment != null) {
+                rollSegment();
+            }
+            obsoleteSegments = new ArrayList<>(sealedSegments);
+        }
+        return writeSnapshot(snapshotSupplier)
+                .compose(ok -> deleteSegments(obsoleteSegments))
+                .map(ok -> {
+                    LOG.debug("compacted {} journal segment(s)", obsoleteSegments.size());
+                    return (Void) null;
+                })
+                .setHandler(attempt -> {
+                    synchronized (this) {
+                        compacting = false;
+                    }
+                });
+    }
+
+    private Future<Void> writeSnapshot(final Supplier<Buffer> snapshotSupplier) {
+
+        final Buffer snapshot;
+        try {
+            snapshot = snapshotSupplier.get();
+        } catch (final RuntimeException e) {
+            return Future.failedFuture(e);
+        }
+        final Promise<AsyncFile> opened = Promise.promise();
+        fileSystem.open(
+                snapshotFile,
+                new OpenOptions().setCreate(true).setTruncateExisting(true).setRead(false).setDsync(true),
+                opened);
+        return opened.future()
+                .compose(file -> {
+                    final Promise<Void> written = Promise.promise();
+                    final Promise<Void> closed = Promise.promise();
+                    file.write(snapshot, 0, written);
+                    written.future().setHandler(attempt -> file.close(closed));
+                    return written.future().compose(ok -> closed.future());
+                })
+                .compose(ok -> {
+                    // replace the registry file only once the snapshot is complete
+                    final Promise<Void> moved = Promise.promise();
+                    fileSystem.move(
+                            snapshotFile,
+                            registryFile,
+                            new CopyOptions().setAtomicMove(true).setReplaceExisting(true),
+                            moved);
+                    return moved.future();
+                })
+                .recover(t -> {
+                    LOG.warn("failed to write snapshot to registry file [{}]", registryFile, t);
+                    return Future.failedFuture(t);
+                });
+    }
+
+    /**
+     * Seals the current segment and opens a new one.
+     * <p>
+     * Must be invoked while holding this instance's lock.
+     */
+    private void rollSegment() {
+
+        final AsyncFile segmentToSeal = currentSegment;
+        sealedSegments.add(getSegmentPath(currentSegmentIndex));
+        currentSegment = null;
+        currentSegmentIndex++;
+        // records that have not been written yet will be written to the new segment
+        recordsInCurrentSegment = pendingRecords.size();
+        // closing the file completes all outstanding writes
+        segmentToSeal.close();
+        openSegment(currentSegmentIndex);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Future<Void> deleteSegments(final List<String> segments) {
+
+        final List<Future> deletions = new ArrayList<>();
+        for (final String segment : segments) {
+            final Promise<Void> deletion = Promise.promise();
+            fileSystem.delete(segment, deletion);
+            deletions.add(deletion.future().map(ok -> {
+                synchronized (this) {
+                    sealedSegments.remove(segment);
+                }
+                return (Void) null;
+            }));
+        }
+        return CompositeFuture.all(deletions).mapEmpty();
+    }
+
+    /**
+     * Closes the journal.
+     * <p>
+     * Records appended before this method has been invoked will be written to
+     * the current segment before the segment is closed.
+     *
+     * @return A future indicating the outcome of the operation.
+     */
+    public Future<Void> close() {
+
+        final Future<Void> opened;
+        final Future<Void> written;
+        synchronized (this) {
+            closed = true;
+            opened = currentSegmentOpened;
+            written = lastRecordWritten;
+        }
+        return opened
+                .otherwiseEmpty()
+                .compose(ok -> written.otherwiseEmpty())
+                .compose(ok -> {
+                    final AsyncFile segmentToClose;
+                    synchronized (this) {
+                        segmentToClose = currentSegment;
+                        currentSegment = null;
+                    }
+                    if (segmentToClose == null) {
+                        return Future.succeededFuture();
+                    }
+                    final Promise<Void> result = Promise.promise();
+                    segmentToClose.close(result);
+                    return result.future();
+                });
+    }
+
+    /**
+     * A record that has been appended to the journal.
+     */
+    private static final class PendingRecord {
+
+        private final Buffer line;
+        private final Promise<Void> written = Promise.promise();
+
+        PendingRecord(final Buffer line) {
+            this.line = line;
+        }
+    }
+}
@@ -13,11 +13,18 @@
 
 package org.eclipse.hono.deviceregistry;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.io.Resources;
 
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
 
 /**
  * Utility methods for testing functionality around credentials and tenant management.
@@ -42,4 +49,34 @@ public final class DeviceRegistryTestUtils {
         return Buffer.buffer(buffer);
 
     }
+
+    /**
+     * Creates a mock file that can be read asynchronously.
+     * <p>
+     * The file emits its content as a single buffer and then ends as soon as
+     * a handler for its content is set.
+     *
+     * @param content The content of the file.
+     * @return The file.
+     */
+    @SuppressWarnings("unchecked")
+    public static AsyncFile newAsyncFile(final Buffer content) {
+
+        final AsyncFile file = mock(AsyncFile.class);
+        final AtomicReference<Handler<Void>> endHandler = new AtomicReference<>();
+        when(file.endHandler(any(Handler.class))).thenAnswer(invocation -> {
+            endHandler.set(invocation.getArgument(0));
+            return file;
+        });
+        when(file.exceptionHandler(any(Handler.class))).thenReturn(file);
+        when(file.handler(any(Handler.class))).thenAnswer(invocation -> {
+            final Handler<Buffer> handler = invocation.getArgument(0);
+            if (handler != null) {
+                handler.handle(content);
+                endHandler.get().handle(null);
+            }
+            return file;
+        });
+        return file;
+    }
 }
@@ -55,7 +55,9 @@ import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.file.AsyncFile;
 import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 
@@ -155,10 +157,10 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
             return null;
         }).when(fileSystem).createFile(eq(registrationConfig.getFilename()), any(Handler.class));
         doAnswer(invocation -> {
-            final Handler<AsyncResult<Buffer>> handler = invocation.getArgument(1);
+            final Handler<AsyncResult<AsyncFile>> handler = invocation.getArgument(2);
             handler.handle(Future.failedFuture("malformed file"));
             return null;
-        }).when(fileSystem).readFile(eq(registrationConfig.getFilename()), any(Handler.class));
+        }).when(fileSystem).open(eq(registrationConfig.getFilename()), any(OpenOptions.class), any(Handler.class));
 
         // WHEN starting the service
         final Promise<Void> startupTracker = Promise.promise();
@@ -214,10 +216,10 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
         // that contains malformed JSON
         when(fileSystem.existsBlocking(registrationConfig.getFilename())).thenReturn(Boolean.TRUE);
         doAnswer(invocation -> {
-            final Handler<AsyncResult<Buffer>> handler = invocation.getArgument(1);
-            handler.handle(Future.succeededFuture(Buffer.buffer("NO JSON")));
+            final Handler<AsyncResult<AsyncFile>> handler = invocation.getArgument(2);
+            handler.handle(Future.succeededFuture(DeviceRegistryTestUtils.newAsyncFile(Buffer.buffer("NO JSON"))));
             return null;
-        }).when(fileSystem).readFile(eq(registrationConfig.getFilename()), any(Handler.class));
+        }).when(fileSystem).open(eq(registrationConfig.getFilename()), any(OpenOptions.class), any(Handler.class));
 
         // WHEN starting the service
         final Promise<Void> startupTracker = Promise.promise();
@@ -242,10 +244,10 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
         when(fileSystem.existsBlocking(registrationConfig.getFilename())).thenReturn(Boolean.TRUE);
         doAnswer(invocation -> {
             final Buffer data = DeviceRegistryTestUtils.readFile(FILE_NAME);
-            final Handler<AsyncResult<Buffer>> handler = invocation.getArgument(1);
-            handler.handle(Future.succeededFuture(data));
+            final Handler<AsyncResult<AsyncFile>> handler = invocation.getArgument(2);
+            handler.handle(Future.succeededFuture(DeviceRegistryTestUtils.newAsyncFile(data)));
             return null;
-        }).when(fileSystem).readFile(eq(registrationConfig.getFilename()), any(Handler.class));
+        }).when(fileSystem).open(eq(registrationConfig.getFilename()), any(OpenOptions.class), any(Handler.class));
 
         // WHEN the service is started
         final Promise<Void> startFuture = Promise.promise();
@@ -347,10 +349,10 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
 
                     // THEN the devices can be loaded back in from the file
                     doAnswer(invocation -> {
-                        final Handler<AsyncResult<Buffer>> handler = invocation.getArgument(1);
-                        handler.handle(Future.succeededFuture(b));
+                        final Handler<AsyncResult<AsyncFile>> handler = invocation.getArgument(2);
+                        handler.handle(Future.succeededFuture(DeviceRegistryTestUtils.newAsyncFile(b)));
                         return null;
-                    }).when(fileSystem).readFile(eq(registrationConfig.getFilename()), any(Handler.class));
+                    }).when(fileSystem).open(eq(registrationConfig.getFilename()), any(OpenOptions.class), any(Handler.class));
 
                     return registrationService.loadRegistrationData();
 
@@ -384,7 +386,7 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
         final Promise<Void> startFuture = Promise.promise();
         startFuture.future().setHandler(ctx.succeeding(s -> ctx.verify(() -> {
             // THEN the device identities from the file are not loaded
-            verify(fileSystem, never()).readFile(anyString(), any(Handler.class));
+            verify(fileSystem, never()).open(anyString(), any(OpenOptions.class), any(Handler.class));
             ctx.completeNow();
         })));
         registrationService.start(startFuture.future());
@@ -403,7 +405,7 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
 
         // WHEN registering an additional device for the tenant
         final OperationResult<Id> result = registrationService.processCreateDevice(TENANT, Optional.of("newDevice"),
-                new Device(), NoopSpan.INSTANCE);
+                new Device(), NoopSpan.INSTANCE).result();
 
         // THEN the result contains a FORBIDDEN status code and the device has not been added to the registry
         assertEquals(HttpURLConnection.HTTP_FORBIDDEN, result.getStatus());
@@ -426,7 +428,7 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
         // WHEN trying to update the device
         final OperationResult<Id> result = registrationService
                 .processUpdateDevice(TENANT, DEVICE, new Device().putExtension("value", "2"), Optional.empty(),
-                        NoopSpan.INSTANCE);
+                        NoopSpan.INSTANCE).result();
 
         // THEN the result contains a FORBIDDEN status code and the device has not been updated
         assertEquals(HttpURLConnection.HTTP_FORBIDDEN, result.getStatus());
@@ -450,7 +452,7 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
 
         // WHEN trying to remove the device
         final Result<Void> result = registrationService.processDeleteDevice(TENANT, DEVICE, Optional.empty(),
-                NoopSpan.INSTANCE);
+                NoopSpan.INSTANCE).result();
 
         // THEN the result contains a FORBIDDEN status code and the device has not been removed
         assertEquals(HttpURLConnection.HTTP_FORBIDDEN, result.getStatus());
@@ -471,10 +473,10 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
         registrationConfig.setSaveToFile(false);
         when(fileSystem.existsBlocking(registrationConfig.getFilename())).thenReturn(Boolean.TRUE);
         doAnswer(invocation -> {
-            final Handler handler = invocation.getArgument(1);
+            final Handler handler = invocation.getArgument(2);
             handler.handle(Future.failedFuture("malformed file"));
             return null;
-        }).when(fileSystem).readFile(eq(registrationConfig.getFilename()), any(Handler.class));
+        }).when(fileSystem).open(eq(registrationConfig.getFilename()), any(OpenOptions.class), any(Handler.class));
 
         final Promise<Void> startupTracker = Promise.promise();
         startupTracker.future().setHandler(ctx.succeeding(done -> ctx.verify(() -> {
@@ -498,10 +500,10 @@ public class FileBasedRegistrationServiceTest extends AbstractRegistrationServic
         registrationConfig.setSaveToFile(false);
         when(fileSystem.existsBlocking(registrationConfig.getFilename())).thenReturn(Boolean.TRUE);
         doAnswer(invocation -> {
-            final Handler<AsyncResult<Buffer>> handler = invocation.getArgument(1);
+            final Handler<AsyncResult<AsyncFile>> handler = invocation.getArgument(2);
             handler.handle(Future.failedFuture("malformed data"));
             return null;
-        }).when(fileSystem).readFile(eq(registrationConfig.getFilename()), any(Handler.class));
+        }).when(fileSystem).open(eq(registrationConfig.getFilename()), any(OpenOptions.class), any(Handler.class));
 
         final Promise<Void> startupTracker = Promise.promise();
         startupTracker.future()
@@ -23,8 +23,11 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -32,6 +35,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
+import javax.security.auth.x500.X500Principal;
+
 import org.eclipse.hono.deviceregistry.DeviceRegistryTestUtils;
 import org.eclipse.hono.deviceregistry.service.tenant.AutowiredTenantInformationService;
 import org.eclipse.hono.deviceregistry.util.DeviceRegistryUtils;
@@ -48,6 +53,7 @@ import org.eclipse.hono.util.TracingSamplingMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 
 import io.opentracing.noop.NoopSpan;
@@ -488,4 +494,200 @@ public class FileBasedTenantServiceTest extends AbstractTenantServiceTest {
                 });
     }
 
+    /**
+     * Verifies that a tenant can no longer be found by the subject DN of a trusted CA
+     * that has been replaced by means of an update, while it can be found by the
+     * subject DN of the new CA.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testGetForCertificateAuthorityReflectsUpdatedCa(final VertxTestContext ctx) {
+
+        final X500Principal oldSubjectDn = new X500Principal("CN=old-ca");
+        final X500Principal newSubjectDn = new X500Principal("CN=new-ca");
+
+        // GIVEN a tenant trusting a CA
+        addTenant("tenant", newTenantTrustingCa(oldSubjectDn))
+        // WHEN the tenant is updated to trust another CA
+        .compose(ok -> getTenantManagementService().updateTenant(
+                "tenant",
+                newTenantTrustingCa(newSubjectDn),
+                Optional.empty(),
+                NoopSpan.INSTANCE))
+        .compose(ok -> svc.get(oldSubjectDn, NoopSpan.INSTANCE))
+        .compose(result -> {
+            // THEN the tenant can no longer be found using the old CA's subject DN
+            ctx.verify(() -> assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_NOT_FOUND));
+            return svc.get(newSubjectDn, NoopSpan.INSTANCE);
+        })
+        .setHandler(ctx.succeeding(result -> {
+            // but using the new CA's subject DN
+            ctx.verify(() -> {
+                assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_OK);
+                assertThat(result.getPayload().getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID)).isEqualTo("tenant");
+            });
+            ctx.completeNow();
+        }));
+    }
+
+    /**
+     * Verifies that a tenant can no longer be found by the subject DN of a trusted CA
+     * once it has been removed, and that the CA can then be used by another tenant.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testGetForCertificateAuthorityFailsForRemovedTenant(final VertxTestContext ctx) {
+
+        final X500Principal subjectDn = new X500Principal("CN=ca");
+
+        // GIVEN a tenant trusting a CA
+        addTenant("tenant", newTenantTrustingCa(subjectDn))
+        // WHEN the tenant is removed
+        .compose(ok -> getTenantManagementService().deleteTenant("tenant", Optional.empty(), NoopSpan.INSTANCE))
+        .compose(ok -> svc.get(subjectDn, NoopSpan.INSTANCE))
+        .compose(result -> {
+            // THEN the tenant can no longer be found using the CA's subject DN
+            ctx.verify(() -> assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_NOT_FOUND));
+            // and another tenant can be registered for the same CA
+            return addTenant("other-tenant", newTenantTrustingCa(subjectDn));
+        })
+        .compose(ok -> svc.get(subjectDn, NoopSpan.INSTANCE))
+        .setHandler(ctx.succeeding(result -> {
+            ctx.verify(() -> {
+                assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_OK);
+                assertThat(result.getPayload().getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID)).isEqualTo("other-tenant");
+            });
+            ctx.completeNow();
+        }));
+    }
+
+    /**
+     * Verifies that a CA which is (erroneously) trusted by multiple tenants loaded from file
+     * is re-assigned to the remaining tenant once the tenant owning the CA has been removed.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void testGetForCertificateAuthorityReassignsCaOfRemovedTenant(final VertxTestContext ctx) {
+
+        final X500Principal subjectDn = new X500Principal("CN=shared-ca");
+
+        // GIVEN a tenants file containing two tenants trusting the same CA
+        props.setFilename(FILE_NAME);
+        when(fileSystem.existsBlocking(props.getFilename())).thenReturn(Boolean.TRUE);
+        doAnswer(invocation -> {
+            final JsonArray tenants = new JsonArray()
+                    .add(JsonObject.mapFrom(newTenantTrustingCa(subjectDn))
+                            .put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, "first-tenant"))
+                    .add(JsonObject.mapFrom(newTenantTrustingCa(subjectDn))
+                            .put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, "second-tenant"));
+            final Handler handler = invocation.getArgument(1);
+            handler.handle(Future.succeededFuture(tenants.toBuffer()));
+            return null;
+        }).when(fileSystem).readFile(eq(props.getFilename()), any(Handler.class));
+
+        final Promise<Void> startup = Promise.promise();
+        svc.start(startup);
+        startup.future()
+        .compose(ok -> svc.get(subjectDn, NoopSpan.INSTANCE))
+        .compose(result -> {
+            // THEN the CA is owned by the tenant that has been loaded first
+            ctx.verify(() -> {
+                assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_OK);
+                assertThat(result.getPayload().getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID)).isEqualTo("first-tenant");
+            });
+            // WHEN that tenant is removed
+            return getTenantManagementService().deleteTenant("first-tenant", Optional.empty(), NoopSpan.INSTANCE);
+        })
+        .compose(ok -> svc.get(subjectDn, NoopSpan.INSTANCE))
+        .setHandler(ctx.succeeding(result -> {
+            // THEN the CA is owned by the remaining tenant
+            ctx.verify(() -> {
+                assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_OK);
+                assertThat(result.getPayload().getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID)).isEqualTo("second-tenant");
+            });
+            ctx.completeNow();
+        }));
+    }
+
+    /**
+     * Verifies that the service replays the changes recorded in the journal on top of
+     * the tenants loaded from file and compacts the journal when being stopped.
+     *
+     * @param tempDir The directory to create the files in.
+     * @param ctx The vert.x test context.
+     * @throws IOException if the files cannot be created.
+     */
+    @Test
+    public void testStartReplaysJournal(@TempDir final Path tempDir, final VertxTestContext ctx) throws IOException {
+
+        // GIVEN a tenants file containing tenant A
+        final Path tenantsFile = tempDir.resolve("tenants.json");
+        Files.writeString(tenantsFile, new JsonArray()
+                .add(new JsonObject().put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, "A"))
+                .encode());
+        // and a journal recording the addition of tenant B and the removal of tenant A
+        Files.writeString(tempDir.resolve("tenants.json.journal.0"), new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_PUT)
+                .put(RegistryManagementConstants.FIELD_TENANT, new JsonObject()
+                        .put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, "B")
+                        .put(TenantConstants.FIELD_ENABLED, false))
+                .encode() + "\n" + new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_REMOVE)
+                .put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, "A")
+                .encode());
+
+        final Vertx realVertx = Vertx.vertx();
+        props.setFilename(tenantsFile.toString());
+        props.setSaveToFile(true);
+        props.setJournalEnabled(true);
+        final FileBasedTenantService service = new FileBasedTenantService();
+        service.setConfig(props);
+        service.init(realVertx, realVertx.getOrCreateContext());
+
+        // WHEN starting the service
+        final Promise<Void> startup = Promise.promise();
+        service.start(startup);
+        startup.future()
+            .compose(ok -> service.readTenant("A", NoopSpan.INSTANCE))
+            .compose(result -> {
+                // THEN tenant A has been removed
+                ctx.verify(() -> assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_NOT_FOUND));
+                return service.readTenant("B", NoopSpan.INSTANCE);
+            })
+            .compose(result -> {
+                // and tenant B has been added
+                ctx.verify(() -> {
+                    assertThat(result.getStatus()).isEqualTo(HttpURLConnection.HTTP_OK);
+                    assertThat(result.getPayload().isEnabled()).isFalse();
+                });
+                final Promise<Void> shutdown = Promise.promise();
+                service.stop(shutdown);
+                return shutdown.future();
+            })
+            .setHandler(ctx.succeeding(ok -> {
+                // and stopping the service has compacted the journal into the tenants file
+                ctx.verify(() -> {
+                    assertThat(tempDir.resolve("tenants.json.journal.0")).doesNotExist();
+                    final JsonArray tenants = new JsonArray(Files.readString(tenantsFile));
+                    assertThat(tenants).hasSize(1);
+                    assertThat(tenants.getJsonObject(0).getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID)).isEqualTo("B");
+                });
+                realVertx.close();
+                ctx.completeNow();
+            }));
+    }
+
+    private static Tenant newTenantTrustingCa(final X500Principal subjectDn) {
+        return new Tenant()
+                .setEnabled(true)
+                .setTrustedCertificateAuthorities(List.of(new TrustedCertificateAuthority()
+                        .setSubjectDn(subjectDn)
+                        .setPublicKey("NOTAPUBLICKEY".getBytes(StandardCharsets.UTF_8))
+                        .setNotBefore(Instant.now().minus(1, ChronoUnit.DAYS))
+                        .setNotAfter(Instant.now().plus(2, ChronoUnit.DAYS))));
+    }
 }
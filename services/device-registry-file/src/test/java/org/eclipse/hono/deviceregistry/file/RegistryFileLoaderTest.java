@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.deviceregistry.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.Timeout;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+/**
+ * Tests verifying behavior of {@link RegistryFileLoader}.
+ *
+ */
+@ExtendWith(VertxExtension.class)
+@Timeout(value = 5, timeUnit = TimeUnit.SECONDS)
+public class RegistryFileLoaderTest {
+
+    private static Vertx vertx;
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private MeterRegistry meterRegistry;
+    private RegistryFileLoader loader;
+    private List<String> loaded;
+
+    /**
+     * Initializes vert.x.
+     */
+    @BeforeAll
+    public static void init() {
+        vertx = Vertx.vertx();
+    }
+
+    /**
+     * Closes vert.x.
+     */
+    @AfterAll
+    public static void shutDown() {
+        vertx.close();
+    }
+
+    /**
+     * Sets up the fixture.
+     */
+    @BeforeEach
+    public void setUp() {
+        file = tempDir.resolve("device-identities.json");
+        meterRegistry = new SimpleMeterRegistry();
+        loader = new RegistryFileLoader(vertx.fileSystem(), meterRegistry, "tenant", "devices");
+        loaded = new ArrayList<>();
+    }
+
+    /**
+     * Verifies that the loader passes each record contained in the file to the handler
+     * along with the identifier of the tenant that the record belongs to.
+     *
+     * @param ctx The vert.x test context.
+     * @throws IOException if the file cannot be created.
+     */
+    @Test
+    public void testLoadPassesRecordsToHandler(final VertxTestContext ctx) throws IOException {
+
+        givenFileContent(new JsonArray()
+                .add(new JsonObject()
+                        .put("tenant", "tenant-one")
+                        .put("other", new JsonArray().add(new JsonObject().put("device-id", "ignored")))
+                        .put("devices", new JsonArray()
+                                .add(device("one"))
+                                .add(device("two"))))
+                // the tenant identifier succeeds the records
+                .add(new JsonObject()
+                        .put("devices", new JsonArray().add(device("three")))
+                        .put("tenant", "tenant-two"))
+                // records without a tenant are skipped
+                .add(new JsonObject()
+                        .put("devices", new JsonArray().add(device("four")))));
+
+        loader.load(file.toString(), (tenantId, record) -> loaded.add(tenantId + "/" + record.getString("device-id")))
+            .setHandler(ctx.succeeding(count -> {
+                ctx.verify(() -> {
+                    assertThat(count).isEqualTo(3L);
+                    assertThat(loaded).containsExactly("tenant-one/one", "tenant-one/two", "tenant-two/three");
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that the loader reports the time it took to load the file and the amount
+     * of heap memory in use afterwards.
+     *
+     * @param ctx The vert.x test context.
+     * @throws IOException if the file cannot be created.
+     */
+    @Test
+    public void testLoadReportsMetrics(final VertxTestContext ctx) throws IOException {
+
+        givenFileContent(new JsonArray().add(new JsonObject()
+                .put("tenant", "tenant-one")
+                .put("devices", new JsonArray().add(device("one")))));
+
+        loader.load(file.toString(), (tenantId, record) -> {})
+            .setHandler(ctx.succeeding(count -> {
+                ctx.verify(() -> {
+                    assertThat(meterRegistry.find(RegistryFileLoader.METER_LOAD_DURATION)
+                            .tag(RegistryFileLoader.TAG_TYPE, "devices").timer().count()).isEqualTo(1L);
+                    assertThat(meterRegistry.find(RegistryFileLoader.METER_HEAP_USED)
+                            .tag(RegistryFileLoader.TAG_TYPE, "devices").summary().totalAmount()).isPositive();
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that loading a file fails if the file does not contain a JSON array.
+     *
+     * @param ctx The vert.x test context.
+     * @throws IOException if the file cannot be created.
+     */
+    @Test
+    public void testLoadFailsForNonArray(final VertxTestContext ctx) throws IOException {
+
+        Files.writeString(file, new JsonObject().put("tenant", "tenant-one").encode(), StandardCharsets.UTF_8);
+
+        loader.load(file.toString(), (tenantId, record) -> loaded.add(tenantId))
+            .setHandler(ctx.failing(t -> {
+                ctx.verify(() -> assertThat(loaded).isEmpty());
+                ctx.completeNow();
+            }));
+    }
+
+    private void givenFileContent(final JsonArray content) throws IOException {
+        Files.writeString(file, content.encodePrettily(), StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject device(final String deviceId) {
+        return new JsonObject()
+                .put("device-id", deviceId)
+                .put("data", new JsonObject().put("via", new JsonArray().add("gw")));
+    }
+}
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.deviceregistry.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.Checkpoint;
+import io.vertx.junit5.Timeout;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+/**
+ * Tests verifying behavior of {@link RegistryJournal}.
+ *
+ */
+@ExtendWith(VertxExtension.class)
+@Timeout(value = 5, timeUnit = TimeUnit.SECONDS)
+public class RegistryJournalTest {
+
+    private static Vertx vertx;
+
+    @TempDir
+    Path tempDir;
+
+    private Path registryFile;
+    private RegistryJournal journal;
+
+    /**
+     * Initializes vert.x.
+     */
+    @BeforeAll
+    public static void init() {
+        vertx = Vertx.vertx();
+    }
+
+    /**
+     * Closes vert.x.
+     */
+    @AfterAll
+    public static void shutDown() {
+        vertx.close();
+    }
+
+    /**
+     * Sets up the fixture.
+     */
+    @BeforeEach
+    public void setUp() {
+        registryFile = tempDir.resolve("registry.json");
+        journal = new RegistryJournal(vertx.fileSystem(), registryFile.toString());
+    }
+
+    /**
+     * Verifies that the journal replays the records of existing segments in the order
+     * in which the segments have been written.
+     *
+     * @param ctx The vert.x test context.
+     * @throws IOException if the segments cannot be created.
+     */
+    @Test
+    public void testOpenReplaysSegmentsInOrder(final VertxTestContext ctx) throws IOException {
+
+        givenSegment(10, record(3), record(4));
+        givenSegment(2, record(1), record(2));
+        final List<Integer> replayed = new ArrayList<>();
+
+        journal.open(record -> replayed.add(record.getInteger("no")))
+            .setHandler(ctx.succeeding(count -> {
+                ctx.verify(() -> {
+                    assertThat(count).isEqualTo(4);
+                    assertThat(replayed).containsExactly(1, 2, 3, 4);
+                    // and records are appended to a new segment
+                    assertThat(tempDir.resolve("registry.json.journal.11")).exists();
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that replaying a segment stops at a malformed record.
+     *
+     * @param ctx The vert.x test context.
+     * @throws IOException if the segments cannot be created.
+     */
+    @Test
+    public void testOpenIgnoresTruncatedRecord(final VertxTestContext ctx) throws IOException {
+
+        Files.writeString(
+                tempDir.resolve("registry.json.journal.0"),
+                record(1).encode() + "\n{\"no\": 2",
+                StandardCharsets.UTF_8);
+        final List<Integer> replayed = new ArrayList<>();
+
+        journal.open(record -> replayed.add(record.getInteger("no")))
+            .setHandler(ctx.succeeding(count -> {
+                ctx.verify(() -> assertThat(replayed).containsExactly(1));
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that the future returned when appending a record completes on the
+     * appending vert.x context once the record has been written to the segment.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAppendCompletesOnCallerContextAfterRecordHasBeenWritten(final VertxTestContext ctx) {
+
+        final Context context = vertx.getOrCreateContext();
+        journal.open(record -> {})
+            .setHandler(ctx.succeeding(ok -> context.runOnContext(go -> {
+                journal.append(record(1)).setHandler(ctx.succeeding(written -> {
+                    ctx.verify(() -> {
+                        assertThat(Vertx.currentContext()).isSameAs(context);
+                        assertThat(tempDir.resolve("registry.json.journal.0")).hasContent(record(1).encode());
+                    });
+                    ctx.completeNow();
+                }));
+            })));
+    }
+
+    /**
+     * Verifies that records appended concurrently from multiple threads,
+     * including while the journal is being compacted, are all written.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testConcurrentAppendsAreAllWritten(final VertxTestContext ctx) {
+
+        final int threads = 4;
+        final int recordsPerThread = 50;
+        final Checkpoint written = ctx.checkpoint(threads * recordsPerThread);
+
+        journal.open(record -> {})
+            .setHandler(ctx.succeeding(ok -> {
+                for (int i = 0; i < threads; i++) {
+                    final int threadNo = i;
+                    new Thread(() -> {
+                        for (int j = 0; j < recordsPerThread; j++) {
+                            journal.append(record(threadNo * recordsPerThread + j))
+                                .setHandler(ctx.succeeding(w -> written.flag()));
+                            if (j == recordsPerThread / 2) {
+                                journal.compact(() -> Buffer.buffer("[]"));
+                            }
+                        }
+                    }).start();
+                }
+            }));
+    }
+
+    /**
+     * Verifies that compacting the journal replaces the registry file with the snapshot
+     * and deletes the segments containing the records written before the snapshot,
+     * while records appended afterwards are kept.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testCompactDeletesSealedSegments(final VertxTestContext ctx) {
+
+        final AtomicInteger snapshots = new AtomicInteger();
+
+        journal.open(record -> {})
+            .compose(ok -> {
+                journal.append(record(1));
+                journal.append(record(2));
+                return journal.compact(() -> {
+                    snapshots.incrementAndGet();
+                    // records appended while the snapshot is being written
+                    journal.append(record(3));
+                    return Buffer.buffer("[\"snapshot\"]");
+                });
+            })
+            .compose(ok -> journal.close())
+            .setHandler(ctx.succeeding(ok -> {
+                ctx.verify(() -> {
+                    assertThat(snapshots.get()).isEqualTo(1);
+                    assertThat(registryFile).hasContent("[\"snapshot\"]");
+                    assertThat(tempDir.resolve("registry.json.snapshot")).doesNotExist();
+                    assertThat(tempDir.resolve("registry.json.journal.0")).doesNotExist();
+                    assertThat(tempDir.resolve("registry.json.journal.1"))
+                        .hasContent(record(3).encode());
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that the journal keeps its segments if the snapshot cannot be written.
+     *
+     * @param ctx The vert.x test context.
+     * @throws IOException if the registry file cannot be blocked.
+     */
+    @Test
+    public void testCompactKeepsSegmentsIfSnapshotFails(final VertxTestContext ctx) throws IOException {
+
+        // a non-empty directory cannot be replaced by the snapshot
+        Files.createDirectories(registryFile.resolve("blocked"));
+
+        journal.open(record -> {})
+            .compose(ok -> {
+                journal.append(record(1));
+                return journal.compact(() -> Buffer.buffer("[]"));
+            })
+            .setHandler(ctx.failing(t -> {
+                ctx.verify(() -> {
+                    assertThat(journal.hasRecords()).isTrue();
+                    assertThat(tempDir.resolve("registry.json.journal.0")).exists();
+                });
+                ctx.completeNow();
+            }));
+    }
+
+    /**
+     * Verifies that the journal does not invoke the snapshot writer
+     * if no records have been appended.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testCompactDoesNothingForEmptyJournal(final VertxTestContext ctx) {
+
+        journal.open(record -> {})
+            .compose(ok -> journal.compact(() -> {
+                throw new IllegalStateException("should not be invoked");
+            }))
+            .setHandler(ctx.completing());
+    }
+
+    private void givenSegment(final int index, final JsonObject... records) throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (final JsonObject record : records) {
+            content.append(record.encode()).append("\n");
+        }
+        Files.writeString(tempDir.resolve("registry.json.journal." + index), content, StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject record(final int no) {
+        return new JsonObject()
+                .put(RegistryJournal.FIELD_OPERATION, RegistryJournal.OPERATION_PUT)
+                .put("no", no);
+    }
+}